@@ -19,6 +19,7 @@
  */
 package com.orientechnologies.orient.client.binary;
 
+import com.orientechnologies.common.concur.lock.OInterruptedException;
 import com.orientechnologies.common.concur.lock.OLockException;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.exception.OSystemException;
@@ -47,6 +48,8 @@ import java.lang.reflect.InvocationTargetException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
 
 public class OChannelBinaryAsynchClient extends OChannelBinary {
@@ -58,6 +61,9 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
   private byte currentMessage;
   private volatile long lastUse;
   private volatile boolean inUse;
+  private volatile boolean multiplexed;
+  // THREADS WAITING FOR A RESPONSE ON A MULTIPLEXED CHANNEL, IN THE ORDER OF THEIR REQUESTS
+  private final Deque<Thread> responseOrder = new ArrayDeque<>();
 
   public OChannelBinaryAsynchClient(
       final String remoteHost,
@@ -170,6 +176,8 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
   public byte[] beginResponse(final int iRequesterId, final long iTimeout, final boolean token)
       throws IOException {
     try {
+      if (multiplexed) awaitResponseTurn();
+
       // WAIT FOR THE RESPONSE
       if (iTimeout <= 0) acquireReadLock();
 
@@ -217,6 +225,8 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
   }
 
   public void endResponse() throws IOException {
+    if (multiplexed) responseRead();
+
     // WAKE UP ALL THE WAITING THREADS
     try {
       releaseReadLock();
@@ -228,8 +238,67 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
   }
 
   public void endRequest() throws IOException {
-    flush();
-    releaseWriteLock();
+    boolean flushed = false;
+    try {
+      flush();
+      flushed = true;
+    } finally {
+      if (multiplexed) {
+        if (flushed) {
+          // THE SERVER SENDS THE RESPONSES IN THE SAME ORDER OF THE REQUESTS
+          synchronized (responseOrder) {
+            responseOrder.addLast(Thread.currentThread());
+          }
+        } else {
+          // THE REQUEST CAN BE PARTIALLY WRITTEN, THE CHANNEL CANNOT BE SHARED ANYMORE
+          close();
+        }
+      }
+      releaseWriteLock();
+    }
+  }
+
+  private void awaitResponseTurn() throws IOException {
+    final Thread current = Thread.currentThread();
+    synchronized (responseOrder) {
+      while (responseOrder.peekFirst() != current) {
+        if (!isConnected()) throw new IOException("Channel is closed");
+        if (!responseOrder.contains(current))
+          throw new IllegalStateException("No request was sent on this channel by the thread");
+        try {
+          responseOrder.wait(1000);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new OInterruptedException("Interrupted while waiting for the response");
+        }
+      }
+    }
+  }
+
+  private void responseRead() {
+    final Thread current = Thread.currentThread();
+    synchronized (responseOrder) {
+      if (responseOrder.peekFirst() == current) {
+        responseOrder.removeFirst();
+      } else if (responseOrder.remove(current)) {
+        // THE RESPONSE IS LEFT ON THE CHANNEL, THE NEXT RESPONSES CANNOT BE READ ANYMORE
+        close();
+      }
+      responseOrder.notifyAll();
+    }
+  }
+
+  /**
+   * Marks the channel as shared by the concurrent requests of different threads. Requests are
+   * written one at a time and every thread reads its response in the order the requests were
+   * written.
+   */
+  public void setMultiplexed() {
+    this.multiplexed = true;
+  }
+
+  public boolean isMultiplexed() {
+    return multiplexed;
   }
 
   @Override
@@ -239,6 +308,11 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
     } catch (Exception e) {
       // IGNORE IT
     }
+    if (multiplexed) {
+      synchronized (responseOrder) {
+        responseOrder.notifyAll();
+      }
+    }
   }
 
   @Override
@@ -275,6 +349,11 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
   }
 
   public boolean tryLock() {
+    if (multiplexed) {
+      // OTHER THREADS MAY BE WRITING THEIR REQUESTS, WAIT FOR THEM
+      acquireWriteLock();
+      return true;
+    }
     return getLockWrite().tryAcquireLock();
   }
 
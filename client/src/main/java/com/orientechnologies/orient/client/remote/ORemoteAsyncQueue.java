@@ -0,0 +1,49 @@
+package com.orientechnologies.orient.client.remote;
+
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Executes the asynchronous operations of a remote session on the threads of the client. A session
+ * cannot be used by many threads at the same time, so the operations are executed one at a time,
+ * in the order they are submitted, each one on a thread where the session is active.
+ */
+public class ORemoteAsyncQueue {
+  private final ODatabaseDocumentInternal database;
+  private final Executor executor;
+  private CompletableFuture<?> last = CompletableFuture.completedFuture(null);
+
+  public ORemoteAsyncQueue(final ODatabaseDocumentInternal database, final Executor executor) {
+    this.database = database;
+    this.executor = executor;
+  }
+
+  /**
+   * @return a future completed with the result of the operation, or exceptionally with the
+   *     exception it threw. The failure of an operation doesn't stop the operations submitted
+   *     after it.
+   */
+  public synchronized <T> CompletableFuture<T> submit(final Callable<T> operation) {
+    final CompletableFuture<T> result =
+        last.handle((previous, error) -> null).thenApplyAsync(x -> execute(operation), executor);
+    last = result;
+    return result;
+  }
+
+  private <T> T execute(final Callable<T> operation) {
+    database.activateOnCurrentThread();
+    try {
+      return operation.call();
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new CompletionException(e);
+    } finally {
+      ODatabaseRecordThreadLocal.instance().remove();
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package com.orientechnologies.orient.client.remote;
+
+import com.orientechnologies.orient.core.sql.executor.OResult;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * Results of an asynchronous query of a remote session. The results are read only when they are
+ * requested, so a slow consumer doesn't make the client buffer the whole result of the query.
+ */
+public class ORemoteAsyncResultSet {
+  private final ORemoteAsyncQueue queue;
+  private final OResultSet resultSet;
+  private boolean closed;
+
+  public ORemoteAsyncResultSet(final ORemoteAsyncQueue queue, final OResultSet resultSet) {
+    this.queue = queue;
+    this.resultSet = resultSet;
+  }
+
+  /** @return a future completed with the next results, with an empty list at the end */
+  public CompletableFuture<List<OResult>> fetchNext(final int maxResults) {
+    return queue.submit(
+        () -> {
+          if (closed) {
+            return Collections.emptyList();
+          }
+          final List<OResult> page = new ArrayList<>();
+          while (page.size() < maxResults && resultSet.hasNext()) {
+            page.add(resultSet.next());
+          }
+          return page;
+        });
+  }
+
+  /**
+   * Passes the results to the consumer a page at a time, the next page is read only when the stage
+   * returned by the consumer for the previous one is completed. The result set is closed at the
+   * end, or when the consumer fails.
+   *
+   * @return a future completed when all the results are consumed
+   */
+  public CompletableFuture<Void> forEachPage(
+      final int pageSize, final Function<List<OResult>, ? extends CompletionStage<?>> consumer) {
+    final CompletableFuture<Void> result = new CompletableFuture<>();
+    nextPage(pageSize, consumer)
+        .whenComplete(
+            (x, error) ->
+                close()
+                    .whenComplete(
+                        (y, closeError) -> {
+                          if (error != null) {
+                            result.completeExceptionally(error);
+                          } else if (closeError != null) {
+                            result.completeExceptionally(closeError);
+                          } else {
+                            result.complete(null);
+                          }
+                        }));
+    return result;
+  }
+
+  private CompletableFuture<Void> nextPage(
+      final int pageSize, final Function<List<OResult>, ? extends CompletionStage<?>> consumer) {
+    return fetchNext(pageSize)
+        .thenCompose(
+            page -> {
+              if (page.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+              }
+              return consumer.apply(page).thenCompose(x -> nextPage(pageSize, consumer));
+            });
+  }
+
+  public CompletableFuture<Void> close() {
+    return queue.submit(
+        () -> {
+          if (!closed) {
+            closed = true;
+            resultSet.close();
+          }
+          return null;
+        });
+  }
+}
@@ -21,6 +21,8 @@ package com.orientechnologies.orient.client.remote;
 
 import static com.orientechnologies.orient.core.config.OGlobalConfiguration.CLIENT_CHANNEL_IDLE_CLOSE;
 import static com.orientechnologies.orient.core.config.OGlobalConfiguration.CLIENT_CHANNEL_IDLE_TIMEOUT;
+import static com.orientechnologies.orient.core.config.OGlobalConfiguration.CLIENT_CHANNEL_MULTIPLEXED_CHANNELS;
+import static com.orientechnologies.orient.core.config.OGlobalConfiguration.CLIENT_CHANNEL_MULTIPLEXED_REQUESTS;
 import static com.orientechnologies.orient.core.config.OGlobalConfiguration.NETWORK_LOCK_TIMEOUT;
 
 import com.orientechnologies.common.log.OLogManager;
@@ -48,12 +50,20 @@ public class ORemoteConnectionManager {
   public static final String PARAM_MAX_POOL = "maxpool";
 
   protected final ConcurrentMap<String, ORemoteConnectionPool> connections;
+  protected final ConcurrentMap<String, ORemoteMultiplexedChannels> multiplexedConnections;
+  protected final int multiplexedChannels;
+  protected final int multiplexedRequests;
   protected final long timeout;
   protected final long idleTimeout;
   private final TimerTask idleTask;
 
   public ORemoteConnectionManager(final OContextConfiguration clientConfiguration, Timer timer) {
     connections = new ConcurrentHashMap<String, ORemoteConnectionPool>();
+    multiplexedConnections = new ConcurrentHashMap<String, ORemoteMultiplexedChannels>();
+    multiplexedChannels =
+        clientConfiguration.getValueAsInteger(CLIENT_CHANNEL_MULTIPLEXED_CHANNELS);
+    multiplexedRequests =
+        Math.max(1, clientConfiguration.getValueAsInteger(CLIENT_CHANNEL_MULTIPLEXED_REQUESTS));
     timeout = clientConfiguration.getValueAsLong(NETWORK_LOCK_TIMEOUT);
     int idleSecs = clientConfiguration.getValueAsInteger(CLIENT_CHANNEL_IDLE_TIMEOUT);
     this.idleTimeout = TimeUnit.MILLISECONDS.convert(idleSecs, TimeUnit.SECONDS);
@@ -78,6 +88,10 @@ public class ORemoteConnectionManager {
     }
 
     connections.clear();
+    for (ORemoteMultiplexedChannels channels : multiplexedConnections.values()) {
+      channels.close();
+    }
+    multiplexedConnections.clear();
     if (idleTask != null) {
       idleTask.cancel();
     }
@@ -128,9 +142,44 @@ public class ORemoteConnectionManager {
     return null;
   }
 
+  /**
+   * Acquires a channel which can be shared with the concurrent requests of other sessions. The
+   * response of the request has to be read by the same thread which wrote the request. If
+   * multiplexing is disabled an exclusive channel of the pool is returned.
+   */
+  public OChannelBinaryAsynchClient acquireMultiplexed(
+      String iServerURL, final OContextConfiguration clientConfiguration) {
+    if (multiplexedChannels <= 0) {
+      return acquire(iServerURL, clientConfiguration);
+    }
+
+    ORemoteMultiplexedChannels channels = multiplexedConnections.get(iServerURL);
+    if (channels == null) {
+      channels =
+          new ORemoteMultiplexedChannels(iServerURL, multiplexedChannels, multiplexedRequests);
+      final ORemoteMultiplexedChannels prev =
+          multiplexedConnections.putIfAbsent(iServerURL, channels);
+      if (prev != null) {
+        channels = prev;
+      }
+    }
+    return channels.acquire(clientConfiguration);
+  }
+
   public void release(final OChannelBinaryAsynchClient conn) {
     if (conn == null) return;
 
+    if (conn.isMultiplexed()) {
+      final ORemoteMultiplexedChannels channels = multiplexedConnections.get(conn.getServerURL());
+      if (channels != null) {
+        channels.release(conn);
+        if (!conn.isConnected()) {
+          channels.remove(conn);
+        }
+      }
+      return;
+    }
+
     conn.markReturned();
     final ORemoteConnectionPool pool = connections.get(conn.getServerURL());
     if (pool != null) {
@@ -149,6 +198,16 @@ public class ORemoteConnectionManager {
   public void remove(final OChannelBinaryAsynchClient conn) {
     if (conn == null) return;
 
+    if (conn.isMultiplexed()) {
+      final ORemoteMultiplexedChannels channels = multiplexedConnections.get(conn.getServerURL());
+      if (channels != null) {
+        channels.remove(conn);
+      } else {
+        conn.close();
+      }
+      return;
+    }
+
     final ORemoteConnectionPool pool = connections.get(conn.getServerURL());
     if (pool == null)
       throw new IllegalStateException(
@@ -202,6 +261,11 @@ public class ORemoteConnectionManager {
   }
 
   public void closePool(final String url) {
+    final ORemoteMultiplexedChannels channels = multiplexedConnections.remove(url);
+    if (channels != null) {
+      channels.close();
+    }
+
     final ORemoteConnectionPool pool = connections.remove(url);
     if (pool == null) return;
 
@@ -21,11 +21,18 @@ public class ORemoteConnectionPool
 
   protected OChannelBinaryAsynchClient createNetworkConnection(
       String serverURL, final OContextConfiguration clientConfiguration) throws OIOException {
+    return openChannel(serverURL, clientConfiguration);
+  }
+
+  static OChannelBinaryAsynchClient openChannel(
+      String serverURL, final OContextConfiguration clientConfiguration) throws OIOException {
     if (serverURL == null) throw new IllegalArgumentException("server url is null");
 
     // TRY WITH CURRENT URL IF ANY
     try {
-      OLogManager.instance().debug(this, "Trying to connect to the remote host %s...", serverURL);
+      OLogManager.instance()
+          .debug(
+              ORemoteConnectionPool.class, "Trying to connect to the remote host %s...", serverURL);
 
       int sepPos = serverURL.indexOf(":");
       final String remoteHost = serverURL.substring(0, sepPos);
@@ -44,7 +51,8 @@ public class ORemoteConnectionPool
       // RE-THROW IT
       throw e;
     } catch (Exception e) {
-      OLogManager.instance().debug(this, "Error on connecting to %s", e, serverURL);
+      OLogManager.instance()
+          .debug(ORemoteConnectionPool.class, "Error on connecting to %s", e, serverURL);
       throw OException.wrapException(new OIOException("Error on connecting to " + serverURL), e);
     }
   }
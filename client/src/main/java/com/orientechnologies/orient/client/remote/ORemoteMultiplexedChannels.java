@@ -0,0 +1,96 @@
+package com.orientechnologies.orient.client.remote;
+
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.client.binary.OChannelBinaryAsynchClient;
+import com.orientechnologies.orient.core.config.OContextConfiguration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Channels to a server shared by the concurrent requests of different sessions. Every request
+ * still writes and reads its own messages, but many requests can be in progress on the same
+ * channel, so a few sockets serve many threads. A new channel is opened only when all the channels
+ * have the maximum number of requests in progress.
+ *
+ * <p>The server executes the requests of a channel in the order they are received, so a slow
+ * request delays the requests sent after it on the same channel.
+ */
+public class ORemoteMultiplexedChannels {
+  private final String serverURL;
+  private final int maxChannels;
+  private final int maxRequests;
+  private final List<OChannelBinaryAsynchClient> channels = new ArrayList<>();
+  private final Map<OChannelBinaryAsynchClient, Integer> requests = new IdentityHashMap<>();
+
+  public ORemoteMultiplexedChannels(
+      final String serverURL, final int maxChannels, final int maxRequests) {
+    this.serverURL = serverURL;
+    this.maxChannels = maxChannels;
+    this.maxRequests = maxRequests;
+  }
+
+  /** @return the channel with the least requests in progress */
+  public synchronized OChannelBinaryAsynchClient acquire(
+      final OContextConfiguration clientConfiguration) {
+    channels.removeIf(
+        channel -> {
+          if (!channel.isConnected()) {
+            requests.remove(channel);
+            return true;
+          }
+          return false;
+        });
+
+    OChannelBinaryAsynchClient selected = null;
+    for (OChannelBinaryAsynchClient channel : channels) {
+      if (selected == null || requests.get(channel) < requests.get(selected)) {
+        selected = channel;
+      }
+    }
+
+    if (selected == null
+        || (requests.get(selected) >= maxRequests && channels.size() < maxChannels)) {
+      selected = ORemoteConnectionPool.openChannel(serverURL, clientConfiguration);
+      selected.setMultiplexed();
+      channels.add(selected);
+      requests.put(selected, 0);
+    }
+
+    requests.put(selected, requests.get(selected) + 1);
+    selected.markInUse();
+    return selected;
+  }
+
+  public synchronized void release(final OChannelBinaryAsynchClient channel) {
+    final Integer inProgress = requests.get(channel);
+    if (inProgress != null) {
+      requests.put(channel, Math.max(0, inProgress - 1));
+    }
+    channel.markReturned();
+  }
+
+  /** Closes the channel, the other requests in progress on it fail and are retried. */
+  public synchronized void remove(final OChannelBinaryAsynchClient channel) {
+    channels.remove(channel);
+    requests.remove(channel);
+    try {
+      channel.close();
+    } catch (Exception e) {
+      OLogManager.instance().debug(this, "Cannot close connection", e);
+    }
+  }
+
+  public synchronized void close() {
+    for (OChannelBinaryAsynchClient channel : channels) {
+      try {
+        channel.close();
+      } catch (Exception e) {
+        OLogManager.instance().debug(this, "Cannot close binary channel", e);
+      }
+    }
+    channels.clear();
+    requests.clear();
+  }
+}
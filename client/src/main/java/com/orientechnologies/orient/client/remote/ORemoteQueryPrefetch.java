@@ -0,0 +1,45 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.client.remote;
+
+import com.orientechnologies.orient.client.binary.OChannelBinaryAsynchClient;
+
+/**
+ * Page of a remote query which was requested in advance. The connection of the request is kept out
+ * of the pool only until the response is read.
+ */
+public class ORemoteQueryPrefetch {
+  private OChannelBinaryAsynchClient network;
+
+  public boolean isPending() {
+    return network != null;
+  }
+
+  void pageRequested(final OChannelBinaryAsynchClient network) {
+    this.network = network;
+  }
+
+  /** @return the connection the response of the requested page has to be read from */
+  OChannelBinaryAsynchClient pageRead() {
+    final OChannelBinaryAsynchClient network = this.network;
+    this.network = null;
+    return network;
+  }
+}
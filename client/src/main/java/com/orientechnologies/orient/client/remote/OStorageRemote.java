@@ -417,6 +417,8 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
 
   public <T extends OBinaryResponse> T networkOperationRetryTimeout(
       final OBinaryRequest<T> request, final String errorMessage, int retry, int timeout) {
+    // THE SAME THREAD READS THE RESPONSE, SO THE CHANNEL CAN BE SHARED WITH OTHER SESSIONS UNLESS
+    // THE SOCKET TIMEOUT HAS TO BE CHANGED
     return baseNetworkOperation(
         (network, session) -> {
           try {
@@ -434,8 +436,11 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
           }
 
           int prev = network.getSocketTimeout();
-          T response = request.createResponse();
+          T response;
           try {
+            // ON A MULTIPLEXED CHANNEL endResponse() ALSO GIVES UP THE TURN OF THE THREAD IF THE
+            // RESPONSE IS NOT READ, SO THE FOLLOWING RESPONSES CAN STILL BE READ
+            response = request.createResponse();
             if (timeout > 0) network.setSocketTimeout(timeout);
             beginResponse(network, session);
             response.read(network, session);
@@ -447,7 +452,8 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
           return response;
         },
         errorMessage,
-        retry);
+        retry,
+        timeout <= 0);
   }
 
   public <T extends OBinaryResponse> T networkOperationNoRetry(
@@ -462,6 +468,18 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
 
   public <T> T baseNetworkOperation(
       final OStorageRemoteOperation<T> operation, final String errorMessage, int retry) {
+    return baseNetworkOperation(operation, errorMessage, retry, false);
+  }
+
+  /**
+   * @param multiplexed if true the channel can be shared with the concurrent requests of other
+   *     sessions, the operation has to read the response in the calling thread
+   */
+  public <T> T baseNetworkOperation(
+      final OStorageRemoteOperation<T> operation,
+      final String errorMessage,
+      int retry,
+      boolean multiplexed) {
     OStorageRemoteSession session = getCurrentSession();
     if (session.commandExecuting)
       throw new ODatabaseException(
@@ -475,7 +493,7 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
 
       do {
         try {
-          network = getNetwork(serverUrl);
+          network = getNetwork(serverUrl, connectionManager, clientConfiguration, multiplexed);
         } catch (OException e) {
           if (session.isStickToSession()) {
             throw e;
@@ -498,7 +516,12 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
           if (nodeSession != null) {
             session.removeServerSession(nodeSession.getServerURL());
           }
-          openRemoteDatabase(network);
+          if (network.isMultiplexed()) {
+            // THE CHANNEL STAYS ACQUIRED BY THIS OPERATION, ONLY THE WRITE LOCK IS TAKEN AGAIN
+            openRemoteDatabase(network, false);
+          } else {
+            openRemoteDatabase(network);
+          }
           if (!network.tryLock()) continue;
         }
 
@@ -1347,9 +1370,16 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
     if (recordsPerPage <= 0) {
       recordsPerPage = 100;
     }
-    OQueryNextPageRequest request = new OQueryNextPageRequest(rs.getQueryId(), recordsPerPage);
-    OQueryResponse response =
-        networkOperation(request, "Error on fetching next page for statment: " + rs.getQueryId());
+    OQueryResponse response = null;
+    ORemoteQueryPrefetch prefetch = rs.getPrefetch();
+    if (prefetch != null && prefetch.isPending()) {
+      response = readPrefetchedPage(prefetch);
+    }
+    if (response == null) {
+      OQueryNextPageRequest request = new OQueryNextPageRequest(rs.getQueryId(), recordsPerPage);
+      response =
+          networkOperation(request, "Error on fetching next page for statment: " + rs.getQueryId());
+    }
 
     rs.fetched(
         response.getResult(),
@@ -1357,11 +1387,113 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
         response.getExecutionPlan(),
         response.getQueryStats());
     if (!response.isHasNextPage()) {
+      discardPrefetchedPage(rs);
       unstickToSession();
       database.queryClosed(response.getQueryId());
     }
   }
 
+  /**
+   * Requests the next page of the query without waiting for the response, so the server prepares it
+   * while the current page is consumed. Only one page is requested in advance, so the connection
+   * goes back to the pool as soon as its response is read. Nothing is requested inside a
+   * transaction, because the changes of the transaction are sent to the server only before the
+   * next page is fetched. A failure of the request is ignored, the page is fetched synchronously
+   * when it is needed.
+   */
+  public void prefetchNextPage(ODatabaseDocumentRemote database, ORemoteResultSet rs) {
+    if (!OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PREFETCH.getValueAsBoolean()
+        || !rs.hasNextPage()
+        || database.getTransaction().isActive()) {
+      return;
+    }
+    ORemoteQueryPrefetch prefetch = rs.getPrefetch();
+    if (prefetch == null) {
+      prefetch = new ORemoteQueryPrefetch();
+      rs.setPrefetch(prefetch);
+    } else if (prefetch.isPending()) {
+      return;
+    }
+    int recordsPerPage = OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PAGE_SIZE.getValueAsInteger();
+    if (recordsPerPage <= 0) {
+      recordsPerPage = 100;
+    }
+
+    OQueryNextPageRequest request = new OQueryNextPageRequest(rs.getQueryId(), recordsPerPage);
+    try {
+      OChannelBinaryAsynchClient network =
+          baseNetworkOperation(
+              (nextNetwork, session) -> {
+                writePrefetchRequest(request, nextNetwork, session);
+                return nextNetwork;
+              },
+              "Error on prefetching next page for statement: " + rs.getQueryId(),
+              connectionRetry);
+      prefetch.pageRequested(network);
+    } catch (RuntimeException e) {
+      OLogManager.instance()
+          .debug(this, "Error on prefetching next page for statement: " + rs.getQueryId(), e);
+    }
+  }
+
+  private void writePrefetchRequest(
+      OBinaryRequest<?> request,
+      OChannelBinaryAsynchClient network,
+      OStorageRemoteSession session) {
+    try {
+      try {
+        network.beginRequest(request.getCommand(), session);
+        request.write(network, session);
+      } finally {
+        network.endRequest();
+      }
+    } catch (IOException e) {
+      throw new ONotSendRequestException("Cannot send request on this channel");
+    }
+  }
+
+  /**
+   * Reads the response of the page requested in advance and releases its connection.
+   *
+   * @return the page or null if it can not be read, the next page has to be fetched synchronously
+   *     then, the same way as a synchronous fetch repeats its request after an I/O error
+   */
+  private OQueryResponse readPrefetchedPage(ORemoteQueryPrefetch prefetch) {
+    OChannelBinaryAsynchClient network = prefetch.pageRead();
+    OStorageRemoteSession session = getCurrentSession();
+    OQueryResponse response = new OQueryResponse();
+    try {
+      try {
+        beginResponse(network, session);
+        response.read(network, session);
+      } finally {
+        endResponse(network);
+      }
+    } catch (IOException | OIOException e) {
+      connectionManager.remove(network);
+      OLogManager.instance().debug(this, "Error on reading prefetched page", e);
+      return null;
+    } catch (RuntimeException e) {
+      connectionManager.release(network);
+      OLogManager.instance().debug(this, "Error on reading prefetched page", e);
+      return null;
+    }
+    connectionManager.release(network);
+    return response;
+  }
+
+  /**
+   * Reads and ignores the response of the page requested in advance, used when the query is closed
+   * or all the results were fetched.
+   */
+  public void discardPrefetchedPage(ORemoteResultSet rs) {
+    ORemoteQueryPrefetch prefetch = rs.getPrefetch();
+    if (prefetch != null && prefetch.isPending()) {
+      // THE SERVER CLOSES THE QUERY AFTER THE LAST PAGE, THE REQUEST MAY HAVE FAILED
+      readPrefetchedPage(prefetch);
+    }
+  }
+
   public List<ORecordOperation> commit(final OTransactionInternal iTx) {
     unstickToSession();
     final OCommit38Request request =
@@ -1610,8 +1742,7 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
   public void endRequest(final OChannelBinaryAsynchClient iNetwork) throws IOException {
     if (iNetwork == null) return;
 
-    iNetwork.flush();
-    iNetwork.releaseWriteLock();
+    iNetwork.endRequest();
   }
 
   /** End response reached: release the channel in the pool to being reused */
@@ -1769,12 +1900,18 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
   }
 
   public void openRemoteDatabase(OChannelBinaryAsynchClient network) throws IOException {
+    openRemoteDatabase(network, true);
+  }
 
+  /** @param release if true the channel is released to the connection manager */
+  private void openRemoteDatabase(OChannelBinaryAsynchClient network, boolean release)
+      throws IOException {
     OStorageRemoteSession session = getCurrentSession();
     OStorageRemoteNodeSession nodeSession =
         session.getOrCreateServerSession(network.getServerURL());
     OOpen37Request request =
         new OOpen37Request(name, session.connectionUserName, session.connectionUserPassword);
+    OOpen37Response response = request.createResponse();
     try {
       network.writeByte(request.getCommand());
       network.writeInt(nodeSession.getSessionId());
@@ -1784,13 +1921,14 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
       endRequest(network);
     }
     final int sessionId;
-    OOpen37Response response = request.createResponse();
     try {
       network.beginResponse(nodeSession.getSessionId(), true);
       response.read(network, session);
     } finally {
       endResponse(network);
-      connectionManager.release(network);
+      if (release) {
+        connectionManager.release(network);
+      }
     }
     sessionId = response.getSessionId();
     byte[] token = response.getSessionToken();
@@ -1981,10 +2119,22 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
       final String iCurrentURL,
       ORemoteConnectionManager connectionManager,
       OContextConfiguration config) {
+    return getNetwork(iCurrentURL, connectionManager, config, false);
+  }
+
+  public static OChannelBinaryAsynchClient getNetwork(
+      final String iCurrentURL,
+      ORemoteConnectionManager connectionManager,
+      OContextConfiguration config,
+      boolean multiplexed) {
     OChannelBinaryAsynchClient network;
     do {
       try {
-        network = connectionManager.acquire(iCurrentURL, config);
+        if (multiplexed) {
+          network = connectionManager.acquireMultiplexed(iCurrentURL, config);
+        } else {
+          network = connectionManager.acquire(iCurrentURL, config);
+        }
       } catch (OIOException cause) {
         throw cause;
       } catch (Exception cause) {
@@ -1,5 +1,6 @@
 package com.orientechnologies.orient.client.remote.message;
 
+import com.orientechnologies.orient.client.remote.ORemoteQueryPrefetch;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentRemote;
 import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.sql.executor.OExecutionPlan;
@@ -19,6 +20,8 @@ public class ORemoteResultSet implements OResultSet {
   private Optional<OExecutionPlan> executionPlan;
   private Map<String, Long> queryStats;
   private boolean hasNextPage;
+  private ORemoteQueryPrefetch prefetch;
+  private boolean prefetchChecked;
 
   public ORemoteResultSet(
       ODatabaseDocumentRemote db,
@@ -71,6 +74,13 @@ public class ORemoteResultSet implements OResultSet {
       throw new IllegalStateException();
     }
     OResultInternal internal = currentPage.remove(0);
+    if (!prefetchChecked) {
+      // REQUESTS THE NEXT PAGES WHILE THIS ONE IS CONSUMED
+      prefetchChecked = true;
+      if (hasNextPage && db != null) {
+        db.prefetchNextPage(this);
+      }
+    }
 
     if (internal.isRecord() && db != null && db.getTransaction().isActive()) {
       ORecord record = db.getTransaction().getRecord(internal.getRecord().get().getIdentity());
@@ -83,6 +93,9 @@ public class ORemoteResultSet implements OResultSet {
 
   @Override
   public void close() {
+    if (prefetch != null && db != null) {
+      db.discardPrefetchedPage(this);
+    }
     if (hasNextPage && db != null) {
       // CLOSES THE QUERY SERVER SIDE ONLY IF THERE IS ANOTHER PAGE. THE SERVER ALREADY
       // AUTOMATICALLY CLOSES THE QUERY AFTER SENDING THE LAST PAGE
@@ -112,6 +125,14 @@ public class ORemoteResultSet implements OResultSet {
     return queryId;
   }
 
+  public ORemoteQueryPrefetch getPrefetch() {
+    return prefetch;
+  }
+
+  public void setPrefetch(ORemoteQueryPrefetch prefetch) {
+    this.prefetch = prefetch;
+  }
+
   public void fetched(
       List<OResultInternal> result,
       boolean hasNextPage,
@@ -119,6 +140,7 @@ public class ORemoteResultSet implements OResultSet {
       Map<String, Long> queryStats) {
     this.currentPage = result;
     this.hasNextPage = hasNextPage;
+    this.prefetchChecked = false;
 
     if (queryStats != null) {
       this.queryStats = queryStats;
@@ -25,6 +25,8 @@ import static com.orientechnologies.orient.core.config.OGlobalConfiguration.NETW
 
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.thread.DaemonThreadFactory;
+import com.orientechnologies.common.thread.OThreadPoolExecutorWithLogging;
 import com.orientechnologies.orient.client.binary.OChannelBinaryAsynchClient;
 import com.orientechnologies.orient.client.remote.*;
 import com.orientechnologies.orient.client.remote.OStorageRemote.CONNECTION_STRATEGY;
@@ -49,7 +51,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /** Created by tglman on 08/04/16. */
 public class OrientDBRemote implements OrientDBInternal {
@@ -64,6 +70,7 @@ public class OrientDBRemote implements OrientDBInternal {
   private volatile boolean open = true;
   private final Timer timer;
   private final ORemoteURLs urls;
+  private final ThreadPoolExecutor asyncExecutor;
 
   public OrientDBRemote(String[] hosts, OrientDBConfig configurations, Orient orient) {
     super();
@@ -77,6 +84,19 @@ public class OrientDBRemote implements OrientDBInternal {
     orient.addOrientDB(this);
     cachedPoolFactory = createCachedDatabasePoolFactory(this.configurations);
     urls = new ORemoteURLs(hosts, this.configurations.getConfigurations());
+    int asyncThreads =
+        this.configurations
+            .getConfigurations()
+            .getValueAsInteger(OGlobalConfiguration.CLIENT_ASYNC_THREADS);
+    asyncExecutor =
+        new OThreadPoolExecutorWithLogging(
+            asyncThreads,
+            asyncThreads,
+            1,
+            TimeUnit.MINUTES,
+            new LinkedBlockingQueue<>(),
+            new DaemonThreadFactory("OrientDB remote async operations"));
+    asyncExecutor.allowCoreThreadTimeOut(true);
   }
 
   protected OCachedDatabasePoolFactory createCachedDatabasePoolFactory(OrientDBConfig config) {
@@ -239,6 +259,11 @@ public class OrientDBRemote implements OrientDBInternal {
     return connectionManager;
   }
 
+  /** @return the executor of the asynchronous operations of the sessions */
+  public ExecutorService getAsyncExecutor() {
+    return asyncExecutor;
+  }
+
   @Override
   public synchronized boolean exists(String name, String user, String password) {
     OExistsDatabaseRequest request = new OExistsDatabaseRequest(name, null);
@@ -353,6 +378,7 @@ public class OrientDBRemote implements OrientDBInternal {
     if (timer != null) {
       timer.cancel();
     }
+    asyncExecutor.shutdown();
 
     final List<OStorageRemote> storagesCopy;
     synchronized (this) {
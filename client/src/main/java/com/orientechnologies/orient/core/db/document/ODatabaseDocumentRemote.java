@@ -26,6 +26,8 @@ import com.orientechnologies.common.concur.lock.OLockException;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.orient.client.remote.OLiveQueryClientListener;
+import com.orientechnologies.orient.client.remote.ORemoteAsyncQueue;
+import com.orientechnologies.orient.client.remote.ORemoteAsyncResultSet;
 import com.orientechnologies.orient.client.remote.ORemoteQueryResult;
 import com.orientechnologies.orient.client.remote.OStorageRemote;
 import com.orientechnologies.orient.client.remote.OStorageRemoteSession;
@@ -76,6 +78,7 @@ import java.io.OutputStream;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
@@ -85,6 +88,7 @@ public class ODatabaseDocumentRemote extends ODatabaseDocumentAbstract {
   protected OStorageRemoteSession sessionMetadata;
   private OrientDBConfig config;
   private OStorageRemote storage;
+  private ORemoteAsyncQueue asyncQueue;
 
   public ODatabaseDocumentRemote(final OStorageRemote storage, OSharedContext sharedContext) {
     activateOnCurrentThread();
@@ -433,6 +437,63 @@ public class ODatabaseDocumentRemote extends ODatabaseDocumentAbstract {
     return result.getResult();
   }
 
+  /**
+   * Executes the query on a thread of the client, see {@link #submitAsync(Callable)}.
+   *
+   * @return a future completed with the results, which are read from the server only when they are
+   *     requested
+   */
+  public CompletableFuture<ORemoteAsyncResultSet> queryAsync(String query, Object... args) {
+    return submitAsync(() -> new ORemoteAsyncResultSet(getAsyncQueue(), query(query, args)));
+  }
+
+  public CompletableFuture<ORemoteAsyncResultSet> queryAsync(String query, Map args) {
+    return submitAsync(() -> new ORemoteAsyncResultSet(getAsyncQueue(), query(query, args)));
+  }
+
+  public CompletableFuture<ORemoteAsyncResultSet> commandAsync(String query, Object... args) {
+    return submitAsync(() -> new ORemoteAsyncResultSet(getAsyncQueue(), command(query, args)));
+  }
+
+  public CompletableFuture<ORemoteAsyncResultSet> commandAsync(String query, Map args) {
+    return submitAsync(() -> new ORemoteAsyncResultSet(getAsyncQueue(), command(query, args)));
+  }
+
+  public <RET extends ORecord> CompletableFuture<RET> loadAsync(ORID recordId) {
+    return submitAsync(() -> load(recordId));
+  }
+
+  public <RET extends ORecord> CompletableFuture<RET> saveAsync(ORecord record) {
+    return submitAsync(() -> save(record));
+  }
+
+  public CompletableFuture<Void> commitAsync() {
+    return submitAsync(
+        () -> {
+          commit();
+          return null;
+        });
+  }
+
+  /**
+   * Executes an operation on this session in a thread of the client, without blocking the caller.
+   * The asynchronous operations of a session are executed one at a time in the order they are
+   * submitted, the session must not be used by other threads until they are completed.
+   */
+  public <T> CompletableFuture<T> submitAsync(Callable<T> operation) {
+    checkOpenness();
+    return getAsyncQueue().submit(operation);
+  }
+
+  private synchronized ORemoteAsyncQueue getAsyncQueue() {
+    if (asyncQueue == null) {
+      asyncQueue =
+          new ORemoteAsyncQueue(
+              this, ((OrientDBRemote) getSharedContext().getOrientDB()).getAsyncExecutor());
+    }
+    return asyncQueue;
+  }
+
   public void closeQuery(String queryId) {
     storage.closeQuery(this, queryId);
     queryClosed(queryId);
@@ -444,6 +505,15 @@ public class ODatabaseDocumentRemote extends ODatabaseDocumentAbstract {
     storage.fetchNextPage(this, rs);
   }
 
+  public void prefetchNextPage(ORemoteResultSet rs) {
+    checkOpenness();
+    storage.prefetchNextPage(this, rs);
+  }
+
+  public void discardPrefetchedPage(ORemoteResultSet rs) {
+    storage.discardPrefetchedPage(rs);
+  }
+
   @Override
   public OLiveQueryMonitor live(String query, OLiveQueryResultListener listener, Object... args) {
     return storage.liveQuery(
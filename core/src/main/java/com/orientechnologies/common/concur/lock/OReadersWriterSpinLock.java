@@ -36,6 +36,12 @@ import java.util.concurrent.locks.LockSupport;
 public class OReadersWriterSpinLock extends AbstractOwnableSynchronizer {
   private static final long serialVersionUID = 7975120282194559960L;
 
+  /** Amount of checks of readers count before writer starts to park. */
+  private static final int MAX_SPINS = 128;
+
+  private static final long MIN_PARK_NANOS = 1_000;
+  private static final long MAX_PARK_NANOS = 1_000_000;
+
   private final transient LongAdder distributedCounter;
   private final transient AtomicReference<WNode> tail = new AtomicReference<WNode>();
   private final transient ThreadLocal<OModifiableInteger> lockHolds = new InitOModifiableInteger();
@@ -188,8 +194,17 @@ public class OReadersWriterSpinLock extends AbstractOwnableSynchronizer {
 
     pNode.waitingWriter = null;
 
+    // readers do not wake up writer when they release the lock, so writer spins only for short
+    // read locks and then parks with growing timeout, read lock may be held for a long time
+    int spins = 0;
+    long parkNanos = MIN_PARK_NANOS;
     while (distributedCounter.sum() != 0) {
-      Thread.yield();
+      if (spins < MAX_SPINS) {
+        spins++;
+      } else {
+        LockSupport.parkNanos(this, parkNanos);
+        parkNanos = Math.min(parkNanos << 1, MAX_PARK_NANOS);
+      }
     }
 
     setExclusiveOwnerThread(Thread.currentThread());
@@ -428,6 +428,8 @@ public class ODirectMemoryAllocator implements ODirectMemoryAllocatorMXBean {
     DWL_ALLOCATE_COMPRESSED_CHUNK,
     ALLOCATE_FIRST_WAL_BUFFER,
     ALLOCATE_SECOND_WAL_BUFFER,
+    ALLOCATE_DISTINCT_KEY_SET,
+    ALLOCATE_RID_COLLECTION,
   }
 
   /**
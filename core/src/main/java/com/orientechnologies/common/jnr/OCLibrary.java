@@ -1,7 +1,14 @@
 package com.orientechnologies.common.jnr;
 
+import java.nio.ByteBuffer;
 import jnr.ffi.NativeLong;
+import jnr.ffi.Pointer;
+import jnr.ffi.annotations.In;
+import jnr.ffi.annotations.Out;
 import jnr.ffi.byref.PointerByReference;
+import jnr.ffi.types.off_t;
+import jnr.ffi.types.size_t;
+import jnr.ffi.types.ssize_t;
 
 public interface OCLibrary {
   /** Address space limit. */
@@ -22,4 +29,15 @@ public interface OCLibrary {
   int getpagesize() throws LastErrorException;
 
   int pathconf(String path, int name) throws LastErrorException;
+
+  @ssize_t
+  long pread(int fd, @Out ByteBuffer buf, @size_t long count, @off_t long offset)
+      throws LastErrorException;
+
+  @ssize_t
+  long pwrite(int fd, @In ByteBuffer buf, @size_t long count, @off_t long offset)
+      throws LastErrorException;
+
+  @ssize_t
+  long pwritev(int fd, Pointer iov, int iovcnt, @off_t long offset) throws LastErrorException;
 }
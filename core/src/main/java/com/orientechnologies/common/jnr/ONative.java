@@ -19,6 +19,7 @@
  */
 package com.orientechnologies.common.jnr;
 
+import com.kenai.jffi.MemoryIO;
 import com.kenai.jffi.Platform;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.util.OMemory;
@@ -29,6 +30,7 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import javax.management.AttributeNotFoundException;
@@ -39,7 +41,10 @@ import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
 import javax.management.ReflectionException;
 import jnr.ffi.LibraryLoader;
+import jnr.ffi.Memory;
 import jnr.ffi.NativeLong;
+import jnr.ffi.Pointer;
+import jnr.ffi.Runtime;
 import jnr.ffi.byref.PointerByReference;
 import jnr.posix.POSIX;
 import jnr.posix.POSIXFactory;
@@ -318,6 +323,77 @@ public class ONative {
     return bytesWritten;
   }
 
+  /**
+   * Reads data from the given position of the file, position of the file descriptor is not
+   * changed. Data are read into the buffer starting from its current position, position of the
+   * buffer is not changed either.
+   *
+   * @return amount of bytes read, 0 if the end of file is reached
+   */
+  public long pread(int fd, ByteBuffer buffer, int count, long offset) throws LastErrorException {
+    final long bytesRead = C_LIBRARY.pread(fd, buffer, count, offset);
+    if (bytesRead == -1) {
+      checkLastError();
+    }
+
+    return bytesRead;
+  }
+
+  /**
+   * Writes data to the given position of the file, position of the file descriptor is not changed.
+   * Data are written starting from the current position of the buffer, position of the buffer is
+   * not changed either.
+   *
+   * @return amount of bytes written
+   */
+  public long pwrite(int fd, ByteBuffer buffer, int count, long offset)
+      throws LastErrorException {
+    final long bytesWritten = C_LIBRARY.pwrite(fd, buffer, count, offset);
+    if (bytesWritten == -1) {
+      checkLastError();
+    }
+
+    return bytesWritten;
+  }
+
+  /**
+   * Writes remaining content of several direct buffers to the given position of the file using the
+   * single system call.
+   *
+   * @return amount of bytes written, it can be less than the sum of remaining bytes of the buffers
+   */
+  public long pwritev(int fd, List<ByteBuffer> buffers, long offset) throws LastErrorException {
+    final Runtime runtime = Runtime.getSystemRuntime();
+    final int addressSize = runtime.addressSize();
+
+    // struct iovec { void *iov_base; size_t iov_len; }
+    final Pointer iov = Memory.allocateDirect(runtime, 2 * addressSize * buffers.size());
+    for (int i = 0; i < buffers.size(); i++) {
+      final ByteBuffer buffer = buffers.get(i);
+      if (!buffer.isDirect()) {
+        throw new IllegalArgumentException("Only direct buffers can be written by pwritev");
+      }
+
+      final long address = MemoryIO.getInstance().getDirectBufferAddress(buffer);
+      iov.putAddress(2L * i * addressSize, address + buffer.position());
+      iov.putAddress((2L * i + 1) * addressSize, buffer.remaining());
+    }
+
+    final long bytesWritten = C_LIBRARY.pwritev(fd, iov, buffers.size(), offset);
+    if (bytesWritten == -1) {
+      checkLastError();
+    }
+
+    return bytesWritten;
+  }
+
+  public void ftruncate(int fd, long length) throws LastErrorException {
+    final int res = posix.ftruncate(fd, length);
+    if (res == -1) {
+      checkLastError();
+    }
+  }
+
   private void checkLastError() {
     final int errno = posix.errno();
     if (errno != 0) {
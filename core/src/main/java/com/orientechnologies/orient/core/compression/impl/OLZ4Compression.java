@@ -0,0 +1,57 @@
+package com.orientechnologies.orient.core.compression.impl;
+
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+/**
+ * Compression implementation that uses LZ4 block format. Only pure Java implementation of LZ4 is
+ * used, so behaviour does not depend on the presence of native libraries. Length of the original
+ * content is stored before the compressed block.
+ */
+public class OLZ4Compression extends OAbstractCompression {
+  public static final OLZ4Compression INSTANCE = new OLZ4Compression();
+  public static final String NAME = "lz4";
+
+  protected static final LZ4Factory FACTORY = LZ4Factory.fastestJavaInstance();
+
+  @Override
+  public byte[] compress(final byte[] content, final int offset, final int length) {
+    final LZ4Compressor compressor = compressor();
+    final int maxCompressedLength = compressor.maxCompressedLength(length);
+
+    final byte[] result = new byte[OIntegerSerializer.INT_SIZE + maxCompressedLength];
+    OIntegerSerializer.INSTANCE.serializeNative(length, result, 0);
+
+    final int compressedLength =
+        compressor.compress(
+            content, offset, length, result, OIntegerSerializer.INT_SIZE, maxCompressedLength);
+
+    final byte[] compressed = new byte[OIntegerSerializer.INT_SIZE + compressedLength];
+    System.arraycopy(result, 0, compressed, 0, compressed.length);
+
+    return compressed;
+  }
+
+  @Override
+  public byte[] uncompress(final byte[] content, final int offset, final int length) {
+    final int originalLength = OIntegerSerializer.INSTANCE.deserializeNative(content, offset);
+    final byte[] result = new byte[originalLength];
+
+    final LZ4FastDecompressor decompressor = FACTORY.fastDecompressor();
+    decompressor.decompress(
+        content, offset + OIntegerSerializer.INT_SIZE, result, 0, originalLength);
+
+    return result;
+  }
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  protected LZ4Compressor compressor() {
+    return FACTORY.fastCompressor();
+  }
+}
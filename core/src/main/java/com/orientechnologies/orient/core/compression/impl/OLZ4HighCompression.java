@@ -0,0 +1,23 @@
+package com.orientechnologies.orient.core.compression.impl;
+
+import net.jpountz.lz4.LZ4Compressor;
+
+/**
+ * Compression implementation that uses high compression mode of LZ4. Compression is several times
+ * slower than in {@link OLZ4Compression}, but decompression is as fast, and result is compatible
+ * with it.
+ */
+public class OLZ4HighCompression extends OLZ4Compression {
+  public static final OLZ4HighCompression INSTANCE = new OLZ4HighCompression();
+  public static final String NAME = "lz4-high";
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  protected LZ4Compressor compressor() {
+    return FACTORY.highCompressor();
+  }
+}
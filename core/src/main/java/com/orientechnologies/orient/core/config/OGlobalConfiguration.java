@@ -323,6 +323,15 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Boolean.class,
       true),
 
+  STORAGE_FILE_BACKEND(
+      "storage.fileBackend",
+      "Implementation of the data files used by the disk cache. 'async' uses "
+          + "AsynchronousFileChannel, 'native' (Linux only) uses positional and vectored system "
+          + "calls, so the pages which are flushed together and are adjacent in the file are "
+          + "written by a single call. 'async' is used if 'native' is not supported",
+      String.class,
+      "async"),
+
   @Deprecated
   STORAGE_CONFIGURATION_SYNC_ON_UPDATE(
       "storage.configuration.syncOnUpdate",
@@ -431,12 +440,35 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Integer.class,
       16),
 
+  STORAGE_RECORD_CACHE_SIZE(
+      "storage.recordCache.size",
+      "Size in megabytes of the cache of serialized records which is shared by all sessions of the"
+          + " storage. Records are read from the cache without access to the clusters. Cache is"
+          + " disabled if size is 0",
+      Integer.class,
+      0),
+
   STORAGE_CLUSTER_VERSION(
       "storage.cluster.version",
       "Binary version of cluster which will be used inside of storage",
       Integer.class,
       OPaginatedCluster.getLatestBinaryVersion()),
 
+  STORAGE_CLUSTER_OPTIMISTIC_READS(
+      "storage.cluster.optimisticReads",
+      "Read records of cluster without acquiring of cluster locks. Read is validated once record is"
+          + " read and is repeated under locks if record was changed concurrently",
+      Boolean.class,
+      false),
+
+  STORAGE_CLUSTER_READ_AHEAD_PAGES(
+      "storage.cluster.readAheadPages",
+      "Maximum amount of data pages which are loaded asynchronously in advance during scan of"
+          + " cluster. Read-ahead pages are kept in the separate window of disk cache, so scans do"
+          + " not evict frequently used pages. 0 means that read-ahead is switched off",
+      Integer.class,
+      256),
+
   STORAGE_PRINT_WAL_PERFORMANCE_STATISTICS(
       "storage.printWALPerformanceStatistics",
       "Periodically prints statistics about WAL performance",
@@ -545,6 +577,14 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Integer.class,
       8 * 1024),
 
+  WAL_COMPRESSION(
+      "storage.wal.compression",
+      "Compression algorithm which is used for WAL records bigger than "
+          + "storage.wal.minCompressedRecordSize. Supported algorithms are lz4, lz4-high, gzip, "
+          + "low-zip and high-zip",
+      String.class,
+      "lz4"),
+
   WAL_MAX_SIZE(
       "storage.wal.maxSize", "Maximum size of WAL on disk (in megabytes)", Integer.class, -1),
 
@@ -567,6 +607,27 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Integer.class,
       1000),
 
+  WAL_GROUP_COMMIT(
+      "storage.wal.groupCommit",
+      "Makes committing threads wait till their changes are synced to the disk. Commits which "
+          + "arrive within the group commit window share single WAL write and fsync",
+      Boolean.class,
+      false),
+
+  WAL_GROUP_COMMIT_WINDOW(
+      "storage.wal.groupCommitWindow",
+      "Interval during which commits are collected into a single WAL fsync if group commit is "
+          + "enabled (in microseconds)",
+      Integer.class,
+      1000),
+
+  WAL_GROUP_COMMIT_MAX_BYTES(
+      "storage.wal.groupCommitMaxBytes",
+      "Amount of WAL data (in bytes) after which group commit is synced to the disk without "
+          + "waiting for the end of the group commit window",
+      Integer.class,
+      1024 * 1024),
+
   WAL_SHUTDOWN_TIMEOUT(
       "storage.wal.shutdownTimeout",
       "Maximum wait interval between events, when the background flush thread"
@@ -1098,6 +1159,36 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Boolean.FALSE,
       true),
 
+  NETWORK_BINARY_LISTENER_MODE(
+      "network.binary.listenerMode",
+      "How binary listeners serve client connections. 'thread' dedicates a thread to every connection, "
+          + "'nio' multiplexes connections over a small set of selector threads and executes requests on a bounded worker pool",
+      String.class,
+      "thread",
+      false),
+
+  NETWORK_BINARY_NIO_SELECTOR_THREADS(
+      "network.binary.nio.selectorThreads",
+      "Number of selector threads that watch idle binary connections when 'network.binary.listenerMode' is 'nio'",
+      Integer.class,
+      Math.max(1, Runtime.getRuntime().availableProcessors() >> 2),
+      false),
+
+  NETWORK_BINARY_NIO_WORKER_THREADS(
+      "network.binary.nio.workerThreads",
+      "Maximum number of threads that execute binary requests when 'network.binary.listenerMode' is 'nio'",
+      Integer.class,
+      Runtime.getRuntime().availableProcessors() << 3,
+      false),
+
+  NETWORK_BINARY_NIO_WORKER_QUEUE_SIZE(
+      "network.binary.nio.workerQueueSize",
+      "Maximum number of binary requests waiting for a worker thread when 'network.binary.listenerMode' is 'nio'. "
+          + "Once the queue is full, connections with new requests are not read until a worker is free",
+      Integer.class,
+      1024,
+      false),
+
   // HTTP
 
   /** Since v2.2.8 */
@@ -1320,6 +1411,18 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Integer.class,
       1000),
 
+  QUERY_REMOTE_RESULTSET_PREFETCH(
+      "query.remoteResultSet.prefetch",
+      "Requests the next page of a remote ResultSet in advance, while the current page is consumed. If disabled the next page is requested only when the current one is used up. This has to be set on the client.",
+      Boolean.class,
+      false),
+
+  QUERY_REMOTE_RESULTSET_MAX_PAGE_SIZE(
+      "query.remoteResultSet.maxPageSize",
+      "The maximum number of records sent by the server in a single page of a remote ResultSet, bigger pages requested by the clients are split. 0 means no limit. This has to be set on the server.",
+      Integer.class,
+      10000),
+
   QUERY_REMOTE_SEND_EXECUTION_PLAN(
       "query.remoteResultSet.sendExecutionPlan",
       "Send the execution plan details or not. False by default",
@@ -1357,6 +1460,20 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Long.class,
       1000),
 
+  QUERY_BINARY_FILTER(
+      "query.binaryFilter",
+      "Evaluates the simple conditions of a WHERE clause (comparisons with constants, IN, BETWEEN, IS NULL) on the serialized records, "
+          + "so the records which don't match are not deserialized",
+      Boolean.class,
+      true),
+
+  QUERY_COMPILED_EXPRESSIONS(
+      "query.compiledExpressions",
+      "Compiles the WHERE conditions and the projections of a query into evaluators specialised for the query, "
+          + "the expressions which can't be compiled are evaluated by the interpreter",
+      Boolean.class,
+      false),
+
   QUERY_SCAN_THRESHOLD_TIP(
       "query.scanThresholdTip",
       "If the total number of records scanned in a query exceeds this setting, then a warning is given. (Use 0 to disable)",
@@ -1377,6 +1494,32 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Long.class,
       500_000),
 
+  QUERY_ORDER_BY_SPILL_TO_DISK(
+      "query.orderBy.spillToDisk",
+      "When the number of elements to sort in an ORDER BY exceeds "
+          + "query.maxHeapElementsAllowedPerOp, write sorted runs of them to temporary files and "
+          + "merge them while results are fetched, instead of failing the query. (Use false to disable)",
+      Boolean.class,
+      true),
+
+  QUERY_GROUP_BY_MAX_HEAP_GROUPS(
+      "query.groupBy.maxHeapGroups",
+      "Maximum number of groups kept in heap by a GROUP BY. Once exceeded, records of the new groups "
+          + "are partitioned to temporary files and aggregated after the groups kept in heap. "
+          + "Negative number means no limit",
+      Integer.class,
+      500_000),
+
+  QUERY_DISTINCT_MAX_MEMORY(
+      "query.distinct.maxMemory",
+      "Maximum amount of direct memory (in bytes) used by a DISTINCT to keep the keys of the "
+          + "results already returned. Once exceeded, results with new keys are partitioned to "
+          + "temporary files and deduplicated after all the other results. Negative number means no "
+          + "limit, results are still partitioned once the amount of keys exceeds the capacity of "
+          + "the in-memory set",
+      Long.class,
+      64L * 1024 * 1024),
+
   QUERY_LIVE_SUPPORT(
       "query.live.support",
       "Enable/Disable the support of live query. (Use false to disable)",
@@ -1410,6 +1553,27 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Integer.class,
       100),
 
+  CLIENT_CHANNEL_MULTIPLEXED_CHANNELS(
+      "client.channel.multiplexedChannels",
+      "Maximum number of network channels to a server shared by the concurrent requests of different sessions. "
+          + "0 means that every request uses a channel of the pool exclusively",
+      Integer.class,
+      0),
+
+  CLIENT_CHANNEL_MULTIPLEXED_REQUESTS(
+      "client.channel.multiplexedRequests",
+      "Number of requests in progress on a shared network channel, after which a new shared channel is opened "
+          + "if 'client.channel.multiplexedChannels' is not reached yet",
+      Integer.class,
+      16),
+
+  CLIENT_ASYNC_THREADS(
+      "client.async.threads",
+      "Number of threads which execute the asynchronous operations of the remote sessions, like queryAsync() "
+          + "and commitAsync()",
+      Integer.class,
+      Runtime.getRuntime().availableProcessors()),
+
   /**
    * Maximum time, where the client should wait for a connection from the pool, when all connections
    * busy.
@@ -1746,6 +1910,20 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       1000,
       false),
 
+  DISTRIBUTED_QUERY_SCATTER_GATHER(
+      "distributed.queryScatterGather",
+      "Execute SELECT statements on classes, which clusters are owned by different servers, on the owners of the clusters and merge the results on the server which received the query",
+      Boolean.class,
+      false,
+      true),
+
+  DISTRIBUTED_QUERY_PAGE_SIZE(
+      "distributed.queryPageSize",
+      "Number of records which are sent by a server in a single page of results of a distributed query",
+      Integer.class,
+      100,
+      true),
+
   DB_DOCUMENT_SERIALIZER(
       "db.document.serializer",
       "The default record serializer used by the document database",
@@ -1,7 +1,10 @@
 package com.orientechnologies.orient.core.db;
 
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.sql.executor.OResult;
+import com.orientechnologies.orient.core.sql.executor.OResultInternal;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import java.util.ArrayList;
 import java.util.List;
 
 /** Created by luigidellaquila on 28/06/17. */
@@ -34,12 +37,25 @@ public class DistributedQueryContext {
     this.resultSet = resultSet;
   }
 
-  public List<OResult> fetchNextPage() {
+  /**
+   * fetches next page of results of the query, the query is closed once all the results are
+   * fetched
+   *
+   * @return a result with the list of results in "data" property and a flag that tells whether
+   *     more results are available in "hasMore" property
+   */
+  public OResultInternal fetchNextPage() {
     ODatabaseDocumentInternal prev = ODatabaseRecordThreadLocal.instance().getIfDefined();
+    List<OResult> data = new ArrayList<>();
+    boolean hasMore;
     try {
       db.activateOnCurrentThread();
-      resultSet.close();
-      db.close();
+      int pageSize =
+          db.getConfiguration().getValueAsInteger(OGlobalConfiguration.DISTRIBUTED_QUERY_PAGE_SIZE);
+      while (data.size() < pageSize && resultSet.hasNext()) {
+        data.add(resultSet.next());
+      }
+      hasMore = resultSet.hasNext();
     } finally {
       if (prev == null) {
         ODatabaseRecordThreadLocal.instance().remove();
@@ -47,7 +63,14 @@ public class DistributedQueryContext {
         ODatabaseRecordThreadLocal.instance().set(prev);
       }
     }
-    return null;
+    if (!hasMore) {
+      close();
+    }
+
+    OResultInternal page = new OResultInternal();
+    page.setProperty("data", data);
+    page.setProperty("hasMore", hasMore);
+    return page;
   }
 
   public void close() {
@@ -46,6 +46,7 @@ import com.orientechnologies.orient.core.tx.OTransactionAbstract;
 import com.orientechnologies.orient.core.tx.OTransactionData;
 import com.orientechnologies.orient.core.tx.OTransactionInternal;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 
@@ -214,6 +215,21 @@ public interface ODatabaseDocumentInternal extends ODatabaseSession, ODatabaseIn
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * sends a SQL query to a remote node for a remote query execution, the query is planned by the
+   * remote node and restricted to the records of the given clusters
+   *
+   * @param nodeName the node name
+   * @param query the SQL query
+   * @param clusters the names of the clusters to query
+   * @param inputParameters the input parameters for execution
+   * @return an OResultSet to fetch the results of the query execution
+   */
+  default OResultSet queryOnNode(
+      String nodeName, String query, Set<String> clusters, Map<Object, Object> inputParameters) {
+    throw new UnsupportedOperationException();
+  }
+
   /**
    * Executed the commit on the storage hiding away storage concepts from the transaction
    *
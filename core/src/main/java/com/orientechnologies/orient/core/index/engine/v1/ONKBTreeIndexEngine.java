@@ -0,0 +1,13 @@
+package com.orientechnologies.orient.core.index.engine.v1;
+
+import com.orientechnologies.orient.core.index.engine.OV1IndexEngine;
+
+/**
+ * Index engine which keeps keys in binary comparable form, so tree pages are searched by comparison
+ * of raw key bytes instead of comparison of deserialized keys.
+ *
+ * @see com.orientechnologies.orient.core.storage.index.nkbtree.normalizers.BinaryComparableKeyNormalizer
+ */
+public interface ONKBTreeIndexEngine extends OV1IndexEngine {
+  int VERSION = 1;
+}
@@ -0,0 +1,297 @@
+package com.orientechnologies.orient.core.index.engine.v1;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.orient.core.encryption.OEncryption;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.index.OIndexDefinition;
+import com.orientechnologies.orient.core.index.OIndexException;
+import com.orientechnologies.orient.core.index.engine.OMultiValueIndexEngine;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperation;
+import com.orientechnologies.orient.core.storage.index.nkbtree.NormalizedKey;
+import com.orientechnologies.orient.core.storage.index.nkbtree.NormalizedKeySerializer;
+import com.orientechnologies.orient.core.storage.index.nkbtree.normalizers.BinaryComparableKeyNormalizer;
+import com.orientechnologies.orient.core.storage.index.sbtree.singlevalue.OCellBTreeSingleValue;
+import com.orientechnologies.orient.core.storage.index.sbtree.singlevalue.v3.CellBTreeSingleValueV3;
+import java.io.IOException;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Multi value variant of {@link ONKBTreeSingleValueIndexEngine}. Every entry is stored as separate
+ * key which consists of normalized key followed by RID of the indexed record, entries with <code>
+ * null</code> key are kept in the same tree and precede all other entries.
+ */
+public final class ONKBTreeMultiValueIndexEngine
+    implements OMultiValueIndexEngine, ONKBTreeIndexEngine {
+  private static final String DATA_FILE_EXTENSION = ".nkt";
+  private static final String NULL_BUCKET_FILE_EXTENSION = ".nkn";
+
+  private static final NormalizedKey FIRST_NOT_NULL_KEY =
+      new NormalizedKey(new byte[] {BinaryComparableKeyNormalizer.NOT_NULL});
+  private static final NormalizedKey LAST_NOT_NULL_KEY =
+      new NormalizedKey(
+          BinaryComparableKeyNormalizer.upperBound(
+              new byte[] {BinaryComparableKeyNormalizer.NOT_NULL}));
+
+  private final OCellBTreeSingleValue<NormalizedKey> sbTree;
+  private final String name;
+  private final int id;
+
+  private volatile BinaryComparableKeyNormalizer keyNormalizer;
+
+  public ONKBTreeMultiValueIndexEngine(
+      int id, String name, OAbstractPaginatedStorage storage, final int version) {
+    this.id = id;
+    this.name = name;
+
+    if (version != VERSION) {
+      throw new IllegalStateException("Invalid tree version " + version);
+    }
+
+    sbTree =
+        new CellBTreeSingleValueV3<>(
+            name, DATA_FILE_EXTENSION, NULL_BUCKET_FILE_EXTENSION, storage);
+  }
+
+  @Override
+  public int getId() {
+    return id;
+  }
+
+  @Override
+  public void init(
+      String indexName,
+      String indexType,
+      OIndexDefinition indexDefinition,
+      boolean isAutomatic,
+      ODocument metadata) {}
+
+  @Override
+  public void flush() {}
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public void create(
+      OAtomicOperation atomicOperation,
+      @SuppressWarnings("rawtypes") OBinarySerializer valueSerializer,
+      boolean isAutomatic,
+      OType[] keyTypes,
+      boolean nullPointerSupport,
+      @SuppressWarnings("rawtypes") OBinarySerializer keySerializer,
+      int keySize,
+      Map<String, String> engineProperties,
+      OEncryption encryption) {
+    keyNormalizer = new BinaryComparableKeyNormalizer(keyTypes, true);
+    try {
+      sbTree.create(atomicOperation, NormalizedKeySerializer.INSTANCE, keyTypes, 1, encryption);
+    } catch (IOException e) {
+      throw OException.wrapException(
+          new OIndexException("Error during creation of index " + name), e);
+    }
+  }
+
+  @Override
+  public void delete(OAtomicOperation atomicOperation) {
+    try {
+      doClearTree(atomicOperation);
+      sbTree.delete(atomicOperation);
+    } catch (IOException e) {
+      throw OException.wrapException(
+          new OIndexException("Error during deletion of index " + name), e);
+    }
+  }
+
+  private void doClearTree(final OAtomicOperation atomicOperation) {
+    try (Stream<NormalizedKey> stream = sbTree.keyStream()) {
+      stream.forEach(
+          (key) -> {
+            try {
+              sbTree.remove(atomicOperation, key);
+            } catch (IOException e) {
+              throw OException.wrapException(
+                  new OIndexException("Error during cleaning of index " + name), e);
+            }
+          });
+    }
+  }
+
+  @Override
+  public void load(
+      final String name,
+      final int keySize,
+      final OType[] keyTypes,
+      @SuppressWarnings("rawtypes") final OBinarySerializer keySerializer,
+      final OEncryption encryption) {
+    keyNormalizer = new BinaryComparableKeyNormalizer(keyTypes, true);
+    sbTree.load(name, 1, keyTypes, NormalizedKeySerializer.INSTANCE, encryption);
+  }
+
+  @Override
+  public boolean remove(final OAtomicOperation atomicOperation, Object key, ORID value) {
+    try {
+      return sbTree.remove(atomicOperation, new NormalizedKey(keyNormalizer.normalize(key, value)))
+          != null;
+    } catch (IOException e) {
+      throw OException.wrapException(
+          new OIndexException(
+              "Error during removal of entry with key "
+                  + key
+                  + " and RID "
+                  + value
+                  + " from index "
+                  + name),
+          e);
+    }
+  }
+
+  @Override
+  public void clear(OAtomicOperation atomicOperation) {
+    doClearTree(atomicOperation);
+  }
+
+  @Override
+  public void close() {
+    sbTree.close();
+  }
+
+  @Override
+  public Stream<ORID> get(Object key) {
+    final byte[] prefix = keyNormalizer.normalize(key, null);
+
+    //noinspection resource
+    return sbTree
+        .iterateEntriesBetween(
+            new NormalizedKey(prefix),
+            true,
+            new NormalizedKey(BinaryComparableKeyNormalizer.upperBound(prefix)),
+            true,
+            true)
+        .map((pair) -> pair.second);
+  }
+
+  @Override
+  public Stream<ORawPair<Object, ORID>> stream(ValuesTransformer valuesTransformer) {
+    return denormalize(
+        sbTree.iterateEntriesBetween(FIRST_NOT_NULL_KEY, true, LAST_NOT_NULL_KEY, false, true));
+  }
+
+  @Override
+  public Stream<ORawPair<Object, ORID>> descStream(ValuesTransformer valuesTransformer) {
+    return denormalize(
+        sbTree.iterateEntriesBetween(FIRST_NOT_NULL_KEY, true, LAST_NOT_NULL_KEY, false, false));
+  }
+
+  @Override
+  public Stream<Object> keyStream() {
+    //noinspection resource
+    return stream(null).map((pair) -> pair.first);
+  }
+
+  @Override
+  public void put(OAtomicOperation atomicOperation, Object key, ORID value) {
+    try {
+      sbTree.put(atomicOperation, new NormalizedKey(keyNormalizer.normalize(key, value)), value);
+    } catch (IOException e) {
+      throw OException.wrapException(
+          new OIndexException(
+              "Error during insertion of key " + key + " and RID " + value + " to index " + name),
+          e);
+    }
+  }
+
+  /**
+   * Every stored key is suffixed by RID, so both bounds are prefixes of the stored keys. Lower
+   * inclusive and upper exclusive bound is the normalized key itself, lower exclusive and upper
+   * inclusive bound is upper bound of the normalized key.
+   */
+  @Override
+  public Stream<ORawPair<Object, ORID>> iterateEntriesBetween(
+      Object rangeFrom,
+      boolean fromInclusive,
+      Object rangeTo,
+      boolean toInclusive,
+      boolean ascSortOrder,
+      ValuesTransformer transformer) {
+    final NormalizedKey fromKey;
+    if (rangeFrom == null) {
+      fromKey = FIRST_NOT_NULL_KEY;
+    } else {
+      final byte[] prefix = keyNormalizer.normalize(rangeFrom, null);
+      fromKey =
+          new NormalizedKey(
+              fromInclusive ? prefix : BinaryComparableKeyNormalizer.upperBound(prefix));
+    }
+
+    final NormalizedKey toKey;
+    if (rangeTo == null) {
+      toKey = LAST_NOT_NULL_KEY;
+    } else {
+      final byte[] prefix = keyNormalizer.normalize(rangeTo, null);
+      toKey =
+          new NormalizedKey(
+              toInclusive ? BinaryComparableKeyNormalizer.upperBound(prefix) : prefix);
+    }
+
+    return denormalize(sbTree.iterateEntriesBetween(fromKey, true, toKey, false, ascSortOrder));
+  }
+
+  @Override
+  public Stream<ORawPair<Object, ORID>> iterateEntriesMajor(
+      Object fromKey, boolean isInclusive, boolean ascSortOrder, ValuesTransformer transformer) {
+    return iterateEntriesBetween(fromKey, isInclusive, null, false, ascSortOrder, transformer);
+  }
+
+  @Override
+  public Stream<ORawPair<Object, ORID>> iterateEntriesMinor(
+      Object toKey, boolean isInclusive, boolean ascSortOrder, ValuesTransformer transformer) {
+    return iterateEntriesBetween(null, false, toKey, isInclusive, ascSortOrder, transformer);
+  }
+
+  @Override
+  public long size(final ValuesTransformer transformer) {
+    return sbTree.size();
+  }
+
+  @Override
+  public boolean hasRangeQuerySupport() {
+    return true;
+  }
+
+  @Override
+  public boolean acquireAtomicExclusiveLock(Object key) {
+    sbTree.acquireAtomicExclusiveLock();
+    return true;
+  }
+
+  @Override
+  public String getIndexNameByKey(Object key) {
+    return name;
+  }
+
+  @Override
+  public void updateUniqueIndexVersion(final Object key) {
+    // not implemented
+  }
+
+  @Override
+  public int getUniqueIndexVersion(final Object key) {
+    return 0; // not implemented
+  }
+
+  private Stream<ORawPair<Object, ORID>> denormalize(
+      final Stream<ORawPair<NormalizedKey, ORID>> stream) {
+    final BinaryComparableKeyNormalizer keyNormalizer = this.keyNormalizer;
+    return stream.map(
+        (entry) ->
+            new ORawPair<>(keyNormalizer.denormalize(entry.first.getBytes()), entry.second));
+  }
+}
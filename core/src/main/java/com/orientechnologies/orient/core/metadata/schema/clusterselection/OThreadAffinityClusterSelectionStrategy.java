@@ -0,0 +1,40 @@
+package com.orientechnologies.orient.core.metadata.schema.clusterselection;
+
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Selects cluster of the class by the current thread, so every thread always inserts records into
+ * the same cluster. Commit of a transaction locks every cluster which contains records of
+ * transaction, so if records of a single transaction are spread among all clusters of the class,
+ * concurrent transactions which insert records into the same class are serialized. With this
+ * strategy all records which are inserted by a transaction into a class are placed in the single
+ * cluster, and threads which insert records concurrently lock different clusters, if class has
+ * enough clusters.
+ *
+ * <p>Every thread gets its own slot the first time it inserts records into the class, slots are
+ * assigned sequentially, so threads are spread among the clusters in round-robin order.
+ */
+public class OThreadAffinityClusterSelectionStrategy implements OClusterSelectionStrategy {
+  public static final String NAME = "thread-affinity";
+  private final AtomicInteger nextSlot = new AtomicInteger();
+  private final ThreadLocal<Integer> slot = ThreadLocal.withInitial(nextSlot::getAndIncrement);
+
+  public int getCluster(final OClass iClass, final ODocument doc) {
+    return getCluster(iClass, iClass.getClusterIds(), doc);
+  }
+
+  public int getCluster(final OClass iClass, final int[] clusters, final ODocument doc) {
+    if (clusters.length == 1)
+      // ONLY ONE: RETURN THE FIRST ONE
+      return clusters[0];
+
+    return clusters[Math.floorMod(slot.get(), clusters.length)];
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+}
@@ -45,6 +45,7 @@ public abstract class OSequence {
   public static final long DEFAULT_START = 0;
   public static final int DEFAULT_INCREMENT = 1;
   public static final int DEFAULT_CACHE = 20;
+  public static final int DEFAULT_STRIPES = 0;
   public static final Long DEFAULT_LIMIT_VALUE = null;
   public static final boolean DEFAULT_RECYCLABLE_VALUE = false;
 
@@ -79,6 +80,8 @@ public abstract class OSequence {
     protected Integer increment = DEFAULT_INCREMENT;
     // significant only for cached sequences
     protected Integer cacheSize = DEFAULT_CACHE;
+    // significant only for cached sequences
+    protected Integer stripes = DEFAULT_STRIPES;
     protected Long limitValue = DEFAULT_LIMIT_VALUE;
     protected SequenceOrderType orderType = DEFAULT_ORDER_TYPE;
     protected Boolean recyclable = DEFAULT_RECYCLABLE_VALUE;
@@ -100,6 +103,16 @@ public abstract class OSequence {
       return this;
     }
 
+    /**
+     * Sets the amount of stripes of a cached sequence. If more than one stripe is used, each stripe
+     * hands out values of its own cached block without locking, so values are unique but are not
+     * returned in global order any more.
+     */
+    public CreateParams setStripes(Integer stripes) {
+      this.stripes = stripes;
+      return this;
+    }
+
     public CreateParams setLimitValue(Long limitValue) {
       this.limitValue = limitValue;
       return this;
@@ -131,6 +144,7 @@ public abstract class OSequence {
       start = null;
       increment = null;
       cacheSize = null;
+      stripes = null;
       limitValue = null;
       orderType = null;
       recyclable = null;
@@ -143,6 +157,7 @@ public abstract class OSequence {
       this.start = this.start != null ? this.start : DEFAULT_START;
       this.increment = this.increment != null ? this.increment : DEFAULT_INCREMENT;
       this.cacheSize = this.cacheSize != null ? this.cacheSize : DEFAULT_CACHE;
+      this.stripes = this.stripes != null ? this.stripes : DEFAULT_STRIPES;
       limitValue = limitValue == null ? DEFAULT_LIMIT_VALUE : limitValue;
       orderType = orderType == null ? DEFAULT_ORDER_TYPE : orderType;
       recyclable = recyclable == null ? DEFAULT_RECYCLABLE_VALUE : recyclable;
@@ -163,6 +178,10 @@ public abstract class OSequence {
       return cacheSize;
     }
 
+    public Integer getStripes() {
+      return stripes;
+    }
+
     public Long getLimitValue() {
       return limitValue;
     }
@@ -20,6 +20,7 @@
 package com.orientechnologies.orient.core.metadata.sequence;
 
 import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.exception.ODatabaseException;
 import com.orientechnologies.orient.core.metadata.schema.OType;
@@ -28,13 +29,25 @@ import com.orientechnologies.orient.core.metadata.security.ORule;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * Sequence which reserves blocks of values in the database and hands out values of the cached
+ * block.
+ *
+ * <p>If the sequence is created with more than one stripe, every stripe has its own cached block.
+ * Threads are spread across the stripes and take values of the block with a CAS, the next block of
+ * a stripe is reserved in background once half of the current block is used. Values are unique,
+ * but global order is kept only by the sequences with a single stripe.
+ *
  * @author Matan Shukry (matanshukry@gmail.com)
  * @since 3/3/2015
  */
 public class OSequenceCached extends OSequence {
   private static final String FIELD_CACHE = "cache";
+  private static final String FIELD_STRIPES = "stripes";
+  private static final Stripe[] NOT_STRIPED = new Stripe[0];
   private long cacheStart;
   private long cacheEnd;
   private boolean firstCache;
@@ -44,6 +57,7 @@ public class OSequenceCached extends OSequence {
   private SequenceOrderType orderType;
   private boolean recyclable;
   private String name = null;
+  private volatile Stripe[] stripes;
 
   public OSequenceCached() {
     this(null, null);
@@ -61,6 +75,7 @@ public class OSequenceCached extends OSequence {
         params = new CreateParams().setDefaults();
       }
       setCacheSize(params.cacheSize);
+      setStripes(params.stripes != null ? params.stripes : DEFAULT_STRIPES);
       cacheStart = cacheEnd = 0L;
       allocateCache(getCacheSize(), getDatabase());
     }
@@ -79,8 +94,13 @@ public class OSequenceCached extends OSequence {
         this.setCacheSize(params.cacheSize);
         any = true;
       }
+      if (params.stripes != null && this.getStripes() != params.stripes) {
+        this.setStripes(params.stripes);
+        any = true;
+      }
 
       firstCache = true;
+      stripes = null;
       save();
     }
     return any;
@@ -159,6 +179,12 @@ public class OSequenceCached extends OSequence {
   @Override
   public long next() throws OSequenceLimitReachedException, ODatabaseException {
     checkSecurity();
+    if (!(isOnDistributted() && replicationProtocolVersion == 2)) {
+      final Stripe[] stripes = getStripesArray();
+      if (stripes.length > 0) {
+        return nextStriped(stripes);
+      }
+    }
     boolean shouldGoOverDistributted = shouldGoOverDistrtibute();
     if (shouldGoOverDistributted) {
       return nextWithNewCurrentValue(cacheStart, true);
@@ -271,9 +297,177 @@ public class OSequenceCached extends OSequence {
     }
   }
 
+  private Stripe[] getStripesArray() {
+    Stripe[] result = stripes;
+    if (result == null) {
+      synchronized (this) {
+        result = stripes;
+        if (result == null) {
+          final int count = getStripes();
+          if (count > 1) {
+            result = new Stripe[count];
+            for (int i = 0; i < count; i++) {
+              result[i] = new Stripe();
+            }
+          } else {
+            result = NOT_STRIPED;
+          }
+          stripes = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  private long nextStriped(final Stripe[] stripes) {
+    final Stripe stripe = stripes[(int) (Thread.currentThread().getId() % stripes.length)];
+    while (true) {
+      final Block block = stripe.block;
+      if (block != null) {
+        final long index = block.taken.getAndIncrement();
+        if (index < block.count) {
+          if (index == block.count / 2) {
+            prefetchBlock(stripe);
+          }
+          return block.first + index * block.step;
+        }
+      }
+
+      synchronized (stripe) {
+        if (stripe.block == block) {
+          stripe.block = takePrefetchedBlock(stripe);
+        }
+      }
+    }
+  }
+
+  /** Reserves the next block of the stripe asynchronously, if it is not reserved yet. */
+  private void prefetchBlock(final Stripe stripe) {
+    synchronized (stripe) {
+      if (stripe.prefetched != null) {
+        return;
+      }
+
+      final ODatabaseDocumentInternal mainDb = getDatabase();
+      final ODatabaseDocumentInternal db = mainDb.copy();
+      try {
+        stripe.prefetched =
+            Orient.instance()
+                .submit(
+                    () -> {
+                      db.activateOnCurrentThread();
+                      try {
+                        bindOnLocalThread();
+                        return allocateBlock(db);
+                      } finally {
+                        db.close();
+                      }
+                    });
+      } catch (IllegalStateException e) {
+        // engine is shutting down, next block is reserved synchronously
+        db.activateOnCurrentThread();
+        db.close();
+        mainDb.activateOnCurrentThread();
+      }
+    }
+  }
+
+  private Block takePrefetchedBlock(final Stripe stripe) {
+    final Future<Block> prefetched = stripe.prefetched;
+    stripe.prefetched = null;
+    if (prefetched != null) {
+      final ODatabaseDocumentInternal mainDb = getDatabase();
+      try {
+        return prefetched.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        OLogManager.instance()
+            .debug(this, "Error on reservation of block of sequence %s", e, getName());
+      } finally {
+        mainDb.activateOnCurrentThread();
+      }
+    }
+
+    final ODatabaseDocumentInternal mainDb = getDatabase();
+    final boolean tx = mainDb.getTransaction().isActive();
+    try {
+      ODatabaseDocumentInternal db = mainDb;
+      if (tx) {
+        db = mainDb.copy();
+        db.activateOnCurrentThread();
+      }
+      try {
+        return allocateBlock(db);
+      } finally {
+        if (tx) {
+          db.close();
+        }
+      }
+    } finally {
+      if (tx) {
+        mainDb.activateOnCurrentThread();
+      }
+    }
+  }
+
+  /** Reserves the next block of values of a stripe and persists the reservation. */
+  private Block allocateBlock(final ODatabaseDocumentInternal db) {
+    return callRetry(
+        true,
+        () -> {
+          synchronized (OSequenceCached.this) {
+            final int increment = getIncrement();
+            final boolean positive = getOrderType() == SequenceOrderType.ORDER_POSITIVE;
+            final Long limitValue = getLimitValue();
+
+            final long value = getValue();
+            long first = positive ? value + increment : value - increment;
+            long count = getCacheSize();
+            if (limitValue != null) {
+              long available = (positive ? limitValue - value : value - limitValue) / increment;
+              if (available <= 0) {
+                if (!getRecyclable()) {
+                  throw new OSequenceLimitReachedException("Limit reached");
+                }
+                first = getStart();
+                available = (positive ? limitValue - first : first - limitValue) / increment + 1;
+              }
+              count = Math.min(count, Math.max(available, 1));
+            }
+            count = Math.max(count, 1);
+
+            final long step = positive ? increment : -increment;
+            setValue(first + (count - 1) * step);
+            save(db);
+            return new Block(first, count, step);
+          }
+        },
+        "next");
+  }
+
   @Override
   protected synchronized long currentWork() {
-    return this.cacheStart;
+    final Stripe[] stripes = this.stripes;
+    if (stripes == null || stripes.length == 0) {
+      return this.cacheStart;
+    }
+
+    // the last value returned by the stripes, in order of the sequence
+    Long current = null;
+    for (Stripe stripe : stripes) {
+      final Block block = stripe.block;
+      if (block != null) {
+        final long taken = Math.min(block.taken.get(), block.count);
+        if (taken > 0) {
+          final long value = block.first + (taken - 1) * block.step;
+          if (current == null || (block.step > 0 ? value > current : value < current)) {
+            current = value;
+          }
+        }
+      }
+    }
+    return current != null ? current : this.cacheStart;
   }
 
   @Override
@@ -298,6 +492,7 @@ public class OSequenceCached extends OSequence {
                   setValue(newValue);
                   save(finalDb);
                   firstCache = true;
+                  stripes = null;
                   allocateCache(getCacheSize(), finalDb);
                   return newValue;
                 }
@@ -329,6 +524,15 @@ public class OSequenceCached extends OSequence {
     getDocument().field(FIELD_CACHE, cacheSize);
   }
 
+  public final int getStripes() {
+    final Integer stripes = getDocument().field(FIELD_STRIPES, OType.INTEGER);
+    return stripes != null ? stripes : DEFAULT_STRIPES;
+  }
+
+  public final void setStripes(int stripes) {
+    getDocument().field(FIELD_STRIPES, stripes);
+  }
+
   private final void allocateCache(int cacheSize, ODatabaseDocumentInternal db) {
     if (getCrucialValueChanged()) {
       reloadCrucialValues();
@@ -359,4 +563,24 @@ public class OSequenceCached extends OSequence {
     }
     firstCache = false;
   }
+
+  /** Block of values reserved in the database, values are taken by increment of the counter. */
+  private static final class Block {
+    private final long first;
+    private final long count;
+    private final long step;
+    private final AtomicLong taken = new AtomicLong();
+
+    private Block(final long first, final long count, final long step) {
+      this.first = first;
+      this.count = count;
+      this.step = step;
+    }
+  }
+
+  private static final class Stripe {
+    private volatile Block block;
+    // guarded by the stripe
+    private Future<Block> prefetched;
+  }
 }
@@ -50,6 +50,7 @@ import com.orientechnologies.orient.core.record.*;
 import com.orientechnologies.orient.core.serialization.serializer.OStringSerializerHelper;
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializer;
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializerFactory;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerBinary;
 import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerNetwork;
 import com.orientechnologies.orient.core.sql.OSQLHelper;
 import com.orientechnologies.orient.core.sql.executor.OResult;
@@ -2968,6 +2969,20 @@ public class ODocument extends ORecordAbstract
     entry.replaceListener(this, oldValue);
   }
 
+  /**
+   * @return the content in the binary format, as it was loaded, or null if the document was changed
+   *     or its fields were all deserialized
+   */
+  byte[] getLoadedBinarySource() {
+    if (source == null
+        || isDirty()
+        || status != STATUS.LOADED
+        || !(recordFormat instanceof ORecordSerializerBinary)) {
+      return null;
+    }
+    return source;
+  }
+
   protected byte[] toStream(final boolean iOnlyDelta) {
     STATUS prev = status;
     status = STATUS.MARSHALLING;
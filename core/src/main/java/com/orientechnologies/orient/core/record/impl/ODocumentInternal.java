@@ -135,6 +135,10 @@ public class ODocumentInternal {
     return doc.propertyEncryption;
   }
 
+  public static byte[] getLoadedBinarySource(ODocument doc) {
+    return doc.getLoadedBinarySource();
+  }
+
   public static void clearTransactionTrackData(ODocument doc) {
     doc.clearTransactionTrackData();
   }
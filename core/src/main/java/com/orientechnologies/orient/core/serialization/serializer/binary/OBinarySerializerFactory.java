@@ -47,6 +47,7 @@ import com.orientechnologies.orient.core.serialization.serializer.binary.impl.in
 import com.orientechnologies.orient.core.serialization.serializer.stream.OMixedIndexRIDContainerSerializer;
 import com.orientechnologies.orient.core.serialization.serializer.stream.OStreamSerializerRID;
 import com.orientechnologies.orient.core.serialization.serializer.stream.OStreamSerializerSBTreeIndexRIDContainer;
+import com.orientechnologies.orient.core.storage.index.nkbtree.NormalizedKeySerializer;
 import com.orientechnologies.orient.core.storage.index.sbtree.multivalue.v2.MultiValueEntrySerializer;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -105,6 +106,7 @@ public class OBinarySerializerFactory {
 
     factory.registerSerializer(OUTF8Serializer.INSTANCE, null);
     factory.registerSerializer(MultiValueEntrySerializer.INSTANCE, null);
+    factory.registerSerializer(NormalizedKeySerializer.INSTANCE, null);
 
     return factory;
   }
@@ -2,7 +2,6 @@ package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.concur.OTimeoutException;
 import com.orientechnologies.orient.core.command.OCommandContext;
-import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.sql.parser.OInteger;
 import com.orientechnologies.orient.core.sql.parser.OTraverseProjectionItem;
 import com.orientechnologies.orient.core.sql.parser.OWhereClause;
@@ -10,7 +9,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -24,7 +22,7 @@ public abstract class AbstractTraverseStep extends AbstractExecutionStep {
   protected List<OResult> results = new ArrayList<>();
   private long cost = 0;
 
-  protected Set<ORID> traversed = new ORidSet();
+  protected final OPrimitiveRidSet traversed = new OPrimitiveRidSet();
 
   public AbstractTraverseStep(
       List<OTraverseProjectionItem> projections,
@@ -134,6 +132,12 @@ public abstract class AbstractTraverseStep extends AbstractExecutionStep {
     return cost;
   }
 
+  @Override
+  public void close() {
+    traversed.close();
+    super.close();
+  }
+
   @Override
   public String toString() {
     return prettyPrint(0, 2);
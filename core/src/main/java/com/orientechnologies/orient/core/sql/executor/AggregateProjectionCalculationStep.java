@@ -1,13 +1,25 @@
 package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.BytesContainer;
+import com.orientechnologies.orient.core.serialization.serializer.result.binary.OResultSerializerNetwork;
 import com.orientechnologies.orient.core.sql.parser.OExpression;
 import com.orientechnologies.orient.core.sql.parser.OGroupBy;
 import com.orientechnologies.orient.core.sql.parser.OProjection;
 import com.orientechnologies.orient.core.sql.parser.OProjectionItem;
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,15 +28,24 @@ import java.util.Optional;
 /** Created by luigidellaquila on 12/07/16. */
 public class AggregateProjectionCalculationStep extends ProjectionCalculationStep {
 
+  private static final int PARTITIONS = 16;
+  private static final int PARTITION_BITS = 4;
+  private static final int MAX_PARTITION_LEVEL = 32 / PARTITION_BITS;
+
   private final OGroupBy groupBy;
   private final long timeoutMillis;
   private final long limit;
 
-  // the key is the GROUP BY key, the value is the (partially) aggregated value
-  private Map<List, OResultInternal> aggregateResults = new LinkedHashMap<>();
-  private List<OResultInternal> finalResults = null;
+  private final OResultSerializerNetwork keySerializer = new OResultSerializerNetwork();
+
+  // groups aggregated in heap, which were not returned yet
+  private Iterator<OResultInternal> groups = null;
+  // records of the groups which did not fit into the heap, they are aggregated after the groups
+  // kept in heap
+  private final Deque<Partition> partitions = new ArrayDeque<>();
+  private long groupsCount = 0;
 
-  private int nextItem = 0;
+  private long timeoutBegin;
   private long cost = 0;
 
   public AggregateProjectionCalculationStep(
@@ -42,7 +63,7 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
 
   @Override
   public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
-    if (finalResults == null) {
+    if (groups == null) {
       executeAggregation(ctx, nRecords);
     }
 
@@ -51,19 +72,24 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
 
       @Override
       public boolean hasNext() {
-        if (localNext > nRecords || nextItem >= finalResults.size()) {
+        if (localNext > nRecords) {
           return false;
         }
-        return true;
+        return hasNextGroup(ctx);
       }
 
       @Override
       public OResult next() {
-        if (localNext > nRecords || nextItem >= finalResults.size()) {
+        if (localNext > nRecords || !hasNextGroup(ctx)) {
           throw new IllegalStateException();
         }
-        OResult result = finalResults.get(nextItem);
-        nextItem++;
+        OResultInternal result = groups.next();
+        for (String name : result.getTemporaryProperties()) {
+          Object prevVal = result.getTemporaryProperty(name);
+          if (prevVal instanceof AggregationContext) {
+            result.setTemporaryProperty(name, ((AggregationContext) prevVal).getFinalValue());
+          }
+        }
         localNext++;
         return result;
       }
@@ -84,82 +110,238 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
   }
 
   private void executeAggregation(OCommandContext ctx, int nRecords) {
-    long timeoutBegin = System.currentTimeMillis();
+    timeoutBegin = System.currentTimeMillis();
     if (!prev.isPresent()) {
       throw new OCommandExecutionException(
           "Cannot execute an aggregation or a GROUP BY without a previous result");
     }
     OExecutionStepInternal prevStep = prev.get();
-    OResultSet lastRs = prevStep.syncPull(ctx, nRecords);
-    while (lastRs.hasNext()) {
-      if (timeoutMillis > 0 && timeoutBegin + timeoutMillis < System.currentTimeMillis()) {
-        sendTimeout();
+    Iterator<OResult> records =
+        new Iterator<OResult>() {
+          private OResultSet lastRs = prevStep.syncPull(ctx, nRecords);
+
+          @Override
+          public boolean hasNext() {
+            if (!lastRs.hasNext()) {
+              lastRs = prevStep.syncPull(ctx, nRecords);
+            }
+            return lastRs.hasNext();
+          }
+
+          @Override
+          public OResult next() {
+            return lastRs.next();
+          }
+        };
+    aggregate(records, 0, ctx);
+  }
+
+  private boolean hasNextGroup(OCommandContext ctx) {
+    while (!groups.hasNext()) {
+      Partition partition = partitions.poll();
+      if (partition == null) {
+        return false;
       }
-      aggregate(lastRs.next(), ctx);
-      if (!lastRs.hasNext()) {
-        lastRs = prevStep.syncPull(ctx, nRecords);
+      try {
+        aggregate(partition.records.read(), partition.level, ctx);
+      } catch (IOException e) {
+        throw OException.wrapException(
+            new OCommandExecutionException("Error during reading of GROUP BY partition"), e);
+      } finally {
+        partition.records.close();
       }
     }
-    finalResults = new ArrayList<>();
-    finalResults.addAll(aggregateResults.values());
-    aggregateResults.clear();
-    for (OResultInternal item : finalResults) {
-      if (timeoutMillis > 0 && timeoutBegin + timeoutMillis < System.currentTimeMillis()) {
-        sendTimeout();
+    return true;
+  }
+
+  /**
+   * Hybrid hash aggregation. Groups are aggregated in heap until their amount reaches {@link
+   * OGlobalConfiguration#QUERY_GROUP_BY_MAX_HEAP_GROUPS}, after that records of the groups which
+   * are already in heap are still aggregated there, while records of all the other groups are
+   * written to partitions on disk by hash of their key. Every group ends up either entirely in heap
+   * or entirely in a single partition, so partitions are aggregated later, one by one, the same
+   * way.
+   */
+  private void aggregate(Iterator<OResult> records, int level, OCommandContext ctx) {
+    final int maxHeapGroups =
+        OGlobalConfiguration.QUERY_GROUP_BY_MAX_HEAP_GROUPS.getValueAsInteger();
+    // the key is the GROUP BY key, the value is the (partially) aggregated value
+    Map<Object, OResultInternal> aggregateResults = new LinkedHashMap<>();
+    OResultSpillFile[] spilled = null;
+    try {
+      while (records.hasNext()) {
+        if (timeoutMillis > 0 && timeoutBegin + timeoutMillis < System.currentTimeMillis()) {
+          sendTimeout();
+        }
+        OResult next = records.next();
+        long begin = profilingEnabled ? System.nanoTime() : 0;
+        try {
+          Object key = groupKey(next, ctx);
+          OResultInternal preAggr = aggregateResults.get(key);
+          if (preAggr == null) {
+            if (limit > 0 && groupsCount > limit) {
+              continue;
+            }
+            if (maxHeapGroups > 0
+                && aggregateResults.size() >= maxHeapGroups
+                && level < MAX_PARTITION_LEVEL) {
+              if (spilled == null) {
+                spilled = new OResultSpillFile[PARTITIONS];
+              }
+              spill(next, key, level, spilled);
+              continue;
+            }
+
+            preAggr = new OResultInternal();
+
+            for (OProjectionItem proj : this.projection.getItems()) {
+              String alias = proj.getProjectionAlias().getStringValue();
+              if (!proj.isAggregate()) {
+                preAggr.setProperty(alias, proj.execute(next, ctx));
+              }
+            }
+            aggregateResults.put(key, preAggr);
+            groupsCount++;
+          }
+
+          for (OProjectionItem proj : this.projection.getItems()) {
+            String alias = proj.getProjectionAlias().getStringValue();
+            if (proj.isAggregate()) {
+              AggregationContext aggrCtx =
+                  (AggregationContext) preAggr.getTemporaryProperty(alias);
+              if (aggrCtx == null) {
+                aggrCtx = proj.getAggregationContext(ctx);
+                preAggr.setTemporaryProperty(alias, aggrCtx);
+              }
+              aggrCtx.apply(next, ctx);
+            }
+          }
+        } finally {
+          if (profilingEnabled) {
+            cost += (System.nanoTime() - begin);
+          }
+        }
       }
-      for (String name : item.getTemporaryProperties()) {
-        Object prevVal = item.getTemporaryProperty(name);
-        if (prevVal instanceof AggregationContext) {
-          item.setTemporaryProperty(name, ((AggregationContext) prevVal).getFinalValue());
+    } catch (IOException e) {
+      closePartitions(spilled);
+      throw OException.wrapException(
+          new OCommandExecutionException("Error during spilling of GROUP BY records to disk"), e);
+    } catch (RuntimeException e) {
+      closePartitions(spilled);
+      throw e;
+    }
+
+    if (spilled != null) {
+      for (OResultSpillFile partition : spilled) {
+        if (partition != null) {
+          partitions.add(new Partition(partition, level + 1));
         }
       }
     }
+    groups = aggregateResults.values().iterator();
   }
 
-  private void aggregate(OResult next, OCommandContext ctx) {
-    long begin = profilingEnabled ? System.nanoTime() : 0;
-    try {
-      List<Object> key = new ArrayList<>();
-      if (groupBy != null) {
-        for (OExpression item : groupBy.getItems()) {
-          Object val = item.execute(next, ctx);
-          key.add(val);
-        }
+  private void spill(OResult record, Object key, int level, OResultSpillFile[] spilled)
+      throws IOException {
+    if (!OResultSpillFile.isSpillable(record)) {
+      throw new OCommandExecutionException(
+          "Limit of groups allowed in heap for GROUP BY exceeded ("
+              + OGlobalConfiguration.QUERY_GROUP_BY_MAX_HEAP_GROUPS.getValueAsInteger()
+              + ") and the record "
+              + record
+              + " can not be spilled to disk. You can set "
+              + OGlobalConfiguration.QUERY_GROUP_BY_MAX_HEAP_GROUPS.getKey()
+              + " to increase this limit");
+    }
+
+    // every level uses different bits of the hash, so a partition is split again if it does
+    // not fit into the heap
+    int hash = key.hashCode() * 0x9E3779B9;
+    int partition = (hash >>> (32 - (level + 1) * PARTITION_BITS)) & (PARTITIONS - 1);
+    if (spilled[partition] == null) {
+      spilled[partition] = new OResultSpillFile("groupby");
+    }
+    spilled[partition].write(record);
+  }
+
+  /**
+   * GROUP BY key of the record. Keys which consist of simple values are serialized to byte array
+   * and compared by content, it is cheaper in terms of memory and of hash calculation than list of
+   * boxed values, other keys are kept as list of values.
+   */
+  private Object groupKey(OResult next, OCommandContext ctx) {
+    if (groupBy == null) {
+      return Collections.emptyList();
+    }
+
+    List<Object> values = new ArrayList<>(groupBy.getItems().size());
+    for (OExpression item : groupBy.getItems()) {
+      values.add(item.execute(next, ctx));
+    }
+
+    BytesContainer bytes = new BytesContainer();
+    for (Object value : values) {
+      if (value == null) {
+        bytes.bytes[bytes.alloc(1)] = -1;
+        continue;
       }
-      OResultInternal preAggr = aggregateResults.get(key);
-      if (preAggr == null) {
-        if (limit > 0 && aggregateResults.size() > limit) {
-          return;
-        }
-        preAggr = new OResultInternal();
 
-        for (OProjectionItem proj : this.projection.getItems()) {
-          String alias = proj.getProjectionAlias().getStringValue();
-          if (!proj.isAggregate()) {
-            preAggr.setProperty(alias, proj.execute(next, ctx));
-          }
+      OType type = OType.getTypeByValue(value);
+      if (type == OType.LINK) {
+        if (!(value instanceof ORID) || !((ORID) value).isPersistent()) {
+          return values;
         }
-        aggregateResults.put(key, preAggr);
+      } else if (!isSerializableKeyType(type)) {
+        return values;
       }
 
-      for (OProjectionItem proj : this.projection.getItems()) {
-        String alias = proj.getProjectionAlias().getStringValue();
-        if (proj.isAggregate()) {
-          AggregationContext aggrCtx = (AggregationContext) preAggr.getTemporaryProperty(alias);
-          if (aggrCtx == null) {
-            aggrCtx = proj.getAggregationContext(ctx);
-            preAggr.setTemporaryProperty(alias, aggrCtx);
-          }
-          aggrCtx.apply(next, ctx);
+      bytes.bytes[bytes.alloc(1)] = (byte) type.getId();
+      keySerializer.serializeValue(bytes, value, type, null);
+    }
+    return new SerializedKey(bytes.fitBytes());
+  }
+
+  private static boolean isSerializableKeyType(OType type) {
+    if (type == null) {
+      return false;
+    }
+    switch (type) {
+      case BOOLEAN:
+      case BYTE:
+      case SHORT:
+      case INTEGER:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+      case STRING:
+      case DATETIME:
+      case DECIMAL:
+      case BINARY:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static void closePartitions(OResultSpillFile[] spilled) {
+    if (spilled != null) {
+      for (OResultSpillFile partition : spilled) {
+        if (partition != null) {
+          partition.close();
         }
       }
-    } finally {
-      if (profilingEnabled) {
-        cost += (System.nanoTime() - begin);
-      }
     }
   }
 
+  @Override
+  public void close() {
+    for (Partition partition : partitions) {
+      partition.records.close();
+    }
+    partitions.clear();
+    super.close();
+  }
+
   @Override
   public String prettyPrint(int depth, int indent) {
     String spaces = OExecutionStepInternal.getIndent(depth, indent);
@@ -192,4 +374,42 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
   public long getCost() {
     return cost;
   }
+
+  private static final class Partition {
+    private final OResultSpillFile records;
+    private final int level;
+
+    private Partition(OResultSpillFile records, int level) {
+      this.records = records;
+      this.level = level;
+    }
+  }
+
+  /** GROUP BY key serialized to bytes, compared and hashed by content. */
+  private static final class SerializedKey {
+    private final byte[] bytes;
+    private final int hash;
+
+    private SerializedKey(byte[] bytes) {
+      this.bytes = bytes;
+      this.hash = Arrays.hashCode(bytes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof SerializedKey)) {
+        return false;
+      }
+      SerializedKey other = (SerializedKey) o;
+      return hash == other.hash && Arrays.equals(bytes, other.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
 }
@@ -1,26 +1,66 @@
 package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabase;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.exception.OSerializationException;
 import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.BytesContainer;
+import com.orientechnologies.orient.core.serialization.serializer.result.binary.OResultSerializerNetwork;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 
-/** Created by luigidellaquila on 08/07/16. */
+/**
+ * Removes duplicated results. Persistent records are tracked by their RIDs, projections are
+ * serialized and their serialized form is kept in the {@link OSerializedKeySet} in direct memory.
+ *
+ * <p>Once the set exceeds {@link OGlobalConfiguration#QUERY_DISTINCT_MAX_MEMORY} or reaches its
+ * maximum capacity it is not extended anymore. Results with keys which are not in the set are
+ * partitioned to disk by hash of their key, and are deduplicated partition by partition after all
+ * the other results are returned. Every result written to disk keeps its sequence number, so the
+ * original order of the results is restored by the merge of the deduplicated partitions.
+ *
+ * <p>Created by luigidellaquila on 08/07/16.
+ */
 public class DistinctExecutionStep extends AbstractExecutionStep {
+  private static final String SEQUENCE = "$distinctSequence";
+
+  private static final int PARTITIONS = 16;
+  private static final int PARTITION_BITS = 4;
+  private static final int MAX_PARTITION_LEVEL = 32 / PARTITION_BITS;
+
+  private final OResultSerializerNetwork keySerializer = new OResultSerializerNetwork();
 
   private Set<OResult> pastItems = new HashSet<>();
   private ORidSet pastRids = new ORidSet();
+  private OSerializedKeySet pastKeys;
+
+  private OResultSpillFile[] spilled;
+  private OResultSpillFile deferred;
+  private long spilledCount = 0;
+  private OExternalMergeSort spilledSort;
+  private Iterator<OResult> spilledResults;
 
   private OResultSet lastResult = null;
   private OResult nextValue;
 
   long maxElementsAllowed;
+  long maxMemory;
+  private long maxMemoryUsage = 0;
 
   private long cost = 0;
 
@@ -33,6 +73,10 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
             ? OGlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.getValueAsLong()
             : db.getConfiguration()
                 .getValueAsLong(OGlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP);
+    maxMemory =
+        db == null
+            ? OGlobalConfiguration.QUERY_DISTINCT_MAX_MEMORY.getValueAsLong()
+            : db.getConfiguration().getValueAsLong(OGlobalConfiguration.QUERY_DISTINCT_MAX_MEMORY);
   }
 
   @Override
@@ -81,7 +125,10 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
 
           @Override
           public Map<String, Long> getQueryStats() {
-            return null;
+            Map<String, Long> stats = new HashMap<>();
+            stats.put("distinctMemoryUsage", maxMemoryUsage);
+            stats.put("distinctSpilledResults", spilledCount);
+            return stats;
           }
         };
 
@@ -93,19 +140,30 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
       if (nextValue != null) {
         return;
       }
+      if (spilledResults != null) {
+        if (spilledResults.hasNext()) {
+          OResultInternal item = (OResultInternal) spilledResults.next();
+          item.removeMetadata(SEQUENCE);
+          nextValue = item;
+        }
+        return;
+      }
       if (lastResult == null || !lastResult.hasNext()) {
         lastResult = getPrev().get().syncPull(ctx, nRecords);
       }
       if (lastResult == null || !lastResult.hasNext()) {
+        releaseKeys();
+        if (spilled != null) {
+          deduplicateSpilled();
+          continue;
+        }
         return;
       }
       long begin = profilingEnabled ? System.nanoTime() : 0;
       try {
         nextValue = lastResult.next();
-        if (alreadyVisited(nextValue)) {
+        if (!visit(nextValue)) {
           nextValue = null;
-        } else {
-          markAsVisited(nextValue);
         }
       } finally {
         if (profilingEnabled) {
@@ -115,15 +173,82 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
     }
   }
 
-  private void markAsVisited(OResult nextValue) {
+  /**
+   * Marks result as visited.
+   *
+   * @return <code>true</code> if the result is visited for the first time and has to be returned
+   *     now, <code>false</code> if it is a duplicate or if it was partitioned to disk
+   */
+  private boolean visit(OResult nextValue) {
     if (nextValue.isElement()) {
       ORID identity = nextValue.getElement().get().getIdentity();
       int cluster = identity.getClusterId();
       long pos = identity.getClusterPosition();
       if (cluster >= 0 && pos >= 0) {
+        if (pastRids.contains(identity)) {
+          return false;
+        }
         pastRids.add(identity);
-        return;
+        return accept(nextValue);
+      }
+    }
+
+    byte[] key = serializeKey(nextValue);
+    if (key == null) {
+      return visitInHeap(nextValue) && accept(nextValue);
+    }
+
+    int hash = OSerializedKeySet.hash(key);
+    if (spilled == null) {
+      if (pastKeys == null) {
+        pastKeys = new OSerializedKeySet();
+      }
+      if (!pastKeys.add(key, hash)) {
+        return false;
+      }
+
+      maxMemoryUsage = Math.max(maxMemoryUsage, pastKeys.getMemoryUsage());
+      if (isFull(pastKeys)) {
+        // the set is not extended anymore, new keys go to the disk
+        spilled = new OResultSpillFile[PARTITIONS];
+      }
+      return true;
+    }
+
+    if (!pastKeys.contains(key, hash)) {
+      ((OResultInternal) nextValue).setMetadata(SEQUENCE, spilledCount++);
+      spill(nextValue, hash, 0, spilled);
+    }
+    return false;
+  }
+
+  /**
+   * Once results are partitioned to disk, new results which are not duplicates are returned after
+   * them too, so they are written to disk with their sequence number as well.
+   *
+   * @return <code>true</code> if the result has to be returned now
+   */
+  private boolean accept(OResult nextValue) {
+    if (spilled == null || !OResultSpillFile.isSpillable(nextValue)) {
+      return true;
+    }
+
+    ((OResultInternal) nextValue).setMetadata(SEQUENCE, spilledCount++);
+    try {
+      if (deferred == null) {
+        deferred = new OResultSpillFile("distinct");
       }
+      deferred.write(nextValue);
+    } catch (IOException e) {
+      throw OException.wrapException(
+          new OCommandExecutionException("Error during spilling of DISTINCT results to disk"), e);
+    }
+    return false;
+  }
+
+  private boolean visitInHeap(OResult nextValue) {
+    if (pastItems.contains(nextValue)) {
+      return false;
     }
     pastItems.add(nextValue);
     if (maxElementsAllowed > 0 && maxElementsAllowed < pastItems.size()) {
@@ -135,18 +260,161 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
               + OGlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.getKey()
               + " to increase this limit");
     }
+    return true;
   }
 
-  private boolean alreadyVisited(OResult nextValue) {
-    if (nextValue.isElement()) {
-      ORID identity = nextValue.getElement().get().getIdentity();
-      int cluster = identity.getClusterId();
-      long pos = identity.getClusterPosition();
-      if (cluster >= 0 && pos >= 0) {
-        return pastRids.contains(identity);
+  /**
+   * Serializes properties of the projection in order of their names, so equal projections have
+   * equal keys.
+   *
+   * @return serialized key or <code>null</code> if the result is not a projection or if it contains
+   *     values which can not be serialized
+   */
+  private byte[] serializeKey(OResult result) {
+    if (result.getClass() != OResultInternal.class || ((OResultInternal) result).element != null) {
+      return null;
+    }
+
+    Map<String, Object> content = ((OResultInternal) result).content;
+    OResultInternal key = new OResultInternal();
+    key.content = new LinkedHashMap<>();
+    for (String name : new TreeSet<>(content.keySet())) {
+      key.content.put(name, content.get(name));
+    }
+
+    BytesContainer bytes = new BytesContainer();
+    try {
+      keySerializer.serialize(key, bytes);
+    } catch (OSerializationException e) {
+      return null;
+    }
+    return bytes.fitBytes();
+  }
+
+  private void spill(OResult result, int hash, int level, OResultSpillFile[] partitions) {
+    // every level uses different bits of the hash, so a partition is split again if its keys do
+    // not fit into the memory
+    int partition = (hash >>> (32 - (level + 1) * PARTITION_BITS)) & (PARTITIONS - 1);
+    try {
+      if (partitions[partition] == null) {
+        partitions[partition] = new OResultSpillFile("distinct");
+      }
+      partitions[partition].write(result);
+    } catch (IOException e) {
+      throw OException.wrapException(
+          new OCommandExecutionException("Error during spilling of DISTINCT results to disk"), e);
+    }
+  }
+
+  /**
+   * Deduplicates results partitioned to disk. Partitions do not share keys neither with each other
+   * nor with the results returned already, so every partition is deduplicated separately, and
+   * partitions which still do not fit into the memory are split further.
+   */
+  private void deduplicateSpilled() {
+    Deque<Partition> partitions = new ArrayDeque<>();
+    addPartitions(partitions, spilled, 1);
+    spilled = null;
+
+    spilledSort =
+        new OExternalMergeSort(
+            Comparator.comparingLong(result -> (Long) result.getMetadata(SEQUENCE)));
+    try {
+      if (deferred != null) {
+        // these results are unique and are written in order of the sequence already
+        spilledSort.addRun(deferred);
+        deferred = null;
+      }
+      while (!partitions.isEmpty()) {
+        Partition partition = partitions.poll();
+        try {
+          deduplicatePartition(partition, partitions);
+        } finally {
+          partition.results.close();
+        }
+      }
+      spilledResults = spilledSort.merge(Collections.emptyList());
+    } catch (IOException e) {
+      throw OException.wrapException(
+          new OCommandExecutionException("Error during reading of DISTINCT partition"), e);
+    } finally {
+      for (Partition partition : partitions) {
+        partition.results.close();
+      }
+    }
+  }
+
+  private void deduplicatePartition(Partition partition, Deque<Partition> partitions)
+      throws IOException {
+    OResultSpillFile unique = new OResultSpillFile("distinct");
+    OResultSpillFile[] subPartitions = null;
+    try (OSerializedKeySet keys = new OSerializedKeySet()) {
+      Iterator<OResult> results = partition.results.read();
+      while (results.hasNext()) {
+        OResult result = results.next();
+        byte[] key = serializeKey(result);
+        int hash = OSerializedKeySet.hash(key);
+        if (subPartitions == null) {
+          if (keys.add(key, hash)) {
+            unique.write(result);
+            maxMemoryUsage = Math.max(maxMemoryUsage, keys.getMemoryUsage());
+            if (isFull(keys)) {
+              if (partition.level >= MAX_PARTITION_LEVEL) {
+                throw new OCommandExecutionException(
+                    "DISTINCT can not be calculated, too many keys have the same hash code");
+              }
+              subPartitions = new OResultSpillFile[PARTITIONS];
+            }
+          }
+        } else if (!keys.contains(key, hash)) {
+          spill(result, hash, partition.level, subPartitions);
+        }
       }
+    } catch (IOException | RuntimeException e) {
+      unique.close();
+      closePartitions(subPartitions);
+      throw e;
+    }
+
+    // results are read in order of the sequence, so unique results are already sorted
+    spilledSort.addRun(unique);
+    addPartitions(partitions, subPartitions, partition.level + 1);
+  }
+
+  /**
+   * @return <code>true</code> if the set exceeds the memory limit or its maximum capacity, so keys
+   *     should not be added to it anymore
+   */
+  private boolean isFull(OSerializedKeySet keys) {
+    return (maxMemory > 0 && keys.getMemoryUsage() > maxMemory) || keys.isFull();
+  }
+
+  private static void addPartitions(
+      Deque<Partition> partitions, OResultSpillFile[] spilled, int level) {
+    if (spilled != null) {
+      for (OResultSpillFile results : spilled) {
+        if (results != null) {
+          partitions.add(new Partition(results, level));
+        }
+      }
+    }
+  }
+
+  private static void closePartitions(OResultSpillFile[] spilled) {
+    if (spilled != null) {
+      for (OResultSpillFile partition : spilled) {
+        if (partition != null) {
+          partition.close();
+        }
+      }
+    }
+  }
+
+  private void releaseKeys() {
+    if (pastKeys != null) {
+      pastKeys.close();
+      pastKeys = null;
     }
-    return pastItems.contains(nextValue);
   }
 
   @Override
@@ -154,6 +422,17 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
 
   @Override
   public void close() {
+    releaseKeys();
+    closePartitions(spilled);
+    spilled = null;
+    if (deferred != null) {
+      deferred.close();
+      deferred = null;
+    }
+    if (spilledSort != null) {
+      spilledSort.close();
+      spilledSort = null;
+    }
     prev.ifPresent(x -> x.close());
   }
 
@@ -163,6 +442,9 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
     if (profilingEnabled) {
       result += " (" + getCostFormatted() + ")";
     }
+    if (spilledCount > 0) {
+      result += " (spilled to disk: " + spilledCount + " results)";
+    }
     return result;
   }
 
@@ -170,4 +452,14 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
   public long getCost() {
     return cost;
   }
+
+  private static final class Partition {
+    private final OResultSpillFile results;
+    private final int level;
+
+    private Partition(OResultSpillFile results, int level) {
+      this.results = results;
+      this.level = level;
+    }
+  }
 }
@@ -5,17 +5,27 @@ import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
-/** Created by luigidellaquila on 08/05/17. */
+/**
+ * Executes a part of the query on a remote node and streams the results, page by page, to the
+ * current node. The remote part is either an execution plan or a SQL statement.
+ *
+ * <p>Created by luigidellaquila on 08/05/17.
+ */
 public class DistributedExecutionStep extends AbstractExecutionStep {
 
   private final OSelectExecutionPlan subExecuitonPlan;
+  private final String subQuery;
+  private final Set<String> clusters;
   private final String nodeName;
 
   private boolean inited;
 
   private OResultSet remoteResultSet;
 
+  private long cost = 0;
+
   public DistributedExecutionStep(
       OSelectExecutionPlan subExecutionPlan,
       String nodeName,
@@ -23,6 +33,27 @@ public class DistributedExecutionStep extends AbstractExecutionStep {
       boolean profilingEnabled) {
     super(ctx, profilingEnabled);
     this.subExecuitonPlan = subExecutionPlan;
+    this.subQuery = null;
+    this.clusters = null;
+    this.nodeName = nodeName;
+  }
+
+  /**
+   * @param subQuery the SQL statement to execute on the remote node, with input parameters already
+   *     bound
+   * @param clusters the clusters the statement is restricted to
+   * @param nodeName the node name
+   */
+  public DistributedExecutionStep(
+      String subQuery,
+      Set<String> clusters,
+      String nodeName,
+      OCommandContext ctx,
+      boolean profilingEnabled) {
+    super(ctx, profilingEnabled);
+    this.subExecuitonPlan = null;
+    this.subQuery = subQuery;
+    this.clusters = clusters;
     this.nodeName = nodeName;
   }
 
@@ -31,14 +62,30 @@ public class DistributedExecutionStep extends AbstractExecutionStep {
     init(ctx);
     getPrev().ifPresent(x -> x.syncPull(ctx, nRecords));
     return new OResultSet() {
+      private int localCount = 0;
+
       @Override
       public boolean hasNext() {
-        throw new UnsupportedOperationException("Implement distributed execution step!");
+        if (localCount >= nRecords) {
+          return false;
+        }
+        long begin = profilingEnabled ? System.nanoTime() : 0;
+        try {
+          return remoteResultSet.hasNext();
+        } finally {
+          if (profilingEnabled) {
+            cost += (System.nanoTime() - begin);
+          }
+        }
       }
 
       @Override
       public OResult next() {
-        throw new UnsupportedOperationException("Implement distributed execution step!");
+        if (!hasNext()) {
+          throw new IllegalStateException();
+        }
+        localCount++;
+        return remoteResultSet.next();
       }
 
       @Override
@@ -61,7 +108,20 @@ public class DistributedExecutionStep extends AbstractExecutionStep {
   public void init(OCommandContext ctx) {
     if (!inited) {
       inited = true;
-      this.remoteResultSet = sendSerializedExecutionPlan(nodeName, subExecuitonPlan, ctx);
+      long begin = profilingEnabled ? System.nanoTime() : 0;
+      try {
+        if (subQuery != null) {
+          ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) ctx.getDatabase();
+          this.remoteResultSet =
+              db.queryOnNode(nodeName, subQuery, clusters, ctx.getInputParameters());
+        } else {
+          this.remoteResultSet = sendSerializedExecutionPlan(nodeName, subExecuitonPlan, ctx);
+        }
+      } finally {
+        if (profilingEnabled) {
+          cost += (System.nanoTime() - begin);
+        }
+      }
     }
   }
 
@@ -79,11 +139,26 @@ public class DistributedExecutionStep extends AbstractExecutionStep {
     }
   }
 
+  @Override
+  public long getCost() {
+    return cost;
+  }
+
   @Override
   public String prettyPrint(int depth, int indent) {
     StringBuilder builder = new StringBuilder();
     String ind = OExecutionStepInternal.getIndent(depth, indent);
     builder.append(ind);
+    if (subQuery != null) {
+      builder.append("+ EXECUTE ON NODE " + nodeName);
+      if (profilingEnabled) {
+        builder.append(" (" + getCostFormatted() + ")");
+      }
+      builder.append("\n");
+      builder.append(ind);
+      builder.append("  " + subQuery + " ON CLUSTERS " + clusters + "\n");
+      return builder.toString();
+    }
     builder.append("+ EXECUTE ON NODE " + nodeName + "----------- \n");
     builder.append(subExecuitonPlan.prettyPrint(depth + 1, indent));
     builder.append("  ------------------------------------------- \n");
@@ -3,8 +3,10 @@ package com.orientechnologies.orient.core.sql.executor;
 import com.orientechnologies.common.concur.OTimeoutException;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.sql.parser.OWhereClause;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -21,9 +23,13 @@ public class FetchFromClassExecutionStep extends AbstractExecutionStep {
   protected boolean orderByRidAsc = false;
   protected boolean orderByRidDesc = false;
   protected List<OExecutionStep> subSteps = new ArrayList<>();
+  protected long parallelMinimumRecords = -1;
+  protected OWhereClause filter;
 
   private OResultSet currentResultSet;
   private int currentStep = 0;
+  private boolean fetchStarted = false;
+  private OParallelClusterScan parallelScan;
 
   protected FetchFromClassExecutionStep(OCommandContext ctx, boolean profilingEnabled) {
     super(ctx, profilingEnabled);
@@ -125,60 +131,60 @@ public class FetchFromClassExecutionStep extends AbstractExecutionStep {
     }
   }
 
+  /**
+   * Enables the scan of the clusters by several threads.
+   *
+   * @param parallelMinimumRecords minimum number of records in the clusters to scan them in
+   *     parallel, 0 to do it regardless of the size of the clusters, -1 to always scan them serially
+   */
+  public void setParallelMinimumRecords(long parallelMinimumRecords) {
+    this.parallelMinimumRecords = parallelMinimumRecords;
+  }
+
+  /**
+   * Sets the condition evaluated while the records are fetched, in case of the parallel scan it is
+   * evaluated by the threads that read the records.
+   */
+  public void setFilter(OWhereClause filter) {
+    this.filter = filter;
+  }
+
   @Override
   public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
     getPrev().ifPresent(x -> x.syncPull(ctx, nRecords));
+    if (!fetchStarted) {
+      fetchStarted = true;
+      if (isParallelScanRequired(ctx)) {
+        parallelScan = startParallelScan(ctx);
+      }
+    }
+
     return new OResultSet() {
 
       private int totDispatched = 0;
+      private OResult nextItem = null;
 
       @Override
       public boolean hasNext() {
-        while (true) {
-          if (totDispatched >= nRecords) {
-            return false;
-          }
-          if (currentResultSet != null && currentResultSet.hasNext()) {
-            return true;
-          } else {
-            if (currentStep >= getSubSteps().size()) {
-              return false;
-            }
-            currentResultSet =
-                ((AbstractExecutionStep) getSubSteps().get(currentStep)).syncPull(ctx, nRecords);
-            if (!currentResultSet.hasNext()) {
-              currentResultSet =
-                  ((AbstractExecutionStep) getSubSteps().get(currentStep++))
-                      .syncPull(ctx, nRecords);
-            }
-          }
+        if (totDispatched >= nRecords) {
+          return false;
+        }
+        if (nextItem == null) {
+          nextItem = fetchNextItem(ctx, nRecords);
         }
+        return nextItem != null;
       }
 
       @Override
       public OResult next() {
-        while (true) {
-          if (totDispatched >= nRecords) {
-            throw new IllegalStateException();
-          }
-          if (currentResultSet != null && currentResultSet.hasNext()) {
-            totDispatched++;
-            OResult result = currentResultSet.next();
-            ctx.setVariable("$current", result);
-            return result;
-          } else {
-            if (currentStep >= getSubSteps().size()) {
-              throw new IllegalStateException();
-            }
-            currentResultSet =
-                ((AbstractExecutionStep) getSubSteps().get(currentStep)).syncPull(ctx, nRecords);
-            if (!currentResultSet.hasNext()) {
-              currentResultSet =
-                  ((AbstractExecutionStep) getSubSteps().get(currentStep++))
-                      .syncPull(ctx, nRecords);
-            }
-          }
+        if (!hasNext()) {
+          throw new IllegalStateException();
         }
+        OResult result = nextItem;
+        nextItem = null;
+        totDispatched++;
+        ctx.setVariable("$current", result);
+        return result;
       }
 
       @Override
@@ -200,6 +206,72 @@ public class FetchFromClassExecutionStep extends AbstractExecutionStep {
     };
   }
 
+  private OResult fetchNextItem(OCommandContext ctx, int nRecords) {
+    if (parallelScan != null) {
+      // records are already filtered by the threads of the scan
+      return parallelScan.next();
+    }
+
+    while (true) {
+      if (currentResultSet != null && currentResultSet.hasNext()) {
+        OResult result = currentResultSet.next();
+        if (filter == null || filter.matchesFilters(result, ctx)) {
+          return result;
+        }
+      } else {
+        if (currentStep >= getSubSteps().size()) {
+          return null;
+        }
+        currentResultSet =
+            ((AbstractExecutionStep) getSubSteps().get(currentStep)).syncPull(ctx, nRecords);
+        if (!currentResultSet.hasNext()) {
+          currentStep++;
+        }
+      }
+    }
+  }
+
+  private boolean isParallelScanRequired(OCommandContext ctx) {
+    if (parallelMinimumRecords < 0 || !OParallelClusterScan.canRunParallel(ctx)) {
+      return false;
+    }
+    if (parallelMinimumRecords == 0) {
+      return true;
+    }
+
+    long records = 0;
+    for (OExecutionStep step : getSubSteps()) {
+      if (step instanceof FetchFromClusterExecutionStep) {
+        records +=
+            ctx.getDatabase()
+                .countClusterElements(((FetchFromClusterExecutionStep) step).getClusterId());
+      }
+    }
+    return records >= parallelMinimumRecords;
+  }
+
+  private OParallelClusterScan startParallelScan(OCommandContext ctx) {
+    OParallelClusterScan scan =
+        new OParallelClusterScan(
+            (ODatabaseDocumentInternal) ctx.getDatabase(),
+            ctx,
+            filter,
+            orderByRidAsc || orderByRidDesc,
+            orderByRidDesc);
+    // records of the transaction are not fetched, parallel scan is not used if it is active
+    for (OExecutionStep step : getSubSteps()) {
+      if (step instanceof FetchFromClusterExecutionStep) {
+        FetchFromClusterExecutionStep clusterStep = (FetchFromClusterExecutionStep) step;
+        scan.addCluster(
+            clusterStep.getClusterId(),
+            clusterStep.calculateMinClusterPosition(),
+            clusterStep.calculateMaxClusterPosition());
+      }
+    }
+    scan.start();
+    return scan;
+  }
+
   @Override
   public void sendTimeout() {
     for (OExecutionStep step : getSubSteps()) {
@@ -210,6 +282,9 @@ public class FetchFromClassExecutionStep extends AbstractExecutionStep {
 
   @Override
   public void close() {
+    if (parallelScan != null) {
+      parallelScan.close();
+    }
     for (OExecutionStep step : getSubSteps()) {
       ((AbstractExecutionStep) step).close();
     }
@@ -222,10 +297,19 @@ public class FetchFromClassExecutionStep extends AbstractExecutionStep {
     String ind = OExecutionStepInternal.getIndent(depth, indent);
     builder.append(ind);
     builder.append("+ FETCH FROM CLASS " + className);
+    if (parallelMinimumRecords >= 0) {
+      builder.append(" (parallel)");
+    }
     if (profilingEnabled) {
       builder.append(" (" + getCostFormatted() + ")");
     }
     builder.append("\n");
+    if (filter != null) {
+      builder.append(ind);
+      builder.append("  WHERE ");
+      builder.append(filter.toString());
+      builder.append("\n");
+    }
     for (int i = 0; i < getSubSteps().size(); i++) {
       OExecutionStepInternal step = (OExecutionStepInternal) getSubSteps().get(i);
       builder.append(step.prettyPrint(depth + 1, indent));
@@ -247,6 +331,10 @@ public class FetchFromClassExecutionStep extends AbstractExecutionStep {
     result.setProperty("className", className);
     result.setProperty("orderByRidAsc", orderByRidAsc);
     result.setProperty("orderByRidDesc", orderByRidDesc);
+    result.setProperty("parallelMinimumRecords", parallelMinimumRecords);
+    if (filter != null) {
+      result.setProperty("filter", filter.serialize());
+    }
     return result;
   }
 
@@ -257,6 +345,13 @@ public class FetchFromClassExecutionStep extends AbstractExecutionStep {
       this.className = fromResult.getProperty("className");
       this.orderByRidAsc = fromResult.getProperty("orderByRidAsc");
       this.orderByRidDesc = fromResult.getProperty("orderByRidDesc");
+      Number parallelMinimumRecords = fromResult.getProperty("parallelMinimumRecords");
+      this.parallelMinimumRecords =
+          parallelMinimumRecords == null ? -1 : parallelMinimumRecords.longValue();
+      if (fromResult.getProperty("filter") != null) {
+        this.filter = new OWhereClause(-1);
+        this.filter.deserialize(fromResult.getProperty("filter"));
+      }
     } catch (Exception e) {
       throw OException.wrapException(new OCommandExecutionException(""), e);
     }
@@ -278,6 +373,8 @@ public class FetchFromClassExecutionStep extends AbstractExecutionStep {
     result.className = this.className;
     result.orderByRidAsc = this.orderByRidAsc;
     result.orderByRidDesc = this.orderByRidDesc;
+    result.parallelMinimumRecords = this.parallelMinimumRecords;
+    result.filter = this.filter == null ? null : this.filter.copy();
     result.subSteps =
         this.subSteps.stream()
             .map(x -> ((OExecutionStepInternal) x).copy(ctx))
@@ -154,7 +154,7 @@ public class FetchFromClusterExecutionStep extends AbstractExecutionStep {
     }
   }
 
-  private long calculateMinClusterPosition() {
+  long calculateMinClusterPosition() {
     if (queryPlanning == null
         || queryPlanning.ridRangeConditions == null
         || queryPlanning.ridRangeConditions.isEmpty()) {
@@ -182,7 +182,7 @@ public class FetchFromClusterExecutionStep extends AbstractExecutionStep {
     return maxValue;
   }
 
-  private long calculateMaxClusterPosition() {
+  long calculateMaxClusterPosition() {
     if (queryPlanning == null
         || queryPlanning.ridRangeConditions == null
         || queryPlanning.ridRangeConditions.isEmpty()) {
@@ -247,6 +247,10 @@ public class FetchFromClusterExecutionStep extends AbstractExecutionStep {
     return result;
   }
 
+  int getClusterId() {
+    return clusterId;
+  }
+
   public void setOrder(Object order) {
     this.order = order;
   }
@@ -3,7 +3,10 @@ package com.orientechnologies.orient.core.sql.executor;
 import com.orientechnologies.common.concur.OTimeoutException;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabase;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.sql.parser.OExpressionCompiler;
 import com.orientechnologies.orient.core.sql.parser.OWhereClause;
 import java.util.Map;
 import java.util.Optional;
@@ -12,6 +15,9 @@ import java.util.Optional;
 public class FilterStep extends AbstractExecutionStep {
   private final long timeoutMillis;
   private OWhereClause whereClause;
+  private OBinaryRecordFilter binaryFilter;
+  private boolean binaryFilterCompiled = false;
+  private OExpressionCompiler.Condition compiledCondition;
 
   private OResultSet prevResult = null;
 
@@ -30,6 +36,7 @@ public class FilterStep extends AbstractExecutionStep {
       throw new IllegalStateException("filter step requires a previous step");
     }
     OExecutionStepInternal prevStep = prev.get();
+    compileFilters(ctx);
 
     return new OResultSet() {
       public boolean finished = false;
@@ -61,7 +68,7 @@ public class FilterStep extends AbstractExecutionStep {
           nextItem = prevResult.next();
           long begin = profilingEnabled ? System.nanoTime() : 0;
           try {
-            if (whereClause.matchesFilters(nextItem, ctx)) {
+            if (matches(nextItem, ctx)) {
               break;
             }
 
@@ -128,6 +135,41 @@ public class FilterStep extends AbstractExecutionStep {
     };
   }
 
+  private void compileFilters(OCommandContext ctx) {
+    if (binaryFilterCompiled) {
+      return;
+    }
+    binaryFilterCompiled = true;
+    ODatabase db = ctx.getDatabase();
+    boolean enabled =
+        db == null
+            ? OGlobalConfiguration.QUERY_BINARY_FILTER.getValueAsBoolean()
+            : db.getConfiguration().getValueAsBoolean(OGlobalConfiguration.QUERY_BINARY_FILTER);
+    if (enabled) {
+      binaryFilter = OBinaryRecordFilter.compile(whereClause, ctx);
+    }
+    if (OExpressionCompiler.isEnabled(ctx)) {
+      compiledCondition = OExpressionCompiler.compile(whereClause, ctx);
+    }
+  }
+
+  /**
+   * The records which can be evaluated on their serialized content are deserialized only if they
+   * match
+   */
+  private boolean matches(OResult item, OCommandContext ctx) {
+    if (binaryFilter != null) {
+      Boolean result = binaryFilter.matches(item);
+      if (result != null) {
+        return result;
+      }
+    }
+    if (compiledCondition != null) {
+      return compiledCondition.evaluate(item, ctx);
+    }
+    return whereClause.matchesFilters(item, ctx);
+  }
+
   @Override
   public String prettyPrint(int depth, int indent) {
     StringBuilder result = new StringBuilder();
@@ -0,0 +1,533 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.collection.OMultiValue;
+import com.orientechnologies.orient.core.collate.OCollate;
+import com.orientechnologies.orient.core.collate.ODefaultCollate;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.metadata.OMetadataInternal;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OImmutableSchema;
+import com.orientechnologies.orient.core.metadata.schema.OProperty;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.metadata.security.OPropertyAccess;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.BytesContainer;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.OBinaryComparator;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.OBinaryField;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ODocumentSerializer;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerBinary;
+import com.orientechnologies.orient.core.sql.parser.OAndBlock;
+import com.orientechnologies.orient.core.sql.parser.OBetweenCondition;
+import com.orientechnologies.orient.core.sql.parser.OBinaryCompareOperator;
+import com.orientechnologies.orient.core.sql.parser.OBinaryCondition;
+import com.orientechnologies.orient.core.sql.parser.OBooleanExpression;
+import com.orientechnologies.orient.core.sql.parser.OEqualsCompareOperator;
+import com.orientechnologies.orient.core.sql.parser.OExpression;
+import com.orientechnologies.orient.core.sql.parser.OGeOperator;
+import com.orientechnologies.orient.core.sql.parser.OGtOperator;
+import com.orientechnologies.orient.core.sql.parser.OInCondition;
+import com.orientechnologies.orient.core.sql.parser.OIsNotNullCondition;
+import com.orientechnologies.orient.core.sql.parser.OIsNullCondition;
+import com.orientechnologies.orient.core.sql.parser.OLeOperator;
+import com.orientechnologies.orient.core.sql.parser.OLtOperator;
+import com.orientechnologies.orient.core.sql.parser.ONeOperator;
+import com.orientechnologies.orient.core.sql.parser.ONeqOperator;
+import com.orientechnologies.orient.core.sql.parser.ONotBlock;
+import com.orientechnologies.orient.core.sql.parser.OOrBlock;
+import com.orientechnologies.orient.core.sql.parser.OParenthesisBlock;
+import com.orientechnologies.orient.core.sql.parser.OWhereClause;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Evaluates the simple conditions of a WHERE clause on the serialized content of the records,
+ * without deserializing their properties: comparisons of a property with a constant (=, <>, <, <=,
+ * >, >=), IN, BETWEEN, IS NULL and IS NOT NULL, combined with AND, OR and NOT.
+ *
+ * <p>Only integer, string and boolean values are compared this way, where the result is the same
+ * as the one of the regular evaluation. When a condition cannot be decided on the serialized
+ * content (other conditions, other types, a property with a collate, a changed record, a property
+ * the user cannot read...) {@link #matches(OResult)} returns null and the WHERE clause has to be
+ * evaluated as usual.
+ */
+public class OBinaryRecordFilter {
+  private static final int NOT_COMPARABLE = 0;
+  private static final int INTEGER = 1;
+  private static final int STRING = 2;
+  private static final int BOOLEAN = 3;
+
+  private final Node root;
+  private final OImmutableSchema schema;
+  private final Set<String> properties;
+
+  private OBinaryRecordFilter(Node root, OImmutableSchema schema, Set<String> properties) {
+    this.root = root;
+    this.schema = schema;
+    this.properties = properties;
+  }
+
+  /**
+   * @return the filter, or null if none of the conditions of the WHERE clause can be evaluated on
+   *     the serialized records
+   */
+  public static OBinaryRecordFilter compile(OWhereClause whereClause, OCommandContext ctx) {
+    if (whereClause == null || whereClause.getBaseExpression() == null) {
+      return null;
+    }
+    if (!(ctx.getDatabase() instanceof ODatabaseDocumentInternal)) {
+      return null;
+    }
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) ctx.getDatabase();
+    OImmutableSchema schema = ((OMetadataInternal) db.getMetadata()).getImmutableSchemaSnapshot();
+    Compiler compiler = new Compiler(ctx, schema);
+    Node root = compiler.compile(whereClause.getBaseExpression());
+    return root == UNKNOWN ? null : new OBinaryRecordFilter(root, schema, compiler.properties);
+  }
+
+  /**
+   * @return true if the record matches the conditions, false if it doesn't, null if it cannot be
+   *     decided without deserializing the record
+   */
+  public Boolean matches(OResult result) {
+    if (!(result instanceof OResultInternal)) {
+      return null;
+    }
+    OResultInternal item = (OResultInternal) result;
+    if (item.element == null || !item.content.isEmpty()) {
+      return null;
+    }
+    ORecord record = item.element.getRecord();
+    if (!(record instanceof ODocument) || ((ODocument) record).isEmbedded()) {
+      return null;
+    }
+    ODocument doc = (ODocument) record;
+    byte[] source = ODocumentInternal.getLoadedBinarySource(doc);
+    if (source == null || !isReadable(doc)) {
+      return null;
+    }
+    return root.evaluate(new Row(doc, source, schema));
+  }
+
+  /**
+   * The properties the user is not allowed to read are null for the regular evaluation, but their
+   * values are still in the serialized record.
+   */
+  private boolean isReadable(ODocument doc) {
+    OPropertyAccess access = ODocumentInternal.getPropertyAccess(doc);
+    if (access == null) {
+      return true;
+    }
+    for (String property : properties) {
+      if (!access.isReadable(property)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Serialized record being evaluated. */
+  private static final class Row {
+    private final ODocument document;
+    private final byte[] source;
+    private final OImmutableSchema schema;
+    private final ODocumentSerializer serializer;
+    private final OClass clazz;
+
+    private Row(ODocument document, byte[] source, OImmutableSchema schema) {
+      this.document = document;
+      this.source = source;
+      this.schema = schema;
+      this.serializer = ORecordSerializerBinary.INSTANCE.getSerializer(source[0]);
+      this.clazz = ODocumentInternal.getImmutableSchemaClass(document);
+    }
+
+    /** @return the serialized value, or null if it is null, missing or not binary comparable */
+    private OBinaryField field(String name) {
+      BytesContainer bytes = new BytesContainer(source);
+      bytes.offset = 1;
+      return serializer.deserializeField(
+          bytes,
+          clazz,
+          name,
+          false,
+          schema,
+          ODocumentInternal.getPropertyEncryption(document));
+    }
+
+    private OBinaryComparator comparator() {
+      return serializer.getComparator();
+    }
+
+    /** @return false if string values of the property are compared with a collate */
+    private boolean hasDefaultCollate(String name, OBinaryField field) {
+      if (field.collate != null && !ODefaultCollate.NAME.equals(field.collate.getName())) {
+        return false;
+      }
+      OProperty property = clazz != null ? clazz.getProperty(name) : null;
+      if (property == null) {
+        return true;
+      }
+      OCollate collate = property.getCollate();
+      return collate == null || ODefaultCollate.NAME.equals(collate.getName());
+    }
+
+    /** @return the value of the property if it can be compared with the constants */
+    private OBinaryField comparableField(String name, int family) {
+      OBinaryField field = field(name);
+      if (field == null || family(field.type) != family) {
+        return null;
+      }
+      if (family == STRING && !hasDefaultCollate(name, field)) {
+        return null;
+      }
+      return field;
+    }
+  }
+
+  private interface Node {
+    Boolean evaluate(Row row);
+  }
+
+  private static final Node UNKNOWN = row -> null;
+
+  private enum Operator {
+    EQ,
+    NE,
+    LT,
+    LE,
+    GT,
+    GE
+  }
+
+  private static final class Comparison implements Node {
+    private final String name;
+    private final Operator operator;
+    private final OBinaryField value;
+
+    private Comparison(String name, Operator operator, OBinaryField value) {
+      this.name = name;
+      this.operator = operator;
+      this.value = value;
+    }
+
+    @Override
+    public Boolean evaluate(Row row) {
+      OBinaryField field = row.comparableField(name, family(value.type));
+      if (field == null) {
+        return null;
+      }
+      switch (operator) {
+        case EQ:
+          return row.comparator().isEqual(field, value);
+        case NE:
+          return !row.comparator().isEqual(field, value);
+        case LT:
+          return row.comparator().compare(field, value) < 0;
+        case LE:
+          return row.comparator().compare(field, value) <= 0;
+        case GT:
+          return row.comparator().compare(field, value) > 0;
+        default:
+          return row.comparator().compare(field, value) >= 0;
+      }
+    }
+  }
+
+  private static final class In implements Node {
+    private final String name;
+    private final List<OBinaryField> values;
+
+    private In(String name, List<OBinaryField> values) {
+      this.name = name;
+      this.values = values;
+    }
+
+    @Override
+    public Boolean evaluate(Row row) {
+      OBinaryField field = row.comparableField(name, family(values.get(0).type));
+      if (field == null) {
+        return null;
+      }
+      for (OBinaryField value : values) {
+        if (row.comparator().isEqual(field, value)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static final class Between implements Node {
+    private final String name;
+    private final OBinaryField from;
+    private final OBinaryField to;
+
+    private Between(String name, OBinaryField from, OBinaryField to) {
+      this.name = name;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public Boolean evaluate(Row row) {
+      OBinaryField field = row.comparableField(name, family(from.type));
+      if (field == null) {
+        return null;
+      }
+      return row.comparator().compare(field, from) >= 0 && row.comparator().compare(field, to) <= 0;
+    }
+  }
+
+  /** Null values are not serialized, so only the presence of a value can be decided. */
+  private static final class IsNull implements Node {
+    private final String name;
+    private final boolean negate;
+
+    private IsNull(String name, boolean negate) {
+      this.name = name;
+      this.negate = negate;
+    }
+
+    @Override
+    public Boolean evaluate(Row row) {
+      return row.field(name) != null ? negate : null;
+    }
+  }
+
+  private static final class Not implements Node {
+    private final Node sub;
+
+    private Not(Node sub) {
+      this.sub = sub;
+    }
+
+    @Override
+    public Boolean evaluate(Row row) {
+      Boolean result = sub.evaluate(row);
+      return result == null ? null : !result;
+    }
+  }
+
+  private static final class And implements Node {
+    private final List<Node> subs;
+
+    private And(List<Node> subs) {
+      this.subs = subs;
+    }
+
+    @Override
+    public Boolean evaluate(Row row) {
+      Boolean result = true;
+      for (Node sub : subs) {
+        Boolean value = sub.evaluate(row);
+        if (value == null) {
+          result = null;
+        } else if (!value) {
+          return false;
+        }
+      }
+      return result;
+    }
+  }
+
+  private static final class Or implements Node {
+    private final List<Node> subs;
+
+    private Or(List<Node> subs) {
+      this.subs = subs;
+    }
+
+    @Override
+    public Boolean evaluate(Row row) {
+      Boolean result = false;
+      for (Node sub : subs) {
+        Boolean value = sub.evaluate(row);
+        if (value == null) {
+          result = null;
+        } else if (value) {
+          return true;
+        }
+      }
+      return result;
+    }
+  }
+
+  private static int family(OType type) {
+    switch (type) {
+      case BYTE:
+      case SHORT:
+      case INTEGER:
+      case LONG:
+        return INTEGER;
+      case STRING:
+        return STRING;
+      case BOOLEAN:
+        return BOOLEAN;
+      default:
+        return NOT_COMPARABLE;
+    }
+  }
+
+  private static final class Compiler {
+    private final OCommandContext ctx;
+    private final OImmutableSchema schema;
+    private final Set<String> properties = new HashSet<>();
+
+    private Compiler(OCommandContext ctx, OImmutableSchema schema) {
+      this.ctx = ctx;
+      this.schema = schema;
+    }
+
+    private Node compile(OBooleanExpression expression) {
+      if (expression instanceof OAndBlock) {
+        List<Node> subs = compile(((OAndBlock) expression).getSubBlocks());
+        return subs == null ? UNKNOWN : new And(subs);
+      } else if (expression instanceof OOrBlock) {
+        List<Node> subs = compile(((OOrBlock) expression).getSubBlocks());
+        return subs == null ? UNKNOWN : new Or(subs);
+      } else if (expression instanceof ONotBlock) {
+        Node sub = compile(((ONotBlock) expression).getSub());
+        return sub == UNKNOWN || !((ONotBlock) expression).isNegate() ? sub : new Not(sub);
+      } else if (expression instanceof OParenthesisBlock) {
+        return compile(((OParenthesisBlock) expression).getSubElement());
+      } else if (expression instanceof OBinaryCondition) {
+        return compileComparison((OBinaryCondition) expression);
+      } else if (expression instanceof OInCondition) {
+        return compileIn((OInCondition) expression);
+      } else if (expression instanceof OBetweenCondition) {
+        return compileBetween((OBetweenCondition) expression);
+      } else if (expression instanceof OIsNullCondition) {
+        String name = propertyName(((OIsNullCondition) expression).getExpression());
+        return name == null ? UNKNOWN : new IsNull(name, false);
+      } else if (expression instanceof OIsNotNullCondition) {
+        String name = propertyName(((OIsNotNullCondition) expression).getExpression());
+        return name == null ? UNKNOWN : new IsNull(name, true);
+      }
+      return UNKNOWN;
+    }
+
+    /** @return the compiled expressions, or null if none of them can be evaluated */
+    private List<Node> compile(List<OBooleanExpression> expressions) {
+      List<Node> result = new ArrayList<>();
+      boolean known = false;
+      for (OBooleanExpression expression : expressions) {
+        Node node = compile(expression);
+        known |= node != UNKNOWN;
+        result.add(node);
+      }
+      return known ? result : null;
+    }
+
+    private Node compileComparison(OBinaryCondition condition) {
+      String name = propertyName(condition.getLeft());
+      Operator operator = operator(condition.getOperator());
+      if (name == null || operator == null) {
+        return UNKNOWN;
+      }
+      OBinaryField value = constant(condition.getRight());
+      boolean ordering = operator != Operator.EQ && operator != Operator.NE;
+      if (value == null || (ordering && family(value.type) == BOOLEAN)) {
+        return UNKNOWN;
+      }
+      return new Comparison(name, operator, value);
+    }
+
+    private Node compileIn(OInCondition condition) {
+      String name = propertyName(condition.getLeft());
+      if (name == null
+          || condition.getRightStatement() != null
+          || (condition.getRightMathExpression() != null
+              && !condition.getRightMathExpression().isEarlyCalculated(ctx))) {
+        return UNKNOWN;
+      }
+      Object right = condition.evaluateRight((OResult) null, ctx);
+      if (right == null || !OMultiValue.isMultiValue(right) || OMultiValue.getSize(right) == 0) {
+        return UNKNOWN;
+      }
+      List<OBinaryField> values = new ArrayList<>();
+      for (Object item : OMultiValue.getMultiValueIterable(right, false)) {
+        OBinaryField value = serialize(item);
+        if (value == null
+            || (!values.isEmpty() && family(value.type) != family(values.get(0).type))) {
+          return UNKNOWN;
+        }
+        values.add(value);
+      }
+      return new In(name, values);
+    }
+
+    private Node compileBetween(OBetweenCondition condition) {
+      String name = propertyName(condition.getFirst());
+      if (name == null) {
+        return UNKNOWN;
+      }
+      OBinaryField from = constant(condition.getSecond());
+      OBinaryField to = constant(condition.getThird());
+      if (from == null
+          || to == null
+          || family(from.type) != family(to.type)
+          || family(from.type) == BOOLEAN) {
+        return UNKNOWN;
+      }
+      return new Between(name, from, to);
+    }
+
+    /** @return the name of the property, if the expression is just a property of the record */
+    private String propertyName(OExpression expression) {
+      if (expression == null || !expression.isBaseIdentifier()) {
+        return null;
+      }
+      String name = expression.getDefaultAlias().getStringValue();
+      if (name.isEmpty() || name.startsWith("@") || name.startsWith("$")) {
+        return null;
+      }
+      properties.add(name);
+      return name;
+    }
+
+    private Operator operator(OBinaryCompareOperator operator) {
+      if (operator instanceof OEqualsCompareOperator) {
+        return Operator.EQ;
+      } else if (operator instanceof ONeOperator || operator instanceof ONeqOperator) {
+        return Operator.NE;
+      } else if (operator instanceof OLtOperator) {
+        return Operator.LT;
+      } else if (operator instanceof OLeOperator) {
+        return Operator.LE;
+      } else if (operator instanceof OGtOperator) {
+        return Operator.GT;
+      } else if (operator instanceof OGeOperator) {
+        return Operator.GE;
+      }
+      return null;
+    }
+
+    private OBinaryField constant(OExpression expression) {
+      if (expression == null || !expression.isEarlyCalculated(ctx)) {
+        return null;
+      }
+      return serialize(expression.execute((OResult) null, ctx));
+    }
+
+    private OBinaryField serialize(Object value) {
+      if (value == null) {
+        return null;
+      }
+      OType type = OType.getTypeByValue(value);
+      if (type == null || family(type) == NOT_COMPARABLE) {
+        return null;
+      }
+      BytesContainer bytes = new BytesContainer();
+      ORecordSerializerBinary.INSTANCE
+          .getCurrentSerializer()
+          .serializeValue(bytes, value, type, null, schema, null);
+      bytes.offset = 0;
+      return new OBinaryField(null, type, bytes, null);
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * External merge sort used by {@link OrderByStep} when the results to sort do not fit into the
+ * in-heap budget, and by {@link DistinctExecutionStep} to restore the order of the results
+ * partitioned to disk. Sorted runs of results are written to temporary files and merged lazily,
+ * while the merged results are fetched.
+ */
+final class OExternalMergeSort implements AutoCloseable {
+  private static final int MAX_MERGE_FAN_IN = 64;
+
+  private final Comparator<OResult> comparator;
+  private final List<OResultSpillFile> runs = new ArrayList<>();
+
+  OExternalMergeSort(final Comparator<OResult> comparator) {
+    this.comparator = comparator;
+  }
+
+  int getRunsCount() {
+    return runs.size();
+  }
+
+  /**
+   * Writes already sorted results to the new run. Once the amount of runs reaches the merge fan-in
+   * all of them are merged into the single run, so the final merge never opens too many files.
+   */
+  void addRun(final List<OResult> sortedResults) {
+    try {
+      addRun(writeRun(sortedResults.iterator()));
+    } catch (IOException e) {
+      throw OException.wrapException(
+          new OCommandExecutionException("Error during spilling of ORDER BY results to disk"), e);
+    }
+  }
+
+  /**
+   * Adds run which is already written to disk, results in it have to be sorted. The run is closed
+   * by this instance.
+   */
+  void addRun(final OResultSpillFile sortedRun) throws IOException {
+    runs.add(sortedRun);
+
+    if (runs.size() >= MAX_MERGE_FAN_IN) {
+      final OResultSpillFile mergedRun = writeRun(merge(Collections.emptyList()));
+      close();
+      runs.add(mergedRun);
+    }
+  }
+
+  /**
+   * Merges all the runs written to disk with the last run which is kept in memory.
+   *
+   * @param inMemoryRun sorted results which were not written to disk, they follow all the other
+   *     runs if results are equal
+   * @return iterator over all the sorted results
+   */
+  Iterator<OResult> merge(final List<OResult> inMemoryRun) throws IOException {
+    final PriorityQueue<RunCursor> queue =
+        new PriorityQueue<>(runs.size() + 1, this::compareCursors);
+
+    int index = 0;
+    for (final OResultSpillFile run : runs) {
+      addCursor(queue, new RunCursor(run.read(), index++));
+    }
+    addCursor(queue, new RunCursor(inMemoryRun.iterator(), index));
+
+    return new Iterator<OResult>() {
+      @Override
+      public boolean hasNext() {
+        return !queue.isEmpty();
+      }
+
+      @Override
+      public OResult next() {
+        final RunCursor cursor = queue.poll();
+        if (cursor == null) {
+          throw new NoSuchElementException();
+        }
+
+        final OResult result = cursor.current;
+        addCursor(queue, cursor);
+        return result;
+      }
+    };
+  }
+
+  @Override
+  public void close() {
+    for (final OResultSpillFile run : runs) {
+      run.close();
+    }
+    runs.clear();
+  }
+
+  private static void addCursor(final PriorityQueue<RunCursor> queue, final RunCursor cursor) {
+    if (cursor.advance()) {
+      queue.add(cursor);
+    }
+  }
+
+  /** Equal results are returned in order of runs, so the sort stays stable. */
+  private int compareCursors(final RunCursor first, final RunCursor second) {
+    final int result = comparator.compare(first.current, second.current);
+    if (result != 0) {
+      return result;
+    }
+    return Integer.compare(first.index, second.index);
+  }
+
+  private static OResultSpillFile writeRun(final Iterator<OResult> sortedResults)
+      throws IOException {
+    final OResultSpillFile run = new OResultSpillFile("orderby");
+    try {
+      while (sortedResults.hasNext()) {
+        run.write(sortedResults.next());
+      }
+    } catch (IOException | RuntimeException e) {
+      run.close();
+      throw e;
+    }
+
+    return run;
+  }
+
+  private static final class RunCursor {
+    private final Iterator<OResult> results;
+    private final int index;
+    private OResult current;
+
+    private RunCursor(final Iterator<OResult> results, final int index) {
+      this.results = results;
+      this.index = index;
+    }
+
+    private boolean advance() {
+      if (results.hasNext()) {
+        current = results.next();
+        return true;
+      }
+
+      current = null;
+      return false;
+    }
+  }
+}
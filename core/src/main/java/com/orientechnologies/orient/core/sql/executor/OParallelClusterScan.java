@@ -0,0 +1,283 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.exception.OCommandInterruptedException;
+import com.orientechnologies.orient.core.iterator.ORecordIteratorCluster;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.sql.parser.OWhereClause;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Scan of several clusters, or of ranges of positions of the same cluster, by the workers of
+ * {@link Orient#submit(Runnable)}. Every worker uses its own copy of the database and of the
+ * command context, and filters the records it reads by the WHERE clause pushed down to the fetch
+ * step, so only the matching records are passed to the thread which executes the query.
+ *
+ * <p>Records are returned either in order of their arrival, or, if RID order is required, range
+ * by range in the order the ranges were added.
+ */
+final class OParallelClusterScan {
+  /** Clusters bigger than that are split into several ranges of positions. */
+  private static final long MIN_RANGE_RECORDS = 50_000;
+
+  private static final OResult END_OF_RANGE = new OResultInternal();
+
+  private final ODatabaseDocumentInternal database;
+  private final OCommandContext ctx;
+  private final OWhereClause filter;
+  private final boolean ordered;
+  private final boolean descending;
+  private final int parallelism;
+  private final long minRangeRecords;
+
+  private final List<Range> ranges = new ArrayList<>();
+  private final List<Future<?>> jobs = new ArrayList<>();
+  private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+  private final AtomicInteger runningRanges = new AtomicInteger();
+  private volatile boolean cancelled = false;
+
+  private BlockingQueue<OResult> sharedQueue;
+  private int currentRange = 0;
+
+  OParallelClusterScan(
+      final ODatabaseDocumentInternal database,
+      final OCommandContext ctx,
+      final OWhereClause filter,
+      final boolean ordered,
+      final boolean descending) {
+    this(
+        database,
+        ctx,
+        filter,
+        ordered,
+        descending,
+        Runtime.getRuntime().availableProcessors(),
+        MIN_RANGE_RECORDS);
+  }
+
+  /**
+   * @param parallelism maximum amount of ranges single cluster is split into
+   * @param minRangeRecords minimum amount of records in a single range of positions
+   */
+  OParallelClusterScan(
+      final ODatabaseDocumentInternal database,
+      final OCommandContext ctx,
+      final OWhereClause filter,
+      final boolean ordered,
+      final boolean descending,
+      final int parallelism,
+      final long minRangeRecords) {
+    this.database = database;
+    this.ctx = ctx;
+    this.filter = filter;
+    this.ordered = ordered;
+    this.descending = descending;
+    this.parallelism = parallelism;
+    this.minRangeRecords = minRangeRecords;
+  }
+
+  /**
+   * @return <code>true</code> if records of the current database may be fetched by other threads,
+   *     it is not the case if transaction is active because records of it are visible only to the
+   *     current database instance.
+   */
+  static boolean canRunParallel(final OCommandContext ctx) {
+    final ODatabaseDocumentInternal database = (ODatabaseDocumentInternal) ctx.getDatabase();
+    return database != null
+        && ctx instanceof OBasicCommandContext
+        && !database.getTransaction().isActive();
+  }
+
+  /**
+   * Adds cluster to the scan, cluster is split into several ranges if it is big enough.
+   *
+   * @param minPosition lower bound of positions to scan, or -1 if not limited
+   * @param maxPosition upper bound of positions to scan, or -1 if not limited
+   */
+  void addCluster(final int clusterId, final long minPosition, final long maxPosition) {
+    final long[] dataRange = database.getClusterDataRange(clusterId);
+    final long first = minPosition < 0 ? dataRange[0] : Math.max(minPosition, dataRange[0]);
+    final long last = maxPosition < 0 ? dataRange[1] : Math.min(maxPosition, dataRange[1]);
+    if (first < 0 || last < first) {
+      return;
+    }
+
+    final long records = database.countClusterElements(clusterId);
+    final int pieces = (int) Math.max(1, Math.min(parallelism, records / minRangeRecords));
+    final long step = (last - first) / pieces + 1;
+
+    final List<Range> clusterRanges = new ArrayList<>(pieces);
+    for (long from = first; from <= last; from += step) {
+      clusterRanges.add(new Range(clusterId, from, Math.min(last, from + step - 1)));
+    }
+
+    if (descending) {
+      for (int i = clusterRanges.size() - 1; i >= 0; i--) {
+        ranges.add(clusterRanges.get(i));
+      }
+    } else {
+      ranges.addAll(clusterRanges);
+    }
+  }
+
+  int getRangesCount() {
+    return ranges.size();
+  }
+
+  void start() {
+    final int queueSize =
+        Math.max(
+            1,
+            database
+                .getConfiguration()
+                .getValueAsInteger(OGlobalConfiguration.QUERY_PARALLEL_RESULT_QUEUE_SIZE));
+    if (!ordered) {
+      sharedQueue = new ArrayBlockingQueue<>(queueSize);
+    }
+
+    runningRanges.set(ranges.size());
+    for (final Range range : ranges) {
+      range.queue = ordered ? new ArrayBlockingQueue<>(queueSize) : sharedQueue;
+
+      // COPIES ARE CREATED ON THE CURRENT THREAD, CONTEXT AND WHERE CLAUSE ARE NOT THREAD SAFE
+      final OBasicCommandContext rangeContext = (OBasicCommandContext) ctx.copy();
+      rangeContext.setInputParameters(ctx.getInputParameters());
+      final OWhereClause rangeFilter = filter == null ? null : filter.copy();
+
+      jobs.add(Orient.instance().submit(() -> scan(range, rangeContext, rangeFilter)));
+    }
+  }
+
+  /** @return next record or <code>null</code> if all the ranges are scanned */
+  OResult next() {
+    try {
+      while (true) {
+        final OResult result;
+        if (ordered) {
+          if (currentRange >= ranges.size()) {
+            checkFailure();
+            return null;
+          }
+          result = ranges.get(currentRange).queue.take();
+          if (result == END_OF_RANGE) {
+            currentRange++;
+            continue;
+          }
+        } else {
+          if (runningRanges.get() == 0 && sharedQueue.isEmpty()) {
+            checkFailure();
+            return null;
+          }
+          result = sharedQueue.poll(100, TimeUnit.MILLISECONDS);
+          if (result == null || result == END_OF_RANGE) {
+            continue;
+          }
+        }
+
+        checkFailure();
+        return result;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      close();
+      throw OException.wrapException(
+          new OCommandInterruptedException("Parallel scan has been interrupted"), e);
+    }
+  }
+
+  void close() {
+    cancelled = true;
+    for (final Future<?> job : jobs) {
+      job.cancel(false);
+    }
+    jobs.clear();
+  }
+
+  private void checkFailure() {
+    final RuntimeException exception = failure.get();
+    if (exception != null) {
+      close();
+      throw OException.wrapException(
+          new OCommandExecutionException("Error during parallel scan of clusters"), exception);
+    }
+  }
+
+  private void scan(
+      final Range range, final OBasicCommandContext rangeContext, final OWhereClause rangeFilter) {
+    ODatabaseDocumentInternal localDatabase = null;
+    try {
+      localDatabase = database.copy();
+      localDatabase.activateOnCurrentThread();
+      rangeContext.setDatabase(localDatabase);
+
+      final ORecordIteratorCluster<ORecord> iterator =
+          new ORecordIteratorCluster<>(localDatabase, range.clusterId, range.from, range.to);
+      if (descending) {
+        iterator.last();
+      }
+
+      while (!cancelled && (descending ? iterator.hasPrevious() : iterator.hasNext())) {
+        final ORecord record = descending ? iterator.previous() : iterator.next();
+        final OResultInternal result = new OResultInternal();
+        result.element = record;
+        if (rangeFilter == null || rangeFilter.matchesFilters(result, rangeContext)) {
+          put(range.queue, result);
+        }
+      }
+    } catch (RuntimeException e) {
+      failure.compareAndSet(null, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      runningRanges.decrementAndGet();
+      try {
+        put(range.queue, END_OF_RANGE);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+
+      if (localDatabase != null) {
+        localDatabase.close();
+      }
+      ODatabaseRecordThreadLocal.instance().remove();
+    }
+  }
+
+  /** Waits for the free space in the queue, unless the scan is cancelled. */
+  private void put(final BlockingQueue<OResult> queue, final OResult result)
+      throws InterruptedException {
+    while (!cancelled) {
+      if (queue.offer(result, 100, TimeUnit.MILLISECONDS)) {
+        return;
+      }
+    }
+  }
+
+  private static final class Range {
+    private final int clusterId;
+    private final long from;
+    private final long to;
+
+    private BlockingQueue<OResult> queue;
+
+    private Range(final int clusterId, final long from, final long to) {
+      this.clusterId = clusterId;
+      this.from = from;
+      this.to = to;
+    }
+  }
+}
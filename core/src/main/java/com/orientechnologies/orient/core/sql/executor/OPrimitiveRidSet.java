@@ -0,0 +1,143 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import java.util.AbstractSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Set of RIDs which keeps RIDs packed into primitive longs, so no object is allocated per RID. Big
+ * sets are kept in direct memory which should be released by {@link #close()}. RIDs which can not
+ * be packed, like RIDs of new records, are kept in usual Java set.
+ *
+ * <p>Like {@link ORidSet} this set does not store instances of RIDs, so iterator returns new
+ * instances. Iterator does not support removal of elements.
+ */
+public class OPrimitiveRidSet extends AbstractSet<ORID> implements AutoCloseable {
+  private final ORidHashTable table;
+  private final Set<ORID> negatives = new HashSet<>();
+
+  public OPrimitiveRidSet() {
+    this(ORidHashTable.DEFAULT_OFF_HEAP_THRESHOLD);
+  }
+
+  /** @param offHeapThreshold amount of RIDs after which set is moved to direct memory */
+  public OPrimitiveRidSet(final int offHeapThreshold) {
+    table = new ORidHashTable(0, offHeapThreshold);
+  }
+
+  public boolean add(final int clusterId, final long clusterPosition) {
+    if (!ORidHashTable.isPackable(clusterId, clusterPosition)) {
+      return negatives.add(new ORecordId(clusterId, clusterPosition));
+    }
+    return table.insert(ORidHashTable.pack(clusterId, clusterPosition)) >= 0;
+  }
+
+  public boolean contains(final int clusterId, final long clusterPosition) {
+    if (!ORidHashTable.isPackable(clusterId, clusterPosition)) {
+      return negatives.contains(new ORecordId(clusterId, clusterPosition));
+    }
+    return table.find(ORidHashTable.pack(clusterId, clusterPosition)) >= 0;
+  }
+
+  @Override
+  public boolean add(final ORID rid) {
+    if (rid == null) {
+      throw new IllegalArgumentException();
+    }
+    final int clusterId = rid.getClusterId();
+    final long clusterPosition = rid.getClusterPosition();
+    if (!ORidHashTable.isPackable(clusterId, clusterPosition)) {
+      return negatives.add(rid);
+    }
+    return table.insert(ORidHashTable.pack(clusterId, clusterPosition)) >= 0;
+  }
+
+  @Override
+  public boolean contains(final Object o) {
+    if (!(o instanceof OIdentifiable)) {
+      return false;
+    }
+    final ORID rid = ((OIdentifiable) o).getIdentity();
+    return contains(rid.getClusterId(), rid.getClusterPosition());
+  }
+
+  @Override
+  public boolean remove(final Object o) {
+    if (!(o instanceof OIdentifiable)) {
+      return false;
+    }
+    final ORID rid = ((OIdentifiable) o).getIdentity();
+    final int clusterId = rid.getClusterId();
+    final long clusterPosition = rid.getClusterPosition();
+    if (!ORidHashTable.isPackable(clusterId, clusterPosition)) {
+      return negatives.remove(rid);
+    }
+    return table.remove(ORidHashTable.pack(clusterId, clusterPosition));
+  }
+
+  @Override
+  public int size() {
+    return table.size() + negatives.size();
+  }
+
+  @Override
+  public void clear() {
+    table.clear();
+    negatives.clear();
+  }
+
+  /** @return <code>true</code> if content of the set is kept in direct memory */
+  public boolean isOffHeap() {
+    return table.isOffHeap();
+  }
+
+  @Override
+  public Iterator<ORID> iterator() {
+    final Iterator<ORID> negativesIterator = negatives.iterator();
+
+    return new Iterator<ORID>() {
+      private int slot = -1;
+      private int next = nextSlot(0);
+
+      private int nextSlot(int slot) {
+        final int capacity = table.capacity();
+        while (slot < capacity && table.key(slot) < 0) {
+          slot++;
+        }
+        return slot;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return next < table.capacity() || negativesIterator.hasNext();
+      }
+
+      @Override
+      public ORID next() {
+        if (next < table.capacity()) {
+          slot = next;
+          next = nextSlot(slot + 1);
+
+          final long packed = table.key(slot);
+          return new ORecordId(
+              ORidHashTable.clusterId(packed), ORidHashTable.clusterPosition(packed));
+        }
+        if (negativesIterator.hasNext()) {
+          return negativesIterator.next();
+        }
+        throw new NoSuchElementException();
+      }
+    };
+  }
+
+  @Override
+  public void close() {
+    table.close();
+    negatives.clear();
+  }
+}
@@ -0,0 +1,223 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.ORecordInternal;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.BytesContainer;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.HelperClasses;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.OVarIntSerializer;
+import com.orientechnologies.orient.core.serialization.serializer.result.binary.OResultSerializerNetwork;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Temporary file used by the execution steps to move results out of the heap, when they exceed
+ * the in-heap budget of the query. Results are written sequentially and are read back once, in
+ * the same order, after which the file is removed by {@link #close()}.
+ *
+ * <p>Results are stored with the {@link OResultSerializerNetwork} format, elements are stored
+ * together with the serialized content of their records, so results read back never access the
+ * storage, which may have changed in the meantime.
+ */
+final class OResultSpillFile implements AutoCloseable {
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private static final byte PROJECTION = 0;
+  private static final byte ELEMENT = 1;
+  private static final byte RECORD = 2;
+
+  private final OResultSerializerNetwork serializer = new OResultSerializerNetwork();
+  private final Path path;
+
+  private DataOutputStream output;
+  private DataInputStream input;
+  private long size;
+
+  OResultSpillFile(final String prefix) throws IOException {
+    final Path directory = Paths.get(Orient.getTempPath());
+    Files.createDirectories(directory);
+
+    path = Files.createTempFile(directory, prefix, ".tmp");
+    output =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE));
+  }
+
+  /**
+   * @return <code>true</code> if result can be written to disk and read back without loss of
+   *     information, it means that result is either projection or not modified persistent element.
+   */
+  static boolean isSpillable(final OResult result) {
+    if (result == null || result.getClass() != OResultInternal.class) {
+      return false;
+    }
+
+    final OIdentifiable element = ((OResultInternal) result).element;
+    if (element == null) {
+      return true;
+    }
+
+    if (!element.getIdentity().isValid()) {
+      return false;
+    }
+    return !(element instanceof ORecord) || !((ORecord) element).isDirty();
+  }
+
+  long size() {
+    return size;
+  }
+
+  void write(final OResult result) throws IOException {
+    if (!isSpillable(result)) {
+      throw new OCommandExecutionException("Result " + result + " can not be spilled to disk");
+    }
+
+    final BytesContainer bytes = new BytesContainer();
+    serialize((OResultInternal) result, bytes);
+    output.writeInt(bytes.offset);
+    output.write(bytes.bytes, 0, bytes.offset);
+    size++;
+  }
+
+  /**
+   * Finishes writing of the file and starts reading of it, may be called only once.
+   *
+   * @return iterator over the results in the order they were written
+   */
+  Iterator<OResult> read() throws IOException {
+    output.close();
+    output = null;
+    input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
+
+    return new Iterator<OResult>() {
+      private long remaining = size;
+
+      @Override
+      public boolean hasNext() {
+        return remaining > 0;
+      }
+
+      @Override
+      public OResult next() {
+        if (remaining <= 0) {
+          throw new NoSuchElementException();
+        }
+
+        try {
+          final byte[] bytes = new byte[input.readInt()];
+          input.readFully(bytes);
+          remaining--;
+          return deserialize(new BytesContainer(bytes));
+        } catch (IOException e) {
+          throw OException.wrapException(
+              new OCommandExecutionException("Error during reading of results from " + path), e);
+        }
+      }
+    };
+  }
+
+  @Override
+  public void close() {
+    try {
+      if (output != null) {
+        output.close();
+        output = null;
+      }
+      if (input != null) {
+        input.close();
+        input = null;
+      }
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      throw OException.wrapException(
+          new OCommandExecutionException("Can not delete temporary file " + path), e);
+    }
+  }
+
+  private void serialize(final OResultInternal result, final BytesContainer bytes) {
+    if (result.element == null) {
+      bytes.bytes[bytes.alloc(1)] = PROJECTION;
+    } else {
+      final ORID rid = result.element.getIdentity();
+      final ORecord record = result.element.getRecord();
+      if (record == null) {
+        // DELETED RECORD, IT CAN NOT BE READ BACK ALSO IF IT IS KEPT IN HEAP
+        bytes.bytes[bytes.alloc(1)] = ELEMENT;
+      } else {
+        bytes.bytes[bytes.alloc(1)] = RECORD;
+        bytes.bytes[bytes.alloc(1)] = ORecordInternal.getRecordType(record);
+        OVarIntSerializer.write(bytes, record.getVersion());
+        HelperClasses.writeBinary(bytes, record.toStream());
+      }
+      OVarIntSerializer.write(bytes, rid.getClusterId());
+      OVarIntSerializer.write(bytes, rid.getClusterPosition());
+    }
+
+    serializer.serialize(holder(result.content, result.metadata), bytes);
+    serializer.serialize(holder(result.temporaryContent, null), bytes);
+  }
+
+  private OResultInternal deserialize(final BytesContainer bytes) {
+    final OResultInternal result;
+    final byte kind = bytes.bytes[bytes.offset++];
+    if (kind == RECORD) {
+      final byte recordType = bytes.bytes[bytes.offset++];
+      final int version = OVarIntSerializer.readAsInteger(bytes);
+      final byte[] content = HelperClasses.readBinary(bytes);
+      final ORecordId rid = readRid(bytes);
+
+      final ODatabaseDocumentInternal database = ODatabaseRecordThreadLocal.instance().get();
+      final ORecord record =
+          Orient.instance()
+              .getRecordFactoryManager()
+              .newInstance(recordType, rid.getClusterId(), database);
+      // THE RECORD IS RESTORED FROM ITS CONTENT AND IS DESERIALIZED LAZILY, WITHOUT LOADING
+      result = new OResultInternal(ORecordInternal.fill(record, rid, version, content, false));
+    } else if (kind == ELEMENT) {
+      result = new OResultInternal(readRid(bytes));
+    } else {
+      result = new OResultInternal();
+    }
+
+    final OResultInternal content = serializer.deserialize(bytes);
+    result.content = content.content;
+    result.metadata = content.metadata;
+
+    final OResultInternal temporaryContent = serializer.deserialize(bytes);
+    if (!temporaryContent.content.isEmpty()) {
+      result.temporaryContent = temporaryContent.content;
+    }
+    return result;
+  }
+
+  private static ORecordId readRid(final BytesContainer bytes) {
+    final int clusterId = OVarIntSerializer.readAsInteger(bytes);
+    final long clusterPosition = OVarIntSerializer.readAsLong(bytes);
+    return new ORecordId(clusterId, clusterPosition);
+  }
+
+  private static OResultInternal holder(
+      final Map<String, Object> content, final Map<String, Object> metadata) {
+    final OResultInternal holder = new OResultInternal();
+    if (content != null) {
+      holder.content = content;
+    }
+    holder.metadata = metadata;
+    return holder;
+  }
+}
@@ -0,0 +1,278 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.directmemory.ODirectMemoryAllocator;
+import com.orientechnologies.common.directmemory.ODirectMemoryAllocator.Intention;
+import com.orientechnologies.common.directmemory.OPointer;
+import java.nio.ByteBuffer;
+
+/**
+ * Hash table with open addressing and linear probing which is used by primitive RID collections.
+ * RIDs are packed into single long, see {@link #pack(int, long)}, and every slot of the table
+ * contains packed RID and optionally several long values associated with it.
+ *
+ * <p>Table is kept in a Java array while it is small, once number of slots exceeds given threshold
+ * table is moved to direct memory, so big tables do not put pressure on GC. Direct memory is
+ * released by {@link #close()}.
+ */
+final class ORidHashTable implements AutoCloseable {
+  static final int DEFAULT_OFF_HEAP_THRESHOLD = 1 << 20;
+
+  private static final int INITIAL_CAPACITY = 1 << 4;
+  private static final int MAX_POSITION_BITS = 48;
+  private static final long MAX_POSITION = (1L << MAX_POSITION_BITS) - 1;
+
+  private final ODirectMemoryAllocator allocator = ODirectMemoryAllocator.instance();
+
+  private final int stride;
+  private final int offHeapThreshold;
+  private final int maxCapacity;
+
+  private long[] heapTable;
+  private OPointer pointer;
+  private ByteBuffer directTable;
+
+  private int capacity;
+  private int size;
+
+  /**
+   * @param values amount of long values stored together with every RID
+   * @param offHeapThreshold amount of slots after which table is moved to direct memory
+   */
+  ORidHashTable(final int values, final int offHeapThreshold) {
+    this.stride = values + 1;
+    this.offHeapThreshold = offHeapThreshold;
+    // index of the last long of the table should fit into int even if it is stored in bytes
+    this.maxCapacity = Integer.highestOneBit(Integer.MAX_VALUE / Long.BYTES / stride);
+
+    allocate(INITIAL_CAPACITY);
+  }
+
+  /** @return <code>true</code> if RID can be packed into single long */
+  static boolean isPackable(final int clusterId, final long clusterPosition) {
+    return clusterId >= 0
+        && clusterId <= Short.MAX_VALUE
+        && clusterPosition >= 0
+        && clusterPosition <= MAX_POSITION;
+  }
+
+  /**
+   * Packs cluster id into upper 16 bits and cluster position into lower 48 bits of long. RID should
+   * be checked by {@link #isPackable(int, long)} before.
+   */
+  static long pack(final int clusterId, final long clusterPosition) {
+    return ((long) clusterId << MAX_POSITION_BITS) | clusterPosition;
+  }
+
+  static int clusterId(final long packed) {
+    return (int) (packed >>> MAX_POSITION_BITS);
+  }
+
+  static long clusterPosition(final long packed) {
+    return packed & MAX_POSITION;
+  }
+
+  int size() {
+    return size;
+  }
+
+  int capacity() {
+    return capacity;
+  }
+
+  boolean isOffHeap() {
+    return directTable != null;
+  }
+
+  /** @return slot which contains given RID or -1 if RID is absent */
+  int find(final long packed) {
+    final int slot = probe(packed + 1);
+    return get(slot * stride) == 0 ? -1 : slot;
+  }
+
+  /**
+   * Adds RID to the table if it is absent.
+   *
+   * @return slot of the new RID, or <code>-(slot + 1)</code> if RID was already present
+   */
+  int insert(final long packed) {
+    int slot = probe(packed + 1);
+    if (get(slot * stride) != 0) {
+      return -(slot + 1);
+    }
+
+    if ((size + 1) * 4L > capacity * 3L) {
+      if (capacity >= maxCapacity) {
+        if (size + 1 >= capacity) {
+          throw new IllegalStateException("RID collection can not contain more than " + size);
+        }
+      } else {
+        resize(capacity << 1);
+        slot = probe(packed + 1);
+      }
+    }
+
+    set(slot * stride, packed + 1);
+    size++;
+    return slot;
+  }
+
+  /** @return <code>true</code> if RID was present in the table */
+  boolean remove(final long packed) {
+    int slot = find(packed);
+    if (slot < 0) {
+      return false;
+    }
+
+    // backward shift deletion, entries which were placed after removed one because of collision
+    // are moved closer to their ideal slots, so lookups do not need tombstones
+    final int mask = capacity - 1;
+    int next = (slot + 1) & mask;
+    while (true) {
+      final long key = get(next * stride);
+      if (key == 0) {
+        break;
+      }
+
+      final int ideal = hash(key) & mask;
+      if (((next - ideal) & mask) >= ((next - slot) & mask)) {
+        copySlot(next, slot);
+        slot = next;
+      }
+
+      next = (next + 1) & mask;
+    }
+
+    for (int i = 0; i < stride; i++) {
+      set(slot * stride + i, 0);
+    }
+
+    size--;
+    return true;
+  }
+
+  /** @return packed RID stored in the slot, or -1 if slot is empty */
+  long key(final int slot) {
+    return get(slot * stride) - 1;
+  }
+
+  long value(final int slot, final int index) {
+    return get(slot * stride + index + 1);
+  }
+
+  void setValue(final int slot, final int index, final long value) {
+    set(slot * stride + index + 1, value);
+  }
+
+  void clear() {
+    release();
+    allocate(INITIAL_CAPACITY);
+    size = 0;
+  }
+
+  @Override
+  public void close() {
+    release();
+    capacity = 0;
+    size = 0;
+  }
+
+  private int probe(final long key) {
+    final int mask = capacity - 1;
+    int slot = hash(key) & mask;
+    while (true) {
+      final long current = get(slot * stride);
+      if (current == 0 || current == key) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private static int hash(final long key) {
+    final long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  private void copySlot(final int from, final int to) {
+    for (int i = 0; i < stride; i++) {
+      set(to * stride + i, get(from * stride + i));
+    }
+  }
+
+  private long get(final int index) {
+    final long[] table = heapTable;
+    if (table != null) {
+      return table[index];
+    }
+    return directTable.getLong(index * Long.BYTES);
+  }
+
+  private void set(final int index, final long value) {
+    final long[] table = heapTable;
+    if (table != null) {
+      table[index] = value;
+    } else {
+      directTable.putLong(index * Long.BYTES, value);
+    }
+  }
+
+  private void resize(final int newCapacity) {
+    final long[] oldHeapTable = heapTable;
+    final OPointer oldPointer = pointer;
+    final ByteBuffer oldDirectTable = directTable;
+    final int oldCapacity = capacity;
+
+    allocate(newCapacity);
+
+    final int mask = capacity - 1;
+    for (int i = 0; i < oldCapacity * stride; i += stride) {
+      final long key =
+          oldHeapTable != null ? oldHeapTable[i] : oldDirectTable.getLong(i * Long.BYTES);
+      if (key == 0) {
+        continue;
+      }
+
+      int slot = hash(key) & mask;
+      while (get(slot * stride) != 0) {
+        slot = (slot + 1) & mask;
+      }
+
+      for (int n = 0; n < stride; n++) {
+        set(
+            slot * stride + n,
+            oldHeapTable != null
+                ? oldHeapTable[i + n]
+                : oldDirectTable.getLong((i + n) * Long.BYTES));
+      }
+    }
+
+    if (oldPointer != null) {
+      allocator.deallocate(oldPointer);
+    }
+  }
+
+  private void allocate(final int newCapacity) {
+    if (newCapacity <= offHeapThreshold) {
+      heapTable = new long[newCapacity * stride];
+      pointer = null;
+      directTable = null;
+    } else {
+      pointer =
+          allocator.allocate(
+              newCapacity * stride * Long.BYTES, true, Intention.ALLOCATE_RID_COLLECTION);
+      directTable = pointer.getNativeByteBuffer();
+      heapTable = null;
+    }
+
+    capacity = newCapacity;
+  }
+
+  private void release() {
+    if (pointer != null) {
+      allocator.deallocate(pointer);
+      pointer = null;
+      directTable = null;
+    }
+    heapTable = null;
+  }
+}
@@ -0,0 +1,107 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.id.ORID;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Map of RIDs to primitive long values, which can be used also to keep int values like depth of
+ * traversal or counters. RIDs are packed into primitive longs, so no object is allocated per entry.
+ * Big maps are kept in direct memory which should be released by {@link #close()}.
+ */
+public class ORidLongMap implements AutoCloseable {
+  private final ORidHashTable table;
+  private final Map<ORID, Long> negatives = new HashMap<>();
+
+  public ORidLongMap() {
+    this(ORidHashTable.DEFAULT_OFF_HEAP_THRESHOLD);
+  }
+
+  /** @param offHeapThreshold amount of entries after which map is moved to direct memory */
+  public ORidLongMap(final int offHeapThreshold) {
+    table = new ORidHashTable(1, offHeapThreshold);
+  }
+
+  public boolean containsKey(final ORID rid) {
+    final int clusterId = rid.getClusterId();
+    final long clusterPosition = rid.getClusterPosition();
+    if (!ORidHashTable.isPackable(clusterId, clusterPosition)) {
+      return negatives.containsKey(rid);
+    }
+    return table.find(ORidHashTable.pack(clusterId, clusterPosition)) >= 0;
+  }
+
+  /** @return value associated with RID, or <code>defaultValue</code> if RID is absent */
+  public long get(final ORID rid, final long defaultValue) {
+    final int clusterId = rid.getClusterId();
+    final long clusterPosition = rid.getClusterPosition();
+    if (!ORidHashTable.isPackable(clusterId, clusterPosition)) {
+      return negatives.getOrDefault(rid, defaultValue);
+    }
+
+    final int slot = table.find(ORidHashTable.pack(clusterId, clusterPosition));
+    return slot >= 0 ? table.value(slot, 0) : defaultValue;
+  }
+
+  public void put(final ORID rid, final long value) {
+    final int clusterId = rid.getClusterId();
+    final long clusterPosition = rid.getClusterPosition();
+    if (!ORidHashTable.isPackable(clusterId, clusterPosition)) {
+      negatives.put(rid.copy(), value);
+      return;
+    }
+
+    final int slot = table.insert(ORidHashTable.pack(clusterId, clusterPosition));
+    table.setValue(slot >= 0 ? slot : -slot - 1, 0, value);
+  }
+
+  /**
+   * Adds delta to the value associated with RID, absent RIDs are associated with 0.
+   *
+   * @return new value
+   */
+  public long addTo(final ORID rid, final long delta) {
+    final int clusterId = rid.getClusterId();
+    final long clusterPosition = rid.getClusterPosition();
+    if (!ORidHashTable.isPackable(clusterId, clusterPosition)) {
+      return negatives.merge(rid.copy(), delta, Long::sum);
+    }
+
+    int slot = table.insert(ORidHashTable.pack(clusterId, clusterPosition));
+    if (slot < 0) {
+      slot = -slot - 1;
+    }
+
+    final long value = table.value(slot, 0) + delta;
+    table.setValue(slot, 0, value);
+    return value;
+  }
+
+  public boolean remove(final ORID rid) {
+    final int clusterId = rid.getClusterId();
+    final long clusterPosition = rid.getClusterPosition();
+    if (!ORidHashTable.isPackable(clusterId, clusterPosition)) {
+      return negatives.remove(rid) != null;
+    }
+    return table.remove(ORidHashTable.pack(clusterId, clusterPosition));
+  }
+
+  public int size() {
+    return table.size() + negatives.size();
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public void clear() {
+    table.clear();
+    negatives.clear();
+  }
+
+  @Override
+  public void close() {
+    table.close();
+    negatives.clear();
+  }
+}
@@ -0,0 +1,72 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+
+/**
+ * FIFO queue of RIDs which keeps cluster ids and positions in a ring buffer of primitive longs, so
+ * no object is allocated per queued RID. Polled RIDs are new instances.
+ */
+public class ORidQueue {
+  private static final int INITIAL_CAPACITY = 1 << 4;
+
+  private long[] buffer = new long[INITIAL_CAPACITY * 2];
+  private int head;
+  private int size;
+
+  public void offer(final int clusterId, final long clusterPosition) {
+    final int capacity = buffer.length >> 1;
+    if (size == capacity) {
+      grow();
+    }
+
+    final int tail = ((head + size) & ((buffer.length >> 1) - 1)) << 1;
+    buffer[tail] = clusterId;
+    buffer[tail + 1] = clusterPosition;
+    size++;
+  }
+
+  public void offer(final ORID rid) {
+    offer(rid.getClusterId(), rid.getClusterPosition());
+  }
+
+  /** @return next RID, or <code>null</code> if queue is empty */
+  public ORID poll() {
+    if (size == 0) {
+      return null;
+    }
+
+    final int index = head << 1;
+    final ORID rid = new ORecordId((int) buffer[index], buffer[index + 1]);
+
+    head = (head + 1) & ((buffer.length >> 1) - 1);
+    size--;
+    return rid;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    head = 0;
+    size = 0;
+  }
+
+  private void grow() {
+    final int capacity = buffer.length >> 1;
+    final long[] newBuffer = new long[buffer.length << 1];
+
+    // unwrap content of the ring buffer, so the head is at the beginning of the new buffer
+    final int firstPart = capacity - head;
+    System.arraycopy(buffer, head << 1, newBuffer, 0, firstPart << 1);
+    System.arraycopy(buffer, 0, newBuffer, firstPart << 1, head << 1);
+
+    buffer = newBuffer;
+    head = 0;
+  }
+}
@@ -26,7 +26,9 @@ public class OSelectExecutionPlan implements OInternalExecutionPlan {
 
   @Override
   public void close() {
-    lastStep.close();
+    if (lastStep != null) {
+      lastStep.close();
+    }
   }
 
   @Override
@@ -24,6 +24,7 @@ import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.metadata.schema.OView;
 import com.orientechnologies.orient.core.metadata.security.OSecurityInternal;
 import com.orientechnologies.orient.core.sql.OCommandExecutorSQLAbstract;
+import com.orientechnologies.orient.core.sql.OSQLEngine;
 import com.orientechnologies.orient.core.sql.parser.*;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -46,10 +47,23 @@ public class OSelectExecutionPlanner {
   private QueryPlanningInfo info;
   private OSelectStatement statement;
 
+  /** clusters the query is restricted to, when it is executed as a shard of a sharded query */
+  private Set<String> targetClusters;
+
   public OSelectExecutionPlanner(OSelectStatement oSelectStatement) {
     this.statement = oSelectStatement;
   }
 
+  /**
+   * restricts the query to the records of the given clusters, that are the clusters owned by this
+   * node in a sharded query
+   *
+   * @param targetClusters names of the clusters
+   */
+  public void setTargetClusters(Set<String> targetClusters) {
+    this.targetClusters = targetClusters;
+  }
+
   private void init(OCommandContext ctx) {
     // copying the content, so that it can be manipulated and optimized
     info = new QueryPlanningInfo();
@@ -73,6 +87,11 @@ public class OSelectExecutionPlanner {
     info.skip = this.statement.getSkip();
     info.limit = this.statement.getLimit();
     info.lockRecord = this.statement.getLockRecord();
+    info.parallel =
+        Boolean.TRUE.equals(this.statement.getParallel())
+            || ctx.getDatabase()
+                .getConfiguration()
+                .getValueAsBoolean(OGlobalConfiguration.QUERY_PARALLEL_AUTO);
     info.timeout = this.statement.getTimeout() == null ? null : this.statement.getTimeout().copy();
     if (info.timeout == null
         && ctx.getDatabase().getConfiguration().getValueAsLong(OGlobalConfiguration.COMMAND_TIMEOUT)
@@ -107,7 +126,12 @@ public class OSelectExecutionPlanner {
 
     optimizeQuery(info, ctx);
 
-    if (handleHardwiredOptimizations(result, ctx, enableProfiling)) {
+    if (handleScatterGather(result, ctx, enableProfiling)) {
+      // the plan depends on the current cluster ownership, so it is not cached
+      return result;
+    }
+
+    if (targetClusters == null && handleHardwiredOptimizations(result, ctx, enableProfiling)) {
       return result;
     }
 
@@ -245,6 +269,307 @@ public class OSelectExecutionPlanner {
     info.distributedPlanCreated = true;
   }
 
+  /**
+   * executes a query on a class, which clusters are owned by different nodes, as a sharded query:
+   * every node executes the query on the clusters it owns (scatter) and the results are merged on
+   * this node (gather). Filters, projections, partial aggregates and ORDER BY are executed by the
+   * nodes whenever the results of the shards can be merged.
+   *
+   * @return true if the query is executed as a sharded query
+   */
+  private boolean handleScatterGather(
+      OSelectExecutionPlan result, OCommandContext ctx, boolean profilingEnabled) {
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) ctx.getDatabase();
+    if (targetClusters != null
+        || !db.getConfiguration()
+            .getValueAsBoolean(OGlobalConfiguration.DISTRIBUTED_QUERY_SCATTER_GATHER)
+        || !db.isSharded()) {
+      return false;
+    }
+    OFromItem target = info.target == null ? null : info.target.getItem();
+    if (target == null
+        || target.getIdentifier() == null
+        || target.getIdentifier().getStringValue().startsWith("$")
+        || target.getModifier() != null
+        || info.globalLetPresent
+        || info.perRecordLetClause != null
+        || info.lockRecord != null) {
+      return false;
+    }
+
+    Set<String> queryClusters = calculateTargetClusters(info, ctx);
+    if (queryClusters == null || queryClusters.isEmpty()) {
+      return false;
+    }
+    String localNode = db.getLocalNodeName();
+    Map<String, Set<String>> shards =
+        getMinimalSetOfNodesForShardedQuery(localNode, db.getActiveClusterMap(), queryClusters);
+    if (shards.size() == 1 && shards.containsKey(localNode)) {
+      return false;
+    }
+
+    Map<Object, Object> params = ctx.getInputParameters();
+    OProjection projection = statement.getProjection();
+    boolean plain =
+        !info.distinct
+            && !info.expand
+            && info.unwind == null
+            && info.groupBy == null
+            && info.aggregateProjection == null;
+
+    StringBuilder shardQuery = new StringBuilder("SELECT ");
+    QueryPlanningInfo mergeInfo = null;
+    boolean projectionsOnShards = false;
+    boolean orderedMerge = false;
+    if (plain && (info.orderBy == null || isOrderedByProjections(projection, info.orderBy))) {
+      if (projection != null) {
+        projection.toString(params, shardQuery);
+      }
+      projectionsOnShards = true;
+      orderedMerge = info.orderBy != null;
+    } else if (!info.distinct && !info.expand && info.unwind == null) {
+      mergeInfo = splitPartialAggregation(shardQuery, ctx);
+    }
+
+    shardQuery.append(" FROM ");
+    statement.getTarget().toString(params, shardQuery);
+    if (statement.getWhereClause() != null) {
+      shardQuery.append(" WHERE ");
+      statement.getWhereClause().toString(params, shardQuery);
+    }
+    if (mergeInfo != null && statement.getGroupBy() != null) {
+      shardQuery.append(" ");
+      statement.getGroupBy().toString(params, shardQuery);
+    }
+    if (orderedMerge) {
+      shardQuery.append(" ");
+      statement.getOrderBy().toString(params, shardQuery);
+    }
+    if (projectionsOnShards && info.limit != null && info.limit.getValue(ctx) >= 0) {
+      // every shard returns all the records that could be in the final result
+      int skip = info.skip == null ? 0 : info.skip.getValue(ctx);
+      shardQuery.append(" LIMIT ").append(skip + info.limit.getValue(ctx));
+    }
+
+    List<OInternalExecutionPlan> shardPlans = new ArrayList<>();
+    for (Map.Entry<String, Set<String>> shard : shards.entrySet()) {
+      if (shard.getKey().equals(localNode)) {
+        OBasicCommandContext subCtx = new OBasicCommandContext();
+        subCtx.setDatabase(db);
+        subCtx.setParent(ctx);
+        subCtx.setInputParameters(params);
+        shardPlans.add(
+            createShardExecutionPlan(
+                shardQuery.toString(), shard.getValue(), subCtx, profilingEnabled));
+      } else {
+        OSelectExecutionPlan shardPlan = new OSelectExecutionPlan(ctx);
+        shardPlan.chain(
+            new DistributedExecutionStep(
+                shardQuery.toString(), shard.getValue(), shard.getKey(), ctx, profilingEnabled));
+        shardPlans.add(shardPlan);
+      }
+    }
+
+    if (orderedMerge) {
+      result.chain(new OrderedMergeStep(shardPlans, info.orderBy, ctx, profilingEnabled));
+    } else {
+      result.chain(new ParallelExecStep(shardPlans, ctx, profilingEnabled));
+    }
+
+    if (projectionsOnShards) {
+      if (info.skip != null) {
+        result.chain(new SkipExecutionStep(info.skip, ctx, profilingEnabled));
+      }
+      if (info.limit != null) {
+        result.chain(new LimitExecutionStep(info.limit, ctx, profilingEnabled));
+      }
+    } else {
+      handleProjectionsBlock(result, mergeInfo != null ? mergeInfo : info, ctx, profilingEnabled);
+    }
+
+    if (info.timeout != null) {
+      result.chain(new AccumulatingTimeoutStep(info.timeout, ctx, profilingEnabled));
+    }
+    return true;
+  }
+
+  /**
+   * checks whether the results of the shards can be merged by the ORDER BY clause after the
+   * projections are calculated, ie. if all the ORDER BY items are among the projections
+   */
+  private static boolean isOrderedByProjections(OProjection projection, OOrderBy orderBy) {
+    Set<String> aliases = new HashSet<>();
+    boolean all = projection == null;
+    if (projection != null) {
+      for (OProjectionItem item : projection.getItems()) {
+        if (item.isAll()) {
+          all = true;
+        } else {
+          aliases.add(item.getProjectionAliasAsString());
+        }
+      }
+    }
+    for (OOrderByItem item : orderBy.getItems()) {
+      if (item.getAlias() == null || item.getModifier() != null) {
+        return false;
+      }
+      if (!all && !aliases.contains(item.getAlias())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * splits an aggregation in partial aggregations, that are calculated by the shards, and in the
+   * aggregation of the partial results, that is calculated on this node. Only COUNT, SUM, MIN and
+   * MAX can be split, grouping keys have to be among the projections.
+   *
+   * @param shardQuery the projections of the shards are appended here
+   * @return the planning info of the aggregation of the partial results, null if the aggregation
+   *     cannot be split
+   */
+  private QueryPlanningInfo splitPartialAggregation(StringBuilder shardQuery, OCommandContext ctx) {
+    OProjection projection = statement.getProjection();
+    if (projection == null || projection.isDistinct()) {
+      return null;
+    }
+    List<OExpression> groupBy =
+        statement.getGroupBy() == null
+            ? Collections.emptyList()
+            : statement.getGroupBy().getItems();
+    Set<OExpression> coveredGroupBy = new HashSet<>();
+
+    StringBuilder shardProjection = new StringBuilder();
+    StringBuilder mergeProjection = new StringBuilder();
+    StringBuilder mergeGroupBy = new StringBuilder();
+    for (OProjectionItem item : projection.getItems()) {
+      if (item.isAll() || item.getExpression() == null) {
+        return null;
+      }
+      String alias = "`" + item.getProjectionAliasAsString().replace("`", "\\`") + "`";
+      if (mergeProjection.length() > 0) {
+        shardProjection.append(", ");
+        mergeProjection.append(", ");
+      }
+      item.toString(ctx.getInputParameters(), shardProjection);
+      if (item.getAlias() == null) {
+        shardProjection.append(" AS ").append(alias);
+      }
+
+      if (item.isAggregate()) {
+        String merge = getPartialAggregationMerge(item.getExpression());
+        if (merge == null) {
+          return null;
+        }
+        mergeProjection.append(merge).append("(").append(alias).append(")");
+      } else {
+        boolean groupingKey = false;
+        for (OExpression key : groupBy) {
+          if (key.equals(item.getExpression())
+              || key.toString().equals(item.getProjectionAliasAsString())) {
+            coveredGroupBy.add(key);
+            groupingKey = true;
+          }
+        }
+        if (!groupingKey) {
+          return null;
+        }
+        mergeProjection.append(alias);
+        if (mergeGroupBy.length() > 0) {
+          mergeGroupBy.append(", ");
+        }
+        mergeGroupBy.append(alias);
+      }
+      mergeProjection.append(" AS ").append(alias);
+    }
+    if (coveredGroupBy.size() < groupBy.size()) {
+      return null;
+    }
+
+    StringBuilder mergeQuery = new StringBuilder("SELECT ");
+    mergeQuery.append(mergeProjection);
+    mergeQuery.append(" FROM ");
+    statement.getTarget().toString(ctx.getInputParameters(), mergeQuery);
+    if (mergeGroupBy.length() > 0) {
+      mergeQuery.append(" GROUP BY ").append(mergeGroupBy);
+    }
+    if (statement.getOrderBy() != null) {
+      mergeQuery.append(" ");
+      statement.getOrderBy().toString(ctx.getInputParameters(), mergeQuery);
+    }
+    if (statement.getSkip() != null) {
+      statement.getSkip().toString(ctx.getInputParameters(), mergeQuery);
+    }
+    if (statement.getLimit() != null) {
+      statement.getLimit().toString(ctx.getInputParameters(), mergeQuery);
+    }
+
+    OSelectStatement mergeStatement =
+        (OSelectStatement)
+            OSQLEngine.parse(mergeQuery.toString(), (ODatabaseDocumentInternal) ctx.getDatabase());
+    OSelectExecutionPlanner mergePlanner = new OSelectExecutionPlanner(mergeStatement);
+    mergePlanner.init(ctx);
+    optimizeQuery(mergePlanner.info, ctx);
+
+    shardQuery.append(shardProjection);
+    return mergePlanner.info;
+  }
+
+  /**
+   * @return the name of the aggregate function that merges the partial results of the given
+   *     aggregate expression, null if the partial results cannot be merged
+   */
+  private static String getPartialAggregationMerge(OExpression expression) {
+    OMathExpression math = expression.getMathExpression();
+    if (!(math instanceof OBaseExpression)
+        || ((OBaseExpression) math).getModifier() != null
+        || ((OBaseExpression) math).getIdentifier() == null
+        || ((OBaseExpression) math).getIdentifier().getLevelZero() == null) {
+      return null;
+    }
+    OFunctionCall function =
+        ((OBaseExpression) math).getIdentifier().getLevelZero().getFunctionCall();
+    if (function == null || function.getParams().size() != 1) {
+      return null;
+    }
+    for (OExpression param : function.getParams()) {
+      if (param.isAggregate()) {
+        return null;
+      }
+    }
+    switch (function.getName().getStringValue().toLowerCase(Locale.ENGLISH)) {
+      case "count":
+      case "sum":
+        return "sum";
+      case "min":
+        return "min";
+      case "max":
+        return "max";
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * creates the execution plan of a shard of a sharded query
+   *
+   * @param query the SQL statement of the shard
+   * @param clusters the clusters owned by the shard
+   * @param ctx the context of the execution
+   * @return the execution plan, restricted to the records of the given clusters
+   */
+  public static OInternalExecutionPlan createShardExecutionPlan(
+      String query, Set<String> clusters, OCommandContext ctx, boolean profilingEnabled) {
+    OStatement statement = OSQLEngine.parse(query, (ODatabaseDocumentInternal) ctx.getDatabase());
+    if (!(statement instanceof OSelectStatement)) {
+      throw new OCommandExecutionException("Invalid query for a shard: " + query);
+    }
+    OSelectExecutionPlanner planner = new OSelectExecutionPlanner((OSelectStatement) statement);
+    planner.setTargetClusters(clusters);
+    return planner.createExecutionPlan(ctx, profilingEnabled, false);
+  }
+
   /**
    * based on the cluster/server map and the query target, this method tries to find an optimal
    * strategy to execute the query on the cluster.
@@ -263,6 +588,21 @@ public class OSelectExecutionPlanner {
     clusterMap.put(localNode, new HashSet<>(db.getClusterNames()));
 
     Set<String> queryClusters = calculateTargetClusters(info, ctx);
+    if (targetClusters != null && queryClusters != null) {
+      // shard of a sharded query, only the clusters owned by this node are fetched
+      Set<String> shardClusters =
+          targetClusters.stream()
+              .map(x -> x.toLowerCase(Locale.ENGLISH))
+              .collect(Collectors.toSet());
+      queryClusters =
+          queryClusters.stream()
+              .filter(x -> x != null && shardClusters.contains(x.toLowerCase(Locale.ENGLISH)))
+              .collect(Collectors.toSet());
+      info.serverToClusters = new LinkedHashMap<>();
+      info.serverToClusters.put(localNode, queryClusters);
+      info.distributedFetchExecutionPlans.put(localNode, new OSelectExecutionPlan(ctx));
+      return;
+    }
     if (queryClusters == null || queryClusters.size() == 0) { // no target
 
       info.serverToClusters = new LinkedHashMap<>();
@@ -1902,9 +2242,25 @@ public class OSelectExecutionPlanner {
 
     AbstractExecutionStep fetcher;
     if (schema.getClass(className) != null) {
-      fetcher =
+      FetchFromClassExecutionStep fetchFromClass =
           new FetchFromClassExecutionStep(
               className, filterClusters, info, ctx, orderByRidAsc, profilingEnabled);
+      if (info.parallel) {
+        fetchFromClass.setParallelMinimumRecords(
+            Boolean.TRUE.equals(statement.getParallel())
+                ? 0
+                : ctx.getDatabase()
+                    .getConfiguration()
+                    .getValueAsLong(OGlobalConfiguration.QUERY_PARALLEL_MINIMUM_RECORDS));
+        if (info.whereClause != null
+            && info.perRecordLetClause == null
+            && info.serverToClusters.size() == 1) {
+          // the filter is evaluated by the threads that fetch the records
+          fetchFromClass.setFilter(info.whereClause);
+          info.whereClause = null;
+        }
+      }
+      fetcher = fetchFromClass;
     } else if (schema.getView(className) != null) {
       fetcher =
           new FetchFromViewExecutionStep(
@@ -0,0 +1,228 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.directmemory.ODirectMemoryAllocator;
+import com.orientechnologies.common.directmemory.ODirectMemoryAllocator.Intention;
+import com.orientechnologies.common.directmemory.OPointer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Set of keys serialized to byte arrays, which is kept in direct memory. Keys are appended to
+ * chunks of direct memory, together with their hash code and length, while the hash table, which
+ * uses open addressing with linear probing, contains only references to the keys in the chunks.
+ *
+ * <p>Keys can not be removed, memory is released only by {@link #close()}. The table is not resized
+ * beyond its maximum capacity, so the set accepts a limited amount of keys, see {@link #isFull()}.
+ */
+final class OSerializedKeySet implements AutoCloseable {
+  private static final int MIN_CHUNK_SIZE = 1 << 16;
+  private static final int MAX_CHUNK_SIZE = 1 << 20;
+  private static final int ENTRY_HEADER_SIZE = 2 * Integer.BYTES;
+  private static final int SLOT_SIZE = Long.BYTES;
+  private static final int INITIAL_CAPACITY = 1 << 12;
+  private static final int MAX_CAPACITY = 1 << 27;
+  private static final int LOAD_FACTOR_PERCENT = 70;
+
+  private final ODirectMemoryAllocator allocator = ODirectMemoryAllocator.instance();
+
+  private final int maxCapacity;
+  private final int maxSize;
+
+  private final List<OPointer> chunks = new ArrayList<>();
+  private final List<ByteBuffer> chunkBuffers = new ArrayList<>();
+  private ByteBuffer currentChunk;
+
+  private OPointer table;
+  private ByteBuffer tableBuffer;
+  private int capacity;
+  private int size;
+
+  private long memoryUsage;
+
+  OSerializedKeySet() {
+    this(MAX_CAPACITY);
+  }
+
+  /** @param maxCapacity maximum size of the hash table, power of two */
+  OSerializedKeySet(final int maxCapacity) {
+    this.maxCapacity = maxCapacity;
+    // part of the slots stays empty, so lookups of missing keys always end
+    this.maxSize = (int) ((long) maxCapacity * LOAD_FACTOR_PERCENT / 100);
+    allocateTable(Math.min(INITIAL_CAPACITY, maxCapacity));
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return <code>true</code> if the table reached its maximum capacity and new keys can not be
+   *     added anymore
+   */
+  boolean isFull() {
+    return size >= maxSize;
+  }
+
+  /** @return amount of direct memory allocated by this set in bytes */
+  long getMemoryUsage() {
+    return memoryUsage;
+  }
+
+  static int hash(final byte[] key) {
+    int hash = 1;
+    for (final byte b : key) {
+      hash = 31 * hash + b;
+    }
+    // spread bits, so the lower bits used by the table do not depend only on the last bytes
+    hash *= 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+
+  boolean contains(final byte[] key, final int hash) {
+    return tableBuffer.getLong(findSlot(key, hash)) != 0;
+  }
+
+  /**
+   * @return <code>true</code> if key was not present in the set
+   * @throws IllegalStateException if key is not present in the set and the set is full
+   */
+  boolean add(final byte[] key, final int hash) {
+    final int slot = findSlot(key, hash);
+    if (tableBuffer.getLong(slot) != 0) {
+      return false;
+    }
+
+    if (isFull()) {
+      throw new IllegalStateException(
+          "Set of serialized keys is full, it can not contain more than " + maxSize + " keys");
+    }
+
+    tableBuffer.putLong(slot, appendEntry(key, hash));
+    size++;
+
+    if (size * 100L >= (long) capacity * LOAD_FACTOR_PERCENT && capacity < maxCapacity) {
+      allocateTable(capacity << 1);
+    }
+    return true;
+  }
+
+  @Override
+  public void close() {
+    if (table != null) {
+      allocator.deallocate(table);
+      table = null;
+      tableBuffer = null;
+    }
+    for (final OPointer chunk : chunks) {
+      allocator.deallocate(chunk);
+    }
+    chunks.clear();
+    chunkBuffers.clear();
+    currentChunk = null;
+    memoryUsage = 0;
+  }
+
+  /** @return offset of the slot which contains given key, or of the empty slot to put it into */
+  private int findSlot(final byte[] key, final int hash) {
+    final int mask = capacity - 1;
+    int index = hash & mask;
+    while (true) {
+      final int slot = index * SLOT_SIZE;
+      final long reference = tableBuffer.getLong(slot);
+      if (reference == 0 || keyEquals(reference, key, hash)) {
+        return slot;
+      }
+      index = (index + 1) & mask;
+    }
+  }
+
+  private boolean keyEquals(final long reference, final byte[] key, final int hash) {
+    final ByteBuffer chunk = chunkBuffers.get(chunkIndex(reference));
+    final int offset = chunkOffset(reference);
+    if (chunk.getInt(offset) != hash || chunk.getInt(offset + Integer.BYTES) != key.length) {
+      return false;
+    }
+
+    final int keyOffset = offset + ENTRY_HEADER_SIZE;
+    for (int i = 0; i < key.length; i++) {
+      if (chunk.get(keyOffset + i) != key[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Copies key to the chunk of direct memory.
+   *
+   * @return reference to the key which is stored in the hash table, it is never 0, because 0 marks
+   *     empty slot
+   */
+  private long appendEntry(final byte[] key, final int hash) {
+    final int entrySize = ENTRY_HEADER_SIZE + key.length;
+    if (currentChunk == null || currentChunk.remaining() < entrySize) {
+      // chunks grow up to the maximum size, so small sets do not allocate too much memory
+      final int chunkSize = Math.min(MAX_CHUNK_SIZE, MIN_CHUNK_SIZE << Math.min(chunks.size(), 4));
+      currentChunk = allocateChunk(Math.max(chunkSize, entrySize));
+    }
+
+    final int offset = currentChunk.position();
+    currentChunk.putInt(hash);
+    currentChunk.putInt(key.length);
+    currentChunk.put(key);
+
+    return ((long) (chunkBuffers.size() - 1) << 32 | offset) + 1;
+  }
+
+  private ByteBuffer allocateChunk(final int chunkSize) {
+    final OPointer chunk =
+        allocator.allocate(chunkSize, false, Intention.ALLOCATE_DISTINCT_KEY_SET);
+    memoryUsage += chunkSize;
+
+    final ByteBuffer buffer = chunk.getNativeByteBuffer();
+    chunks.add(chunk);
+    chunkBuffers.add(buffer);
+    return buffer;
+  }
+
+  private void allocateTable(final int newCapacity) {
+    final OPointer oldTable = table;
+    final ByteBuffer oldTableBuffer = tableBuffer;
+    final int oldCapacity = capacity;
+
+    table =
+        allocator.allocate(newCapacity * SLOT_SIZE, true, Intention.ALLOCATE_DISTINCT_KEY_SET);
+    tableBuffer = table.getNativeByteBuffer();
+    capacity = newCapacity;
+    memoryUsage += (long) newCapacity * SLOT_SIZE;
+
+    if (oldTable != null) {
+      final int mask = capacity - 1;
+      for (int i = 0; i < oldCapacity; i++) {
+        final long reference = oldTableBuffer.getLong(i * SLOT_SIZE);
+        if (reference == 0) {
+          continue;
+        }
+
+        final int hash = chunkBuffers.get(chunkIndex(reference)).getInt(chunkOffset(reference));
+        int index = hash & mask;
+        while (tableBuffer.getLong(index * SLOT_SIZE) != 0) {
+          index = (index + 1) & mask;
+        }
+        tableBuffer.putLong(index * SLOT_SIZE, reference);
+      }
+
+      allocator.deallocate(oldTable);
+      memoryUsage -= (long) oldCapacity * SLOT_SIZE;
+    }
+  }
+
+  private static int chunkIndex(final long reference) {
+    return (int) ((reference - 1) >>> 32);
+  }
+
+  private static int chunkOffset(final long reference) {
+    return (int) (reference - 1);
+  }
+}
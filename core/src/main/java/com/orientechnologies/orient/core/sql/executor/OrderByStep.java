@@ -1,15 +1,21 @@
 package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.sql.parser.OOrderBy;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
 
 /** Created by luigidellaquila on 11/07/16. */
 public class OrderByStep extends AbstractExecutionStep {
@@ -20,7 +26,8 @@ public class OrderByStep extends AbstractExecutionStep {
   private long cost = 0;
 
   private List<OResult> cachedResult = null;
-  private int nextElement = 0;
+  private Iterator<OResult> sortedResults = null;
+  private OExternalMergeSort externalSort = null;
 
   public OrderByStep(
       OOrderBy orderBy, OCommandContext ctx, long timeoutMillis, boolean profilingEnabled) {
@@ -44,24 +51,30 @@ public class OrderByStep extends AbstractExecutionStep {
 
   @Override
   public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
-    if (cachedResult == null) {
+    if (sortedResults == null) {
       cachedResult = new ArrayList<>();
       prev.ifPresent(p -> init(p, ctx));
+      if (sortedResults == null) {
+        sortedResults = cachedResult.iterator();
+      }
     }
 
     return new OResultSet() {
       private int currentBatchReturned = 0;
-      private int offset = nextElement;
 
       @Override
       public boolean hasNext() {
         if (currentBatchReturned >= nRecords) {
           return false;
         }
-        if (cachedResult.size() <= nextElement) {
-          return false;
+        long begin = profilingEnabled ? System.nanoTime() : 0;
+        try {
+          return sortedResults.hasNext();
+        } finally {
+          if (profilingEnabled) {
+            cost += (System.nanoTime() - begin);
+          }
         }
-        return true;
       }
 
       @Override
@@ -71,11 +84,10 @@ public class OrderByStep extends AbstractExecutionStep {
           if (currentBatchReturned >= nRecords) {
             throw new IllegalStateException();
           }
-          if (cachedResult.size() <= nextElement) {
+          if (!sortedResults.hasNext()) {
             throw new IllegalStateException();
           }
-          OResult result = cachedResult.get(offset + currentBatchReturned);
-          nextElement++;
+          OResult result = sortedResults.next();
           currentBatchReturned++;
           return result;
         } finally {
@@ -106,7 +118,18 @@ public class OrderByStep extends AbstractExecutionStep {
     long timeoutBegin = System.currentTimeMillis();
     final long maxElementsAllowed =
         OGlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.getValueAsLong();
-    boolean sorted = true;
+    final Comparator<OResult> comparator = (a, b) -> orderBy.compare(a, b, ctx);
+
+    // with a LIMIT only the first maxResults elements are kept, in a bounded heap
+    final PriorityQueue<RankedResult> topResults;
+    if (maxResults != null && (maxElementsAllowed < 0 || maxResults <= maxElementsAllowed)) {
+      topResults =
+          new PriorityQueue<>(Math.max(1, maxResults), (a, b) -> b.compareTo(a, comparator));
+    } else {
+      topResults = null;
+    }
+
+    long sequence = 0;
     do {
       OResultSet lastBatch = p.syncPull(ctx, 100);
       if (!lastBatch.hasNext()) {
@@ -123,24 +146,12 @@ public class OrderByStep extends AbstractExecutionStep {
         OResult item = lastBatch.next();
         long begin = profilingEnabled ? System.nanoTime() : 0;
         try {
-          cachedResult.add(item);
-          if (maxElementsAllowed >= 0 && maxElementsAllowed < cachedResult.size()) {
-            this.cachedResult.clear();
-            throw new OCommandExecutionException(
-                "Limit of allowed elements for in-heap ORDER BY in a single query exceeded ("
-                    + maxElementsAllowed
-                    + ") . You can set "
-                    + OGlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.getKey()
-                    + " to increase this limit");
-          }
-          sorted = false;
-          // compact, only at twice as the buffer, to avoid to do it at each add
-          if (this.maxResults != null) {
-            long compactThreshold = 2L * maxResults;
-            if (compactThreshold < cachedResult.size()) {
-              cachedResult.sort((a, b) -> orderBy.compare(a, b, ctx));
-              cachedResult = new ArrayList<>(cachedResult.subList(0, maxResults));
-              sorted = true;
+          if (topResults != null) {
+            addTopResult(topResults, new RankedResult(item, sequence++), comparator);
+          } else {
+            cachedResult.add(item);
+            if (maxElementsAllowed >= 0 && maxElementsAllowed < cachedResult.size()) {
+              spill(comparator, maxElementsAllowed);
             }
           }
         } finally {
@@ -152,25 +163,28 @@ public class OrderByStep extends AbstractExecutionStep {
       if (timedOut) {
         break;
       }
-      long begin = profilingEnabled ? System.nanoTime() : 0;
-      try {
-        // compact at each batch, if needed
-        if (!sorted && this.maxResults != null && maxResults < cachedResult.size()) {
-          cachedResult.sort((a, b) -> orderBy.compare(a, b, ctx));
-          cachedResult = new ArrayList<>(cachedResult.subList(0, maxResults));
-          sorted = true;
-        }
-      } finally {
-        if (profilingEnabled) {
-          cost += (System.nanoTime() - begin);
-        }
-      }
     } while (true);
     long begin = profilingEnabled ? System.nanoTime() : 0;
     try {
-      if (!sorted) {
-        cachedResult.sort((a, b) -> orderBy.compare(a, b, ctx));
+      if (topResults != null) {
+        final OResult[] results = new OResult[topResults.size()];
+        for (int i = results.length - 1; i >= 0; i--) {
+          results[i] = topResults.poll().result;
+        }
+        cachedResult = new ArrayList<>(Arrays.asList(results));
+      } else {
+        cachedResult.sort(comparator);
+      }
+
+      if (externalSort != null) {
+        sortedResults = externalSort.merge(cachedResult);
+      } else {
+        sortedResults = cachedResult.iterator();
       }
+    } catch (IOException e) {
+      throw OException.wrapException(
+          new OCommandExecutionException("Error during merge of ORDER BY results spilled to disk"),
+          e);
     } finally {
       if (profilingEnabled) {
         cost += (System.nanoTime() - begin);
@@ -178,6 +192,47 @@ public class OrderByStep extends AbstractExecutionStep {
     }
   }
 
+  private void addTopResult(
+      PriorityQueue<RankedResult> topResults,
+      RankedResult item,
+      Comparator<OResult> comparator) {
+    if (topResults.size() < maxResults) {
+      topResults.add(item);
+    } else if (maxResults > 0 && item.compareTo(topResults.peek(), comparator) < 0) {
+      topResults.poll();
+      topResults.add(item);
+    }
+  }
+
+  private void spill(Comparator<OResult> comparator, long maxElementsAllowed) {
+    if (!OGlobalConfiguration.QUERY_ORDER_BY_SPILL_TO_DISK.getValueAsBoolean()) {
+      this.cachedResult.clear();
+      throw new OCommandExecutionException(
+          "Limit of allowed elements for in-heap ORDER BY in a single query exceeded ("
+              + maxElementsAllowed
+              + ") . You can set "
+              + OGlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.getKey()
+              + " to increase this limit or enable "
+              + OGlobalConfiguration.QUERY_ORDER_BY_SPILL_TO_DISK.getKey());
+    }
+
+    if (externalSort == null) {
+      externalSort = new OExternalMergeSort(comparator);
+    }
+    cachedResult.sort(comparator);
+    externalSort.addRun(cachedResult);
+    cachedResult = new ArrayList<>();
+  }
+
+  @Override
+  public void close() {
+    if (externalSort != null) {
+      externalSort.close();
+      externalSort = null;
+    }
+    super.close();
+  }
+
   @Override
   public String prettyPrint(int depth, int indent) {
     String result = OExecutionStepInternal.getIndent(depth, indent) + "+ " + orderBy;
@@ -185,6 +240,9 @@ public class OrderByStep extends AbstractExecutionStep {
       result += " (" + getCostFormatted() + ")";
     }
     result += (maxResults != null ? "\n  (buffer size: " + maxResults + ")" : "");
+    if (externalSort != null) {
+      result += "\n  (spilled to disk: " + externalSort.getRunsCount() + " runs)";
+    }
     return result;
   }
 
@@ -192,4 +250,23 @@ public class OrderByStep extends AbstractExecutionStep {
   public long getCost() {
     return cost;
   }
+
+  /** Result with its position in the input, used to keep the top-K selection stable. */
+  private static final class RankedResult {
+    private final OResult result;
+    private final long sequence;
+
+    private RankedResult(OResult result, long sequence) {
+      this.result = result;
+      this.sequence = sequence;
+    }
+
+    private int compareTo(RankedResult other, Comparator<OResult> comparator) {
+      int result = comparator.compare(this.result, other.result);
+      if (result != 0) {
+        return result;
+      }
+      return Long.compare(sequence, other.sequence);
+    }
+  }
 }
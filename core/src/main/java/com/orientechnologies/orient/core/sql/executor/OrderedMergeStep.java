@@ -0,0 +1,175 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.sql.parser.OOrderBy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/**
+ * Merges the results of sub-plans which are already sorted by the same ORDER BY clause, so the
+ * results are returned in order without buffering and sorting them again. Used to merge the
+ * results of a query executed on the nodes of a sharded database.
+ */
+public class OrderedMergeStep extends AbstractExecutionStep {
+  private static final int FETCH_SIZE = 100;
+
+  private final List<OInternalExecutionPlan> subExecutionPlans;
+  private final OOrderBy orderBy;
+
+  private PriorityQueue<Source> heads;
+
+  private long cost = 0;
+
+  public OrderedMergeStep(
+      List<OInternalExecutionPlan> subExecutionPlans,
+      OOrderBy orderBy,
+      OCommandContext ctx,
+      boolean profilingEnabled) {
+    super(ctx, profilingEnabled);
+    this.subExecutionPlans = subExecutionPlans;
+    this.orderBy = orderBy;
+  }
+
+  @Override
+  public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
+    getPrev().ifPresent(x -> x.syncPull(ctx, nRecords));
+    init(ctx);
+    return new OResultSet() {
+      private int localCount = 0;
+
+      @Override
+      public boolean hasNext() {
+        return localCount < nRecords && !heads.isEmpty();
+      }
+
+      @Override
+      public OResult next() {
+        if (!hasNext()) {
+          throw new IllegalStateException();
+        }
+        long begin = profilingEnabled ? System.nanoTime() : 0;
+        try {
+          Source source = heads.poll();
+          OResult result = source.current;
+          if (source.advance()) {
+            heads.add(source);
+          }
+          localCount++;
+          return result;
+        } finally {
+          if (profilingEnabled) {
+            cost += (System.nanoTime() - begin);
+          }
+        }
+      }
+
+      @Override
+      public void close() {}
+
+      @Override
+      public Optional<OExecutionPlan> getExecutionPlan() {
+        return Optional.empty();
+      }
+
+      @Override
+      public Map<String, Long> getQueryStats() {
+        return null;
+      }
+    };
+  }
+
+  private void init(OCommandContext ctx) {
+    if (heads != null) {
+      return;
+    }
+    long begin = profilingEnabled ? System.nanoTime() : 0;
+    try {
+      heads =
+          new PriorityQueue<>(
+              Math.max(1, subExecutionPlans.size()),
+              (a, b) -> {
+                int result = orderBy.compare(a.current, b.current, ctx);
+                return result != 0 ? result : Integer.compare(a.index, b.index);
+              });
+      for (int i = 0; i < subExecutionPlans.size(); i++) {
+        Source source = new Source(subExecutionPlans.get(i), i);
+        if (source.advance()) {
+          heads.add(source);
+        }
+      }
+    } finally {
+      if (profilingEnabled) {
+        cost += (System.nanoTime() - begin);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    super.close();
+    for (OInternalExecutionPlan plan : subExecutionPlans) {
+      plan.close();
+    }
+  }
+
+  @Override
+  public String prettyPrint(int depth, int indent) {
+    String ind = OExecutionStepInternal.getIndent(depth, indent);
+    StringBuilder result = new StringBuilder();
+    result.append(ind);
+    result.append("+ MERGE ORDERED ");
+    result.append(orderBy);
+    if (profilingEnabled) {
+      result.append(" (" + getCostFormatted() + ")");
+    }
+    for (OInternalExecutionPlan plan : subExecutionPlans) {
+      result.append("\n");
+      result.append(plan.prettyPrint(depth + 1, indent));
+    }
+    return result.toString();
+  }
+
+  @Override
+  public long getCost() {
+    return cost;
+  }
+
+  @Override
+  public List<OExecutionPlan> getSubExecutionPlans() {
+    return (List) subExecutionPlans;
+  }
+
+  @Override
+  public boolean canBeCached() {
+    return false;
+  }
+
+  /** Sorted results of a single sub-plan, with the smallest result not returned yet. */
+  private static final class Source {
+    private final OInternalExecutionPlan plan;
+    private final int index;
+    private OResultSet page;
+    private OResult current;
+
+    private Source(OInternalExecutionPlan plan, int index) {
+      this.plan = plan;
+      this.index = index;
+    }
+
+    /** @return false if all the results of the sub-plan were returned */
+    private boolean advance() {
+      while (page == null || !page.hasNext()) {
+        page = plan.fetchNext(FETCH_SIZE);
+        if (!page.hasNext()) {
+          current = null;
+          return false;
+        }
+      }
+      current = page.next();
+      return true;
+    }
+  }
+}
@@ -204,6 +204,14 @@ public class ParallelExecStep extends AbstractExecutionStep {
     return (List) subExecutionPlans;
   }
 
+  @Override
+  public void close() {
+    super.close();
+    for (OInternalExecutionPlan plan : subExecutionPlans) {
+      plan.close();
+    }
+  }
+
   @Override
   public boolean canBeCached() {
     for (OInternalExecutionPlan plan : subExecutionPlans) {
@@ -2,6 +2,7 @@ package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.concur.OTimeoutException;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.sql.parser.OExpressionCompiler;
 import com.orientechnologies.orient.core.sql.parser.OProjection;
 import java.util.Map;
 import java.util.Optional;
@@ -9,6 +10,8 @@ import java.util.Optional;
 /** Created by luigidellaquila on 12/07/16. */
 public class ProjectionCalculationStep extends AbstractExecutionStep {
   protected final OProjection projection;
+  private OExpressionCompiler.Projection compiledProjection;
+  private boolean projectionCompiled = false;
 
   protected long cost = 0;
 
@@ -24,6 +27,13 @@ public class ProjectionCalculationStep extends AbstractExecutionStep {
       throw new IllegalStateException("Cannot calculate projections without a previous source");
     }
 
+    if (!projectionCompiled) {
+      projectionCompiled = true;
+      if (OExpressionCompiler.isEnabled(ctx)) {
+        compiledProjection = OExpressionCompiler.compile(projection, ctx);
+      }
+    }
+
     OResultSet parentRs = prev.get().syncPull(ctx, nRecords);
     return new OResultSet() {
       @Override
@@ -61,6 +71,9 @@ public class ProjectionCalculationStep extends AbstractExecutionStep {
   private OResult calculateProjections(OCommandContext ctx, OResult next) {
     long begin = profilingEnabled ? System.nanoTime() : 0;
     try {
+      if (compiledProjection != null) {
+        return compiledProjection.calculate(next, ctx);
+      }
       return this.projection.calculateSingle(ctx, next);
     } finally {
       if (profilingEnabled) {
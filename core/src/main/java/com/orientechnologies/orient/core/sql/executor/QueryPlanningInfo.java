@@ -13,6 +13,9 @@ public class QueryPlanningInfo {
   protected boolean distinct = false;
   protected boolean expand = false;
 
+  /** true if the records of the target classes may be fetched by several threads */
+  protected boolean parallel = false;
+
   protected OProjection preAggregateProjection;
   protected OProjection aggregateProjection;
   protected OProjection projection = null;
@@ -56,6 +59,7 @@ public class QueryPlanningInfo {
     QueryPlanningInfo result = new QueryPlanningInfo();
     result.distinct = this.distinct;
     result.expand = this.expand;
+    result.parallel = this.parallel;
     result.preAggregateProjection = this.preAggregateProjection;
     result.aggregateProjection = this.aggregateProjection;
     result.projection = this.projection;
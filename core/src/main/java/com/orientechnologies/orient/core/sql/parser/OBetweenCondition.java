@@ -70,7 +70,7 @@ public class OBetweenCondition extends OBooleanExpression {
     return evaluate(firstValue, secondValue, thirdValue);
   }
 
-  private boolean evaluate(Object firstValue, Object secondValue, Object thirdValue) {
+  boolean evaluate(Object firstValue, Object secondValue, Object thirdValue) {
     if (firstValue == null) {
       return false;
     }
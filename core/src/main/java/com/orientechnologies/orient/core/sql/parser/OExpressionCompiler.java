@@ -0,0 +1,513 @@
+package com.orientechnologies.orient.core.sql.parser;
+
+import com.orientechnologies.orient.core.collate.OCollate;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabase;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OProperty;
+import com.orientechnologies.orient.core.record.OElement;
+import com.orientechnologies.orient.core.serialization.serializer.OStringSerializerHelper;
+import com.orientechnologies.orient.core.sql.executor.OResult;
+import com.orientechnologies.orient.core.sql.executor.OResultInternal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compiles WHERE conditions and projections into trees of evaluators specialised for the query:
+ * constants and input parameters are calculated once, property reads and comparisons don't go
+ * through the generic AST nodes and the collates of the compared properties are resolved once per
+ * class. The nodes which are not supported are evaluated by the interpreter.
+ *
+ * <p>The compiled evaluators refer to the AST they are compiled from and to the input parameters
+ * of the context, so they have to be compiled for each execution, and they are not thread safe.
+ */
+public final class OExpressionCompiler {
+
+  /** A compiled boolean expression */
+  public interface Condition {
+    boolean evaluate(OResult record, OCommandContext ctx);
+  }
+
+  /** A compiled expression */
+  public interface Value {
+    Object execute(OResult record, OCommandContext ctx);
+  }
+
+  /** A compiled projection */
+  public interface Projection {
+    OResult calculate(OResult record, OCommandContext ctx);
+  }
+
+  private OExpressionCompiler() {}
+
+  public static boolean isEnabled(OCommandContext ctx) {
+    ODatabase db = ctx.getDatabase();
+    return db == null
+        ? OGlobalConfiguration.QUERY_COMPILED_EXPRESSIONS.getValueAsBoolean()
+        : db.getConfiguration().getValueAsBoolean(OGlobalConfiguration.QUERY_COMPILED_EXPRESSIONS);
+  }
+
+  /** @return the compiled condition, or null if the condition can't be compiled */
+  public static Condition compile(OWhereClause whereClause, OCommandContext ctx) {
+    if (whereClause == null || whereClause.baseExpression == null) {
+      return null;
+    }
+    Condition result = compileCondition(whereClause.baseExpression, ctx);
+    return result instanceof Interpreted ? null : result;
+  }
+
+  /**
+   * @return the compiled projection, or null if the projection contains items that are not
+   *     calculated from a single expression (eg. *, exclusions or nested projections)
+   */
+  public static Projection compile(OProjection projection, OCommandContext ctx) {
+    if (projection == null
+        || projection.items == null
+        || projection.items.isEmpty()
+        || projection.isExpand()) {
+      return null;
+    }
+    int size = projection.items.size();
+    OProjectionItem[] items = new OProjectionItem[size];
+    String[] aliases = new String[size];
+    Value[] values = new Value[size];
+    boolean compiled = false;
+    for (int i = 0; i < size; i++) {
+      OProjectionItem item = projection.items.get(i);
+      if (item.exclude || item.all || item.nestedProjection != null || item.expression == null) {
+        return null;
+      }
+      items[i] = item;
+      aliases[i] = item.getProjectionAliasAsString();
+      values[i] = compileValue(item.expression, ctx, false);
+      compiled |= !(values[i] instanceof InterpretedValue);
+    }
+    if (!compiled) {
+      return null;
+    }
+
+    return (record, context) -> {
+      OResultInternal result = new OResultInternal();
+      for (int i = 0; i < items.length; i++) {
+        result.setProperty(aliases[i], items[i].convert(values[i].execute(record, context)));
+      }
+      for (String key : record.getMetadataKeys()) {
+        if (!result.getMetadataKeys().contains(key)) {
+          result.setMetadata(key, record.getMetadata(key));
+        }
+      }
+      return result;
+    };
+  }
+
+  private static Condition compileCondition(OBooleanExpression expression, OCommandContext ctx) {
+    if (expression instanceof OOrBlock) {
+      return compileOr(((OOrBlock) expression).subBlocks, ctx, expression);
+    } else if (expression instanceof OAndBlock) {
+      return compileAnd(((OAndBlock) expression).subBlocks, ctx, expression);
+    } else if (expression instanceof ONotBlock) {
+      return compileNot((ONotBlock) expression, ctx);
+    } else if (expression instanceof OParenthesisBlock) {
+      return compileCondition(((OParenthesisBlock) expression).subElement, ctx);
+    } else if (expression instanceof OBinaryCondition) {
+      return compileBinaryCondition((OBinaryCondition) expression, ctx);
+    } else if (expression instanceof OBetweenCondition) {
+      return compileBetween((OBetweenCondition) expression, ctx);
+    } else if (expression instanceof OInCondition) {
+      return compileIn((OInCondition) expression, ctx);
+    } else if (expression instanceof OIsNullCondition) {
+      OExpression exp = ((OIsNullCondition) expression).expression;
+      if (!exp.isFunctionAny() && !exp.isFunctionAll()) {
+        Value value = compileValue(exp, ctx, true);
+        return (record, context) -> value.execute(record, context) == null;
+      }
+    } else if (expression instanceof OIsNotNullCondition) {
+      OExpression exp = ((OIsNotNullCondition) expression).expression;
+      if (!exp.isFunctionAny() && !exp.isFunctionAll()) {
+        Value value = compileValue(exp, ctx, true);
+        return (record, context) -> value.execute(record, context) != null;
+      }
+    }
+    return new Interpreted(expression);
+  }
+
+  private static Condition compileOr(
+      List<OBooleanExpression> subBlocks, OCommandContext ctx, OBooleanExpression expression) {
+    if (subBlocks == null) {
+      return (record, context) -> true;
+    }
+    if (subBlocks.size() == 1) {
+      return compileCondition(subBlocks.get(0), ctx);
+    }
+    Condition[] conditions = compileConditions(subBlocks, ctx);
+    if (conditions == null) {
+      return new Interpreted(expression);
+    }
+    return (record, context) -> {
+      for (Condition condition : conditions) {
+        if (condition.evaluate(record, context)) {
+          return true;
+        }
+      }
+      return false;
+    };
+  }
+
+  private static Condition compileAnd(
+      List<OBooleanExpression> subBlocks, OCommandContext ctx, OBooleanExpression expression) {
+    if (subBlocks == null) {
+      return (record, context) -> true;
+    }
+    if (subBlocks.size() == 1) {
+      return compileCondition(subBlocks.get(0), ctx);
+    }
+    Condition[] conditions = compileConditions(subBlocks, ctx);
+    if (conditions == null) {
+      return new Interpreted(expression);
+    }
+    return (record, context) -> {
+      for (Condition condition : conditions) {
+        if (!condition.evaluate(record, context)) {
+          return false;
+        }
+      }
+      return true;
+    };
+  }
+
+  /** @return the compiled conditions, or null if none of them can be compiled */
+  private static Condition[] compileConditions(
+      List<OBooleanExpression> subBlocks, OCommandContext ctx) {
+    Condition[] result = new Condition[subBlocks.size()];
+    boolean compiled = false;
+    for (int i = 0; i < result.length; i++) {
+      result[i] = compileCondition(subBlocks.get(i), ctx);
+      compiled |= !(result[i] instanceof Interpreted);
+    }
+    return compiled ? result : null;
+  }
+
+  private static Condition compileNot(ONotBlock expression, OCommandContext ctx) {
+    if (expression.sub == null) {
+      return (record, context) -> true;
+    }
+    Condition sub = compileCondition(expression.sub, ctx);
+    if (sub instanceof Interpreted) {
+      return new Interpreted(expression);
+    }
+    if (expression.negate) {
+      return (record, context) -> !sub.evaluate(record, context);
+    }
+    return sub;
+  }
+
+  private static Condition compileBinaryCondition(
+      OBinaryCondition expression, OCommandContext ctx) {
+    if (expression.left.isFunctionAny() || expression.left.isFunctionAll()) {
+      return new Interpreted(expression);
+    }
+    Value left = compileValue(expression.left, ctx, true);
+    Value right = compileValue(expression.right, ctx, true);
+    OBinaryCompareOperator operator = expression.operator;
+    String leftProperty = getCollateProperty(expression.left);
+    String rightProperty = getCollateProperty(expression.right);
+    if (leftProperty == null && rightProperty == null) {
+      return (record, context) ->
+          operator.execute(left.execute(record, context), right.execute(record, context));
+    }
+
+    CollateResolver collates = new CollateResolver(leftProperty, rightProperty);
+    return (record, context) -> {
+      Object leftVal = left.execute(record, context);
+      Object rightVal = right.execute(record, context);
+      OCollate collate = collates.resolve(record);
+      if (collate != null) {
+        leftVal = collate.transform(leftVal);
+        rightVal = collate.transform(rightVal);
+      }
+      return operator.execute(leftVal, rightVal);
+    };
+  }
+
+  private static Condition compileBetween(OBetweenCondition expression, OCommandContext ctx) {
+    if (expression.first.isFunctionAny() || expression.first.isFunctionAll()) {
+      return new Interpreted(expression);
+    }
+    Value first = compileValue(expression.first, ctx, true);
+    Value second = compileValue(expression.second, ctx, true);
+    Value third = compileValue(expression.third, ctx, true);
+    return (record, context) ->
+        expression.evaluate(
+            first.execute(record, context),
+            second.execute(record, context),
+            third.execute(record, context));
+  }
+
+  private static Condition compileIn(OInCondition expression, OCommandContext ctx) {
+    if (expression.rightStatement != null
+        || expression.left.isFunctionAny()
+        || expression.left.isFunctionAll()) {
+      return new Interpreted(expression);
+    }
+    Value right;
+    if (expression.rightParam != null) {
+      right = new Constant(expression.rightParam.getValue(ctx.getInputParameters()));
+    } else if (expression.rightMathExpression != null) {
+      right = compileValue(expression.rightMathExpression, ctx, true);
+    } else {
+      return new Interpreted(expression);
+    }
+    Value left = compileValue(expression.left, ctx, true);
+    return (record, context) -> {
+      Object rightVal = right.execute(record, context);
+      if (rightVal == null) {
+        return false;
+      }
+      return OInCondition.evaluateExpression(left.execute(record, context), rightVal);
+    };
+  }
+
+  /**
+   * @param shareCollections true if the collection literals can be calculated once and shared
+   *     between the records, ie. if their values are only compared and never returned
+   */
+  private static Value compileValue(
+      OExpression expression, OCommandContext ctx, boolean shareCollections) {
+    if (expression.getClass() == OExpression.class) {
+      if (expression.isNull) {
+        return new Constant(null);
+      }
+      if (expression.mathExpression != null) {
+        return compileValue(expression.mathExpression, ctx, shareCollections);
+      }
+      if (expression.booleanValue != null
+          && expression.rid == null
+          && expression.arrayConcatExpression == null
+          && expression.json == null) {
+        return new Constant(expression.booleanValue);
+      }
+    }
+    return new InterpretedValue(expression::execute);
+  }
+
+  private static Value compileValue(
+      OMathExpression expression, OCommandContext ctx, boolean shareCollections) {
+    if (expression.getClass() == OBaseExpression.class) {
+      return compileBaseExpression((OBaseExpression) expression, ctx, shareCollections);
+    }
+    if (expression.getClass() == OParenthesisExpression.class
+        && ((OParenthesisExpression) expression).expression != null) {
+      return compileValue(((OParenthesisExpression) expression).expression, ctx, shareCollections);
+    }
+    if (expression.getClass() != OMathExpression.class) {
+      return new InterpretedValue(expression::execute);
+    }
+
+    List<OMathExpression> children = expression.childExpressions;
+    if (children.isEmpty()) {
+      return new Constant(null);
+    }
+    if (children.size() == 1) {
+      return compileValue(children.get(0), ctx, shareCollections);
+    }
+    if (children.size() > 2) {
+      // the operator priority is applied by the interpreter
+      return new InterpretedValue(expression::execute);
+    }
+    Value left = compileValue(children.get(0), ctx, shareCollections);
+    Value right = compileValue(children.get(1), ctx, shareCollections);
+    OMathExpression.Operator operator = expression.operators.get(0);
+    if (left instanceof Constant && right instanceof Constant) {
+      try {
+        return new Constant(operator.apply(((Constant) left).value, ((Constant) right).value));
+      } catch (RuntimeException e) {
+        // the error is reported by the interpreter, if the expression is ever evaluated
+        return new InterpretedValue(expression::execute);
+      }
+    }
+    return (record, context) ->
+        operator.apply(left.execute(record, context), right.execute(record, context));
+  }
+
+  private static Value compileBaseExpression(
+      OBaseExpression expression, OCommandContext ctx, boolean shareCollections) {
+    if (expression.modifier != null) {
+      return new InterpretedValue(expression::execute);
+    }
+    if (expression.number != null) {
+      return new Constant(expression.number.getValue());
+    }
+    if (expression.identifier != null) {
+      OLevelZeroIdentifier levelZero = expression.identifier.levelZero;
+      OSuffixIdentifier suffix = expression.identifier.suffix;
+      if (levelZero == null && suffix != null && suffix.identifier != null) {
+        String name = suffix.identifier.getStringValue();
+        if (!name.startsWith("$")) {
+          return new PropertyValue(name);
+        }
+      } else if (shareCollections
+          && suffix == null
+          && levelZero != null
+          && levelZero.collection != null
+          && levelZero.functionCall == null
+          && levelZero.self == null
+          && isConstant(levelZero.collection, ctx)) {
+        return new Constant(levelZero.collection.execute((OResult) null, ctx));
+      }
+      return new InterpretedValue(expression::execute);
+    }
+    if (expression.string != null) {
+      String string = expression.string;
+      return new Constant(
+          string.length() > 1
+              ? OStringSerializerHelper.decode(string.substring(1, string.length() - 1))
+              : null);
+    }
+    if (expression.inputParam != null) {
+      return new Constant(expression.inputParam.getValue(ctx.getInputParameters()));
+    }
+    return new Constant(null);
+  }
+
+  private static boolean isConstant(OCollection collection, OCommandContext ctx) {
+    if (collection.expressions == null) {
+      return false;
+    }
+    for (OExpression item : collection.expressions) {
+      if (!(compileValue(item, ctx, true) instanceof Constant)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the name of the property whose collate is applied by the interpreter to a comparison
+   *     with this expression, see {@link OExpression#getCollate(OResult, OCommandContext)}
+   */
+  private static String getCollateProperty(OExpression expression) {
+    if (expression.getClass() != OExpression.class || expression.mathExpression == null) {
+      return null;
+    }
+    OMathExpression math = expression.mathExpression;
+    while (math.getClass() == OMathExpression.class && math.childExpressions.size() == 1) {
+      math = math.childExpressions.get(0);
+    }
+    if (!(math instanceof OBaseExpression)) {
+      return null;
+    }
+    OBaseExpression base = (OBaseExpression) math;
+    if (base.identifier == null
+        || base.modifier != null
+        || base.identifier.suffix == null
+        || base.identifier.suffix.identifier == null) {
+      return null;
+    }
+    return base.identifier.suffix.identifier.getStringValue();
+  }
+
+  private static final class Constant implements Value {
+    private final Object value;
+
+    private Constant(Object value) {
+      this.value = value;
+    }
+
+    @Override
+    public Object execute(OResult record, OCommandContext ctx) {
+      return value;
+    }
+  }
+
+  private static final class InterpretedValue implements Value {
+    private final Value delegate;
+
+    private InterpretedValue(Value delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Object execute(OResult record, OCommandContext ctx) {
+      return delegate.execute(record, ctx);
+    }
+  }
+
+  private static final class Interpreted implements Condition {
+    private final OBooleanExpression expression;
+
+    private Interpreted(OBooleanExpression expression) {
+      this.expression = expression;
+    }
+
+    @Override
+    public boolean evaluate(OResult record, OCommandContext ctx) {
+      return expression.evaluate(record, ctx);
+    }
+  }
+
+  /** Same lookup as {@link OSuffixIdentifier#execute(OResult, OCommandContext)} */
+  private static final class PropertyValue implements Value {
+    private final String name;
+
+    private PropertyValue(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public Object execute(OResult record, OCommandContext ctx) {
+      if (record == null) {
+        return null;
+      }
+      if (record.hasProperty(name)) {
+        return record.getProperty(name);
+      }
+      if (record.getMetadataKeys().contains(name)) {
+        return record.getMetadata(name);
+      }
+      if (record instanceof OResultInternal
+          && ((OResultInternal) record).getTemporaryProperties().contains(name)) {
+        return ((OResultInternal) record).getTemporaryProperty(name);
+      }
+      return null;
+    }
+  }
+
+  /** Resolves the collate of a comparison once for each class of the compared records */
+  private static final class CollateResolver {
+    private final String leftProperty;
+    private final String rightProperty;
+    private OClass lastClass;
+    private OCollate lastCollate;
+
+    private CollateResolver(String leftProperty, String rightProperty) {
+      this.leftProperty = leftProperty;
+      this.rightProperty = rightProperty;
+    }
+
+    private OCollate resolve(OResult record) {
+      if (record == null) {
+        return null;
+      }
+      Optional<OElement> element = record.getElement();
+      OClass clazz = element.isPresent() ? element.get().getSchemaType().orElse(null) : null;
+      if (clazz == null) {
+        return null;
+      }
+      if (clazz != lastClass) {
+        OCollate collate = getCollate(clazz, leftProperty);
+        lastCollate = collate != null ? collate : getCollate(clazz, rightProperty);
+        lastClass = clazz;
+      }
+      return lastCollate;
+    }
+
+    private static OCollate getCollate(OClass clazz, String property) {
+      if (property == null) {
+        return null;
+      }
+      OProperty prop = clazz.getProperty(property);
+      return prop == null ? null : prop.getCollate();
+    }
+  }
+}
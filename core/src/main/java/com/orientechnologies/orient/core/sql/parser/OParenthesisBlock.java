@@ -31,6 +31,10 @@ public class OParenthesisBlock extends OBooleanExpression {
     return subElement.evaluate(currentRecord, ctx);
   }
 
+  public OBooleanExpression getSubElement() {
+    return subElement;
+  }
+
   public void toString(Map<Object, Object> params, StringBuilder builder) {
     builder.append("(");
     subElement.toString(params, builder);
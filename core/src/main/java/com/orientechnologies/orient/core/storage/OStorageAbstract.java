@@ -19,6 +19,7 @@
  */
 package com.orientechnologies.orient.core.storage;
 
+import com.orientechnologies.common.concur.lock.OReadersWriterSpinLock;
 import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.config.OStorageConfiguration;
 import com.orientechnologies.orient.core.db.record.OCurrentStorageComponentsFactory;
@@ -52,7 +53,7 @@ public abstract class OStorageAbstract implements OStorage {
 
   protected final String url;
   protected final String mode;
-  protected final ReentrantReadWriteLock stateLock;
+  protected final OReadersWriterSpinLock stateLock;
   protected final ReentrantReadWriteLock errorLock;
 
   protected volatile OStorageConfiguration configuration;
@@ -74,7 +75,7 @@ public abstract class OStorageAbstract implements OStorage {
     url = iURL;
     this.mode = mode;
 
-    stateLock = new ReentrantReadWriteLock();
+    stateLock = new OReadersWriterSpinLock();
     errorLock = new ReentrantReadWriteLock();
   }
 
@@ -69,6 +69,17 @@ public interface OReadCache {
       final OWriteCache writeCache,
       final boolean verifyChecksums);
 
+  /**
+   * Asynchronously loads pages which are going to be read by sequential scan of the file. Pages are
+   * added to the separate scan window of the cache, so the scan does not evict frequently used
+   * pages. Pages which are already present in the cache are skipped.
+   *
+   * @param fileId id of the file
+   * @param pageIndexes indexes of the pages sorted in ascending order
+   * @param writeCache write cache from which pages are loaded
+   */
+  void readAhead(long fileId, long[] pageIndexes, OWriteCache writeCache);
+
   void releaseFromRead(OCacheEntry cacheEntry);
 
   void releaseFromWrite(OCacheEntry cacheEntry, OWriteCache writeCache, boolean changed);
@@ -5,9 +5,13 @@ import com.orientechnologies.common.directmemory.OByteBufferPool;
 import com.orientechnologies.common.directmemory.ODirectMemoryAllocator.Intention;
 import com.orientechnologies.common.directmemory.OPointer;
 import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.thread.OThreadPoolExecutorWithLogging;
 import com.orientechnologies.common.types.OModifiableBoolean;
 import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.common.util.OUncaughtExceptionHandler;
 import com.orientechnologies.orient.core.exception.OStorageException;
+import com.orientechnologies.orient.core.storage.OStorageAbstract;
 import com.orientechnologies.orient.core.storage.cache.OAbstractWriteCache;
 import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
 import com.orientechnologies.orient.core.storage.cache.OCacheEntryImpl;
@@ -23,11 +27,18 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Disk cache based on ConcurrentHashMap and eviction policy which is asynchronously processed by
@@ -45,9 +56,41 @@ public final class AsyncReadCache implements OReadCache {
   private static final int N_CPU = Runtime.getRuntime().availableProcessors();
   private static final int WRITE_BUFFER_MAX_BATCH = 128 * ceilingPowerOfTwo(N_CPU);
 
+  private static final int READ_AHEAD_THREADS = Math.min(4, N_CPU);
+  private static final int READ_AHEAD_QUEUE_SIZE = 1024;
+
+  /**
+   * Executor which loads pages requested by read-ahead of sequential scans. Read-ahead is only a
+   * hint, so requests are silently discarded if executor can not keep up with them.
+   */
+  private static final ExecutorService readAheadExecutor;
+
+  static {
+    final ThreadPoolExecutor executor =
+        new OThreadPoolExecutorWithLogging(
+            READ_AHEAD_THREADS,
+            READ_AHEAD_THREADS,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(READ_AHEAD_QUEUE_SIZE),
+            new ReadAheadThreadFactory(),
+            new ThreadPoolExecutor.DiscardPolicy());
+    executor.allowCoreThreadTimeOut(true);
+
+    readAheadExecutor = executor;
+  }
+
   private final ConcurrentHashMap<PageKey, OCacheEntry> data;
   private final Lock evictionLock = new ReentrantLock();
 
+  /**
+   * Read-ahead is performed asynchronously, so it is not protected by locks of storage which
+   * prevent loading of pages of the files which are closed, truncated or deleted. Shared lock is
+   * held during loading of page by read-ahead and exclusive lock is held during removal of pages of
+   * the file and related operation of write cache.
+   */
+  private final ReadWriteLock readAheadLock = new ReentrantReadWriteLock();
+
   private final WTinyLFUPolicy policy;
 
   private final Buffer<OCacheEntry> readBuffer = new BoundedBuffer<>();
@@ -274,6 +317,94 @@ public final class AsyncReadCache implements OReadCache {
     }
   }
 
+  @Override
+  public final void readAhead(
+      final long extFileId, final long[] pageIndexes, final OWriteCache writeCache) {
+    final long fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), extFileId);
+
+    // read-ahead pages should not evict each other before they are read by the scan
+    final int limit = Math.min(pageIndexes.length, policy.getMaxScanSize() / 2);
+
+    int runStart = -1;
+    for (int i = 0; i <= limit; i++) {
+      final boolean cached =
+          i < limit && data.containsKey(new PageKey(fileId, (int) pageIndexes[i]));
+
+      if (runStart >= 0 && (i == limit || cached || pageIndexes[i] != pageIndexes[i - 1] + 1)) {
+        final long startPageIndex = pageIndexes[runStart];
+        final int pageCount = i - runStart;
+
+        readAheadExecutor.execute(() -> loadAhead(fileId, startPageIndex, pageCount, writeCache));
+        runStart = -1;
+      }
+
+      if (i < limit && !cached && runStart < 0) {
+        runStart = i;
+      }
+    }
+  }
+
+  /** Loads run of adjacent pages requested by read-ahead and adds them into the scan window. */
+  private void loadAhead(
+      final long fileId,
+      final long startPageIndex,
+      final int pageCount,
+      final OWriteCache writeCache) {
+    try {
+      for (int i = 0; i < pageCount; i++) {
+        final Lock lock = readAheadLock.readLock();
+        if (!lock.tryLock()) {
+          return;
+        }
+
+        try {
+          final int pageIndex = (int) (startPageIndex + i);
+          final boolean[] added = new boolean[1];
+
+          final OCacheEntry cacheEntry =
+              data.computeIfAbsent(
+                  new PageKey(fileId, pageIndex),
+                  page -> {
+                    try {
+                      final OCachePointer pointer =
+                          writeCache.load(fileId, pageIndex, new OModifiableBoolean(), true);
+                      if (pointer == null) {
+                        return null;
+                      }
+
+                      cacheSize.incrementAndGet();
+                      added[0] = true;
+                      return new OCacheEntryImpl(
+                          page.getFileId(), page.getPageIndex(), pointer, true, this);
+                    } catch (final IOException e) {
+                      throw OException.wrapException(
+                          new OStorageException(
+                              "Error during read-ahead of page "
+                                  + pageIndex
+                                  + " for file "
+                                  + fileId),
+                          e);
+                    }
+                  });
+
+          if (cacheEntry == null) {
+            return;
+          }
+
+          if (added[0]) {
+            afterWrite(() -> policy.onScanAdd(cacheEntry));
+          }
+        } finally {
+          lock.unlock();
+        }
+      }
+    } catch (final RuntimeException e) {
+      // file or storage may be closed concurrently, scan will load the pages itself if needed
+      OLogManager.instance()
+          .debug(this, "Read-ahead of pages of file %d was interrupted", e, fileId);
+    }
+  }
+
   private OCacheEntry addNewPagePointerToTheCache(final long fileId, final int pageIndex) {
     final PageKey pageKey = new PageKey(fileId, pageIndex);
 
@@ -514,57 +645,82 @@ public final class AsyncReadCache implements OReadCache {
   public final void truncateFile(long fileId, final OWriteCache writeCache) throws IOException {
     fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
 
-    final int filledUpTo = (int) writeCache.getFilledUpTo(fileId);
-    writeCache.truncateFile(fileId);
+    readAheadLock.writeLock().lock();
+    try {
+      final int filledUpTo = (int) writeCache.getFilledUpTo(fileId);
+      writeCache.truncateFile(fileId);
 
-    clearFile(fileId, filledUpTo, writeCache);
+      clearFile(fileId, filledUpTo, writeCache);
+    } finally {
+      readAheadLock.writeLock().unlock();
+    }
   }
 
   @Override
   public final void closeFile(long fileId, final boolean flush, final OWriteCache writeCache) {
     fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
-    final int filledUpTo = (int) writeCache.getFilledUpTo(fileId);
+    readAheadLock.writeLock().lock();
+    try {
+      final int filledUpTo = (int) writeCache.getFilledUpTo(fileId);
 
-    clearFile(fileId, filledUpTo, writeCache);
-    writeCache.close(fileId, flush);
+      clearFile(fileId, filledUpTo, writeCache);
+      writeCache.close(fileId, flush);
+    } finally {
+      readAheadLock.writeLock().unlock();
+    }
   }
 
   public final void deleteFile(long fileId, final OWriteCache writeCache) throws IOException {
     fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
-    final int filledUpTo = (int) writeCache.getFilledUpTo(fileId);
+    readAheadLock.writeLock().lock();
+    try {
+      final int filledUpTo = (int) writeCache.getFilledUpTo(fileId);
 
-    clearFile(fileId, filledUpTo, writeCache);
-    writeCache.deleteFile(fileId);
+      clearFile(fileId, filledUpTo, writeCache);
+      writeCache.deleteFile(fileId);
+    } finally {
+      readAheadLock.writeLock().unlock();
+    }
   }
 
   @Override
   public final void deleteStorage(final OWriteCache writeCache) throws IOException {
-    final Collection<Long> files = writeCache.files().values();
-    final List<ORawPair<Long, Integer>> filledUpTo = new ArrayList<>(1024);
-    for (final long fileId : files) {
-      filledUpTo.add(new ORawPair<>(fileId, (int) writeCache.getFilledUpTo(fileId)));
-    }
+    readAheadLock.writeLock().lock();
+    try {
+      final Collection<Long> files = writeCache.files().values();
+      final List<ORawPair<Long, Integer>> filledUpTo = new ArrayList<>(1024);
+      for (final long fileId : files) {
+        filledUpTo.add(new ORawPair<>(fileId, (int) writeCache.getFilledUpTo(fileId)));
+      }
 
-    for (final ORawPair<Long, Integer> entry : filledUpTo) {
-      clearFile(entry.first, entry.second, writeCache);
-    }
+      for (final ORawPair<Long, Integer> entry : filledUpTo) {
+        clearFile(entry.first, entry.second, writeCache);
+      }
 
-    writeCache.delete();
+      writeCache.delete();
+    } finally {
+      readAheadLock.writeLock().unlock();
+    }
   }
 
   @Override
   public final void closeStorage(final OWriteCache writeCache) throws IOException {
-    final Collection<Long> files = writeCache.files().values();
-    final List<ORawPair<Long, Integer>> filledUpTo = new ArrayList<>(1024);
-    for (final long fileId : files) {
-      filledUpTo.add(new ORawPair<>(fileId, (int) writeCache.getFilledUpTo(fileId)));
-    }
+    readAheadLock.writeLock().lock();
+    try {
+      final Collection<Long> files = writeCache.files().values();
+      final List<ORawPair<Long, Integer>> filledUpTo = new ArrayList<>(1024);
+      for (final long fileId : files) {
+        filledUpTo.add(new ORawPair<>(fileId, (int) writeCache.getFilledUpTo(fileId)));
+      }
 
-    for (final ORawPair<Long, Integer> entry : filledUpTo) {
-      clearFile(entry.first, entry.second, writeCache);
-    }
+      for (final ORawPair<Long, Integer> entry : filledUpTo) {
+        clearFile(entry.first, entry.second, writeCache);
+      }
 
-    writeCache.close();
+      writeCache.close();
+    } finally {
+      readAheadLock.writeLock().unlock();
+    }
   }
 
   private void clearFile(final long fileId, final int filledUpTo, final OWriteCache writeCache) {
@@ -653,6 +809,19 @@ public final class AsyncReadCache implements OReadCache {
     abstract boolean shouldBeDrained(boolean readBufferOverflow);
   }
 
+  private static final class ReadAheadThreadFactory implements ThreadFactory {
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Override
+    public Thread newThread(final Runnable r) {
+      final Thread thread = new Thread(OStorageAbstract.storageThreadGroup, r);
+      thread.setDaemon(true);
+      thread.setName("OrientDB Read Ahead Task #" + counter.incrementAndGet());
+      thread.setUncaughtExceptionHandler(new OUncaughtExceptionHandler());
+      return thread;
+    }
+  }
+
   @SuppressWarnings("SameParameterValue")
   private static int ceilingPowerOfTwo(final int x) {
     // From Hacker's Delight, Chapter 3, Harry S. Warren Jr.
@@ -6,10 +6,19 @@ import java.util.Iterator;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
-/** Window TinyLFU eviction policy https://arxiv.org/pdf/1512.00727.pdf. */
+/**
+ * Window TinyLFU eviction policy https://arxiv.org/pdf/1512.00727.pdf.
+ *
+ * <p>Pages which are loaded by read-ahead of sequential scans are not added to the eden but to the
+ * separate scan window which takes part of the eden space. Pages of the scan window are accessed
+ * only once by the scan in most of the cases, so they are moved into the main space only if their
+ * frequency is strictly bigger than the frequency of the victim, otherwise they are evicted without
+ * pushing out pages of the working set.
+ */
 final class WTinyLFUPolicy {
   private static final int EDEN_PERCENT = 20;
   private static final int PROBATIONARY_PERCENT = 20;
+  private static final int SCAN_PERCENT = 50;
 
   private volatile int maxSize;
   private final ConcurrentHashMap<PageKey, OCacheEntry> data;
@@ -20,8 +29,10 @@ final class WTinyLFUPolicy {
   private final LRUList eden = new LRUList();
   private final LRUList probation = new LRUList();
   private final LRUList protection = new LRUList();
+  private final LRUList scan = new LRUList();
 
   private int maxEdenSize;
+  private int maxScanSize;
   private int maxProtectedSize;
   private int maxSecondLevelSize;
 
@@ -35,7 +46,7 @@ final class WTinyLFUPolicy {
   }
 
   public void setMaxSize(final int maxSize) {
-    if (eden.size() + protection.size() + probation.size() > maxSize) {
+    if (eden.size() + protection.size() + probation.size() + scan.size() > maxSize) {
       throw new IllegalStateException(
           "Can set maximum cache size to "
               + maxSize
@@ -52,6 +63,11 @@ final class WTinyLFUPolicy {
     return maxSize;
   }
 
+  /** @return maximum amount of pages which may be kept in the scan window */
+  int getMaxScanSize() {
+    return maxScanSize;
+  }
+
   void onAccess(OCacheEntry cacheEntry) {
     admittor.increment(PageKey.hashCode(cacheEntry.getFileId(), (int) cacheEntry.getPageIndex()));
 
@@ -69,10 +85,12 @@ final class WTinyLFUPolicy {
         protection.moveToTheTail(cacheEntry);
       } else if (eden.contains(cacheEntry)) {
         eden.moveToTheTail(cacheEntry);
+      } else if (scan.contains(cacheEntry)) {
+        scan.moveToTheTail(cacheEntry);
       }
     }
 
-    assert eden.size() <= maxEdenSize;
+    assert eden.size() + scan.size() <= maxEdenSize;
     assert protection.size() <= maxProtectedSize;
     assert probation.size() + protection.size() <= maxSecondLevelSize;
   }
@@ -84,78 +102,124 @@ final class WTinyLFUPolicy {
       assert !eden.contains(cacheEntry);
       assert !probation.contains(cacheEntry);
       assert !protection.contains(cacheEntry);
+      assert !scan.contains(cacheEntry);
 
       eden.moveToTheTail(cacheEntry);
 
       purgeEden();
     }
 
-    assert eden.size() <= maxEdenSize;
+    assert eden.size() + scan.size() <= maxEdenSize;
     assert protection.size() <= maxProtectedSize;
     assert probation.size() + protection.size() <= maxSecondLevelSize;
   }
 
+  /** Adds page which was loaded by read-ahead of sequential scan to the scan window. */
+  void onScanAdd(final OCacheEntry cacheEntry) {
+    admittor.increment(PageKey.hashCode(cacheEntry.getFileId(), (int) cacheEntry.getPageIndex()));
+
+    if (cacheEntry.isAlive()) {
+      assert !eden.contains(cacheEntry);
+      assert !probation.contains(cacheEntry);
+      assert !protection.contains(cacheEntry);
+      assert !scan.contains(cacheEntry);
+
+      scan.moveToTheTail(cacheEntry);
+
+      purgeScan();
+      purgeEden();
+    }
+
+    assert eden.size() + scan.size() <= maxEdenSize;
+    assert protection.size() <= maxProtectedSize;
+    assert probation.size() + protection.size() <= maxSecondLevelSize;
+  }
+
+  private void purgeScan() {
+    while (scan.size() > maxScanSize) {
+      final OCacheEntry candidate = scan.poll();
+      assert candidate != null;
+
+      admit(candidate, scan, true);
+    }
+  }
+
   private void purgeEden() {
-    while (eden.size() > maxEdenSize) {
+    while (eden.size() > maxEdenSize - scan.size()) {
       final OCacheEntry candidate = eden.poll();
       assert candidate != null;
 
-      if (probation.size() + protection.size() < maxSecondLevelSize) {
-        probation.moveToTheTail(candidate);
-      } else {
-        final OCacheEntry victim = probation.peek();
-
-        final int candidateKeyHashCode =
-            PageKey.hashCode(candidate.getFileId(), (int) candidate.getPageIndex());
-        final int victimKeyHashCode =
-            PageKey.hashCode(victim.getFileId(), (int) victim.getPageIndex());
+      admit(candidate, eden, false);
+    }
 
-        final int candidateFrequency = admittor.frequency(candidateKeyHashCode);
-        final int victimFrequency = admittor.frequency(victimKeyHashCode);
+    assert protection.size() <= maxProtectedSize;
+  }
 
-        if (candidateFrequency >= victimFrequency) {
-          probation.poll();
-          probation.moveToTheTail(candidate);
+  /**
+   * Moves candidate which was removed from one of the windows into the probation space if its
+   * frequency is high enough, otherwise candidate is removed from the cache.
+   *
+   * @param window window from which candidate was removed, candidate is returned back to it if it
+   *     is in use and can not be removed
+   * @param scanResistant if <code>true</code> candidate should be used more frequently than the
+   *     victim to replace it
+   */
+  private void admit(
+      final OCacheEntry candidate, final LRUList window, final boolean scanResistant) {
+    if (probation.size() + protection.size() < maxSecondLevelSize) {
+      probation.moveToTheTail(candidate);
+    } else {
+      final OCacheEntry victim = probation.peek();
+
+      final int candidateKeyHashCode =
+          PageKey.hashCode(candidate.getFileId(), (int) candidate.getPageIndex());
+      final int victimKeyHashCode =
+          PageKey.hashCode(victim.getFileId(), (int) victim.getPageIndex());
+
+      final int candidateFrequency = admittor.frequency(candidateKeyHashCode);
+      final int victimFrequency = admittor.frequency(victimKeyHashCode);
+
+      if (candidateFrequency > victimFrequency
+          || (!scanResistant && candidateFrequency == victimFrequency)) {
+        probation.poll();
+        probation.moveToTheTail(candidate);
 
-          if (victim.freeze()) {
-            final boolean removed =
-                data.remove(new PageKey(victim.getFileId(), (int) victim.getPageIndex()), victim);
-            victim.makeDead();
+        if (victim.freeze()) {
+          final boolean removed =
+              data.remove(new PageKey(victim.getFileId(), (int) victim.getPageIndex()), victim);
+          victim.makeDead();
 
-            if (removed) {
-              cacheSize.decrementAndGet();
-            }
+          if (removed) {
+            cacheSize.decrementAndGet();
+          }
 
-            final OCachePointer pointer = victim.getCachePointer();
+          final OCachePointer pointer = victim.getCachePointer();
 
-            pointer.decrementReadersReferrer();
-            victim.clearCachePointer();
-          } else {
-            eden.moveToTheTail(victim);
-          }
+          pointer.decrementReadersReferrer();
+          victim.clearCachePointer();
         } else {
-          if (candidate.freeze()) {
-            final boolean removed =
-                data.remove(
-                    new PageKey(candidate.getFileId(), (int) candidate.getPageIndex()), candidate);
-            candidate.makeDead();
-
-            if (removed) {
-              cacheSize.decrementAndGet();
-            }
-
-            final OCachePointer pointer = candidate.getCachePointer();
-
-            pointer.decrementReadersReferrer();
-            candidate.clearCachePointer();
-          } else {
-            eden.moveToTheTail(candidate);
+          eden.moveToTheTail(victim);
+        }
+      } else {
+        if (candidate.freeze()) {
+          final boolean removed =
+              data.remove(
+                  new PageKey(candidate.getFileId(), (int) candidate.getPageIndex()), candidate);
+          candidate.makeDead();
+
+          if (removed) {
+            cacheSize.decrementAndGet();
           }
+
+          final OCachePointer pointer = candidate.getCachePointer();
+
+          pointer.decrementReadersReferrer();
+          candidate.clearCachePointer();
+        } else {
+          window.moveToTheTail(candidate);
         }
       }
     }
-
-    assert protection.size() <= maxProtectedSize;
   }
 
   void onRemove(final OCacheEntry cacheEntry) {
@@ -167,6 +231,8 @@ final class WTinyLFUPolicy {
       protection.remove(cacheEntry);
     } else if (eden.contains(cacheEntry)) {
       eden.remove(cacheEntry);
+    } else if (scan.contains(cacheEntry)) {
+      scan.remove(cacheEntry);
     }
 
     cacheEntry.makeDead();
@@ -180,6 +246,7 @@ final class WTinyLFUPolicy {
     maxEdenSize = maxSize * EDEN_PERCENT / 100;
     maxProtectedSize = maxSize - maxEdenSize - (maxSize - maxEdenSize) * PROBATIONARY_PERCENT / 100;
     maxSecondLevelSize = maxSize - maxEdenSize;
+    maxScanSize = maxEdenSize * SCAN_PERCENT / 100;
   }
 
   Iterator<OCacheEntry> eden() {
@@ -194,8 +261,12 @@ final class WTinyLFUPolicy {
     return probation.iterator();
   }
 
+  Iterator<OCacheEntry> scan() {
+    return scan.iterator();
+  }
+
   void assertSize() {
-    assert eden.size() + probation.size() + protection.size() == cacheSize.get()
+    assert eden.size() + probation.size() + protection.size() + scan.size() == cacheSize.get()
         && data.size() == cacheSize.get()
         && cacheSize.get() <= maxSize;
   }
@@ -204,7 +275,8 @@ final class WTinyLFUPolicy {
     for (final OCacheEntry cacheEntry : data.values()) {
       assert eden.contains(cacheEntry)
           || protection.contains(cacheEntry)
-          || probation.contains(cacheEntry);
+          || probation.contains(cacheEntry)
+          || scan.contains(cacheEntry);
     }
 
     int counter = 0;
@@ -226,6 +298,12 @@ final class WTinyLFUPolicy {
       counter++;
     }
 
+    for (final OCacheEntry cacheEntry : scan) {
+      assert data.get(new PageKey(cacheEntry.getFileId(), (int) cacheEntry.getPageIndex()))
+          == cacheEntry;
+      counter++;
+    }
+
     assert counter == data.size();
   }
 }
@@ -57,6 +57,7 @@ import com.orientechnologies.orient.core.storage.cache.OWriteCache;
 import com.orientechnologies.orient.core.storage.cache.local.doublewritelog.DoubleWriteLog;
 import com.orientechnologies.orient.core.storage.fs.AsyncFile;
 import com.orientechnologies.orient.core.storage.fs.IOResult;
+import com.orientechnologies.orient.core.storage.fs.NativeFile;
 import com.orientechnologies.orient.core.storage.fs.OFile;
 import com.orientechnologies.orient.core.storage.impl.local.OPageIsBrokenListener;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.MetaDataRecord;
@@ -253,6 +254,11 @@ public final class OWOWCache extends OAbstractWriteCache
   private final long freeSpaceLimit =
       OGlobalConfiguration.DISK_CACHE_FREE_SPACE_LIMIT.getValueAsLong() * 1024L * 1024L;
 
+  /** Whether data files are accessed through {@link NativeFile} instead of {@link AsyncFile} */
+  private final boolean useNativeFiles =
+      "native".equalsIgnoreCase(OGlobalConfiguration.STORAGE_FILE_BACKEND.getValueAsString())
+          && NativeFile.isSupported();
+
   /** Listeners which are called once we detect that some of the pages of files are broken. */
   private final List<WeakReference<OPageIsBrokenListener>> pageIsBrokenListeners =
       new CopyOnWriteArrayList<>();
@@ -1889,7 +1895,14 @@ public final class OWOWCache extends OAbstractWriteCache
 
   private OFile createFileInstance(final String fileName, final int fileId) {
     final String internalFileName = createInternalFileName(fileName, fileId);
-    return new AsyncFile(storagePath.resolve(internalFileName), pageSize);
+    return newFileInstance(storagePath.resolve(internalFileName));
+  }
+
+  private OFile newFileInstance(final Path path) {
+    if (useNativeFiles) {
+      return new NativeFile(path, pageSize);
+    }
+    return new AsyncFile(path, pageSize);
   }
 
   private static String createInternalFileName(final String fileName, final int fileId) {
@@ -1972,7 +1985,7 @@ public final class OWOWCache extends OAbstractWriteCache
 
         if (files.get(externalId) == null) {
           final Path path = storagePath.resolve(idFileNameMap.get((nameIdEntry.getValue())));
-          final AsyncFile file = new AsyncFile(path, pageSize);
+          final OFile file = newFileInstance(path);
 
           if (file.exists()) {
             file.open();
@@ -2039,7 +2052,7 @@ public final class OWOWCache extends OAbstractWriteCache
 
         if (files.get(externalId) == null) {
           final Path path = storagePath.resolve(idFileNameMap.get((nameIdEntry.getValue())));
-          final AsyncFile file = new AsyncFile(path, pageSize);
+          final OFile file = newFileInstance(path);
 
           if (file.exists()) {
             file.open();
@@ -2112,8 +2125,7 @@ public final class OWOWCache extends OAbstractWriteCache
         final long externalId = composeFileId(id, nameIdEntry.getValue());
 
         if (files.get(externalId) == null) {
-          final OFile fileClassic =
-              new AsyncFile(storagePath.resolve(nameIdEntry.getKey()), pageSize);
+          final OFile fileClassic = newFileInstance(storagePath.resolve(nameIdEntry.getKey()));
 
           if (fileClassic.exists()) {
             fileClassic.open();
@@ -0,0 +1,478 @@
+package com.orientechnologies.orient.core.storage.cache.record;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.exception.OStorageException;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.storage.ORawBuffer;
+import com.orientechnologies.orient.core.storage.cache.chm.FrequencySketch;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+
+/**
+ * Cache of serialized records which is shared by all sessions of the storage. Records are cached
+ * together with their versions and are removed from the cache once they are changed, so cache
+ * always contains the latest committed versions of records. Size of the cache is limited by amount
+ * of bytes consumed by records, records are evicted using Window TinyLFU policy
+ * https://arxiv.org/pdf/1512.00727.pdf, the same one which is used by disk cache.
+ *
+ * <p>Record may be read from the cluster before the transaction which changes it is committed and
+ * put into the cache after the record is invalidated. To prevent caching of such stale records
+ * every invalidation increments the counter of the stripe of the record, and record is cached only
+ * if the counter was not changed since the record was read from the cluster, see {@link
+ * #startRead(ORID)}.
+ */
+public final class ORecordBufferCache implements ORecordBufferCacheMXBean {
+  private static final int EDEN_PERCENT = 20;
+  private static final int PROBATIONARY_PERCENT = 20;
+
+  /** Approximate memory overhead of single cache entry in bytes. */
+  private static final int ENTRY_OVERHEAD = 96;
+
+  /** Average size of the record which is used to estimate amount of records in the cache. */
+  private static final int AVERAGE_RECORD_SIZE = 1024;
+
+  private static final int STRIPES = 1024;
+
+  private final ConcurrentHashMap<ORID, Entry> data = new ConcurrentHashMap<>();
+  private final AtomicLongArray invalidationCounters = new AtomicLongArray(STRIPES);
+
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final FrequencySketch admittor = new FrequencySketch();
+
+  private final EntryList eden = new EntryList();
+  private final EntryList probation = new EntryList();
+  private final EntryList protection = new EntryList();
+
+  private final long maxBytes;
+  private final long maxEdenBytes;
+  private final long maxProtectedBytes;
+  private final long maxMainBytes;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder invalidations = new LongAdder();
+
+  private final String storageName;
+  private final AtomicBoolean mbeanIsRegistered = new AtomicBoolean();
+
+  public ORecordBufferCache(final String storageName, final long maxBytes) {
+    this.storageName = storageName;
+    this.maxBytes = maxBytes;
+
+    maxEdenBytes = maxBytes * EDEN_PERCENT / 100;
+    maxMainBytes = maxBytes - maxEdenBytes;
+    maxProtectedBytes = maxMainBytes - maxMainBytes * PROBATIONARY_PERCENT / 100;
+
+    admittor.ensureCapacity(Math.max(1, maxBytes / AVERAGE_RECORD_SIZE));
+  }
+
+  /**
+   * Returns copy of the cached record, so content of returned buffer can be changed by the caller.
+   *
+   * @return cached record or <code>null</code> if record is absent in the cache
+   */
+  public ORawBuffer get(final ORID rid) {
+    final Entry entry = data.get(rid);
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+
+    hits.increment();
+    // access is recorded only if it does not block the reader, frequency of hot records is
+    // estimated correctly even if some of accesses are lost
+    if (evictionLock.tryLock()) {
+      try {
+        onAccess(entry);
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+
+    return new ORawBuffer(entry.content.clone(), entry.version, entry.recordType);
+  }
+
+  /**
+   * Should be called before the record is read from the cluster.
+   *
+   * @return stamp which should be passed to {@link #put(ORID, ORawBuffer, long)}
+   */
+  public long startRead(final ORID rid) {
+    return invalidationCounters.get(stripe(rid));
+  }
+
+  /**
+   * Puts record which was read from the cluster into the cache. Record is not cached if it was
+   * invalidated since the read was started.
+   *
+   * @param stamp value returned by {@link #startRead(ORID)} before the record was read
+   */
+  public void put(final ORID rid, final ORawBuffer buffer, final long stamp) {
+    if (buffer == null || buffer.buffer == null) {
+      return;
+    }
+
+    final long weight = buffer.buffer.length + ENTRY_OVERHEAD;
+    if (weight > maxEdenBytes) {
+      return;
+    }
+
+    final Entry entry =
+        new Entry(rid.copy(), buffer.buffer.clone(), buffer.version, buffer.recordType, weight);
+
+    evictionLock.lock();
+    try {
+      if (invalidationCounters.get(stripe(rid)) != stamp) {
+        return;
+      }
+
+      final Entry oldEntry = data.put(entry.rid, entry);
+      if (oldEntry != null) {
+        unlink(oldEntry);
+      }
+
+      admittor.increment(entry.rid.hashCode());
+      eden.addLast(entry);
+
+      purgeEden();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /** Removes record from the cache, should be called once changes of the record are committed. */
+  public void invalidate(final ORID rid) {
+    invalidationCounters.incrementAndGet(stripe(rid));
+
+    evictionLock.lock();
+    try {
+      removeEntry(rid);
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /** Removes records from the cache, should be called once changes of records are committed. */
+  public void invalidate(final Collection<? extends ORID> rids) {
+    if (rids.isEmpty()) {
+      return;
+    }
+
+    for (final ORID rid : rids) {
+      invalidationCounters.incrementAndGet(stripe(rid));
+    }
+
+    evictionLock.lock();
+    try {
+      for (final ORID rid : rids) {
+        removeEntry(rid);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    for (int i = 0; i < STRIPES; i++) {
+      invalidationCounters.incrementAndGet(i);
+    }
+
+    evictionLock.lock();
+    try {
+      invalidations.add(data.size());
+
+      data.clear();
+      eden.clear();
+      probation.clear();
+      protection.clear();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public long getHits() {
+    return hits.sum();
+  }
+
+  @Override
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  @Override
+  public double getHitRate() {
+    final long hits = this.hits.sum();
+    final long requests = hits + misses.sum();
+    if (requests == 0) {
+      return 0;
+    }
+
+    return 100.0 * hits / requests;
+  }
+
+  @Override
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  @Override
+  public long getInvalidations() {
+    return invalidations.sum();
+  }
+
+  @Override
+  public int getSize() {
+    return data.size();
+  }
+
+  @Override
+  public long getUsedBytes() {
+    evictionLock.lock();
+    try {
+      return eden.bytes + probation.bytes + protection.bytes;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  public void registerMBean() {
+    if (mbeanIsRegistered.compareAndSet(false, true)) {
+      try {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName mbeanName = new ObjectName(getMBeanName());
+        if (!server.isRegistered(mbeanName)) {
+          server.registerMBean(this, mbeanName);
+        } else {
+          mbeanIsRegistered.set(false);
+          OLogManager.instance()
+              .warn(
+                  this,
+                  "MBean with name %s has already registered. Probably your system was not"
+                      + " shutdown correctly or you have several running applications which use"
+                      + " OrientDB engine inside",
+                  mbeanName.getCanonicalName());
+        }
+      } catch (final MalformedObjectNameException
+          | InstanceAlreadyExistsException
+          | NotCompliantMBeanException
+          | MBeanRegistrationException e) {
+        throw OException.wrapException(
+            new OStorageException("Error during registration of record cache MBean"), e);
+      }
+    }
+  }
+
+  public void unregisterMBean() {
+    if (mbeanIsRegistered.compareAndSet(true, false)) {
+      try {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName mbeanName = new ObjectName(getMBeanName());
+        server.unregisterMBean(mbeanName);
+      } catch (final MalformedObjectNameException
+          | InstanceNotFoundException
+          | MBeanRegistrationException e) {
+        throw OException.wrapException(
+            new OStorageException("Error during unregistration of record cache MBean"), e);
+      }
+    }
+  }
+
+  private String getMBeanName() {
+    return "com.orientechnologies.orient.core.storage.cache.record:type=ORecordBufferCacheMXBean,name="
+        + ObjectName.quote(storageName);
+  }
+
+  private void removeEntry(final ORID rid) {
+    final Entry entry = data.remove(rid);
+    if (entry != null) {
+      unlink(entry);
+      invalidations.increment();
+    }
+  }
+
+  private void onAccess(final Entry entry) {
+    admittor.increment(entry.rid.hashCode());
+
+    if (entry.list == probation) {
+      probation.remove(entry);
+      protection.addLast(entry);
+
+      while (protection.bytes > maxProtectedBytes) {
+        probation.addLast(protection.pollFirst());
+      }
+    } else if (entry.list == protection || entry.list == eden) {
+      entry.list.moveToTheTail(entry);
+    }
+  }
+
+  private void purgeEden() {
+    while (eden.bytes > maxEdenBytes) {
+      final Entry candidate = eden.pollFirst();
+      admit(candidate);
+    }
+  }
+
+  /** Moves candidate from the window to the main space if it is used more often than victims. */
+  private void admit(final Entry candidate) {
+    while (probation.bytes + protection.bytes + candidate.weight > maxMainBytes) {
+      if (probation.head == null) {
+        probation.addLast(protection.pollFirst());
+      }
+
+      final Entry victim = probation.head;
+      if (admittor.frequency(candidate.rid.hashCode()) > admittor.frequency(victim.rid.hashCode())) {
+        evict(victim);
+      } else {
+        evict(candidate);
+        return;
+      }
+    }
+
+    probation.addLast(candidate);
+  }
+
+  private void evict(final Entry entry) {
+    if (entry.list != null) {
+      entry.list.remove(entry);
+    }
+
+    data.remove(entry.rid, entry);
+    evictions.increment();
+  }
+
+  private static void unlink(final Entry entry) {
+    if (entry.list != null) {
+      entry.list.remove(entry);
+    }
+  }
+
+  private static int stripe(final ORID rid) {
+    int hash = rid.hashCode();
+    hash ^= hash >>> 16;
+    return hash & (STRIPES - 1);
+  }
+
+  private static final class Entry {
+    private final ORID rid;
+    private final byte[] content;
+    private final int version;
+    private final byte recordType;
+    private final long weight;
+
+    private EntryList list;
+    private Entry prev;
+    private Entry next;
+
+    private Entry(
+        final ORID rid,
+        final byte[] content,
+        final int version,
+        final byte recordType,
+        final long weight) {
+      this.rid = rid;
+      this.content = content;
+      this.version = version;
+      this.recordType = recordType;
+      this.weight = weight;
+    }
+  }
+
+  /** LRU list of entries, the least recently used entry is the head of the list. */
+  private static final class EntryList {
+    private Entry head;
+    private Entry tail;
+    private long bytes;
+
+    private void addLast(final Entry entry) {
+      assert entry.list == null;
+
+      entry.list = this;
+      entry.prev = tail;
+      entry.next = null;
+
+      if (tail == null) {
+        head = entry;
+      } else {
+        tail.next = entry;
+      }
+
+      tail = entry;
+      bytes += entry.weight;
+    }
+
+    private Entry pollFirst() {
+      final Entry entry = head;
+      if (entry != null) {
+        remove(entry);
+      }
+      return entry;
+    }
+
+    private void remove(final Entry entry) {
+      assert entry.list == this;
+
+      if (entry.prev == null) {
+        head = entry.next;
+      } else {
+        entry.prev.next = entry.next;
+      }
+
+      if (entry.next == null) {
+        tail = entry.prev;
+      } else {
+        entry.next.prev = entry.prev;
+      }
+
+      entry.list = null;
+      entry.prev = null;
+      entry.next = null;
+      bytes -= entry.weight;
+    }
+
+    private void moveToTheTail(final Entry entry) {
+      if (tail != entry) {
+        remove(entry);
+        addLast(entry);
+      }
+    }
+
+    private void clear() {
+      // entries may be still accessed by readers, so they are detached from the list
+      Entry entry = head;
+      while (entry != null) {
+        final Entry next = entry.next;
+
+        entry.list = null;
+        entry.prev = null;
+        entry.next = null;
+
+        entry = next;
+      }
+
+      head = null;
+      tail = null;
+      bytes = 0;
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package com.orientechnologies.orient.core.storage.cache.record;
+
+/** Provides an MBean for {@link ORecordBufferCache}. */
+public interface ORecordBufferCacheMXBean {
+  /** @return amount of reads which were served by the cache */
+  long getHits();
+
+  /** @return amount of reads which were not served by the cache */
+  long getMisses();
+
+  /** @return percent of reads which were served by the cache */
+  double getHitRate();
+
+  /** @return amount of records which were removed from the cache to free space for new ones */
+  long getEvictions();
+
+  /** @return amount of records which were removed from the cache because they were changed */
+  long getInvalidations();
+
+  /** @return amount of records in the cache */
+  int getSize();
+
+  /** @return amount of memory in bytes which is consumed by records of the cache */
+  long getUsedBytes();
+
+  /** @return maximum amount of memory in bytes which can be consumed by records of the cache */
+  long getMaxBytes();
+
+  /** Removes all records from the cache. */
+  void clear();
+}
@@ -409,6 +409,45 @@ public final class OClusterPositionMapV2 extends OClusterPositionMap {
     return result;
   }
 
+  /**
+   * Returns indexes of data pages which contain first chunks of records with given positions.
+   *
+   * @param clusterPositions positions of records sorted in ascending order
+   */
+  long[] dataPageIndexes(final long[] clusterPositions, final OAtomicOperation atomicOperation)
+      throws IOException {
+    final long lastPage = getLastPage(atomicOperation);
+    final long[] pageIndexes = new long[clusterPositions.length];
+
+    int count = 0;
+    int i = 0;
+    while (i < clusterPositions.length) {
+      final long pageIndex = clusterPositions[i] / OClusterPositionMapBucket.MAX_ENTRIES + 1;
+      if (pageIndex > lastPage) {
+        break;
+      }
+
+      try (final OCacheEntry cacheEntry =
+          loadPageForRead(atomicOperation, fileId, pageIndex, false)) {
+        final OClusterPositionMapBucket bucket = new OClusterPositionMapBucket(cacheEntry);
+
+        do {
+          final OClusterPositionMapBucket.PositionEntry entry =
+              bucket.get((int) (clusterPositions[i] % OClusterPositionMapBucket.MAX_ENTRIES));
+          if (entry != null) {
+            pageIndexes[count] = entry.getPageIndex();
+            count++;
+          }
+
+          i++;
+        } while (i < clusterPositions.length
+            && clusterPositions[i] / OClusterPositionMapBucket.MAX_ENTRIES + 1 == pageIndex);
+      }
+    }
+
+    return Arrays.copyOf(pageIndexes, count);
+  }
+
   long[] lowerPositions(final long clusterPosition, final OAtomicOperation atomicOperation)
       throws IOException {
     if (clusterPosition == 0) {
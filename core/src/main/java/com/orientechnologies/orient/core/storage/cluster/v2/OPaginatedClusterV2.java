@@ -76,6 +76,8 @@ public final class OPaginatedClusterV2 extends OPaginatedCluster {
   private final OClusterPositionMapV2 clusterPositionMap;
   private final FreeSpaceMap freeSpaceMap;
   private final String storageName;
+  private final boolean optimisticReads;
+  private final int readAheadPages;
 
   private volatile int id;
   private long fileId;
@@ -102,6 +104,8 @@ public final class OPaginatedClusterV2 extends OPaginatedCluster {
     clusterPositionMap = new OClusterPositionMapV2(storage, getName(), getFullName(), cpmExtension);
     freeSpaceMap = new FreeSpaceMap(storage, name, fsmExtension, getFullName());
     storageName = storage.getName();
+    optimisticReads = OGlobalConfiguration.STORAGE_CLUSTER_OPTIMISTIC_READS.getValueAsBoolean();
+    readAheadPages = OGlobalConfiguration.STORAGE_CLUSTER_READ_AHEAD_PAGES.getValueAsInteger();
   }
 
   @Override
@@ -632,23 +636,36 @@ public final class OPaginatedClusterV2 extends OPaginatedCluster {
 
   private ORawBuffer readRecord(final long clusterPosition, final int pageCount)
       throws IOException {
+    // changes of atomic operation are visible only to the operation itself, so they are read under
+    // the locks
+    if (optimisticReads && atomicOperationsManager.getCurrentOperation() == null) {
+      final long stamp = atomicOperationsManager.tryOptimisticRead(fileId);
+      final long positionMapStamp =
+          atomicOperationsManager.tryOptimisticRead(clusterPositionMap.getFileId());
+
+      if (stamp != 0 && positionMapStamp != 0) {
+        try {
+          final ORawBuffer buffer =
+              doReadRecord(clusterPosition, pageCount, null, stamp, positionMapStamp);
+          if (atomicOperationsManager.validateOptimisticRead(fileId, stamp)
+              && atomicOperationsManager.validateOptimisticRead(
+                  clusterPositionMap.getFileId(), positionMapStamp)) {
+            return buffer;
+          }
+        } catch (final Throwable e) {
+          // pages were changed during the read, so any failure including errors caused by the
+          // broken data is possible, record is read again under the locks and exception is thrown
+          // again if it is not caused by the concurrent change
+        }
+      }
+    }
+
     atomicOperationsManager.acquireReadLock(this);
     try {
       acquireSharedLock();
       try {
         final OAtomicOperation atomicOperation = atomicOperationsManager.getCurrentOperation();
-
-        final OClusterPositionMapBucket.PositionEntry positionEntry =
-            clusterPositionMap.get(clusterPosition, pageCount, atomicOperation);
-        if (positionEntry == null) {
-          return null;
-        }
-        return internalReadRecord(
-            clusterPosition,
-            positionEntry.getPageIndex(),
-            positionEntry.getRecordPosition(),
-            pageCount,
-            atomicOperation);
+        return doReadRecord(clusterPosition, pageCount, atomicOperation, 0, 0);
       } finally {
         releaseSharedLock();
       }
@@ -657,6 +674,40 @@ public final class OPaginatedClusterV2 extends OPaginatedCluster {
     }
   }
 
+  /**
+   * Reads record either under the locks or optimistically. Optimistic read is performed if stamps
+   * of optimistic read are not equal to 0, result of such read should be validated by caller.
+   */
+  private ORawBuffer doReadRecord(
+      final long clusterPosition,
+      final int pageCount,
+      final OAtomicOperation atomicOperation,
+      final long stamp,
+      final long positionMapStamp)
+      throws IOException {
+    final OClusterPositionMapBucket.PositionEntry positionEntry =
+        clusterPositionMap.get(clusterPosition, pageCount, atomicOperation);
+    if (positionEntry == null) {
+      return null;
+    }
+
+    // position map is validated before the record is read, so page index of the record is not
+    // taken from the broken entry
+    if (positionMapStamp != 0
+        && !atomicOperationsManager.validateOptimisticRead(
+            clusterPositionMap.getFileId(), positionMapStamp)) {
+      return null;
+    }
+
+    return internalReadRecord(
+        clusterPosition,
+        positionEntry.getPageIndex(),
+        positionEntry.getRecordPosition(),
+        pageCount,
+        atomicOperation,
+        stamp);
+  }
+
   private ORawBuffer internalReadRecord(
       final long clusterPosition,
       final long pageIndex,
@@ -664,6 +715,18 @@ public final class OPaginatedClusterV2 extends OPaginatedCluster {
       int pageCount,
       final OAtomicOperation atomicOperation)
       throws IOException {
+    return internalReadRecord(
+        clusterPosition, pageIndex, recordPosition, pageCount, atomicOperation, 0);
+  }
+
+  private ORawBuffer internalReadRecord(
+      final long clusterPosition,
+      final long pageIndex,
+      final int recordPosition,
+      int pageCount,
+      final OAtomicOperation atomicOperation,
+      final long stamp)
+      throws IOException {
     if (pageCount > 1) {
 
       try (final OCacheEntry stateCacheEntry =
@@ -682,7 +745,8 @@ public final class OPaginatedClusterV2 extends OPaginatedCluster {
     }
 
     final byte[] fullContent =
-        readFullEntry(clusterPosition, pageIndex, recordPosition, atomicOperation, pageCount);
+        readFullEntry(
+            clusterPosition, pageIndex, recordPosition, atomicOperation, pageCount, stamp);
     if (fullContent == null) {
       return null;
     }
@@ -1187,6 +1251,9 @@ public final class OPaginatedClusterV2 extends OPaginatedCluster {
         final OAtomicOperation atomicOperation = atomicOperationsManager.getCurrentOperation();
         final long[] clusterPositions =
             clusterPositionMap.higherPositions(position.clusterPosition, atomicOperation);
+        if (readAheadPages > 0) {
+          readAhead(clusterPositionMap.dataPageIndexes(clusterPositions, atomicOperation));
+        }
         return convertToPhysicalPositions(clusterPositions);
       } finally {
         releaseSharedLock();
@@ -1205,6 +1272,9 @@ public final class OPaginatedClusterV2 extends OPaginatedCluster {
         final OAtomicOperation atomicOperation = atomicOperationsManager.getCurrentOperation();
         final long[] clusterPositions =
             clusterPositionMap.ceilingPositions(position.clusterPosition, atomicOperation);
+        if (readAheadPages > 0) {
+          readAhead(clusterPositionMap.dataPageIndexes(clusterPositions, atomicOperation));
+        }
         return convertToPhysicalPositions(clusterPositions);
       } finally {
         releaseSharedLock();
@@ -1223,6 +1293,9 @@ public final class OPaginatedClusterV2 extends OPaginatedCluster {
         final OAtomicOperation atomicOperation = atomicOperationsManager.getCurrentOperation();
         final long[] clusterPositions =
             clusterPositionMap.lowerPositions(position.clusterPosition, atomicOperation);
+        if (readAheadPages > 0) {
+          readAhead(clusterPositionMap.dataPageIndexes(clusterPositions, atomicOperation));
+        }
         return convertToPhysicalPositions(clusterPositions);
       } finally {
         releaseSharedLock();
@@ -1241,6 +1314,9 @@ public final class OPaginatedClusterV2 extends OPaginatedCluster {
         final OAtomicOperation atomicOperation = atomicOperationsManager.getCurrentOperation();
         final long[] clusterPositions =
             clusterPositionMap.floorPositions(position.clusterPosition, atomicOperation);
+        if (readAheadPages > 0) {
+          readAhead(clusterPositionMap.dataPageIndexes(clusterPositions, atomicOperation));
+        }
         return convertToPhysicalPositions(clusterPositions);
       } finally {
         releaseSharedLock();
@@ -1250,6 +1326,28 @@ public final class OPaginatedClusterV2 extends OPaginatedCluster {
     }
   }
 
+  /**
+   * Starts asynchronous loading of data pages which are going to be read by the scan of the
+   * cluster, so pages are already in disk cache once they are requested by the scan.
+   *
+   * @param pageIndexes indexes of data pages in the order of scan, may contain duplicates
+   */
+  private void readAhead(final long[] pageIndexes) {
+    Arrays.sort(pageIndexes);
+
+    int count = 0;
+    for (int i = 0; i < pageIndexes.length && count < readAheadPages; i++) {
+      if (count == 0 || pageIndexes[count - 1] != pageIndexes[i]) {
+        pageIndexes[count] = pageIndexes[i];
+        count++;
+      }
+    }
+
+    if (count > 0) {
+      readCache.readAhead(fileId, Arrays.copyOf(pageIndexes, count), writeCache);
+    }
+  }
+
   @Override
   public ORecordConflictStrategy getRecordConflictStrategy() {
     return recordConflictStrategy;
@@ -1320,12 +1418,17 @@ public final class OPaginatedClusterV2 extends OPaginatedCluster {
     return physicalPosition;
   }
 
+  /**
+   * @param stamp stamp of optimistic read or 0 if record is read under the locks. Optimistic read
+   *     is stopped once cluster is changed, so broken chain of record chunks is not followed.
+   */
   private byte[] readFullEntry(
       final long clusterPosition,
       long pageIndex,
       int recordPosition,
       final OAtomicOperation atomicOperation,
-      int pageCount)
+      int pageCount,
+      final long stamp)
       throws IOException {
     final List<byte[]> recordChunks = new ArrayList<>(2);
     int contentSize = 0;
@@ -1375,6 +1478,12 @@ public final class OPaginatedClusterV2 extends OPaginatedCluster {
         firstEntry = false;
       }
 
+      if (nextPagePointer >= 0
+          && stamp != 0
+          && !atomicOperationsManager.validateOptimisticRead(fileId, stamp)) {
+        return null;
+      }
+
       pageIndex = getPageIndex(nextPagePointer);
       recordPosition = getRecordPosition(nextPagePointer);
     } while (nextPagePointer >= 0);
@@ -1582,6 +1691,15 @@ public final class OPaginatedClusterV2 extends OPaginatedCluster {
             clusterPositionMap.higherPositionsEntries(lastPosition, atomicOperation);
         if (nextPositions.length > 0) {
           final long newLastPosition = nextPositions[nextPositions.length - 1].getPosition();
+
+          if (readAheadPages > 0) {
+            final long[] pageIndexes = new long[nextPositions.length];
+            for (int i = 0; i < nextPositions.length; i++) {
+              pageIndexes[i] = nextPositions[i].getPage();
+            }
+            readAhead(pageIndexes);
+          }
+
           final List<OClusterBrowseEntry> nexv = new ArrayList<>(nextPositions.length);
           for (final OClusterPositionMapV2.OClusterPositionEntry pos : nextPositions) {
             final ORawBuffer buff =
@@ -176,7 +176,7 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
   @Override
   public void create(final OContextConfiguration contextConfiguration) {
     try {
-      stateLock.writeLock().lock();
+      stateLock.acquireWriteLock();
       try {
         final Path storageFolder = storagePath;
         if (!Files.exists(storageFolder)) {
@@ -185,7 +185,7 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
 
         super.create(contextConfiguration);
       } finally {
-        stateLock.writeLock().unlock();
+        stateLock.releaseWriteLock();
       }
     } catch (final RuntimeException e) {
       throw logAndPrepareForRethrow(e);
@@ -243,7 +243,7 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
       final OCommandOutputListener iOutput,
       final int compressionLevel,
       final int bufferSize) {
-    stateLock.readLock().lock();
+    stateLock.acquireReadLock();
     try {
       if (out == null) throw new IllegalArgumentException("Backup output is null");
 
@@ -301,7 +301,7 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
     } catch (final Throwable t) {
       throw logAndPrepareForRethrow(t, false);
     } finally {
-      stateLock.readLock().unlock();
+      stateLock.releaseReadLock();
     }
   }
 
@@ -312,7 +312,7 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
       final Callable<Object> callable,
       final OCommandOutputListener iListener) {
     try {
-      stateLock.writeLock().lock();
+      stateLock.acquireWriteLock();
       try {
         if (!isClosed()) {
           close(true, false);
@@ -365,7 +365,7 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
             OLogManager.instance().error(this, "Error on calling callback on database restore", e);
           }
       } finally {
-        stateLock.writeLock().unlock();
+        stateLock.releaseWriteLock();
       }
 
       open(null, null, new OContextConfiguration());
@@ -773,7 +773,12 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
             contextConfiguration.getValueAsBoolean(
                 OGlobalConfiguration.STORAGE_PRINT_WAL_PERFORMANCE_STATISTICS),
             contextConfiguration.getValueAsInteger(
-                OGlobalConfiguration.STORAGE_PRINT_WAL_PERFORMANCE_INTERVAL));
+                OGlobalConfiguration.STORAGE_PRINT_WAL_PERFORMANCE_INTERVAL),
+            contextConfiguration.getValueAsBoolean(OGlobalConfiguration.WAL_GROUP_COMMIT),
+            contextConfiguration.getValueAsInteger(OGlobalConfiguration.WAL_GROUP_COMMIT_WINDOW),
+            contextConfiguration.getValueAsInteger(
+                OGlobalConfiguration.WAL_GROUP_COMMIT_MAX_BYTES),
+            contextConfiguration.getValueAsString(OGlobalConfiguration.WAL_COMPRESSION));
     writeAheadLog.addCheckpointListener(this);
 
     final int pageSize =
@@ -0,0 +1,483 @@
+package com.orientechnologies.orient.core.storage.fs;
+
+import com.kenai.jffi.Platform;
+import com.orientechnologies.common.concur.lock.ScalableRWLock;
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.jnr.LastErrorException;
+import com.orientechnologies.common.jnr.ONative;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.orient.core.exception.OStorageException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Linux implementation of {@link OFile} which calls <code>pread</code>, <code>pwrite</code> and
+ * <code>pwritev</code> through {@link ONative}, so requests are executed by the calling thread
+ * without the thread pool of {@link java.nio.channels.AsynchronousFileChannel}.
+ *
+ * <p>Pages passed to {@link #write(List)} are sorted by their position and pages which are adjacent
+ * in the file are written by a single <code>pwritev</code> call.
+ *
+ * <p>Direct IO is not supported: data pages start after the {@link OFile#HEADER_SIZE} bytes of the
+ * file header, so their positions are never aligned to the block size of the file system as
+ * <code>O_DIRECT</code> requires.
+ */
+public final class NativeFile implements OFile {
+  /** Maximum amount of buffers which may be passed to the single <code>pwritev</code> call. */
+  private static final int IOV_MAX = 1024;
+
+  private static final int EINTR = 4;
+
+  private final ScalableRWLock lock = new ScalableRWLock();
+  private volatile Path osFile;
+
+  private final AtomicLong dirtyCounter = new AtomicLong();
+  private final Object flushSemaphore = new Object();
+
+  private final AtomicLong size = new AtomicLong(-1);
+
+  /** Amount of <code>pwritev</code> calls, used by tests to check that writes are batched. */
+  private final LongAdder vectoredWrites = new LongAdder();
+
+  private final int pageSize;
+
+  private int fd = -1;
+
+  public NativeFile(final Path osFile, final int pageSize) {
+    this.osFile = osFile;
+    this.pageSize = pageSize;
+  }
+
+  /** @return <code>true</code> if this implementation can be used on the current platform */
+  public static boolean isSupported() {
+    return Platform.getPlatform().getOS() == Platform.OS.LINUX;
+  }
+
+  @Override
+  public void create() throws IOException {
+    lock.exclusiveLock();
+    try {
+      if (fd >= 0) {
+        throw new OStorageException("File " + osFile + " is already opened.");
+      }
+
+      Files.createFile(osFile);
+
+      doOpen();
+    } finally {
+      lock.exclusiveUnlock();
+    }
+  }
+
+  private void initSize() throws IOException {
+    if (Files.size(osFile) < HEADER_SIZE) {
+      writeFully(fd, 0, ByteBuffer.allocate(HEADER_SIZE));
+      dirtyCounter.incrementAndGet();
+    }
+
+    long currentSize = Files.size(osFile) - HEADER_SIZE;
+
+    if (currentSize % pageSize != 0) {
+      final long initialSize = currentSize;
+
+      currentSize = (currentSize / pageSize) * pageSize;
+      truncate(currentSize + HEADER_SIZE);
+
+      OLogManager.instance()
+          .warnNoDb(
+              this,
+              "Data page in file {} was partially written and will be truncated, "
+                  + "initial size {}, truncated size {}",
+              osFile,
+              initialSize,
+              currentSize);
+    }
+
+    if (size.get() < 0) {
+      size.set(currentSize);
+    } else {
+      if (Files.size(osFile) - HEADER_SIZE > size.get()) {
+        throw new IllegalStateException(
+            "Physical size of the file "
+                + (Files.size(osFile) - HEADER_SIZE)
+                + " but logical size is "
+                + size.get());
+      }
+    }
+  }
+
+  @Override
+  public void open() {
+    lock.exclusiveLock();
+    try {
+      doOpen();
+    } catch (IOException e) {
+      throw OException.wrapException(new OStorageException("Can not open file " + osFile), e);
+    } finally {
+      lock.exclusiveUnlock();
+    }
+  }
+
+  private void doOpen() throws IOException {
+    if (fd >= 0) {
+      throw new OStorageException("File " + osFile + " is already opened.");
+    }
+
+    final ONative onative = ONative.instance();
+    try {
+      fd = onative.open(osFile.toString(), ONative.O_RDWR);
+    } catch (LastErrorException e) {
+      throw new IOException("Can not open file " + osFile, e);
+    }
+
+    initSize();
+  }
+
+  @Override
+  public long getFileSize() {
+    return size.get();
+  }
+
+  @Override
+  public String getName() {
+    return osFile.getFileName().toString();
+  }
+
+  @Override
+  public boolean isOpen() {
+    lock.sharedLock();
+    try {
+      return fd >= 0;
+    } finally {
+      lock.sharedUnlock();
+    }
+  }
+
+  @Override
+  public boolean exists() {
+    return Files.exists(osFile);
+  }
+
+  @Override
+  public void write(long offset, ByteBuffer buffer) throws IOException {
+    lock.sharedLock();
+    try {
+      buffer.rewind();
+
+      checkForClose();
+      checkPosition(offset);
+      checkPosition(offset + buffer.limit() - 1);
+
+      writeFully(fd, offset + HEADER_SIZE, buffer);
+
+      dirtyCounter.incrementAndGet();
+    } finally {
+      lock.sharedUnlock();
+    }
+  }
+
+  @Override
+  public IOResult write(List<ORawPair<Long, ByteBuffer>> buffers) throws IOException {
+    final List<ORawPair<Long, ByteBuffer>> sortedBuffers = new ArrayList<>(buffers);
+    sortedBuffers.sort(Comparator.comparingLong(pair -> pair.first));
+
+    lock.sharedLock();
+    try {
+      checkForClose();
+
+      final List<ByteBuffer> batch = new ArrayList<>();
+      long batchPosition = -1;
+      long batchEnd = -1;
+
+      for (final ORawPair<Long, ByteBuffer> pair : sortedBuffers) {
+        final ByteBuffer buffer = pair.second;
+        buffer.rewind();
+
+        checkPosition(pair.first);
+        checkPosition(pair.first + buffer.limit() - 1);
+
+        final long position = pair.first + HEADER_SIZE;
+        if (!batch.isEmpty()
+            && (position != batchEnd || !buffer.isDirect() || batch.size() >= IOV_MAX)) {
+          writeBatch(batch, batchPosition);
+          batch.clear();
+        }
+
+        if (buffer.isDirect()) {
+          if (batch.isEmpty()) {
+            batchPosition = position;
+          }
+          batch.add(buffer);
+          batchEnd = position + buffer.limit();
+        } else {
+          writeFully(fd, position, buffer);
+        }
+      }
+
+      if (!batch.isEmpty()) {
+        writeBatch(batch, batchPosition);
+      }
+
+      dirtyCounter.incrementAndGet();
+    } finally {
+      lock.sharedUnlock();
+    }
+
+    // all the data are written already
+    return () -> {};
+  }
+
+  @Override
+  public void read(long offset, ByteBuffer buffer, boolean throwOnEof) throws IOException {
+    lock.sharedLock();
+    try {
+      checkForClose();
+      checkPosition(offset);
+
+      final long position = offset + HEADER_SIZE;
+
+      int read = 0;
+      do {
+        buffer.position(read);
+
+        final long bytesRead;
+        try {
+          bytesRead =
+              ONative.instance().pread(fd, buffer, buffer.remaining(), position + read);
+        } catch (LastErrorException e) {
+          if (e.getErrorCode() == EINTR) {
+            continue;
+          }
+          throw new IOException("Error during read operation from the file " + osFile, e);
+        }
+
+        if (bytesRead == 0) {
+          if (throwOnEof) {
+            throw new EOFException("End of file " + osFile + " is reached.");
+          }
+
+          break;
+        }
+
+        read += (int) bytesRead;
+      } while (read < buffer.limit());
+
+      buffer.position(read);
+    } finally {
+      lock.sharedUnlock();
+    }
+  }
+
+  @Override
+  public long allocateSpace(int size) {
+    return this.size.getAndAdd(size);
+  }
+
+  @Override
+  public void shrink(long size) throws IOException {
+    lock.exclusiveLock();
+    try {
+      checkForClose();
+
+      this.size.set(0);
+      truncate(size + HEADER_SIZE);
+    } finally {
+      lock.exclusiveUnlock();
+    }
+  }
+
+  @Override
+  public void synch() {
+    lock.sharedLock();
+    try {
+      doSynch();
+    } finally {
+      lock.sharedUnlock();
+    }
+  }
+
+  private void doSynch() {
+    synchronized (flushSemaphore) {
+      long dirtyCounterValue = dirtyCounter.get();
+      if (dirtyCounterValue > 0) {
+        try {
+          ONative.instance().fsync(fd);
+        } catch (final IOException e) {
+          OLogManager.instance()
+              .warn(
+                  this,
+                  "Error during flush of file %s. Data may be lost in case of power failure",
+                  e,
+                  getName());
+        }
+
+        dirtyCounter.addAndGet(-dirtyCounterValue);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    lock.exclusiveLock();
+    try {
+      if (fd >= 0) {
+        doSynch();
+      }
+      doClose();
+    } catch (IOException e) {
+      throw OException.wrapException(
+          new OStorageException("Error during closing the file " + osFile), e);
+    } finally {
+      lock.exclusiveUnlock();
+    }
+  }
+
+  private void doClose() throws IOException {
+    try {
+      // ignore if closed
+      if (fd >= 0) {
+        ONative.instance().close(fd);
+        fd = -1;
+      }
+    } catch (LastErrorException e) {
+      throw new IOException("Can not close file " + osFile, e);
+    }
+  }
+
+  @Override
+  public void delete() throws IOException {
+    lock.exclusiveLock();
+    try {
+      doClose();
+
+      Files.delete(osFile);
+    } finally {
+      lock.exclusiveUnlock();
+    }
+  }
+
+  @Override
+  public void renameTo(Path newFile) throws IOException {
+    lock.exclusiveLock();
+    try {
+      doClose();
+
+      //noinspection NonAtomicOperationOnVolatileField
+      osFile = Files.move(osFile, newFile);
+
+      doOpen();
+    } finally {
+      lock.exclusiveUnlock();
+    }
+  }
+
+  @Override
+  public void replaceContentWith(final Path newContentFile) throws IOException {
+    lock.exclusiveLock();
+    try {
+      doClose();
+
+      Files.copy(newContentFile, osFile, StandardCopyOption.REPLACE_EXISTING);
+
+      doOpen();
+    } finally {
+      lock.exclusiveUnlock();
+    }
+  }
+
+  private void writeBatch(final List<ByteBuffer> batch, final long position) throws IOException {
+    if (batch.size() == 1) {
+      writeFully(fd, position, batch.get(0));
+      return;
+    }
+
+    int first = 0;
+    long currentPosition = position;
+    while (first < batch.size()) {
+      long written;
+      try {
+        written =
+            ONative.instance().pwritev(fd, batch.subList(first, batch.size()), currentPosition);
+      } catch (LastErrorException e) {
+        if (e.getErrorCode() == EINTR) {
+          continue;
+        }
+        throw new IOException("Error during write operation to the file " + osFile, e);
+      }
+      vectoredWrites.increment();
+      currentPosition += written;
+
+      // partial write, the rest of the data is written by the next call
+      while (first < batch.size() && written >= batch.get(first).remaining()) {
+        final ByteBuffer buffer = batch.get(first);
+        written -= buffer.remaining();
+        buffer.position(buffer.limit());
+        first++;
+      }
+      if (first < batch.size()) {
+        final ByteBuffer buffer = batch.get(first);
+        buffer.position(buffer.position() + (int) written);
+      }
+    }
+  }
+
+  private void writeFully(final int descriptor, final long position, final ByteBuffer buffer)
+      throws IOException {
+    int written = 0;
+    buffer.position(0);
+    while (written < buffer.limit()) {
+      final long bytesWritten;
+      try {
+        bytesWritten =
+            ONative.instance().pwrite(descriptor, buffer, buffer.remaining(), position + written);
+      } catch (LastErrorException e) {
+        if (e.getErrorCode() == EINTR) {
+          continue;
+        }
+        throw new IOException("Error during write operation to the file " + osFile, e);
+      }
+
+      written += (int) bytesWritten;
+      buffer.position(written);
+    }
+  }
+
+  private void truncate(final long length) throws IOException {
+    try {
+      ONative.instance().ftruncate(fd, length);
+    } catch (LastErrorException e) {
+      throw new IOException("Can not truncate file " + osFile, e);
+    }
+  }
+
+  long getVectoredWrites() {
+    return vectoredWrites.sum();
+  }
+
+  private void checkPosition(long offset) {
+    final long fileSize = size.get();
+    if (offset < 0 || offset >= fileSize) {
+      throw new OStorageException(
+          "You are going to access region outside of allocated file position. File size = "
+              + fileSize
+              + ", requested position "
+              + offset);
+    }
+  }
+
+  private void checkForClose() {
+    if (fd < 0) {
+      throw new OStorageException("File " + osFile + " is closed");
+    }
+  }
+}
@@ -24,6 +24,7 @@ import com.orientechnologies.common.concur.ONeedRetryException;
 import com.orientechnologies.common.concur.lock.*;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.exception.OHighLevelException;
+import com.orientechnologies.common.function.TxFunction;
 import com.orientechnologies.common.io.OIOException;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.profiler.ModifiableLongProfileHookValue;
@@ -75,6 +76,8 @@ import com.orientechnologies.orient.core.index.*;
 import com.orientechnologies.orient.core.index.engine.*;
 import com.orientechnologies.orient.core.index.engine.v1.OCellBTreeMultiValueIndexEngine;
 import com.orientechnologies.orient.core.index.engine.v1.OCellBTreeSingleValueIndexEngine;
+import com.orientechnologies.orient.core.index.engine.v1.ONKBTreeMultiValueIndexEngine;
+import com.orientechnologies.orient.core.index.engine.v1.ONKBTreeSingleValueIndexEngine;
 import com.orientechnologies.orient.core.metadata.OMetadataDefault;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OImmutableClass;
@@ -98,6 +101,7 @@ import com.orientechnologies.orient.core.storage.cache.OReadCache;
 import com.orientechnologies.orient.core.storage.cache.OWriteCache;
 import com.orientechnologies.orient.core.storage.cache.chm.PageKey;
 import com.orientechnologies.orient.core.storage.cache.local.OBackgroundExceptionListener;
+import com.orientechnologies.orient.core.storage.cache.record.ORecordBufferCache;
 import com.orientechnologies.orient.core.storage.cluster.OOfflineCluster;
 import com.orientechnologies.orient.core.storage.cluster.OPaginatedCluster;
 import com.orientechnologies.orient.core.storage.config.OClusterBasedStorageConfiguration;
@@ -170,6 +174,9 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   protected volatile OReadCache readCache;
   protected volatile OWriteCache writeCache;
 
+  /** Cache of serialized records shared by all sessions, <code>null</code> if it is disabled. */
+  private final ORecordBufferCache recordCache;
+
   private volatile ORecordConflictStrategy recordConflictStrategy =
       Orient.instance().getRecordConflictStrategy().getDefaultImplementation();
 
@@ -219,6 +226,13 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     recordVersionManager = new OPartitionedLockManager<>();
     sbTreeCollectionManager = new OSBTreeCollectionManagerShared(this);
 
+    final int recordCacheSize = OGlobalConfiguration.STORAGE_RECORD_CACHE_SIZE.getValueAsInteger();
+    if (recordCacheSize > 0) {
+      recordCache = new ORecordBufferCache(this.name, recordCacheSize * 1024L * 1024);
+    } else {
+      recordCache = null;
+    }
+
     registerProfilerHooks();
   }
 
@@ -258,7 +272,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
   public final void open(final OContextConfiguration contextConfiguration) {
     try {
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
         if (status == STATUS.OPEN || isInError())
         // ALREADY OPENED: THIS IS THE CASE WHEN A STORAGE INSTANCE IS
@@ -267,12 +281,12 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
           return;
         }
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
 
       try {
 
-        stateLock.writeLock().lock();
+        stateLock.acquireWriteLock();
         try {
           if (status == STATUS.OPEN || isInError())
           // ALREADY OPENED: THIS IS THE CASE WHEN A STORAGE INSTANCE IS
@@ -373,13 +387,13 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
           status = STATUS.MIGRATION;
         } finally {
-          stateLock.writeLock().unlock();
+          stateLock.releaseWriteLock();
         }
 
         // we need to use read lock to allow for example correctly truncate WAL during data
         // processing
         // all operations are prohibited on storage because of usage of special status.
-        stateLock.readLock().lock();
+        stateLock.acquireReadLock();
         try {
           if (status != STATUS.MIGRATION) {
             OLogManager.instance()
@@ -393,10 +407,10 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
           sbTreeCollectionManager.migrate();
         } finally {
-          stateLock.readLock().unlock();
+          stateLock.releaseReadLock();
         }
 
-        stateLock.writeLock().lock();
+        stateLock.acquireWriteLock();
         try {
           if (status != STATUS.MIGRATION) {
             OLogManager.instance()
@@ -412,8 +426,12 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
           // versions
           atomicOperationsManager.executeInsideAtomicOperation(null, this::checkRidBagsPresence);
           status = STATUS.OPEN;
+
+          if (recordCache != null) {
+            recordCache.registerMBean();
+          }
         } finally {
-          stateLock.writeLock().unlock();
+          stateLock.releaseWriteLock();
         }
 
       } catch (final RuntimeException e) {
@@ -630,7 +648,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   public void create(final OContextConfiguration contextConfiguration) {
     checkPageSizeAndRelatedParametersInGlobalConfiguration();
     try {
-      stateLock.writeLock().lock();
+      stateLock.acquireWriteLock();
       try {
         if (name == null) {
           throw new OInvalidDatabaseNameException("Database name can not be null");
@@ -743,6 +761,9 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
                   null);
             });
 
+        if (recordCache != null) {
+          recordCache.registerMBean();
+        }
       } catch (final InterruptedException e) {
         throw OException.wrapException(
             new OStorageException("Storage creation was interrupted"), e);
@@ -754,7 +775,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         throw OException.wrapException(
             new OStorageException("Error on creation of storage '" + name + "'"), e);
       } finally {
-        stateLock.writeLock().unlock();
+        stateLock.releaseWriteLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee);
@@ -833,11 +854,11 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   @Override
   public final boolean isClosed() {
     try {
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
         return super.isClosed();
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -866,7 +887,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     try {
       final long timer = Orient.instance().getProfiler().startChrono();
 
-      stateLock.writeLock().lock();
+      stateLock.acquireWriteLock();
       try {
         makeStorageDirty();
 
@@ -874,7 +895,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         close(true, true);
         postDeleteSteps();
       } finally {
-        stateLock.writeLock().unlock();
+        stateLock.releaseWriteLock();
         Orient.instance()
             .getProfiler()
             .stopChrono("db." + name + ".drop", "Drop a database", timer, "db.*.drop");
@@ -892,7 +913,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     try {
       listener.onMessage("Check of storage is started...");
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
         final long lockId = atomicOperationsManager.freezeAtomicOperations(null, null);
         try {
@@ -918,7 +939,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
           atomicOperationsManager.releaseAtomicOperations(lockId);
         }
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -932,7 +953,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   @Override
   public final int addCluster(final String clusterName, final Object... parameters) {
     try {
-      stateLock.writeLock().lock();
+      stateLock.acquireWriteLock();
       try {
 
         checkOpennessAndMigration();
@@ -946,7 +967,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         throw OException.wrapException(
             new OStorageException("Error in creation of new cluster '" + clusterName), e);
       } finally {
-        stateLock.writeLock().unlock();
+        stateLock.releaseWriteLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee);
@@ -960,7 +981,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   @Override
   public final int addCluster(final String clusterName, final int requestedId) {
     try {
-      stateLock.writeLock().lock();
+      stateLock.acquireWriteLock();
       try {
 
         checkOpennessAndMigration();
@@ -986,7 +1007,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         throw OException.wrapException(
             new OStorageException("Error in creation of new cluster '" + clusterName + "'"), e);
       } finally {
-        stateLock.writeLock().unlock();
+        stateLock.releaseWriteLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee);
@@ -1000,7 +1021,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   @Override
   public final boolean dropCluster(final int clusterId) {
     try {
-      stateLock.writeLock().lock();
+      stateLock.acquireWriteLock();
       try {
 
         checkOpennessAndMigration();
@@ -1020,25 +1041,32 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         makeStorageDirty();
 
-        return atomicOperationsManager.calculateInsideAtomicOperation(
-            null,
-            atomicOperation -> {
-              if (dropClusterInternal(atomicOperation, clusterId)) {
-                return false;
-              }
+        try {
+          return atomicOperationsManager.calculateInsideAtomicOperation(
+              null,
+              atomicOperation -> {
+                if (dropClusterInternal(atomicOperation, clusterId)) {
+                  return false;
+                }
 
-              ((OClusterBasedStorageConfiguration) configuration)
-                  .dropCluster(atomicOperation, clusterId);
-              sbTreeCollectionManager.deleteComponentByClusterId(atomicOperation, clusterId);
+                ((OClusterBasedStorageConfiguration) configuration)
+                    .dropCluster(atomicOperation, clusterId);
+                sbTreeCollectionManager.deleteComponentByClusterId(atomicOperation, clusterId);
 
-              return true;
-            });
+                return true;
+              });
+        } finally {
+          // cluster id may be reused by the new cluster
+          if (recordCache != null) {
+            recordCache.clear();
+          }
+        }
       } catch (final Exception e) {
         throw OException.wrapException(
             new OStorageException("Error while removing cluster '" + clusterId + "'"), e);
 
       } finally {
-        stateLock.writeLock().unlock();
+        stateLock.releaseWriteLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee);
@@ -1065,7 +1093,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   @Override
   public String getClusterNameById(int clusterId) {
     try {
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
         checkOpennessAndMigration();
         checkIfThreadIsBlocked();
@@ -1078,7 +1106,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return cluster.getName();
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
 
     } catch (final RuntimeException ee) {
@@ -1093,7 +1121,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   @Override
   public long getClusterRecordsSizeById(int clusterId) {
     try {
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -1107,7 +1135,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return cluster.getRecordsSize();
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -1123,7 +1151,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     Objects.requireNonNull(clusterName);
 
     try {
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -1137,7 +1165,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return cluster.getRecordsSize();
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -1151,7 +1179,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   @Override
   public String getClusterRecordConflictStrategy(int clusterId) {
     try {
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -1167,7 +1195,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
             .map(ORecordConflictStrategy::getName)
             .orElse(null);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -1181,7 +1209,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   @Override
   public String getClusterEncryption(int clusterId) {
     try {
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -1195,7 +1223,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return cluster.encryption();
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -1209,7 +1237,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   @Override
   public boolean isSystemCluster(int clusterId) {
     try {
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -1223,7 +1251,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return cluster.isSystemCluster();
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -1237,7 +1265,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   @Override
   public long getLastClusterPosition(int clusterId) {
     try {
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -1251,7 +1279,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return cluster.getLastPosition();
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -1265,7 +1293,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   @Override
   public long getClusterNextPosition(int clusterId) {
     try {
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -1279,7 +1307,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return cluster.getNextPosition();
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -1293,7 +1321,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   @Override
   public OPaginatedCluster.RECORD_STATUS getRecordStatus(ORID rid) {
     try {
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -1308,7 +1336,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return ((OPaginatedCluster) cluster).getRecordStatus(rid.getClusterPosition());
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -1378,6 +1406,11 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     clusterMap.put(cluster.getName().toLowerCase(configuration.getLocaleInstance()), newCluster);
     clusters.set(clusterId, newCluster);
 
+    // files of offline cluster may be replaced, so cached records can not be used any more
+    if (recordCache != null) {
+      recordCache.clear();
+    }
+
     ((OClusterBasedStorageConfiguration) configuration)
         .setClusterStatus(atomicOperation, clusterId, iStatus);
 
@@ -1411,7 +1444,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       }
 
       // COUNT PHYSICAL CLUSTER IF ANY
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -1428,7 +1461,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return cluster.getEntries() - cluster.getTombstonesCount();
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -1446,7 +1479,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return new long[] {ORID.CLUSTER_POS_INVALID, ORID.CLUSTER_POS_INVALID};
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -1464,7 +1497,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         throw OException.wrapException(
             new OStorageException("Cannot retrieve information about data range"), ioe);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -1532,7 +1565,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       List<OTransactionId> transactionsMetadata) {
     Map<OTransactionId, OTransactionData> finished = new HashMap<>();
     List<OTransactionId> started = new ArrayList<>();
-    stateLock.readLock().lock();
+    stateLock.acquireReadLock();
     try {
       Set<OTransactionId> transactionsToRead = new HashSet<>(transactionsMetadata);
       // we iterate till the last record is contained in wal at the moment when we call this method
@@ -1618,7 +1651,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       throw OException.wrapException(
           new OStorageException("Error of reading of records from  WAL"), e);
     } finally {
-      stateLock.readLock().unlock();
+      stateLock.releaseReadLock();
     }
   }
 
@@ -1627,7 +1660,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     try {
       long tot = 0;
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -1649,7 +1682,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return tot;
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -1675,7 +1708,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
             atomicOperation, rid, content, recordVersion, recordType, callback, cluster, null);
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
         checkOpennessAndMigration();
 
@@ -1696,7 +1729,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
                     cluster,
                     null));
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee);
@@ -1717,7 +1750,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
             "Passed record with id " + rid + " is new and cannot be stored.");
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         final OCluster cluster = doGetAndCheckCluster(rid.getClusterId());
@@ -1735,7 +1768,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         OLogManager.instance()
             .error(this, "Retrieval of record  '" + rid + "' cause: " + ioe.getMessage(), ioe);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
 
       return null;
@@ -1757,7 +1790,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
             "Passed record with id " + rid + " is new and cannot be stored.");
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         final OCluster cluster = doGetAndCheckCluster(rid.getClusterId());
@@ -1770,7 +1803,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         OLogManager.instance()
             .error(this, "Retrieval of record  '" + rid + "' cause: " + ioe.getMessage(), ioe);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
 
       return false;
@@ -1785,7 +1818,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
   public Iterator<OClusterBrowsePage> browseCluster(final int clusterId) {
     try {
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -1825,7 +1858,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
           }
         };
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -1838,7 +1871,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
   private OClusterBrowsePage nextPage(final int clusterId, final long lastPosition) {
     try {
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -1846,7 +1879,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         final OCluster cluster = doGetAndCheckCluster(clusterId);
         return cluster.nextPage(lastPosition);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -1914,7 +1947,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     try {
       assert transaction.get() == null;
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
         checkOpennessAndMigration();
         checkIfThreadIsBlocked();
@@ -1928,8 +1961,8 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
           makeStorageDirty();
 
           final OCluster cluster = doGetAndCheckCluster(rid.getClusterId());
-          return atomicOperationsManager.calculateInsideAtomicOperation(
-              null,
+          return calculateInsideRecordOperation(
+              rid,
               atomicOperation ->
                   doUpdateRecord(
                       atomicOperation,
@@ -1944,7 +1977,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
           lock.unlock();
         }
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee);
@@ -1955,6 +1988,36 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     }
   }
 
+  /**
+   * Executes change of single record inside of atomic operation. Record is removed from the record
+   * cache once changes are applied to the pages, before the operation waits till changes are
+   * durable, so readers do not get stale record from the cache while new version is in the pages.
+   */
+  private <T> T calculateInsideRecordOperation(final ORID rid, final TxFunction<T> function)
+      throws IOException {
+    Throwable error = null;
+    OLogSequenceNumber lsn = null;
+    final OAtomicOperation atomicOperation = atomicOperationsManager.startAtomicOperation(null);
+    try {
+      return function.accept(atomicOperation);
+    } catch (final Exception e) {
+      error = e;
+      throw OException.wrapException(
+          new OStorageException(
+              "Exception during execution of atomic operation inside of storage " + name),
+          e);
+    } finally {
+      try {
+        lsn = atomicOperationsManager.completeAtomicOperation(error);
+      } finally {
+        if (recordCache != null) {
+          recordCache.invalidate(rid);
+        }
+      }
+      atomicOperationsManager.waitTillDurable(lsn);
+    }
+  }
+
   public final OAtomicOperationsManager getAtomicOperationsManager() {
     return atomicOperationsManager;
   }
@@ -1976,7 +2039,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     try {
       assert transaction.get() == null;
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -1986,10 +2049,10 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         makeStorageDirty();
 
-        return atomicOperationsManager.calculateInsideAtomicOperation(
-            null, atomicOperation -> doDeleteRecord(atomicOperation, rid, version, cluster));
+        return calculateInsideRecordOperation(
+            rid, atomicOperation -> doDeleteRecord(atomicOperation, rid, version, cluster));
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee);
@@ -2003,7 +2066,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   @Override
   public final Set<String> getClusterNames() {
     try {
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -2011,7 +2074,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return new HashSet<>(clusterMap.keySet());
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -2033,7 +2096,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         throw new IllegalArgumentException("Cluster name is empty");
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -2049,7 +2112,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return -1;
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -2081,7 +2144,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
           clustersToLock.put(clusterId, doGetAndCheckCluster(clusterId));
         }
       }
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -2142,7 +2205,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       } catch (final IOException | RuntimeException ioe) {
         throw OException.wrapException(new OStorageException("Could not preallocate RIDs"), ioe);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
 
     } catch (final RuntimeException ee) {
@@ -2254,7 +2317,8 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       }
 
       final List<ORecordOperation> result = new ArrayList<>(8);
-      stateLock.readLock().lock();
+      OLogSequenceNumber commitLsn = null;
+      stateLock.acquireReadLock();
       try {
 
         if (modificationLock) {
@@ -2361,7 +2425,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
             if (error != null) {
               rollback(transaction, error);
             } else {
-              endStorageTx(transaction, recordOperations);
+              commitLsn = endStorageTx(transaction, recordOperations);
             }
             this.transaction.set(null);
           }
@@ -2389,10 +2453,14 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
             }
           }
         } finally {
-          stateLock.readLock().unlock();
+          stateLock.releaseReadLock();
         }
       }
 
+      // transaction is reported as committed once it is durable, record locks are released already,
+      // so commits of other transactions are synced together with the current one
+      atomicOperationsManager.waitTillDurable(commitLsn);
+
       if (OLogManager.instance().isDebugEnabled()) {
         OLogManager.instance()
             .debug(
@@ -2462,7 +2530,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
   public int loadIndexEngine(final String name) {
     try {
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -2476,7 +2544,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         assert indexId == engine.getId();
         return generateIndexId(indexId, engine);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -2500,7 +2568,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       final boolean multivalue,
       final Map<String, String> engineProperties) {
     try {
-      stateLock.writeLock().lock();
+      stateLock.acquireWriteLock();
       try {
 
         checkOpennessAndMigration();
@@ -2583,7 +2651,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         throw OException.wrapException(
             new OStorageException("Cannot add index engine " + engineName + " in storage."), e);
       } finally {
-        stateLock.writeLock().unlock();
+        stateLock.releaseWriteLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -2617,7 +2685,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         throw new OIndexException("Types of indexed keys have to be provided");
       }
 
-      stateLock.writeLock().lock();
+      stateLock.acquireWriteLock();
       try {
 
         checkOpennessAndMigration();
@@ -2729,7 +2797,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         throw OException.wrapException(
             new OStorageException("Cannot add index engine " + engineName + " in storage."), e);
       } finally {
-        stateLock.writeLock().unlock();
+        stateLock.releaseWriteLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee);
@@ -2867,7 +2935,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     final int internalIndexId = extractInternalId(indexId);
 
     try {
-      stateLock.writeLock().lock();
+      stateLock.acquireWriteLock();
       try {
 
         checkOpennessAndMigration();
@@ -2903,7 +2971,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       } catch (final IOException e) {
         throw OException.wrapException(new OStorageException("Error on index deletion"), e);
       } finally {
-        stateLock.writeLock().unlock();
+        stateLock.releaseWriteLock();
       }
     } catch (final OInvalidIndexEngineIdException ie) {
       throw logAndPrepareForRethrow(ie);
@@ -2945,7 +3013,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return removeKeyFromIndexInternal(atomicOperation, internalIndexId, key);
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -2957,7 +3025,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
             null,
             atomicOperation -> removeKeyFromIndexInternal(atomicOperation, internalIndexId, key));
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final OInvalidIndexEngineIdException ie) {
       throw logAndPrepareForRethrow(ie);
@@ -3004,7 +3072,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       }
 
       final int internalIndexId = extractInternalId(indexId);
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -3015,7 +3083,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         atomicOperationsManager.executeInsideAtomicOperation(
             null, atomicOperation -> doClearIndex(atomicOperation, internalIndexId));
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final OInvalidIndexEngineIdException ie) {
       throw logAndPrepareForRethrow(ie);
@@ -3050,7 +3118,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return doGetIndexValue(indexId, key);
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -3058,7 +3126,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return doGetIndexValue(indexId, key);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final OInvalidIndexEngineIdException ie) {
       throw logAndPrepareForRethrow(ie);
@@ -3100,14 +3168,14 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return doGetIndexValues(indexId, key);
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
         checkOpennessAndMigration();
         checkIfThreadIsBlocked();
 
         return doGetIndexValues(indexId, key);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final OInvalidIndexEngineIdException ie) {
       throw logAndPrepareForRethrow(ie);
@@ -3138,7 +3206,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     try {
       checkIndexId(indexId);
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -3148,7 +3216,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         assert indexId == engine.getId();
         return engine;
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final OInvalidIndexEngineIdException ie) {
       throw logAndPrepareForRethrow(ie);
@@ -3180,7 +3248,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return;
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -3193,7 +3261,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
             atomicOperation ->
                 doUpdateIndexEntry(atomicOperation, internalIndexId, key, valueCreator));
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final OInvalidIndexEngineIdException ie) {
       throw logAndPrepareForRethrow(ie);
@@ -3212,7 +3280,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     indexId = extractInternalId(indexId);
 
     try {
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -3224,7 +3292,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return doCallIndexEngine(indexId, callback);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final OInvalidIndexEngineIdException ie) {
       throw logAndPrepareForRethrow(ie);
@@ -3278,7 +3346,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return;
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -3291,7 +3359,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
             atomicOperation ->
                 putRidIndexEntryInternal(atomicOperation, internalIndexId, key, value));
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final OInvalidIndexEngineIdException ie) {
       throw logAndPrepareForRethrow(ie);
@@ -3332,7 +3400,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return removeRidIndexEntryInternal(atomicOperation, internalIndexId, key, value);
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -3345,7 +3413,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
             atomicOperation ->
                 removeRidIndexEntryInternal(atomicOperation, internalIndexId, key, value));
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final OInvalidIndexEngineIdException ie) {
       throw logAndPrepareForRethrow(ie);
@@ -3387,7 +3455,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return;
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -3399,7 +3467,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
             null,
             atomicOperation -> putIndexValueInternal(atomicOperation, internalIndexId, key, value));
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final OInvalidIndexEngineIdException ie) {
       throw logAndPrepareForRethrow(ie);
@@ -3457,7 +3525,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return doValidatedPutIndexValue(atomicOperation, internalIndexId, key, value, validator);
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -3470,7 +3538,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
             atomicOperation ->
                 doValidatedPutIndexValue(atomicOperation, internalIndexId, key, value, validator));
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final OInvalidIndexEngineIdException ie) {
       throw logAndPrepareForRethrow(ie);
@@ -3532,7 +3600,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
             indexId, rangeFrom, fromInclusive, rangeTo, toInclusive, ascSortOrder, transformer);
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -3541,7 +3609,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return doIterateIndexEntriesBetween(
             indexId, rangeFrom, fromInclusive, rangeTo, toInclusive, ascSortOrder, transformer);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final OInvalidIndexEngineIdException ie) {
       throw logAndPrepareForRethrow(ie);
@@ -3586,7 +3654,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return doIterateIndexEntriesMajor(indexId, fromKey, isInclusive, ascSortOrder, transformer);
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -3594,7 +3662,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return doIterateIndexEntriesMajor(indexId, fromKey, isInclusive, ascSortOrder, transformer);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final OInvalidIndexEngineIdException ie) {
       throw logAndPrepareForRethrow(ie);
@@ -3636,7 +3704,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return doIterateIndexEntriesMinor(indexId, toKey, isInclusive, ascSortOrder, transformer);
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -3644,7 +3712,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return doIterateIndexEntriesMinor(indexId, toKey, isInclusive, ascSortOrder, transformer);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final OInvalidIndexEngineIdException ie) {
       throw logAndPrepareForRethrow(ie);
@@ -3682,7 +3750,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return doGetIndexStream(indexId, valuesTransformer);
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -3690,7 +3758,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return doGetIndexStream(indexId, valuesTransformer);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final OInvalidIndexEngineIdException ie) {
       throw logAndPrepareForRethrow(ie);
@@ -3724,7 +3792,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return doGetIndexDescStream(indexId, valuesTransformer);
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -3732,7 +3800,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return doGetIndexDescStream(indexId, valuesTransformer);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final OInvalidIndexEngineIdException ie) {
       throw logAndPrepareForRethrow(ie);
@@ -3764,7 +3832,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return doGetIndexKeyStream(indexId);
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -3772,7 +3840,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return doGetIndexKeyStream(indexId);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final OInvalidIndexEngineIdException ie) {
       throw logAndPrepareForRethrow(ie);
@@ -3804,7 +3872,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return doGetIndexSize(indexId, transformer);
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -3812,7 +3880,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return doGetIndexSize(indexId, transformer);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final OInvalidIndexEngineIdException ie) {
       throw logAndPrepareForRethrow(ie);
@@ -3844,7 +3912,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return doHasRangeQuerySupport(indexId);
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -3852,7 +3920,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return doHasRangeQuerySupport(indexId);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final OInvalidIndexEngineIdException ie) {
       throw logAndPrepareForRethrow(ie);
@@ -3912,7 +3980,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   @Override
   public final void synch() {
     try {
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         final long timer = Orient.instance().getProfiler().startChrono();
@@ -3955,7 +4023,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
               .stopChrono("db." + name + ".synch", "Synch a database", timer, "db.*.synch");
         }
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee);
@@ -3969,7 +4037,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   @Override
   public final String getPhysicalClusterNameById(final int iClusterId) {
     try {
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
         checkOpennessAndMigration();
         checkIfThreadIsBlocked();
@@ -3980,7 +4048,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return clusters.get(iClusterId) != null ? clusters.get(iClusterId).getName() : null;
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -4003,7 +4071,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
   @Override
   public String getClusterName(int clusterId) {
-    stateLock.readLock().lock();
+    stateLock.acquireReadLock();
     try {
 
       checkOpennessAndMigration();
@@ -4022,7 +4090,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     } catch (final Throwable t) {
       throw logAndPrepareForRethrow(t, false);
     } finally {
-      stateLock.readLock().unlock();
+      stateLock.releaseReadLock();
     }
   }
 
@@ -4032,7 +4100,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       try {
         long size = 0;
 
-        stateLock.readLock().lock();
+        stateLock.acquireReadLock();
         try {
 
           checkOpennessAndMigration();
@@ -4044,7 +4112,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
             }
           }
         } finally {
-          stateLock.readLock().unlock();
+          stateLock.releaseReadLock();
         }
 
         return size;
@@ -4063,7 +4131,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   @Override
   public final int getClusters() {
     try {
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -4071,7 +4139,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         return clusterMap.size();
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -4085,7 +4153,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   @Override
   public final Set<OCluster> getClusterInstances() {
     try {
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -4103,7 +4171,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return result;
 
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -4126,7 +4194,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   @Override
   public final void freeze(final boolean throwException) {
     try {
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -4160,7 +4228,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         synch();
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee);
@@ -4367,7 +4435,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return new OPhysicalPosition[0];
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -4381,7 +4449,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
                 "Cluster Id " + currentClusterId + " is invalid in storage '" + name + '\''),
             ioe);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -4400,7 +4468,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return new OPhysicalPosition[0];
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -4414,7 +4482,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
                 "Cluster Id " + clusterId + " is invalid in storage '" + name + '\''),
             ioe);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -4433,7 +4501,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return new OPhysicalPosition[0];
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -4448,7 +4516,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
                 "Cluster Id " + currentClusterId + " is invalid in storage '" + name + '\''),
             ioe);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -4467,7 +4535,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         return new OPhysicalPosition[0];
       }
 
-      stateLock.readLock().lock();
+      stateLock.acquireReadLock();
       try {
 
         checkOpennessAndMigration();
@@ -4482,7 +4550,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
                 "Cluster Id " + clusterId + " is invalid in storage '" + name + '\''),
             ioe);
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee, false);
@@ -4601,7 +4669,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   @Override
   public final void setConflictStrategy(final ORecordConflictStrategy conflictResolver) {
     Objects.requireNonNull(conflictResolver);
-    stateLock.writeLock().lock();
+    stateLock.acquireWriteLock();
     try {
 
       checkOpennessAndMigration();
@@ -4620,7 +4688,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
                   + name),
           e);
     } finally {
-      stateLock.writeLock().unlock();
+      stateLock.releaseWriteLock();
     }
   }
 
@@ -4723,12 +4791,12 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
   public void rollbackOperationsFromThread(final Thread thread) {
     try {
-      stateLock.writeLock().lock();
+      stateLock.acquireWriteLock();
       try {
         checkOpennessAndMigration();
         blockedThreads.add(thread);
       } finally {
-        stateLock.writeLock().unlock();
+        stateLock.releaseWriteLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee);
@@ -4756,13 +4824,12 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   public final void makeFuzzyCheckpoint() {
     // check every 1 ms.
     while (true) {
-      try {
-        if (stateLock.readLock().tryLock(1, TimeUnit.MILLISECONDS)) {
-          break;
-        }
-      } catch (InterruptedException e) {
-        throw OException.wrapException(
-            new OInterruptedException("Fuzzy check point was interrupted"), e);
+      if (stateLock.tryAcquireReadLock(TimeUnit.MILLISECONDS.toNanos(1))) {
+        break;
+      }
+
+      if (Thread.currentThread().isInterrupted()) {
+        throw new OInterruptedException("Fuzzy check point was interrupted");
       }
 
       if (status != STATUS.OPEN || status != STATUS.MIGRATION) {
@@ -4831,7 +4898,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     } catch (final IOException ioe) {
       throw OException.wrapException(new OIOException("Error during fuzzy checkpoint"), ioe);
     } finally {
-      stateLock.readLock().unlock();
+      stateLock.releaseReadLock();
     }
   }
 
@@ -4840,7 +4907,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       checkOpennessAndMigration();
 
       if (transaction.get() == null) {
-        stateLock.writeLock().lock();
+        stateLock.acquireWriteLock();
         try {
           checkOpennessAndMigration();
           checkIfThreadIsBlocked();
@@ -4848,7 +4915,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
           atomicOperationsManager.executeInsideAtomicOperation(
               null, atomicOperation -> deleteTreeRidBag(ridBag, atomicOperation));
         } finally {
-          stateLock.writeLock().unlock();
+          stateLock.releaseWriteLock();
         }
       } else {
         deleteTreeRidBag(ridBag, atomicOperationsManager.getCurrentOperation());
@@ -4973,7 +5040,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       return doReadRecordIfNotLatest(cluster, rid, recordVersion);
     }
 
-    stateLock.readLock().lock();
+    stateLock.acquireReadLock();
     try {
 
       if (readLock) {
@@ -4989,6 +5056,13 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       checkIfThreadIsBlocked();
 
       final OCluster cluster = doGetAndCheckCluster(rid.getClusterId());
+      if (recordCache != null) {
+        final ORawBuffer cached = recordCache.get(rid);
+        if (cached != null) {
+          return cached.version == recordVersion ? null : cached;
+        }
+      }
+
       buff = doReadRecordIfNotLatest(cluster, rid, recordVersion);
       return buff;
     } finally {
@@ -5001,7 +5075,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
           }
         }
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     }
   }
@@ -5031,7 +5105,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       return doReadRecord(cluster, rid, prefetchRecords);
     }
 
-    stateLock.readLock().lock();
+    stateLock.acquireReadLock();
     try {
 
       if (readLock) {
@@ -5049,7 +5123,21 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       } catch (IllegalArgumentException e) {
         return null;
       }
-      return doReadRecord(cluster, rid, prefetchRecords);
+
+      if (recordCache == null) {
+        return doReadRecord(cluster, rid, prefetchRecords);
+      }
+
+      ORawBuffer buffer = recordCache.get(rid);
+      if (buffer != null) {
+        return buffer;
+      }
+
+      final long stamp = recordCache.startRead(rid);
+      buffer = doReadRecord(cluster, rid, prefetchRecords);
+      recordCache.put(rid, buffer, stamp);
+
+      return buffer;
     } finally {
       try {
         if (readLock) {
@@ -5060,19 +5148,50 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
           }
         }
       } finally {
-        stateLock.readLock().unlock();
+        stateLock.releaseReadLock();
       }
     }
   }
 
-  private void endStorageTx(
+  /** @return LSN which should be durable before the transaction is reported as committed */
+  private OLogSequenceNumber endStorageTx(
       final OTransactionInternal txi, final Collection<ORecordOperation> recordOperations)
       throws IOException {
-    atomicOperationsManager.endAtomicOperation(null);
+    final OLogSequenceNumber lsn;
+    try {
+      lsn = atomicOperationsManager.completeAtomicOperation(null);
+    } finally {
+      // records are invalidated once changes are applied to the pages and before the transaction
+      // waits till it is durable, so stale records which were read before the commit are not put
+      // back into the cache and are not returned while the pages contain the new version
+      invalidateRecordCache(recordOperations);
+    }
     assert atomicOperationsManager.getCurrentOperation() == null;
 
     OTransactionAbstract.updateCacheFromEntries(txi.getDatabase(), recordOperations, true);
     txCommit.increment();
+    return lsn;
+  }
+
+  private void invalidateRecordCache(final Collection<ORecordOperation> recordOperations) {
+    if (recordCache == null) {
+      return;
+    }
+
+    final List<ORID> rids = new ArrayList<>();
+    for (final ORecordOperation recordOperation : recordOperations) {
+      if (recordOperation.type == ORecordOperation.UPDATED
+          || recordOperation.type == ORecordOperation.DELETED) {
+        rids.add(recordOperation.getRID());
+      }
+    }
+
+    recordCache.invalidate(rids);
+  }
+
+  /** @return cache of serialized records or <code>null</code> if cache is disabled */
+  public ORecordBufferCache getRecordCache() {
+    return recordCache;
   }
 
   private void startStorageTx(final OTransactionInternal clientTx) throws IOException {
@@ -5488,7 +5607,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   @Override
   public boolean setClusterAttribute(
       final int id, final OCluster.ATTRIBUTES attribute, final Object value) {
-    stateLock.writeLock().lock();
+    stateLock.acquireWriteLock();
     try {
 
       checkOpennessAndMigration();
@@ -5516,7 +5635,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     } catch (final Throwable t) {
       throw logAndPrepareForRethrow(t);
     } finally {
-      stateLock.writeLock().unlock();
+      stateLock.releaseWriteLock();
     }
   }
 
@@ -5527,7 +5646,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
     try {
 
-      stateLock.writeLock().lock();
+      stateLock.acquireWriteLock();
       try {
         checkOpennessAndMigration();
 
@@ -5545,7 +5664,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
             (atomicOperation) ->
                 doSetClusterAttributed(atomicOperation, attribute, value, cluster));
       } finally {
-        stateLock.writeLock().unlock();
+        stateLock.releaseWriteLock();
       }
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee);
@@ -5633,7 +5752,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     final long timer = Orient.instance().getProfiler().startChrono();
     Map<String, Object> params = new HashMap<>(2);
 
-    stateLock.writeLock().lock();
+    stateLock.acquireWriteLock();
     try {
 
       if (status == STATUS.CLOSED) {
@@ -5667,6 +5786,8 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
                           || engine instanceof OHashTableIndexEngine
                           || engine instanceof OCellBTreeSingleValueIndexEngine
                           || engine instanceof OCellBTreeMultiValueIndexEngine
+                          || engine instanceof ONKBTreeSingleValueIndexEngine
+                          || engine instanceof ONKBTreeMultiValueIndexEngine
                           || engine instanceof OAutoShardingIndexEngine)) {
                     engine.close();
                   }
@@ -5680,6 +5801,8 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
                     || engine instanceof OHashTableIndexEngine
                     || engine instanceof OCellBTreeSingleValueIndexEngine
                     || engine instanceof OCellBTreeMultiValueIndexEngine
+                    || engine instanceof ONKBTreeSingleValueIndexEngine
+                    || engine instanceof ONKBTreeMultiValueIndexEngine
                     || engine instanceof OAutoShardingIndexEngine)) {
               // delete method is implemented only in non native indexes, so they do not use ODB
               // atomic operation
@@ -5730,6 +5853,11 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
                 null);
       }
 
+      if (recordCache != null) {
+        recordCache.clear();
+        recordCache.unregisterMBean();
+      }
+
       status = STATUS.CLOSED;
     } catch (final IOException e) {
       final String message = "Error on closing of storage '" + name;
@@ -5741,7 +5869,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       Orient.instance()
           .getProfiler()
           .stopChrono("db." + name + ".close", "Close a database", timer, "db.*.close");
-      stateLock.writeLock().unlock();
+      stateLock.releaseWriteLock();
     }
 
     postCloseStepsAfterLock(params);
@@ -6341,7 +6469,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   @SuppressWarnings("unused")
   public void setStorageConfigurationUpdateListener(
       final OStorageConfigurationUpdateListener storageConfigurationUpdateListener) {
-    stateLock.writeLock().lock();
+    stateLock.acquireWriteLock();
     try {
 
       checkOpennessAndMigration();
@@ -6350,12 +6478,12 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       ((OClusterBasedStorageConfiguration) configuration)
           .setConfigurationUpdateListener(storageConfigurationUpdateListener);
     } finally {
-      stateLock.writeLock().unlock();
+      stateLock.releaseWriteLock();
     }
   }
 
   public void pauseConfigurationUpdateNotifications() {
-    stateLock.readLock().lock();
+    stateLock.acquireReadLock();
     try {
 
       checkOpennessAndMigration();
@@ -6363,12 +6491,12 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
       ((OClusterBasedStorageConfiguration) configuration).pauseUpdateNotifications();
     } finally {
-      stateLock.readLock().unlock();
+      stateLock.releaseReadLock();
     }
   }
 
   public void fireConfigurationUpdateNotifications() {
-    stateLock.readLock().lock();
+    stateLock.acquireReadLock();
     try {
 
       checkOpennessAndMigration();
@@ -6376,7 +6504,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
       ((OClusterBasedStorageConfiguration) configuration).fireUpdateNotifications();
     } finally {
-      stateLock.readLock().unlock();
+      stateLock.releaseReadLock();
     }
   }
 
@@ -6636,7 +6764,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
   @Override
   public final void setSchemaRecordId(final String schemaRecordId) {
-    stateLock.writeLock().lock();
+    stateLock.acquireWriteLock();
     try {
 
       checkOpennessAndMigration();
@@ -6658,13 +6786,13 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     } catch (final Throwable t) {
       throw logAndPrepareForRethrow(t);
     } finally {
-      stateLock.writeLock().unlock();
+      stateLock.releaseWriteLock();
     }
   }
 
   @Override
   public final void setDateFormat(final String dateFormat) {
-    stateLock.writeLock().lock();
+    stateLock.acquireWriteLock();
     try {
 
       checkOpennessAndMigration();
@@ -6684,13 +6812,13 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     } catch (final Throwable t) {
       throw logAndPrepareForRethrow(t);
     } finally {
-      stateLock.writeLock().unlock();
+      stateLock.releaseWriteLock();
     }
   }
 
   @Override
   public final void setTimeZone(final TimeZone timeZoneValue) {
-    stateLock.writeLock().lock();
+    stateLock.acquireWriteLock();
     try {
 
       checkOpennessAndMigration();
@@ -6711,13 +6839,13 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     } catch (final Throwable t) {
       throw logAndPrepareForRethrow(t);
     } finally {
-      stateLock.writeLock().unlock();
+      stateLock.releaseWriteLock();
     }
   }
 
   @Override
   public final void setLocaleLanguage(final String locale) {
-    stateLock.writeLock().lock();
+    stateLock.acquireWriteLock();
     try {
 
       checkOpennessAndMigration();
@@ -6737,13 +6865,13 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     } catch (final Throwable t) {
       throw logAndPrepareForRethrow(t);
     } finally {
-      stateLock.writeLock().unlock();
+      stateLock.releaseWriteLock();
     }
   }
 
   @Override
   public final void setCharset(final String charset) {
-    stateLock.writeLock().lock();
+    stateLock.acquireWriteLock();
     try {
 
       checkOpennessAndMigration();
@@ -6763,13 +6891,13 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     } catch (final Throwable t) {
       throw logAndPrepareForRethrow(t);
     } finally {
-      stateLock.writeLock().unlock();
+      stateLock.releaseWriteLock();
     }
   }
 
   @Override
   public final void setIndexMgrRecordId(final String indexMgrRecordId) {
-    stateLock.writeLock().lock();
+    stateLock.acquireWriteLock();
     try {
 
       checkOpennessAndMigration();
@@ -6791,13 +6919,13 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     } catch (final Throwable t) {
       throw logAndPrepareForRethrow(t);
     } finally {
-      stateLock.writeLock().unlock();
+      stateLock.releaseWriteLock();
     }
   }
 
   @Override
   public final void setDateTimeFormat(final String dateTimeFormat) {
-    stateLock.writeLock().lock();
+    stateLock.acquireWriteLock();
     try {
 
       checkOpennessAndMigration();
@@ -6819,13 +6947,13 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     } catch (final Throwable t) {
       throw logAndPrepareForRethrow(t);
     } finally {
-      stateLock.writeLock().unlock();
+      stateLock.releaseWriteLock();
     }
   }
 
   @Override
   public final void setLocaleCountry(final String localeCountry) {
-    stateLock.writeLock().lock();
+    stateLock.acquireWriteLock();
     try {
 
       checkOpennessAndMigration();
@@ -6846,13 +6974,13 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     } catch (final Throwable t) {
       throw logAndPrepareForRethrow(t);
     } finally {
-      stateLock.writeLock().unlock();
+      stateLock.releaseWriteLock();
     }
   }
 
   @Override
   public final void setClusterSelection(final String clusterSelection) {
-    stateLock.writeLock().lock();
+    stateLock.acquireWriteLock();
     try {
 
       checkOpennessAndMigration();
@@ -6874,13 +7002,13 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     } catch (final Throwable t) {
       throw logAndPrepareForRethrow(t);
     } finally {
-      stateLock.writeLock().unlock();
+      stateLock.releaseWriteLock();
     }
   }
 
   @Override
   public final void setMinimumClusters(final int minimumClusters) {
-    stateLock.writeLock().lock();
+    stateLock.acquireWriteLock();
     try {
 
       checkOpennessAndMigration();
@@ -6899,13 +7027,13 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     } catch (final Throwable t) {
       throw logAndPrepareForRethrow(t);
     } finally {
-      stateLock.writeLock().unlock();
+      stateLock.releaseWriteLock();
     }
   }
 
   @Override
   public final void setValidation(final boolean validation) {
-    stateLock.writeLock().lock();
+    stateLock.acquireWriteLock();
     try {
 
       checkOpennessAndMigration();
@@ -6925,13 +7053,13 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     } catch (final Throwable t) {
       throw logAndPrepareForRethrow(t);
     } finally {
-      stateLock.writeLock().unlock();
+      stateLock.releaseWriteLock();
     }
   }
 
   @Override
   public final void removeProperty(final String property) {
-    stateLock.writeLock().lock();
+    stateLock.acquireWriteLock();
     try {
 
       checkOpennessAndMigration();
@@ -6951,13 +7079,13 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     } catch (final Throwable t) {
       throw logAndPrepareForRethrow(t);
     } finally {
-      stateLock.writeLock().unlock();
+      stateLock.releaseWriteLock();
     }
   }
 
   @Override
   public final void setProperty(final String property, final String value) {
-    stateLock.writeLock().lock();
+    stateLock.acquireWriteLock();
     try {
 
       checkOpennessAndMigration();
@@ -6978,13 +7106,13 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     } catch (final Throwable t) {
       throw logAndPrepareForRethrow(t);
     } finally {
-      stateLock.writeLock().unlock();
+      stateLock.releaseWriteLock();
     }
   }
 
   @Override
   public final void setRecordSerializer(final String recordSerializer, final int version) {
-    stateLock.writeLock().lock();
+    stateLock.acquireWriteLock();
     try {
 
       checkOpennessAndMigration();
@@ -7008,13 +7136,13 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     } catch (final Throwable t) {
       throw logAndPrepareForRethrow(t);
     } finally {
-      stateLock.writeLock().unlock();
+      stateLock.releaseWriteLock();
     }
   }
 
   @Override
   public final void clearProperties() {
-    stateLock.writeLock().lock();
+    stateLock.acquireWriteLock();
     try {
 
       checkOpennessAndMigration();
@@ -7034,7 +7162,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     } catch (final Throwable t) {
       throw logAndPrepareForRethrow(t);
     } finally {
-      stateLock.writeLock().unlock();
+      stateLock.releaseWriteLock();
     }
   }
 
@@ -7043,7 +7171,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   }
 
   void runWALVacuum() {
-    stateLock.readLock().lock();
+    stateLock.acquireReadLock();
     try {
 
       if (status == STATUS.CLOSED) {
@@ -7095,7 +7223,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
           .error(
               this, "Error during flushing of data for fuzzy checkpoint, in storage %s", e, name);
     } finally {
-      stateLock.readLock().unlock();
+      stateLock.releaseReadLock();
       walVacuumInProgress.set(false);
     }
   }
@@ -59,6 +59,12 @@ public interface OAtomicOperation {
 
   Iterable<String> lockedObjects();
 
+  /** @return ids of the files which are changed, truncated or deleted by this operation */
+  Set<Long> changedFiles();
+
+  /** @return ids of the files which are deleted by this operation */
+  Set<Long> deletedFiles();
+
   void addDeletedRecordPosition(final int clusterId, final int pageIndex, final int recordPosition);
 
   Set<Integer> getBookedRecordPositions(final int clusterId, final int pageIndex);
@@ -621,6 +621,16 @@ final class OAtomicOperationBinaryTracking implements OAtomicOperation {
     return lockedObjects;
   }
 
+  public Set<Long> changedFiles() {
+    final Set<Long> changedFiles = new HashSet<>(fileChanges.keySet());
+    changedFiles.addAll(deletedFiles);
+    return changedFiles;
+  }
+
+  public Set<Long> deletedFiles() {
+    return deletedFiles;
+  }
+
   @Override
   public boolean equals(final Object o) {
     if (this == o) {
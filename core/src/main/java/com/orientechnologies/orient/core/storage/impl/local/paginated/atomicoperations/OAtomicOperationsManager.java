@@ -38,8 +38,12 @@ import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODura
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWriteAheadLog;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
 
 /**
  * @author Andrey Lomakin (a.lomakin-at-orientdb.com)
@@ -65,6 +69,13 @@ public class OAtomicOperationsManager {
   private final OperationsFreezer componentOperationsFreezer = new OperationsFreezer();
   private final AtomicOperationsTable atomicOperationsTable;
 
+  /**
+   * Locks of files which are held in write mode while changes of atomic operation are applied to
+   * the pages of those files, they are used to validate optimistic reads which are performed
+   * without acquiring of component locks.
+   */
+  private final ConcurrentHashMap<Long, StampedLock> pageChangeLocks = new ConcurrentHashMap<>();
+
   public OAtomicOperationsManager(
       OAbstractPaginatedStorage storage,
       int operationsCacheLimit,
@@ -300,8 +311,22 @@ public class OAtomicOperationsManager {
     return currentOperation.get();
   }
 
-  /** Ends the current atomic operation on this manager. */
+  /** Ends the current atomic operation on this manager and waits till its changes are durable. */
   public void endAtomicOperation(final Throwable error) throws IOException {
+    waitTillDurable(completeAtomicOperation(error));
+  }
+
+  /**
+   * Ends the current atomic operation on this manager without waiting till its changes are
+   * durable. Changes are applied to the pages and locks of the components are released once the
+   * method returns. Callers should pass the result to {@link #waitTillDurable(OLogSequenceNumber)}
+   * after the locks which they hold are released, so other operations can be committed and synced
+   * together with the current one.
+   *
+   * @return LSN which should be durable before the result of operation is reported or <code>null
+   *     </code> if operation is rolled back
+   */
+  public OLogSequenceNumber completeAtomicOperation(final Throwable error) throws IOException {
     final OAtomicOperation operation = currentOperation.get();
 
     if (operation == null) {
@@ -309,6 +334,7 @@ public class OAtomicOperationsManager {
       throw new ODatabaseException("There is no atomic operation active");
     }
 
+    OLogSequenceNumber lsn = null;
     try {
       storage.moveToErrorStateIfNeeded(error);
 
@@ -317,11 +343,30 @@ public class OAtomicOperationsManager {
       }
 
       try {
-        final OLogSequenceNumber lsn;
         if (!operation.isRollbackInProgress()) {
-          lsn = operation.commitChanges(writeAheadLog);
-        } else {
-          lsn = null;
+          // files are locked in the order of their ids, so concurrent commits can not deadlock
+          final List<Long> changedFiles = new ArrayList<>(operation.changedFiles());
+          changedFiles.sort(null);
+
+          final List<StampedLock> locks = new ArrayList<>();
+          final List<Long> stamps = new ArrayList<>();
+          try {
+            for (final long fileId : changedFiles) {
+              final StampedLock lock = pageChangeLock(fileId);
+              stamps.add(lock.writeLock());
+              locks.add(lock);
+            }
+
+            lsn = operation.commitChanges(writeAheadLog);
+          } finally {
+            for (int i = 0; i < locks.size(); i++) {
+              locks.get(i).unlockWrite(stamps.get(i));
+            }
+
+            for (final long fileId : operation.deletedFiles()) {
+              pageChangeLocks.remove(fileId);
+            }
+          }
         }
 
         final long operationId = operation.getOperationUnitId();
@@ -350,6 +395,20 @@ public class OAtomicOperationsManager {
     } finally {
       atomicOperationsFreezer.endOperation();
     }
+
+    return error == null ? lsn : null;
+  }
+
+  /**
+   * Waits till changes of the atomic operation are durable, returns immediately if group commit of
+   * the WAL is disabled.
+   *
+   * @param lsn result of {@link #completeAtomicOperation(Throwable)}
+   */
+  public void waitTillDurable(final OLogSequenceNumber lsn) {
+    if (lsn != null) {
+      writeAheadLog.waitTillDurable(lsn);
+    }
   }
 
   public void ensureThatComponentsUnlocked() {
@@ -401,6 +460,34 @@ public class OAtomicOperationsManager {
     lockManager.acquireLock(durableComponent.getLockName(), OOneEntryPerKeyLockManager.LOCK.SHARED);
   }
 
+  /**
+   * Starts optimistic read of pages of the file which is performed without acquiring of component
+   * lock. Result of such read should be checked by {@link #validateOptimisticRead(long, long)}.
+   *
+   * @return stamp of the read or 0 if pages of the file are being changed right now
+   */
+  public long tryOptimisticRead(final long fileId) {
+    return pageChangeLock(fileId).tryOptimisticRead();
+  }
+
+  /**
+   * @return <code>true</code> if pages of the file were not changed since optimistic read with
+   *     given stamp was started and the file was not deleted
+   */
+  public boolean validateOptimisticRead(final long fileId, final long stamp) {
+    final StampedLock lock = pageChangeLocks.get(fileId);
+    return lock != null && lock.validate(stamp);
+  }
+
+  private StampedLock pageChangeLock(final long fileId) {
+    final StampedLock lock = pageChangeLocks.get(fileId);
+    if (lock != null) {
+      return lock;
+    }
+
+    return pageChangeLocks.computeIfAbsent(fileId, id -> new StampedLock());
+  }
+
   public void releaseReadLock(ODurableComponent durableComponent) {
     assert durableComponent.getName() != null;
     assert durableComponent.getLockName() != null;
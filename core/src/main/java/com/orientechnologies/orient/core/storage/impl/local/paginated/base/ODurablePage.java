@@ -192,6 +192,40 @@ public class ODurablePage {
     return changes.getBinaryValue(buffer, pageOffset, valLen);
   }
 
+  /**
+   * Compares bytes stored in the page with provided ones without copying of them. Bytes are
+   * compared as unsigned values, if all common bytes are equal the shorter value is the smaller.
+   *
+   * @return negative value, zero or positive value if stored bytes are less than, equal to or
+   *     greater than provided ones
+   */
+  protected final int compareBinaryValue(
+      final int pageOffset, final int valLen, final byte[] value) {
+    final int commonLen = Math.min(valLen, value.length);
+
+    if (changes == null) {
+      final ByteBuffer buffer = pointer.getBuffer();
+      assert buffer != null;
+
+      for (int i = 0; i < commonLen; i++) {
+        final int diff = (buffer.get(pageOffset + i) & 0xFF) - (value[i] & 0xFF);
+        if (diff != 0) {
+          return diff;
+        }
+      }
+    } else {
+      final ByteBuffer buffer = pointer.getBufferDuplicate();
+      for (int i = 0; i < commonLen; i++) {
+        final int diff = (changes.getByteValue(buffer, pageOffset + i) & 0xFF) - (value[i] & 0xFF);
+        if (diff != 0) {
+          return diff;
+        }
+      }
+    }
+
+    return Integer.compare(valLen, value.length);
+  }
+
   protected int getObjectSizeInDirectMemory(
       final OBinarySerializer<?> binarySerializer, final int offset) {
     final ByteBuffer buffer = pointer.getBufferDuplicate();
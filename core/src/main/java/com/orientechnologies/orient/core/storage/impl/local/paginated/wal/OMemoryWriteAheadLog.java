@@ -154,6 +154,9 @@ public class OMemoryWriteAheadLog extends OAbstractWriteAheadLog {
     event.run();
   }
 
+  @Override
+  public void waitTillDurable(OLogSequenceNumber lsn) {}
+
   @Override
   public boolean appendNewSegment() {
     return false;
@@ -22,8 +22,16 @@ package com.orientechnologies.orient.core.storage.impl.local.paginated.wal;
 
 import static com.orientechnologies.orient.core.storage.impl.local.paginated.wal.WALRecordTypes.*;
 
+import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.serialization.types.OIntegerSerializer;
 import com.orientechnologies.common.serialization.types.OShortSerializer;
+import com.orientechnologies.orient.core.compression.OCompression;
+import com.orientechnologies.orient.core.compression.OCompressionFactory;
+import com.orientechnologies.orient.core.compression.impl.OGZIPCompression;
+import com.orientechnologies.orient.core.compression.impl.OHighZIPCompression;
+import com.orientechnologies.orient.core.compression.impl.OLZ4Compression;
+import com.orientechnologies.orient.core.compression.impl.OLZ4HighCompression;
+import com.orientechnologies.orient.core.compression.impl.OLowZIPCompression;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.common.EmptyWALRecord;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.common.WriteableWALRecord;
@@ -47,6 +55,9 @@ public final class OWALRecordsFactory {
   private static final int OPERATION_ID_OFFSET = RECORD_ID_OFFSET + RECORD_ID_SIZE;
   private static final int OPERATION_ID_SIZE = 4;
 
+  // operation id is not used in compressed records, so id of compression algorithm is stored there
+  private static final int COMPRESSION_ID_OFFSET = OPERATION_ID_OFFSET;
+
   private static final int ORIGINAL_CONTENT_SIZE_OFFSET = OPERATION_ID_OFFSET + OPERATION_ID_SIZE;
   private static final int ORIGINAL_CONTENT_SIZE = 4;
 
@@ -62,7 +73,34 @@ public final class OWALRecordsFactory {
   private static final int MIN_COMPRESSED_RECORD_SIZE =
       OGlobalConfiguration.WAL_MIN_COMPRESSED_RECORD_SIZE.getValueAsInteger();
 
+  /**
+   * Compression algorithms which can be used for WAL records. Index of the algorithm is stored in
+   * the header of compressed record, so new algorithms may be only appended to the end of the list.
+   * LZ4 has index 0 because records compressed by previous versions contain 0 in the header.
+   */
+  private static final String[] COMPRESSION_NAMES = {
+    OLZ4Compression.NAME,
+    OLZ4HighCompression.NAME,
+    OGZIPCompression.NAME,
+    OLowZIPCompression.NAME,
+    OHighZIPCompression.NAME
+  };
+
+  private static final int LZ4_COMPRESSION_ID = 0;
+  private static final int DEFAULT_COMPRESSION_ID =
+      compressionId(OGlobalConfiguration.WAL_COMPRESSION.getValueAsString());
+
   public static ByteBuffer toStream(final WriteableWALRecord walRecord) {
+    return toStream(walRecord, DEFAULT_COMPRESSION_ID);
+  }
+
+  /**
+   * Serializes the record, records bigger than {@link
+   * OGlobalConfiguration#WAL_MIN_COMPRESSED_RECORD_SIZE} are compressed.
+   *
+   * @param compressionId id of the compression algorithm returned by {@link #compressionId(String)}
+   */
+  public static ByteBuffer toStream(final WriteableWALRecord walRecord, final int compressionId) {
     final int contentSize = walRecord.serializedSize() + METADATA_SIZE;
 
     final ByteBuffer content = ByteBuffer.allocate(contentSize).order(ByteOrder.nativeOrder());
@@ -77,6 +115,10 @@ public final class OWALRecordsFactory {
       return content;
     }
 
+    if (compressionId != LZ4_COMPRESSION_ID) {
+      return compress(content, recordId, contentSize, compressionId);
+    }
+
     final LZ4Compressor compressor = factory.fastCompressor();
     final int maxCompressedLength = compressor.maxCompressedLength(contentSize - 1);
 
@@ -106,21 +148,87 @@ public final class OWALRecordsFactory {
     }
   }
 
+  private static ByteBuffer compress(
+      final ByteBuffer content,
+      final int recordId,
+      final int contentSize,
+      final int compressionId) {
+    final OCompression compression = compression(compressionId);
+    final byte[] compressed =
+        compression.compress(content.array(), METADATA_SIZE, contentSize - METADATA_SIZE);
+
+    if (compressed.length + COMPRESSED_METADATA_SIZE >= contentSize) {
+      return content;
+    }
+
+    final ByteBuffer compressedContent =
+        ByteBuffer.allocate(compressed.length + COMPRESSED_METADATA_SIZE)
+            .order(ByteOrder.nativeOrder());
+
+    compressedContent.putShort(RECORD_ID_OFFSET, (short) (-(recordId + 1)));
+    compressedContent.putInt(COMPRESSION_ID_OFFSET, compressionId);
+    compressedContent.putInt(ORIGINAL_CONTENT_SIZE_OFFSET, contentSize);
+
+    compressedContent.position(COMPRESSED_METADATA_SIZE);
+    compressedContent.put(compressed);
+
+    return compressedContent;
+  }
+
+  /**
+   * @return id of the compression algorithm which is stored in the header of compressed records, id
+   *     of LZ4 if the algorithm is not supported for WAL records
+   */
+  public static int compressionId(final String name) {
+    for (int i = 0; i < COMPRESSION_NAMES.length; i++) {
+      if (COMPRESSION_NAMES[i].equalsIgnoreCase(name)) {
+        return i;
+      }
+    }
+
+    OLogManager.instance()
+        .warnNoDb(
+            OWALRecordsFactory.class,
+            "Compression '%s' is not supported for WAL records, %s will be used instead",
+            name,
+            OLZ4Compression.NAME);
+    return LZ4_COMPRESSION_ID;
+  }
+
+  private static OCompression compression(final int compressionId) {
+    if (compressionId < 0 || compressionId >= COMPRESSION_NAMES.length) {
+      throw new IllegalStateException(
+          "WAL record is compressed by unknown algorithm with id " + compressionId);
+    }
+
+    return OCompressionFactory.INSTANCE.getCompression(COMPRESSION_NAMES[compressionId], null);
+  }
+
   public WriteableWALRecord fromStream(byte[] content) {
     int recordId = OShortSerializer.INSTANCE.deserializeNative(content, RECORD_ID_OFFSET);
 
     if (recordId < 0) {
       final int originalLen =
           OIntegerSerializer.INSTANCE.deserializeNative(content, ORIGINAL_CONTENT_SIZE_OFFSET);
+      final int compressionId =
+          OIntegerSerializer.INSTANCE.deserializeNative(content, COMPRESSION_ID_OFFSET);
       final byte[] restored = new byte[originalLen];
 
-      final LZ4FastDecompressor decompressor = factory.fastDecompressor();
-      decompressor.decompress(
-          content,
-          COMPRESSED_METADATA_SIZE,
-          restored,
-          METADATA_SIZE,
-          restored.length - METADATA_SIZE);
+      if (compressionId == LZ4_COMPRESSION_ID) {
+        final LZ4FastDecompressor decompressor = factory.fastDecompressor();
+        decompressor.decompress(
+            content,
+            COMPRESSED_METADATA_SIZE,
+            restored,
+            METADATA_SIZE,
+            restored.length - METADATA_SIZE);
+      } else {
+        final byte[] uncompressed =
+            compression(compressionId)
+                .uncompress(
+                    content, COMPRESSED_METADATA_SIZE, content.length - COMPRESSED_METADATA_SIZE);
+        System.arraycopy(uncompressed, 0, restored, METADATA_SIZE, uncompressed.length);
+      }
       recordId = -recordId - 1;
       content = restored;
     }
@@ -136,6 +136,16 @@ public interface OWriteAheadLog {
    */
   void addEventAt(OLogSequenceNumber lsn, Runnable event);
 
+  /**
+   * Blocks the current thread till all records up to the given LSN are written and synced to the
+   * disk. Write ahead logs which support group commit, sync records of all transactions which wait
+   * for durability at the same time using single fsync call. Implementations which do not support
+   * group commit return immediately.
+   *
+   * @param lsn the LSN of the record which should become durable.
+   */
+  void waitTillDurable(OLogSequenceNumber lsn);
+
   /**
    * Adds new segment so all subsequent log entries will be added to this new segment. New segment
    * can not be appended if:
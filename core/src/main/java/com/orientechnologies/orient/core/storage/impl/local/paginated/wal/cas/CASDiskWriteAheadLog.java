@@ -1,5 +1,6 @@
 package com.orientechnologies.orient.core.storage.impl.local.paginated.wal.cas;
 
+import com.orientechnologies.common.concur.lock.OInterruptedException;
 import com.orientechnologies.common.concur.lock.ScalableRWLock;
 import com.orientechnologies.common.directmemory.ODirectMemoryAllocator;
 import com.orientechnologies.common.directmemory.ODirectMemoryAllocator.Intention;
@@ -13,6 +14,7 @@ import com.orientechnologies.common.thread.OThreadPoolExecutorWithLogging;
 import com.orientechnologies.common.types.OModifiableLong;
 import com.orientechnologies.common.util.OPair;
 import com.orientechnologies.common.util.OUncaughtExceptionHandler;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.exception.EncryptionKeyAbsentException;
 import com.orientechnologies.orient.core.exception.OInvalidStorageEncryptionKeyException;
 import com.orientechnologies.orient.core.exception.OSecurityException;
@@ -37,6 +39,7 @@ import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -194,6 +197,25 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
 
   private long reportTs = -1;
 
+  private final boolean groupCommit;
+  private final long groupCommitWindow;
+  private final long groupCommitMaxBytes;
+
+  private final AtomicLong groupCommitBytes = new AtomicLong();
+  private final AtomicBoolean groupCommitScheduled = new AtomicBoolean();
+  private final AtomicBoolean groupCommitForced = new AtomicBoolean();
+  private final AtomicReference<OLogSequenceNumber> groupCommitLSN = new AtomicReference<>();
+
+  private final ReentrantLock groupCommitLock = new ReentrantLock();
+  private final Condition groupCommitCondition = groupCommitLock.newCondition();
+
+  private final LongAdder groupCommitCount = new LongAdder();
+  private final LongAdder groupCommitWaitTime = new LongAdder();
+  private final LongAdder groupCommitFSyncCount = new LongAdder();
+  private final LongAdder groupCommitFSyncTime = new LongAdder();
+
+  private final int compressionId;
+
   public CASDiskWriteAheadLog(
       final String storageName,
       final Path storagePath,
@@ -214,6 +236,102 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
       boolean printPerformanceStatistic,
       int statisticPrintInterval)
       throws IOException {
+    this(
+        storageName,
+        storagePath,
+        walPath,
+        maxPagesCacheSize,
+        bufferSize,
+        aesKey,
+        iv,
+        segmentsInterval,
+        maxSegmentSize,
+        commitDelay,
+        filterWALFiles,
+        locale,
+        walSizeHardLimit,
+        fsyncInterval,
+        keepSingleWALSegment,
+        callFsync,
+        printPerformanceStatistic,
+        statisticPrintInterval,
+        false,
+        0,
+        0);
+  }
+
+  public CASDiskWriteAheadLog(
+      final String storageName,
+      final Path storagePath,
+      final Path walPath,
+      final int maxPagesCacheSize,
+      final int bufferSize,
+      byte[] aesKey,
+      byte[] iv,
+      long segmentsInterval,
+      final long maxSegmentSize,
+      final int commitDelay,
+      final boolean filterWALFiles,
+      final Locale locale,
+      final long walSizeHardLimit,
+      final int fsyncInterval,
+      boolean keepSingleWALSegment,
+      boolean callFsync,
+      boolean printPerformanceStatistic,
+      int statisticPrintInterval,
+      boolean groupCommit,
+      int groupCommitWindow,
+      int groupCommitMaxBytes)
+      throws IOException {
+    this(
+        storageName,
+        storagePath,
+        walPath,
+        maxPagesCacheSize,
+        bufferSize,
+        aesKey,
+        iv,
+        segmentsInterval,
+        maxSegmentSize,
+        commitDelay,
+        filterWALFiles,
+        locale,
+        walSizeHardLimit,
+        fsyncInterval,
+        keepSingleWALSegment,
+        callFsync,
+        printPerformanceStatistic,
+        statisticPrintInterval,
+        groupCommit,
+        groupCommitWindow,
+        groupCommitMaxBytes,
+        OGlobalConfiguration.WAL_COMPRESSION.getValueAsString());
+  }
+
+  public CASDiskWriteAheadLog(
+      final String storageName,
+      final Path storagePath,
+      final Path walPath,
+      final int maxPagesCacheSize,
+      final int bufferSize,
+      byte[] aesKey,
+      byte[] iv,
+      long segmentsInterval,
+      final long maxSegmentSize,
+      final int commitDelay,
+      final boolean filterWALFiles,
+      final Locale locale,
+      final long walSizeHardLimit,
+      final int fsyncInterval,
+      boolean keepSingleWALSegment,
+      boolean callFsync,
+      boolean printPerformanceStatistic,
+      int statisticPrintInterval,
+      boolean groupCommit,
+      int groupCommitWindow,
+      int groupCommitMaxBytes,
+      String compression)
+      throws IOException {
 
     if (aesKey != null && aesKey.length != 16 && aesKey.length != 24 && aesKey.length != 32) {
       throw new OInvalidStorageEncryptionKeyException(
@@ -237,6 +355,12 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
 
     this.fsyncInterval = fsyncInterval;
 
+    this.groupCommit = groupCommit;
+    this.groupCommitWindow = TimeUnit.MICROSECONDS.toNanos(groupCommitWindow);
+    this.groupCommitMaxBytes = groupCommitMaxBytes;
+
+    this.compressionId = OWALRecordsFactory.compressionId(compression);
+
     walSizeLimit = walSizeHardLimit;
 
     this.walLocation = calculateWalPath(storagePath, walPath);
@@ -1000,6 +1124,15 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
       }
     }
 
+    if (groupCommit
+        && groupCommitBytes.addAndGet(writeableRecord.getDiskSize()) >= groupCommitMaxBytes
+        && groupCommitScheduled.get()) {
+      // group commit window is not finished yet, but there is already enough data to sync
+      if (groupCommitForced.compareAndSet(false, true)) {
+        commitExecutor.execute(new GroupCommitTask());
+      }
+    }
+
     if (segSize > maxSegmentSize) {
       appendSegment(logSegment + 1);
     }
@@ -1007,6 +1140,90 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
     return recordLSN;
   }
 
+  @Override
+  public void waitTillDurable(final OLogSequenceNumber lsn) {
+    if (!groupCommit || lsn == null || isDurable(lsn)) {
+      return;
+    }
+
+    final long startTs = System.nanoTime();
+
+    OLogSequenceNumber requestedLSN = groupCommitLSN.get();
+    while (requestedLSN == null || requestedLSN.compareTo(lsn) < 0) {
+      if (groupCommitLSN.compareAndSet(requestedLSN, lsn)) {
+        break;
+      }
+
+      requestedLSN = groupCommitLSN.get();
+    }
+
+    scheduleGroupCommit();
+
+    groupCommitLock.lock();
+    try {
+      while (!isDurable(lsn)) {
+        if (recordsWriterFuture.isDone()) {
+          throw new OStorageException(
+              "WAL records write task for storage '"
+                  + storageName
+                  + "' is finished, commit can not be synced");
+        }
+
+        // the group commit is requested again if WAL was not synced during the commit timeout,
+        // it may happen only if WAL write is failed
+        if (!groupCommitCondition.await(fsyncInterval, TimeUnit.MILLISECONDS)) {
+          scheduleGroupCommit();
+        }
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw OException.wrapException(
+          new OInterruptedException("Waiting for the WAL sync was interrupted"), e);
+    } finally {
+      groupCommitLock.unlock();
+    }
+
+    groupCommitCount.increment();
+    groupCommitWaitTime.add(System.nanoTime() - startTs);
+  }
+
+  /** @return statistic of group commits, or <code>null</code> if group commit is disabled. */
+  public GroupCommitStatistic getGroupCommitStatistic() {
+    if (!groupCommit) {
+      return null;
+    }
+
+    return new GroupCommitStatistic(
+        groupCommitCount.sum(),
+        groupCommitWaitTime.sum(),
+        groupCommitFSyncCount.sum(),
+        groupCommitFSyncTime.sum());
+  }
+
+  private boolean isDurable(final OLogSequenceNumber lsn) {
+    final OLogSequenceNumber flushed = flushedLSN;
+    return flushed != null && lsn.compareTo(flushed) <= 0;
+  }
+
+  private void scheduleGroupCommit() {
+    if (groupCommitScheduled.compareAndSet(false, true)) {
+      if (groupCommitWindow == 0 || groupCommitBytes.get() >= groupCommitMaxBytes) {
+        commitExecutor.execute(new GroupCommitTask());
+      } else {
+        commitExecutor.schedule(new GroupCommitTask(), groupCommitWindow, TimeUnit.NANOSECONDS);
+      }
+    }
+  }
+
+  private void signalGroupCommit() {
+    groupCommitLock.lock();
+    try {
+      groupCommitCondition.signalAll();
+    } finally {
+      groupCommitLock.unlock();
+    }
+  }
+
   public OLogSequenceNumber begin() {
     final long first = segments.first();
     return new OLogSequenceNumber(first, CASWALPage.RECORDS_OFFSET);
@@ -1215,7 +1432,7 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
   private OLogSequenceNumber doLogRecord(final WriteableWALRecord writeableRecord) {
     ByteBuffer serializedRecord;
     if (writeableRecord.getBinaryContentLen() < 0) {
-      serializedRecord = OWALRecordsFactory.toStream(writeableRecord);
+      serializedRecord = OWALRecordsFactory.toStream(writeableRecord, compressionId);
       writeableRecord.setBinaryContent(serializedRecord, 0);
     }
 
@@ -1907,7 +2124,7 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
                         () -> {
                           try {
                             long startTs = 0;
-                            if (printPerformanceStatistic) {
+                            if (printPerformanceStatistic || groupCommit) {
                               startTs = System.nanoTime();
                             }
 
@@ -1945,8 +2162,15 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
 
                             fireEventsFor(flushedLSN);
 
+                            final long endTs = System.nanoTime();
+                            if (groupCommit) {
+                              groupCommitFSyncTime.add(endTs - startTs);
+                              groupCommitFSyncCount.increment();
+
+                              signalGroupCommit();
+                            }
+
                             if (printPerformanceStatistic) {
-                              final long endTs = System.nanoTime();
                               //noinspection NonAtomicOperationOnVolatileField
                               fsyncTime += (endTs - startTs);
                               //noinspection NonAtomicOperationOnVolatileField
@@ -2144,6 +2368,21 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
                 threadsWaitingCount,
                 threadsWaitingCount > 0 ? threadsWaitingSum / threadsWaitingCount / 1_000_000 : -1);
 
+        if (groupCommit) {
+          final GroupCommitStatistic statistic = getGroupCommitStatistic();
+          OLogManager.instance()
+              .infoNoDb(
+                  this,
+                  "WAL group commit stat:%s: %d commits were synced by %d fsyncs. Avg. batch size "
+                      + "%.2f. Avg. fsync time %d us. Avg. commit wait time %d us.",
+                  storageName,
+                  statistic.getCommitCount(),
+                  statistic.getFSyncCount(),
+                  statistic.getAverageBatchSize(),
+                  statistic.getAverageFSyncTime() / 1_000,
+                  statistic.getAverageCommitWaitTime() / 1_000);
+        }
+
         //noinspection NonAtomicOperationOnVolatileField
         CASDiskWriteAheadLog.this.bytesWrittenSum -= bytesWritten;
         //noinspection NonAtomicOperationOnVolatileField
@@ -2162,6 +2401,71 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
     }
   }
 
+  /**
+   * Task which syncs WAL records of all commits collected during group commit window. Only single
+   * task is scheduled at any moment of time, except the case when amount of collected WAL data
+   * exceeds the limit, then task is executed immediately.
+   */
+  private final class GroupCommitTask implements Runnable {
+    @Override
+    public void run() {
+      groupCommitScheduled.set(false);
+      groupCommitForced.set(false);
+
+      final OLogSequenceNumber requestedLSN = groupCommitLSN.get();
+      if (requestedLSN == null || isDurable(requestedLSN)) {
+        return;
+      }
+
+      groupCommitBytes.set(0);
+      new RecordsWriter(true, true).run();
+    }
+  }
+
+  /** Statistic of group commits accumulated since WAL was opened. */
+  public static final class GroupCommitStatistic {
+    private final long commitCount;
+    private final long commitWaitTime;
+    private final long fsyncCount;
+    private final long fsyncTime;
+
+    GroupCommitStatistic(
+        final long commitCount,
+        final long commitWaitTime,
+        final long fsyncCount,
+        final long fsyncTime) {
+      this.commitCount = commitCount;
+      this.commitWaitTime = commitWaitTime;
+      this.fsyncCount = fsyncCount;
+      this.fsyncTime = fsyncTime;
+    }
+
+    /** @return amount of commits which waited for the WAL sync. */
+    public long getCommitCount() {
+      return commitCount;
+    }
+
+    /** @return amount of WAL syncs. */
+    public long getFSyncCount() {
+      return fsyncCount;
+    }
+
+    /** @return average amount of commits made durable by single WAL sync. */
+    public double getAverageBatchSize() {
+      return fsyncCount > 0 ? (double) commitCount / fsyncCount : 0;
+    }
+
+    /** @return average time of WAL sync in nanoseconds. */
+    public long getAverageFSyncTime() {
+      return fsyncCount > 0 ? fsyncTime / fsyncCount : 0;
+    }
+
+    /** @return average time in nanoseconds during which commit waited for the WAL sync. */
+    public long getAverageCommitWaitTime() {
+      return commitCount > 0 ? commitWaitTime / commitCount : 0;
+    }
+  }
+
   private static final class WrittenUpTo {
     private final OLogSequenceNumber lsn;
     private final long position;
@@ -0,0 +1,68 @@
+package com.orientechnologies.orient.core.storage.index.nkbtree;
+
+import com.orientechnologies.common.comparator.OUnsafeByteArrayComparator;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Index key in the binary comparable format produced by {@link
+ * com.orientechnologies.orient.core.storage.index.nkbtree.normalizers.BinaryComparableKeyNormalizer}.
+ * Keys are ordered by unsigned lexicographical comparison of their bytes, so the order of the
+ * original keys is preserved without their deserialization.
+ */
+public final class NormalizedKey implements Comparable<NormalizedKey> {
+  private static final Comparator<byte[]> COMPARATOR =
+      OGlobalConfiguration.MEMORY_USE_UNSAFE.getValueAsBoolean()
+          ? OUnsafeByteArrayComparator.INSTANCE
+          : NormalizedKey::compareBytes;
+
+  private final byte[] bytes;
+
+  public NormalizedKey(final byte[] bytes) {
+    this.bytes = bytes;
+  }
+
+  public byte[] getBytes() {
+    return bytes;
+  }
+
+  @Override
+  public int compareTo(final NormalizedKey other) {
+    return COMPARATOR.compare(bytes, other.bytes);
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    return Arrays.equals(bytes, ((NormalizedKey) o).bytes);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(bytes);
+  }
+
+  @Override
+  public String toString() {
+    return "NormalizedKey{" + Arrays.toString(bytes) + '}';
+  }
+
+  private static int compareBytes(final byte[] arrayOne, final byte[] arrayTwo) {
+    final int commonLen = Math.min(arrayOne.length, arrayTwo.length);
+    for (int i = 0; i < commonLen; i++) {
+      final int diff = (arrayOne[i] & 0xFF) - (arrayTwo[i] & 0xFF);
+      if (diff != 0) {
+        return diff;
+      }
+    }
+
+    return Integer.compare(arrayOne.length, arrayTwo.length);
+  }
+}
@@ -0,0 +1,109 @@
+package com.orientechnologies.orient.core.storage.index.nkbtree;
+
+import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.serialization.types.OBinaryTypeSerializer;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWALChanges;
+import java.nio.ByteBuffer;
+
+/**
+ * Stores {@link NormalizedKey} as length prefixed byte array, deserialization of the key is a plain
+ * copy of its bytes.
+ */
+public final class NormalizedKeySerializer implements OBinarySerializer<NormalizedKey> {
+  public static final byte ID = 28;
+  public static final NormalizedKeySerializer INSTANCE = new NormalizedKeySerializer();
+
+  private static final OBinaryTypeSerializer BINARY_SERIALIZER = OBinaryTypeSerializer.INSTANCE;
+
+  @Override
+  public int getObjectSize(final NormalizedKey object, final Object... hints) {
+    return BINARY_SERIALIZER.getObjectSize(object.getBytes());
+  }
+
+  @Override
+  public int getObjectSize(final byte[] stream, final int startPosition) {
+    return BINARY_SERIALIZER.getObjectSize(stream, startPosition);
+  }
+
+  @Override
+  public void serialize(
+      final NormalizedKey object,
+      final byte[] stream,
+      final int startPosition,
+      final Object... hints) {
+    BINARY_SERIALIZER.serialize(object.getBytes(), stream, startPosition);
+  }
+
+  @Override
+  public NormalizedKey deserialize(final byte[] stream, final int startPosition) {
+    return new NormalizedKey(BINARY_SERIALIZER.deserialize(stream, startPosition));
+  }
+
+  @Override
+  public byte getId() {
+    return ID;
+  }
+
+  @Override
+  public boolean isFixedLength() {
+    return false;
+  }
+
+  @Override
+  public int getFixedLength() {
+    return 0;
+  }
+
+  @Override
+  public void serializeNativeObject(
+      final NormalizedKey object,
+      final byte[] stream,
+      final int startPosition,
+      final Object... hints) {
+    BINARY_SERIALIZER.serializeNativeObject(object.getBytes(), stream, startPosition);
+  }
+
+  @Override
+  public NormalizedKey deserializeNativeObject(final byte[] stream, final int startPosition) {
+    return new NormalizedKey(BINARY_SERIALIZER.deserializeNativeObject(stream, startPosition));
+  }
+
+  @Override
+  public int getObjectSizeNative(final byte[] stream, final int startPosition) {
+    return BINARY_SERIALIZER.getObjectSizeNative(stream, startPosition);
+  }
+
+  @Override
+  public NormalizedKey preprocess(final NormalizedKey value, final Object... hints) {
+    return value;
+  }
+
+  @Override
+  public void serializeInByteBufferObject(
+      final NormalizedKey object, final ByteBuffer buffer, final Object... hints) {
+    BINARY_SERIALIZER.serializeInByteBufferObject(object.getBytes(), buffer);
+  }
+
+  @Override
+  public NormalizedKey deserializeFromByteBufferObject(final ByteBuffer buffer) {
+    return new NormalizedKey(BINARY_SERIALIZER.deserializeFromByteBufferObject(buffer));
+  }
+
+  @Override
+  public int getObjectSizeInByteBuffer(final ByteBuffer buffer) {
+    return BINARY_SERIALIZER.getObjectSizeInByteBuffer(buffer);
+  }
+
+  @Override
+  public NormalizedKey deserializeFromByteBufferObject(
+      final ByteBuffer buffer, final OWALChanges walChanges, final int offset) {
+    return new NormalizedKey(
+        BINARY_SERIALIZER.deserializeFromByteBufferObject(buffer, walChanges, offset));
+  }
+
+  @Override
+  public int getObjectSizeInByteBuffer(
+      final ByteBuffer buffer, final OWALChanges walChanges, final int offset) {
+    return BINARY_SERIALIZER.getObjectSizeInByteBuffer(buffer, walChanges, offset);
+  }
+}
@@ -0,0 +1,491 @@
+package com.orientechnologies.orient.core.storage.index.nkbtree.normalizers;
+
+import com.orientechnologies.common.serialization.types.ODateSerializer;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.index.OCompositeKey;
+import com.orientechnologies.orient.core.index.OIndexException;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Converts index keys into byte arrays whose unsigned lexicographical order is the same as the
+ * order of the keys defined by {@link com.orientechnologies.common.comparator.ODefaultComparator}.
+ * Unlike {@link KeyNormalizer} the conversion is reversible, so the original key can be restored
+ * from the normalized one, and the encoding of every key component is prefix free, so the
+ * normalized form of a partial composite key is a prefix of the normalized forms of all the keys
+ * which start with it.
+ *
+ * <p>Every component is written as a marker byte, {@link #NULL} or {@link #NOT_NULL}, followed by
+ * the value:
+ *
+ * <ul>
+ *   <li>integral numbers, dates and links as big endian numbers with the sign bit flipped;
+ *   <li>floating point numbers as their IEEE 754 bits with the sign bit flipped for positive
+ *       numbers and all bits flipped for negative ones;
+ *   <li>strings as UTF-16BE code units and binaries as is, zero bytes are escaped as {@code 0x00
+ *       0xFF} and the value is terminated by a single zero byte;
+ *   <li>decimals as sign byte, exponent and digits of the normalized number, all bytes except the
+ *       sign one are flipped for negative numbers.
+ * </ul>
+ *
+ * Keys of multi-value indexes are suffixed with RID of the indexed record to make them unique, and
+ * are prefixed by {@link #NULL} or {@link #NOT_NULL} byte which indicates whether the key itself is
+ * <code>null</code>.
+ *
+ * <p>Strings are compared by their UTF-16 code units as {@link String#compareTo(String)} does,
+ * collation is applied by index definition before the key is passed to the index engine.
+ */
+public final class BinaryComparableKeyNormalizer {
+  public static final byte NULL = 0;
+  public static final byte NOT_NULL = 1;
+
+  private static final byte TERMINATOR = 0;
+  private static final byte ESCAPE = (byte) 0xFF;
+
+  private static final byte DECIMAL_NEGATIVE = 0;
+  private static final byte DECIMAL_ZERO = 1;
+  private static final byte DECIMAL_POSITIVE = 2;
+
+  private static final int RID_SIZE = 12;
+
+  private final OType[] keyTypes;
+  private final boolean multiValue;
+
+  public BinaryComparableKeyNormalizer(final OType[] keyTypes, final boolean multiValue) {
+    if (keyTypes == null || keyTypes.length == 0) {
+      throw new OIndexException("Types of fields should be provided upon of creation of index");
+    }
+
+    for (final OType keyType : keyTypes) {
+      if (!isSupported(keyType)) {
+        throw new OIndexException(
+            "Type " + keyType + " is not supported by index with normalized keys");
+      }
+    }
+
+    this.keyTypes = keyTypes.clone();
+    this.multiValue = multiValue;
+  }
+
+  public static boolean isSupported(final OType keyType) {
+    if (keyType == null) {
+      return false;
+    }
+
+    switch (keyType) {
+      case BOOLEAN:
+      case BYTE:
+      case SHORT:
+      case INTEGER:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+      case DATE:
+      case DATETIME:
+      case STRING:
+      case BINARY:
+      case DECIMAL:
+      case LINK:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Returns the smallest byte array which is bigger than all byte arrays which start with the
+   * passed in prefix.
+   */
+  public static byte[] upperBound(final byte[] prefix) {
+    final byte[] bound = Arrays.copyOf(prefix, prefix.length + 1);
+    bound[prefix.length] = ESCAPE;
+    return bound;
+  }
+
+  /**
+   * @return <code>true</code> if passed in key is composite key which contains less components
+   *     than the index.
+   */
+  public boolean isPartial(final Object key) {
+    return keyTypes.length > 1 && components(key).size() < keyTypes.length;
+  }
+
+  /**
+   * Normalizes key of single value index. Partial composite keys are accepted, the result is a
+   * prefix of the normalized forms of all full keys which start with the passed in components.
+   */
+  public byte[] normalize(final Object key) {
+    assert !multiValue;
+
+    final Output output = new Output();
+    writeComponents(output, key);
+    return output.toByteArray();
+  }
+
+  /**
+   * Normalizes key of multi value index. If RID is <code>null</code> the result is a prefix of the
+   * normalized forms of all entries of the passed in key.
+   */
+  public byte[] normalize(final Object key, final ORID rid) {
+    assert multiValue;
+
+    final Output output = new Output();
+    if (key == null) {
+      output.write(NULL);
+    } else {
+      output.write(NOT_NULL);
+      writeComponents(output, key);
+    }
+
+    if (rid != null) {
+      writeInt(output, rid.getClusterId());
+      writeLong(output, rid.getClusterPosition());
+    }
+
+    return output.toByteArray();
+  }
+
+  /** @return Key restored from its normalized form, RID suffix of multi value index is skipped. */
+  public Object denormalize(final byte[] normalizedKey) {
+    final Input input = new Input(normalizedKey);
+    if (multiValue && input.read() == NULL) {
+      return null;
+    }
+
+    final int end = multiValue ? normalizedKey.length - RID_SIZE : normalizedKey.length;
+    if (keyTypes.length == 1) {
+      return readComponent(input, keyTypes[0]);
+    }
+
+    final OCompositeKey compositeKey = new OCompositeKey();
+    for (int i = 0; i < keyTypes.length && input.position < end; i++) {
+      compositeKey.addKey(readComponent(input, keyTypes[i]));
+    }
+
+    return compositeKey;
+  }
+
+  private List<?> components(final Object key) {
+    if (key instanceof OCompositeKey) {
+      return ((OCompositeKey) key).getKeys();
+    }
+
+    return Collections.singletonList(key);
+  }
+
+  private void writeComponents(final Output output, final Object key) {
+    final List<?> components = components(key);
+    if (components.size() > keyTypes.length) {
+      throw new OIndexException(
+          "Key " + key + " contains more components than index, " + keyTypes.length);
+    }
+
+    for (int i = 0; i < components.size(); i++) {
+      writeComponent(output, components.get(i), keyTypes[i]);
+    }
+  }
+
+  private static void writeComponent(final Output output, Object value, final OType type) {
+    if (value == null) {
+      output.write(NULL);
+      return;
+    }
+
+    value = convert(value, type);
+    output.write(NOT_NULL);
+
+    switch (type) {
+      case BOOLEAN:
+        output.write((Boolean) value ? 1 : 0);
+        break;
+      case BYTE:
+        output.write((Byte) value ^ 0x80);
+        break;
+      case SHORT:
+        {
+          final int shortValue = (Short) value ^ 0x8000;
+          output.write(shortValue >>> 8);
+          output.write(shortValue);
+        }
+        break;
+      case INTEGER:
+        writeInt(output, (Integer) value);
+        break;
+      case LONG:
+        writeLong(output, (Long) value);
+        break;
+      case FLOAT:
+        {
+          final int bits = Float.floatToIntBits((Float) value);
+          writeRawInt(output, bits < 0 ? ~bits : bits ^ Integer.MIN_VALUE);
+        }
+        break;
+      case DOUBLE:
+        {
+          final long bits = Double.doubleToLongBits((Double) value);
+          writeRawLong(output, bits < 0 ? ~bits : bits ^ Long.MIN_VALUE);
+        }
+        break;
+      case DATE:
+      case DATETIME:
+        writeLong(output, ((Date) value).getTime());
+        break;
+      case STRING:
+        writeString(output, (String) value);
+        break;
+      case BINARY:
+        writeEscaped(output, (byte[]) value);
+        break;
+      case DECIMAL:
+        writeDecimal(output, (BigDecimal) value);
+        break;
+      case LINK:
+        {
+          final ORID rid = ((OIdentifiable) value).getIdentity();
+          writeInt(output, rid.getClusterId());
+          writeLong(output, rid.getClusterPosition());
+        }
+        break;
+      default:
+        throw new OIndexException("Type " + type + " is not supported by normalized keys");
+    }
+  }
+
+  private static Object convert(final Object value, final OType type) {
+    Object converted = OType.convert(value, type.getDefaultJavaType());
+    if (converted == null) {
+      throw new OIndexException("Value " + value + " can not be converted to " + type);
+    }
+
+    if (type == OType.DATE) {
+      converted = ODateSerializer.INSTANCE.preprocess((Date) converted);
+    }
+
+    return converted;
+  }
+
+  private static Object readComponent(final Input input, final OType type) {
+    if (input.read() == NULL) {
+      return null;
+    }
+
+    switch (type) {
+      case BOOLEAN:
+        return input.read() != 0;
+      case BYTE:
+        return (byte) (input.read() ^ 0x80);
+      case SHORT:
+        return (short) (((input.read() << 8) | input.read()) ^ 0x8000);
+      case INTEGER:
+        return readRawInt(input) ^ Integer.MIN_VALUE;
+      case LONG:
+        return readRawLong(input) ^ Long.MIN_VALUE;
+      case FLOAT:
+        {
+          final int bits = readRawInt(input);
+          return Float.intBitsToFloat(bits < 0 ? bits ^ Integer.MIN_VALUE : ~bits);
+        }
+      case DOUBLE:
+        {
+          final long bits = readRawLong(input);
+          return Double.longBitsToDouble(bits < 0 ? bits ^ Long.MIN_VALUE : ~bits);
+        }
+      case DATE:
+      case DATETIME:
+        return new Date(readRawLong(input) ^ Long.MIN_VALUE);
+      case STRING:
+        return readString(input);
+      case BINARY:
+        return readEscaped(input);
+      case DECIMAL:
+        return readDecimal(input);
+      case LINK:
+        {
+          final int clusterId = readRawInt(input) ^ Integer.MIN_VALUE;
+          final long clusterPosition = readRawLong(input) ^ Long.MIN_VALUE;
+          return new ORecordId(clusterId, clusterPosition);
+        }
+      default:
+        throw new OIndexException("Type " + type + " is not supported by normalized keys");
+    }
+  }
+
+  private static void writeInt(final Output output, final int value) {
+    writeRawInt(output, value ^ Integer.MIN_VALUE);
+  }
+
+  private static void writeLong(final Output output, final long value) {
+    writeRawLong(output, value ^ Long.MIN_VALUE);
+  }
+
+  private static void writeRawInt(final Output output, final int value) {
+    output.write(value >>> 24);
+    output.write(value >>> 16);
+    output.write(value >>> 8);
+    output.write(value);
+  }
+
+  private static void writeRawLong(final Output output, final long value) {
+    writeRawInt(output, (int) (value >>> 32));
+    writeRawInt(output, (int) value);
+  }
+
+  private static int readRawInt(final Input input) {
+    return (input.read() << 24) | (input.read() << 16) | (input.read() << 8) | input.read();
+  }
+
+  private static long readRawLong(final Input input) {
+    return ((long) readRawInt(input) << 32) | (readRawInt(input) & 0xFFFFFFFFL);
+  }
+
+  private static void writeEscaped(final Output output, final byte[] value) {
+    for (final byte b : value) {
+      writeEscaped(output, b);
+    }
+
+    output.write(TERMINATOR);
+  }
+
+  /** Chars are written directly, so unpaired surrogates are preserved unlike UTF-16 encoder. */
+  private static void writeString(final Output output, final String value) {
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      writeEscaped(output, (byte) (c >>> 8));
+      writeEscaped(output, (byte) c);
+    }
+
+    output.write(TERMINATOR);
+  }
+
+  private static void writeEscaped(final Output output, final byte b) {
+    output.write(b);
+    if (b == TERMINATOR) {
+      output.write(ESCAPE);
+    }
+  }
+
+  private static String readString(final Input input) {
+    final byte[] bytes = readEscaped(input);
+    final char[] chars = new char[bytes.length >> 1];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = (char) (((bytes[i << 1] & 0xFF) << 8) | (bytes[(i << 1) + 1] & 0xFF));
+    }
+
+    return new String(chars);
+  }
+
+  private static byte[] readEscaped(final Input input) {
+    final Output value = new Output();
+    while (true) {
+      final int b = input.read();
+      if (b == TERMINATOR) {
+        if (!input.hasNext() || input.peek() != (ESCAPE & 0xFF)) {
+          return value.toByteArray();
+        }
+        input.read();
+      }
+
+      value.write(b);
+    }
+  }
+
+  /**
+   * Decimal is presented as 0.d1d2...dn * 10^exponent, where d1 is not zero, so numbers with bigger
+   * exponent are bigger, and numbers with the same exponent are ordered by their digits.
+   */
+  private static void writeDecimal(final Output output, final BigDecimal value) {
+    final int signum = value.signum();
+    if (signum == 0) {
+      output.write(DECIMAL_ZERO);
+      return;
+    }
+
+    final BigDecimal normalized = value.abs().stripTrailingZeros();
+    final String digits = normalized.unscaledValue().toString();
+    final int exponent = digits.length() - normalized.scale();
+
+    output.write(signum > 0 ? DECIMAL_POSITIVE : DECIMAL_NEGATIVE);
+    final int mask = signum > 0 ? 0 : 0xFF;
+
+    final int biasedExponent = exponent ^ Integer.MIN_VALUE;
+    output.write((biasedExponent >>> 24) ^ mask);
+    output.write((biasedExponent >>> 16) ^ mask);
+    output.write((biasedExponent >>> 8) ^ mask);
+    output.write(biasedExponent ^ mask);
+
+    for (int i = 0; i < digits.length(); i++) {
+      output.write((digits.charAt(i) - '0' + 1) ^ mask);
+    }
+    output.write(TERMINATOR ^ mask);
+  }
+
+  private static BigDecimal readDecimal(final Input input) {
+    final int sign = input.read();
+    if (sign == DECIMAL_ZERO) {
+      return BigDecimal.ZERO;
+    }
+
+    final int mask = sign == DECIMAL_POSITIVE ? 0 : 0xFF;
+
+    int biasedExponent = 0;
+    for (int i = 0; i < 4; i++) {
+      biasedExponent = (biasedExponent << 8) | (input.read() ^ mask);
+    }
+    final int exponent = biasedExponent ^ Integer.MIN_VALUE;
+
+    final StringBuilder digits = new StringBuilder();
+    int digit;
+    while ((digit = input.read() ^ mask) != TERMINATOR) {
+      digits.append((char) ('0' + digit - 1));
+    }
+
+    final BigInteger unscaled = new BigInteger(digits.toString());
+    final BigDecimal result = new BigDecimal(unscaled, digits.length() - exponent);
+    return mask == 0 ? result : result.negate();
+  }
+
+  private static final class Output {
+    private byte[] buffer = new byte[32];
+    private int size;
+
+    private void write(final int b) {
+      if (size == buffer.length) {
+        buffer = Arrays.copyOf(buffer, buffer.length << 1);
+      }
+
+      buffer[size++] = (byte) b;
+    }
+
+    private byte[] toByteArray() {
+      return Arrays.copyOf(buffer, size);
+    }
+  }
+
+  private static final class Input {
+    private final byte[] buffer;
+    private int position;
+
+    private Input(final byte[] buffer) {
+      this.buffer = buffer;
+    }
+
+    private int read() {
+      return buffer[position++] & 0xFF;
+    }
+
+    private int peek() {
+      return buffer[position] & 0xFF;
+    }
+
+    private boolean hasNext() {
+      return position < buffer.length;
+    }
+  }
+}
@@ -30,6 +30,8 @@ import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.id.ORecordId;
 import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODurablePage;
+import com.orientechnologies.orient.core.storage.index.nkbtree.NormalizedKey;
+import com.orientechnologies.orient.core.storage.index.nkbtree.NormalizedKeySerializer;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -87,6 +89,10 @@ public final class CellBTreeSingleValueBucketV3<K> extends ODurablePage {
   }
 
   public int find(final K key, final OBinarySerializer<K> keySerializer) {
+    if (key instanceof NormalizedKey) {
+      return findNormalizedKey(((NormalizedKey) key).getBytes());
+    }
+
     int low = 0;
     int high = size() - 1;
 
@@ -107,6 +113,34 @@ public final class CellBTreeSingleValueBucketV3<K> extends ODurablePage {
     return -(low + 1); // key not found.
   }
 
+  /**
+   * Binary search of the normalized key which compares keys inside of the page, so keys of the
+   * page are not copied on every probe. {@link NormalizedKeySerializer} stores keys as byte arrays
+   * prefixed by their length.
+   */
+  private int findNormalizedKey(final byte[] key) {
+    int low = 0;
+    int high = size() - 1;
+
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      final int keyPosition = getKeyPosition(mid);
+      final int cmp =
+          compareBinaryValue(
+              keyPosition + OIntegerSerializer.INT_SIZE, getIntValue(keyPosition), key);
+
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return mid; // key found
+      }
+    }
+
+    return -(low + 1); // key not found.
+  }
+
   public int removeLeafEntry(final int entryIndex, byte[] key) {
     final int entryPosition =
         getIntValue(POSITIONS_ARRAY_OFFSET + entryIndex * OIntegerSerializer.INT_SIZE);
@@ -328,13 +362,17 @@ public final class CellBTreeSingleValueBucketV3<K> extends ODurablePage {
   }
 
   public K getKey(final int index, final OBinarySerializer<K> keySerializer) {
+    return deserializeFromDirectMemory(keySerializer, getKeyPosition(index));
+  }
+
+  private int getKeyPosition(final int index) {
     int entryPosition = getIntValue(index * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET);
 
     if (!isLeaf()) {
       entryPosition += 2 * OIntegerSerializer.INT_SIZE;
     }
 
-    return deserializeFromDirectMemory(keySerializer, entryPosition);
+    return entryPosition;
   }
 
   public byte[] getRawKey(final int index, final OBinarySerializer<K> keySerializer) {
@@ -220,6 +220,11 @@ public final class ODirectMemoryOnlyDiskCache extends OAbstractWriteCache
     return loadForRead(extFileId, pageIndex, false, writeCache, verifyChecksums);
   }
 
+  @Override
+  public void readAhead(final long fileId, final long[] pageIndexes, final OWriteCache writeCache) {
+    // all pages are kept in memory, nothing to load
+  }
+
   private OCacheEntry doLoad(final long fileId, final long pageIndex) {
     final int intId = extractFileId(fileId);
 
@@ -26,6 +26,8 @@ import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.Socket;
 
 public class OChannelBinaryServer extends OChannelBinary {
@@ -46,4 +48,25 @@ public class OChannelBinaryServer extends OChannelBinary {
     in = new DataInputStream(inStream);
     connected();
   }
+
+  /**
+   * Creates a channel on top of the given raw streams instead of the ones of the socket. Used when
+   * the socket is driven by a selector, the input stream is expected to do its own buffering.
+   */
+  public OChannelBinaryServer(
+      final Socket iSocket,
+      final InputStream iInput,
+      final OutputStream iOutput,
+      final OContextConfiguration iConfig)
+      throws IOException {
+    super(iSocket, iConfig);
+
+    inStream = iInput;
+    if (socketBufferSize > 0) outStream = new BufferedOutputStream(iOutput, socketBufferSize);
+    else outStream = new BufferedOutputStream(iOutput);
+
+    out = new DataOutputStream(outStream);
+    in = new DataInputStream(inStream);
+    connected();
+  }
 }
@@ -0,0 +1,68 @@
+package com.orientechnologies.orient.core.compression.impl;
+
+import com.orientechnologies.orient.core.compression.OCompression;
+import com.orientechnologies.orient.core.compression.OCompressionFactory;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OLZ4CompressionTest {
+
+  @Test
+  public void testCompressUncompress() {
+    assertRoundTrip(OCompressionFactory.INSTANCE.getCompression(OLZ4Compression.NAME, null));
+  }
+
+  @Test
+  public void testHighCompressUncompress() {
+    assertRoundTrip(OCompressionFactory.INSTANCE.getCompression(OLZ4HighCompression.NAME, null));
+  }
+
+  @Test
+  public void testHighCompressionIsCompatible() {
+    final byte[] content = content(new Random(42), 16 * 1024);
+    final byte[] compressed = OLZ4HighCompression.INSTANCE.compress(content);
+
+    Assert.assertArrayEquals(content, OLZ4Compression.INSTANCE.uncompress(compressed));
+  }
+
+  private static void assertRoundTrip(final OCompression compression) {
+    final Random random = new Random(42);
+
+    for (final int size : new int[] {0, 1, 100, 8 * 1024, 64 * 1024}) {
+      final byte[] content = content(random, size);
+
+      final byte[] compressed = compression.compress(content);
+      Assert.assertArrayEquals(content, compression.uncompress(compressed));
+
+      // content with offset, as WAL records are compressed without their header
+      final byte[] data = new byte[size + 10];
+      System.arraycopy(content, 0, data, 5, size);
+      final byte[] compressedPart = compression.compress(data, 5, size);
+
+      final byte[] padded = new byte[compressedPart.length + 3];
+      System.arraycopy(compressedPart, 0, padded, 3, compressedPart.length);
+      Assert.assertArrayEquals(content, compression.uncompress(padded, 3, compressedPart.length));
+
+      if (size >= 8 * 1024) {
+        Assert.assertTrue(compressed.length < size);
+      }
+    }
+  }
+
+  /** Generates content which is partially repeated, so it can be compressed. */
+  private static byte[] content(final Random random, final int size) {
+    final byte[] content = new byte[size];
+    final byte[] pattern = new byte[64];
+    random.nextBytes(pattern);
+
+    for (int i = 0; i < size; i += pattern.length) {
+      if (random.nextInt(4) == 0) {
+        random.nextBytes(pattern);
+      }
+      System.arraycopy(pattern, 0, content, i, Math.min(pattern.length, size - i));
+    }
+
+    return content;
+  }
+}
@@ -0,0 +1,160 @@
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.exception.OInvalidIndexEngineIdException;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.index.engine.OBaseIndexEngine;
+import com.orientechnologies.orient.core.index.engine.v1.ONKBTreeMultiValueIndexEngine;
+import com.orientechnologies.orient.core.index.engine.v1.ONKBTreeSingleValueIndexEngine;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.core.storage.ORecordDuplicatedException;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NKBTreeIndexTest {
+  private OrientDB orientDB;
+  private ODatabaseSession db;
+
+  @Before
+  public void before() {
+    orientDB = new OrientDB("embedded:", OrientDBConfig.defaultConfig());
+    orientDB.create(NKBTreeIndexTest.class.getSimpleName(), ODatabaseType.MEMORY);
+    db = orientDB.open(NKBTreeIndexTest.class.getSimpleName(), "admin", "admin");
+
+    final OClass person = db.createClass("Person");
+    person.createProperty("name", OType.STRING);
+    person.createProperty("surname", OType.STRING);
+    person.createProperty("age", OType.INTEGER);
+    person.createProperty("email", OType.STRING);
+  }
+
+  @After
+  public void after() {
+    db.close();
+    orientDB.drop(NKBTreeIndexTest.class.getSimpleName());
+    orientDB.close();
+  }
+
+  @Test
+  public void testUniqueIndex() {
+    db.command("create index Person.email on Person (email) UNIQUE ENGINE NKBTREE").close();
+
+    final OIndex index = getIndex("Person.email");
+    Assert.assertEquals("NKBTREE", index.getAlgorithm());
+    Assert.assertTrue(engine(index) instanceof ONKBTreeSingleValueIndexEngine);
+
+    for (int i = 0; i < 100; i++) {
+      db.save(new ODocument("Person").field("email", "user" + i + "@example.com"));
+    }
+
+    try (Stream<ORID> rids = index.getInternal().getRids("user42@example.com")) {
+      Assert.assertEquals(1, rids.count());
+    }
+    try (Stream<ORID> rids = index.getInternal().getRids("user100@example.com")) {
+      Assert.assertEquals(0, rids.count());
+    }
+
+    try {
+      db.save(new ODocument("Person").field("email", "user42@example.com"));
+      Assert.fail("Expected record duplicate exception");
+    } catch (ORecordDuplicatedException e) {
+      Assert.assertEquals("user42@example.com", e.getKey());
+    }
+
+    try (OResultSet result =
+        db.query(
+            "select from Person where email >= 'user10@' and email < 'user2' order by email")) {
+      final List<String> emails =
+          result.stream().map((r) -> (String) r.getProperty("email")).collect(Collectors.toList());
+      Assert.assertEquals(11, emails.size());
+      Assert.assertEquals("user10@example.com", emails.get(0));
+      Assert.assertEquals("user1@example.com", emails.get(emails.size() - 1));
+    }
+  }
+
+  @Test
+  public void testCompositeNotUniqueIndexWithCollation() {
+    db.command(
+            "create index Person.name_surname_age on Person"
+                + " (name collate ci, surname, age) NOTUNIQUE ENGINE NKBTREE")
+        .close();
+
+    final OIndex index = getIndex("Person.name_surname_age");
+    Assert.assertTrue(engine(index) instanceof ONKBTreeMultiValueIndexEngine);
+
+    for (int i = 0; i < 100; i++) {
+      db.save(
+          new ODocument("Person")
+              .field("name", i % 2 == 0 ? "John" : "JOHN")
+              .field("surname", "Smith")
+              .field("age", i % 10 - 5));
+    }
+    db.save(new ODocument("Person").field("name", "Johnny").field("surname", "Smith"));
+    db.save(new ODocument("Person").field("name", "Jane").field("surname", "Doe").field("age", 1));
+
+    try (OResultSet result = db.query("select from Person where name = 'john'")) {
+      Assert.assertEquals(100, result.stream().count());
+    }
+
+    try (OResultSet result =
+        db.query("select from Person where name = 'john' and surname = 'Smith' and age = -3")) {
+      Assert.assertEquals(10, result.stream().count());
+    }
+
+    try (OResultSet result =
+        db.query(
+            "select from Person where name = 'john' and surname = 'Smith' and age between -1 and"
+                + " 1")) {
+      Assert.assertEquals(30, result.stream().count());
+    }
+
+    try (OResultSet result =
+        db.query(
+            "select from Person where name = 'JOHN' and surname = 'Smith' and age > 2 order by"
+                + " age desc")) {
+      final List<Integer> ages =
+          result.stream().map((r) -> (Integer) r.getProperty("age")).collect(Collectors.toList());
+      Assert.assertEquals(20, ages.size());
+      Assert.assertEquals(4, (int) ages.get(0));
+      Assert.assertEquals(3, (int) ages.get(ages.size() - 1));
+    }
+
+    try (Stream<ORID> rids =
+        index.getInternal().getRids(new OCompositeKey("jane", "Doe", 1))) {
+      Assert.assertEquals(1, rids.count());
+    }
+
+    db.command("delete from Person where age = -5").close();
+    try (OResultSet result = db.query("select from Person where name = 'john'")) {
+      Assert.assertEquals(90, result.stream().count());
+    }
+  }
+
+  private OIndex getIndex(final String name) {
+    final ODatabaseDocumentInternal database = (ODatabaseDocumentInternal) db;
+    return database.getMetadata().getIndexManagerInternal().getIndex(database, name);
+  }
+
+  private OBaseIndexEngine engine(final OIndex index) {
+    final ODatabaseDocumentInternal database = (ODatabaseDocumentInternal) db;
+    try {
+      return ((OAbstractPaginatedStorage) database.getStorage())
+          .getIndexEngine(((OIndexAbstract) index.getInternal()).getIndexId());
+    } catch (OInvalidIndexEngineIdException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package com.orientechnologies.orient.core.metadata.schema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.metadata.schema.clusterselection.OClusterSelectionStrategy;
+import com.orientechnologies.orient.core.metadata.schema.clusterselection.OThreadAffinityClusterSelectionStrategy;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ThreadAffinityClusterSelectionTest {
+
+  private ODatabaseDocument db;
+
+  @Before
+  public void before() {
+    db =
+        new ODatabaseDocumentTx(
+            "memory:" + ThreadAffinityClusterSelectionTest.class.getSimpleName());
+    db.create();
+  }
+
+  @After
+  public void after() {
+    db.drop();
+  }
+
+  @Test
+  public void testSingleThreadUsesSingleCluster() {
+    final OClass clazz = db.getMetadata().getSchema().createClass("Affinity", 8);
+    clazz.setClusterSelection(OThreadAffinityClusterSelectionStrategy.NAME);
+    assertEquals(
+        OThreadAffinityClusterSelectionStrategy.NAME, clazz.getClusterSelection().getName());
+
+    final Set<Integer> clusters = new HashSet<>();
+    db.begin();
+    for (int i = 0; i < 32; i++) {
+      final ODocument document = new ODocument("Affinity");
+      document.field("value", i);
+      document.save();
+    }
+    db.commit();
+
+    for (ODocument document : db.browseClass("Affinity")) {
+      clusters.add(document.getIdentity().getClusterId());
+    }
+
+    assertEquals(1, clusters.size());
+    assertEquals(32, db.countClass("Affinity"));
+  }
+
+  @Test
+  public void testConcurrentThreadsUseDistinctClusters() throws Exception {
+    final OClusterSelectionStrategy strategy = new OThreadAffinityClusterSelectionStrategy();
+    final int[] clusters = {10, 11, 12, 13};
+
+    final CountDownLatch started = new CountDownLatch(clusters.length);
+    final ExecutorService executor = Executors.newFixedThreadPool(clusters.length);
+    try {
+      final List<Future<Integer>> futures = new ArrayList<>();
+      for (int i = 0; i < clusters.length; i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  // every task runs in its own thread
+                  started.countDown();
+                  started.await();
+
+                  final int cluster = strategy.getCluster(null, clusters, null);
+                  assertEquals(cluster, strategy.getCluster(null, clusters, null));
+                  return cluster;
+                }));
+      }
+
+      final Set<Integer> selected = new HashSet<>();
+      for (Future<Integer> future : futures) {
+        assertTrue(selected.add(future.get()));
+      }
+      assertEquals(clusters.length, selected.size());
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
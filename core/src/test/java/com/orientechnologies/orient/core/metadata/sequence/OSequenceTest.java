@@ -9,10 +9,15 @@ import com.orientechnologies.orient.core.exception.ODatabaseException;
 import com.orientechnologies.orient.core.exception.OSequenceException;
 import com.orientechnologies.orient.core.record.OVertex;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Assert;
 import org.junit.Before;
@@ -115,6 +120,51 @@ public class OSequenceTest {
     assertThat(myseq.current()).isEqualTo(120);
   }
 
+  @Test
+  public void shouldGiveUniqueValuesFromStripes() throws Exception {
+    OSequence.CreateParams params =
+        new OSequence.CreateParams().setDefaults().setCacheSize(10).setStripes(4);
+    sequences.createSequence("stripedSeq", OSequence.SEQUENCE_TYPE.CACHED, params);
+
+    final int threads = 8;
+    final int count = 1000;
+    final Set<Long> values = ConcurrentHashMap.newKeySet();
+    ExecutorService service = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(
+            service.submit(
+                () -> {
+                  try (ODatabaseDocument databaseDocument =
+                      new ODatabaseDocumentTx("memory:" + OSequenceTest.class.getSimpleName())) {
+                    databaseDocument.open("admin", "admin");
+                    OSequence seq =
+                        databaseDocument
+                            .getMetadata()
+                            .getSequenceLibrary()
+                            .getSequence("stripedSeq");
+                    for (int j = 0; j < count; j++) {
+                      assertThat(values.add(seq.next())).isTrue();
+                    }
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      service.shutdown();
+    }
+
+    assertThat(values).hasSize(threads * count);
+    assertThat(values).allMatch(value -> value > 0);
+
+    OSequence seq = sequences.getSequence("stripedSeq");
+    seq.reloadSequence();
+    assertThat(seq.getDocument().<Long>field("value")).isGreaterThanOrEqualTo(threads * count);
+  }
+
   @Test(expected = OSequenceException.class)
   public void shouldThrowExceptionOnDuplicateSeqDefinition() throws Exception {
     sequences.createSequence("mySeq", OSequence.SEQUENCE_TYPE.ORDERED, null);
@@ -0,0 +1,131 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.OCreateDatabaseUtil;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures full scans of a class with selective WHERE conditions, evaluated on the serialized
+ * records or on the deserialized documents.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@Fork(1)
+public class OBinaryFilterScanBenchmark {
+  private static final String DB_NAME = "binaryFilterScanBenchmark";
+  private static final String CLASS_NAME = "Item";
+
+  @Param({"true", "false"})
+  public boolean binaryFilter;
+
+  @Param({"200000"})
+  public int size;
+
+  private OrientDB orientDB;
+  private ODatabaseSession session;
+
+  public static void main(String[] args) throws RunnerException {
+    final Options opt =
+        new OptionsBuilder()
+            .include("OBinaryFilterScanBenchmark.*")
+            .addProfiler(GCProfiler.class)
+            .jvmArgs("-server", "-Xmx2G", "-Xms2G")
+            .build();
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    OGlobalConfiguration.QUERY_BINARY_FILTER.setValue(binaryFilter);
+    orientDB =
+        OCreateDatabaseUtil.createDatabase(DB_NAME, "memory:", OCreateDatabaseUtil.TYPE_MEMORY);
+    session = orientDB.open(DB_NAME, "admin", OCreateDatabaseUtil.NEW_ADMIN_PASSWORD);
+    final OClass clazz = session.getMetadata().getSchema().createClass(CLASS_NAME);
+    clazz.createProperty("id", OType.INTEGER);
+    clazz.createProperty("code", OType.STRING);
+    clazz.createProperty("amount", OType.LONG);
+
+    session.begin();
+    for (int i = 0; i < size; i++) {
+      final ODocument doc = new ODocument(CLASS_NAME);
+      doc.setProperty("id", i);
+      doc.setProperty("code", "code" + i);
+      doc.setProperty("amount", (long) (i % 1000));
+      doc.setProperty("description", "description of the item number " + i);
+      doc.setProperty("category", "category" + (i % 50));
+      session.save(doc);
+      if (i % 1000 == 999) {
+        session.commit();
+        session.begin();
+      }
+    }
+    session.commit();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    session.close();
+    orientDB.drop(DB_NAME);
+    orientDB.close();
+  }
+
+  @Benchmark
+  public long equalsInteger() {
+    return count("select from " + CLASS_NAME + " where id = 12345");
+  }
+
+  @Benchmark
+  public long equalsString() {
+    return count("select from " + CLASS_NAME + " where code = 'code12345'");
+  }
+
+  @Benchmark
+  public long betweenAndEquals() {
+    return count(
+        "select from "
+            + CLASS_NAME
+            + " where amount between 10 and 12 and category = 'category11'");
+  }
+
+  @Benchmark
+  public long in() {
+    return count("select from " + CLASS_NAME + " where id in [10, 1000, 100000]");
+  }
+
+  private long count(String query) {
+    long count = 0;
+    try (OResultSet result = session.query(query)) {
+      while (result.hasNext()) {
+        result.next();
+        count++;
+      }
+    }
+    return count;
+  }
+}
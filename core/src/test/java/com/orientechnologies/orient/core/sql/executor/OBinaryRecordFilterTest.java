@@ -0,0 +1,146 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
+import com.orientechnologies.orient.core.sql.parser.OSelectStatement;
+import com.orientechnologies.orient.core.sql.parser.OStatementCache;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class OBinaryRecordFilterTest extends TestUtilsFixture {
+
+  private static String className;
+
+  @BeforeClass
+  public static void createRecords() {
+    className = createEvaluationRecords();
+  }
+
+  @Test
+  public void shouldReturnSameResultsAsRegularEvaluation() {
+    String[] conditions = {
+      "value = 10",
+      "value <> 10",
+      "value < 10",
+      "value <= 10",
+      "value > 90",
+      "value >= 90",
+      "amount = 5000",
+      "amount > 10",
+      "value = 10000000000",
+      "value in [1, 5, 8]",
+      "value between 10 and 20",
+      "tag = 'tag3'",
+      "tag > 'tag7'",
+      "tag in ['tag1', 'tag2']",
+      "name = 'name4'",
+      "flag = true",
+      "flag <> false",
+      "note is null",
+      "note is not null",
+      "value = '10'",
+      "value < 10 and tag = 'tag3'",
+      "value < 10 or tag = 'tag3'",
+      "not (value < 50)",
+      "value < 50 and note is not null and name like 'N%'",
+      "(value = 3 or value = 4) and tag like 'tag%'"
+    };
+    for (String condition : conditions) {
+      String query = "select from " + className + " where " + condition;
+      Assert.assertEquals(query, select(query, false), select(query, true));
+    }
+  }
+
+  @Test
+  public void shouldNotDeserializeRecords() {
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) database;
+    OBasicCommandContext ctx = new OBasicCommandContext();
+    ctx.setDatabase(db);
+    OSelectStatement statement =
+        (OSelectStatement)
+            OStatementCache.get("select from " + className + " where value between 10 and 20", db);
+    OBinaryRecordFilter filter = OBinaryRecordFilter.compile(statement.getWhereClause(), ctx);
+    Assert.assertNotNull(filter);
+
+    int matching = 0;
+    for (ORID rid : select("select from " + className, false)) {
+      db.getLocalCache().clear();
+      ODocument doc = db.load(rid);
+      Boolean result = filter.matches(new OResultInternal(doc));
+      Assert.assertNotNull(result);
+      if (result) {
+        matching++;
+      }
+      Assert.assertFalse(ODocumentInternal.rawContainsField(doc, "value"));
+    }
+    Assert.assertEquals(11, matching);
+  }
+
+  @Test
+  public void shouldNotCompileConditionsOnComputedValues() {
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) database;
+    OBasicCommandContext ctx = new OBasicCommandContext();
+    ctx.setDatabase(db);
+    OSelectStatement statement =
+        (OSelectStatement)
+            OStatementCache.get(
+                "select from " + className + " where value + 1 = 3 or name like 'a%'", db);
+    Assert.assertNull(OBinaryRecordFilter.compile(statement.getWhereClause(), ctx));
+  }
+
+  @Test
+  public void shouldNotEvaluatePropertiesHiddenBySecurityPolicies() {
+    database.command("CREATE SECURITY POLICY hideNote SET read = (value < 0)");
+    database.command(
+        "ALTER ROLE reader SET POLICY hideNote ON database.class." + className + ".note");
+    database.command("CREATE USER binaryFilterReader IDENTIFIED BY 'reader' ROLE reader");
+    String[] conditions = {
+      "note = 'note10'",
+      "note > 'a'",
+      "note is null",
+      "note is not null",
+      "value < 10 or note = 'note10'"
+    };
+    try (ODatabaseSession reader =
+        factory.open(database.getName(), "binaryFilterReader", "reader")) {
+      for (String condition : conditions) {
+        String query = "select from " + className + " where " + condition;
+        Assert.assertEquals(query, select(reader, query, false), select(reader, query, true));
+      }
+      Assert.assertTrue(
+          select(reader, "select from " + className + " where note = 'note10'", true).isEmpty());
+      Assert.assertEquals(
+          100, select(reader, "select from " + className + " where note is null", true).size());
+    } finally {
+      database.activateOnCurrentThread();
+      database.command("DROP USER binaryFilterReader");
+      database.command("ALTER ROLE reader REMOVE POLICY ON database.class." + className + ".note");
+    }
+  }
+
+  private Set<ORID> select(String query, boolean binaryFilter) {
+    return select(database, query, binaryFilter);
+  }
+
+  private Set<ORID> select(ODatabaseDocument session, String query, boolean binaryFilter) {
+    return withSetting(
+        OGlobalConfiguration.QUERY_BINARY_FILTER,
+        binaryFilter,
+        () -> {
+          try (OResultSet result = session.query(query)) {
+            Set<ORID> rids = new HashSet<>();
+            result.forEachRemaining(x -> rids.add(x.getIdentity().get()));
+            return rids;
+          }
+        });
+  }
+}
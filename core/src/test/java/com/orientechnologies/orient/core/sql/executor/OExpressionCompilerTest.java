@@ -0,0 +1,131 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.sql.parser.OExpressionCompiler;
+import com.orientechnologies.orient.core.sql.parser.OSelectStatement;
+import com.orientechnologies.orient.core.sql.parser.OStatementCache;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class OExpressionCompilerTest extends TestUtilsFixture {
+
+  private static String className;
+
+  @BeforeClass
+  public static void createRecords() {
+    className = createEvaluationRecords();
+  }
+
+  @Test
+  public void shouldReturnSameResultsAsInterpreter() {
+    String[] conditions = {
+      "value = 10",
+      "value <> 10 and value < 20",
+      "value + 1 = 11",
+      "value * 2 > 190",
+      "value between 10 and 20",
+      "value in [1, 5, 8]",
+      "tag in ['tag1', 'tag2']",
+      "name = 'name4'",
+      "name in ['name4', 'NAME5']",
+      "note is null",
+      "note is not null and value < 50",
+      "not (value < 50)",
+      "(value = 3 or value = 4) and tag like 'tag%'",
+      "nested.value > 50",
+      "tags contains 'tag3'",
+      "name.toLowerCase() = 'name6'",
+      "any() = 'tag1'",
+      "value in (select value from " + className + " where value < 3)"
+    };
+    for (String condition : conditions) {
+      String query = "select from " + className + " where " + condition;
+      Assert.assertEquals(query, query(query, false), query(query, true));
+    }
+  }
+
+  @Test
+  public void shouldCalculateSameProjectionsAsInterpreter() {
+    String[] projections = {
+      "value, name",
+      "value + 1 as next, 'constant' as text, [1, 2] as list",
+      "value * 2 + 1 as calculated, nested.value as nestedValue, tags",
+      "name.toUpperCase() as upper, @rid as rid, @class as className",
+      "*, value + 1 as next"
+    };
+    for (String projection : projections) {
+      String query = "select " + projection + " from " + className + " where value < 20";
+      Assert.assertEquals(query, query(query, false), query(query, true));
+    }
+  }
+
+  @Test
+  public void shouldUseInputParameters() {
+    String query = "select value, :text as text from " + className + " where value in :values";
+    Map<String, Object> params = new HashMap<>();
+    params.put("values", Arrays.asList(3, 30, 300));
+    params.put("text", "a");
+    List<Map<String, Object>> compiled = query(query, true, params);
+    Assert.assertEquals(query(query, false, params), compiled);
+    Assert.assertEquals(2, compiled.size());
+
+    params.put("values", Arrays.asList(4));
+    params.put("text", "b");
+    compiled = query(query, true, params);
+    Assert.assertEquals(1, compiled.size());
+    Assert.assertEquals(4, (int) compiled.get(0).get("value"));
+    Assert.assertEquals("b", compiled.get(0).get("text"));
+  }
+
+  @Test
+  public void shouldNotCompileUnsupportedConditions() {
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) database;
+    OBasicCommandContext ctx = new OBasicCommandContext();
+    ctx.setDatabase(db);
+    OSelectStatement supported =
+        (OSelectStatement)
+            OStatementCache.get(
+                "select from " + className + " where value = 1 or name.toLowerCase() = 'a'", db);
+    Assert.assertNotNull(OExpressionCompiler.compile(supported.getWhereClause(), ctx));
+
+    OSelectStatement unsupported =
+        (OSelectStatement)
+            OStatementCache.get(
+                "select from " + className + " where name.toLowerCase() = 'a' or any() = 'b'", db);
+    Assert.assertNull(OExpressionCompiler.compile(unsupported.getWhereClause(), ctx));
+  }
+
+  private List<Map<String, Object>> query(String query, boolean compiled) {
+    return query(query, compiled, new HashMap<>());
+  }
+
+  private List<Map<String, Object>> query(
+      String query, boolean compiled, Map<String, Object> params) {
+    return withSetting(
+        OGlobalConfiguration.QUERY_COMPILED_EXPRESSIONS,
+        compiled,
+        () -> {
+          try (OResultSet result = database.query(query, params)) {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            while (result.hasNext()) {
+              OResult item = result.next();
+              Map<String, Object> row = new HashMap<>();
+              for (String name : item.getPropertyNames()) {
+                row.put(name, item.getProperty(name));
+              }
+              item.getIdentity().ifPresent(rid -> row.put("@rid", rid));
+              rows.add(row);
+            }
+            return rows;
+          }
+        });
+  }
+}
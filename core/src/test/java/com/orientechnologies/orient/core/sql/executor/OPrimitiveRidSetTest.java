@@ -0,0 +1,98 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OPrimitiveRidSetTest {
+
+  @Test
+  public void testAddContainsRemove() {
+    try (OPrimitiveRidSet set = new OPrimitiveRidSet()) {
+      final ORID rid = new ORecordId(12, 100);
+      Assert.assertFalse(set.contains(rid));
+      Assert.assertTrue(set.add(rid));
+      Assert.assertFalse(set.add(new ORecordId(12, 100)));
+      Assert.assertTrue(set.contains(new ORecordId(12, 100)));
+      Assert.assertTrue(set.contains(12, 100));
+      Assert.assertFalse(set.contains(new ORecordId(12, 101)));
+      Assert.assertFalse(set.contains(new ORecordId(13, 100)));
+      Assert.assertEquals(1, set.size());
+
+      Assert.assertTrue(set.remove(rid));
+      Assert.assertFalse(set.contains(rid));
+      Assert.assertTrue(set.isEmpty());
+    }
+  }
+
+  @Test
+  public void testNegatives() {
+    try (OPrimitiveRidSet set = new OPrimitiveRidSet()) {
+      final ORID temporary = new ORecordId(-1, -2);
+      Assert.assertTrue(set.add(temporary));
+      Assert.assertTrue(set.add(new ORecordId(0, 0)));
+      Assert.assertTrue(set.contains(new ORecordId(-1, -2)));
+      Assert.assertTrue(set.contains(new ORecordId(0, 0)));
+      Assert.assertEquals(2, set.size());
+
+      final Set<ORID> iterated = new HashSet<>();
+      for (ORID rid : set) {
+        iterated.add(rid);
+      }
+      Assert.assertEquals(2, iterated.size());
+      Assert.assertTrue(iterated.contains(temporary));
+    }
+  }
+
+  @Test
+  public void testOffHeap() {
+    final Random random = new Random(42);
+    final Set<ORID> expected = new HashSet<>();
+
+    // small threshold moves set to direct memory after few resizes
+    try (OPrimitiveRidSet set = new OPrimitiveRidSet(1024)) {
+      for (int i = 0; i < 100_000; i++) {
+        final ORID rid = new ORecordId(random.nextInt(100), random.nextInt(1_000_000));
+        Assert.assertEquals(expected.add(rid), set.add(rid));
+      }
+      Assert.assertTrue(set.isOffHeap());
+      Assert.assertEquals(expected.size(), set.size());
+
+      for (ORID rid : expected) {
+        Assert.assertTrue(set.contains(rid));
+      }
+
+      int removed = 0;
+      for (ORID rid : new HashSet<>(expected)) {
+        if (removed++ % 2 == 0) {
+          Assert.assertTrue(set.remove(rid));
+          expected.remove(rid);
+        }
+      }
+      Assert.assertEquals(expected.size(), set.size());
+
+      final Set<ORID> iterated = new HashSet<>();
+      for (ORID rid : set) {
+        Assert.assertTrue(iterated.add(rid));
+      }
+      Assert.assertEquals(expected, iterated);
+    }
+  }
+
+  @Test
+  public void testMaxPosition() {
+    try (OPrimitiveRidSet set = new OPrimitiveRidSet()) {
+      final ORID big = new ORecordId(Short.MAX_VALUE, (1L << 48) - 1);
+      final ORID huge = new ORecordId(1, 1L << 50);
+      Assert.assertTrue(set.add(big));
+      Assert.assertTrue(set.add(huge));
+      Assert.assertTrue(set.contains(big));
+      Assert.assertTrue(set.contains(huge));
+      Assert.assertFalse(set.contains(new ORecordId(1, 0)));
+    }
+  }
+}
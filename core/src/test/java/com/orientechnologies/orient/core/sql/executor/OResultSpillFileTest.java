@@ -0,0 +1,52 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.record.OElement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OResultSpillFileTest extends TestUtilsFixture {
+
+  @Test
+  public void shouldReadElementsWithoutStorage() throws Exception {
+    final OClass clazz = createClassInstance();
+    final List<ORID> rids = new ArrayList<>();
+
+    try (OResultSpillFile file = new OResultSpillFile("test")) {
+      for (int i = 0; i < 3; i++) {
+        final OElement element = database.newElement(clazz.getName());
+        element.setProperty("name", "name" + i);
+        element.setProperty("value", i);
+        element.save();
+        rids.add(element.getIdentity());
+
+        final OResultInternal result = new OResultInternal(element);
+        result.setTemporaryProperty("$order", -i);
+        file.write(result);
+      }
+
+      // records changed after they were spilled are read back as they were
+      for (ORID rid : rids) {
+        database.delete(rid);
+      }
+
+      final Iterator<OResult> results = file.read();
+      for (int i = 0; i < 3; i++) {
+        Assert.assertTrue(results.hasNext());
+        final OResult result = results.next();
+        Assert.assertTrue(result.isElement());
+        Assert.assertEquals(rids.get(i), result.getIdentity().get());
+        Assert.assertEquals(
+            clazz.getName(), result.getElement().get().getSchemaType().get().getName());
+        Assert.assertEquals("name" + i, result.getProperty("name"));
+        Assert.assertEquals((Integer) i, result.getProperty("value"));
+        Assert.assertEquals(-i, ((OResultInternal) result).getTemporaryProperty("$order"));
+      }
+      Assert.assertFalse(results.hasNext());
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ORidLongMapTest {
+
+  @Test
+  public void testPutGet() {
+    try (ORidLongMap map = new ORidLongMap()) {
+      map.put(new ORecordId(10, 5), 42);
+      map.put(new ORecordId(-1, -5), 7);
+
+      Assert.assertEquals(42, map.get(new ORecordId(10, 5), -1));
+      Assert.assertEquals(7, map.get(new ORecordId(-1, -5), -1));
+      Assert.assertEquals(-1, map.get(new ORecordId(10, 6), -1));
+      Assert.assertTrue(map.containsKey(new ORecordId(10, 5)));
+      Assert.assertEquals(2, map.size());
+
+      map.put(new ORecordId(10, 5), 43);
+      Assert.assertEquals(43, map.get(new ORecordId(10, 5), -1));
+      Assert.assertEquals(2, map.size());
+
+      Assert.assertTrue(map.remove(new ORecordId(10, 5)));
+      Assert.assertFalse(map.containsKey(new ORecordId(10, 5)));
+      Assert.assertEquals(1, map.size());
+    }
+  }
+
+  @Test
+  public void testAddToOffHeap() {
+    final Random random = new Random(42);
+    final Map<ORID, Long> expected = new HashMap<>();
+
+    try (ORidLongMap map = new ORidLongMap(256)) {
+      for (int i = 0; i < 50_000; i++) {
+        final ORID rid = new ORecordId(random.nextInt(10), random.nextInt(20_000));
+        final long value = expected.merge(rid, 1L, Long::sum);
+        Assert.assertEquals(value, map.addTo(rid, 1));
+      }
+
+      Assert.assertEquals(expected.size(), map.size());
+      for (Map.Entry<ORID, Long> entry : expected.entrySet()) {
+        Assert.assertEquals(entry.getValue().longValue(), map.get(entry.getKey(), 0));
+      }
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.id.ORecordId;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ORidQueueTest {
+
+  @Test
+  public void testFifoOrder() {
+    final ORidQueue queue = new ORidQueue();
+    Assert.assertNull(queue.poll());
+
+    int polled = 0;
+    // interleave offers and polls, so the ring buffer wraps before it grows
+    for (int i = 0; i < 1000; i++) {
+      queue.offer(new ORecordId(i % 7, i));
+      if (i % 3 == 0) {
+        Assert.assertEquals(new ORecordId(polled % 7, polled), queue.poll());
+        polled++;
+      }
+    }
+
+    Assert.assertEquals(1000 - polled, queue.size());
+    while (!queue.isEmpty()) {
+      Assert.assertEquals(new ORecordId(polled % 7, polled), queue.poll());
+      polled++;
+    }
+    Assert.assertEquals(1000, polled);
+  }
+}
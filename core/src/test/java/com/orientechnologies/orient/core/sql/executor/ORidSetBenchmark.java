@@ -0,0 +1,95 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares sets used to track visited vertices of traversal. RIDs are spread over several clusters
+ * and big range of positions, like RIDs of vertices visited by graph traversal.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@Fork(1)
+public class ORidSetBenchmark {
+  @Param({"hash", "bitmap", "primitive"})
+  public String implementation;
+
+  @Param({"1000000"})
+  public int size;
+
+  private ORID[] rids;
+
+  public static void main(String[] args) throws RunnerException {
+    final Options opt =
+        new OptionsBuilder()
+            .include("ORidSetBenchmark.*")
+            .addProfiler(GCProfiler.class)
+            .jvmArgs("-server", "-Xmx4G", "-Xms4G")
+            .build();
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    final Random random = new Random(42);
+    rids = new ORID[size];
+    for (int i = 0; i < size; i++) {
+      rids[i] = new ORecordId(random.nextInt(32), random.nextInt(100_000_000));
+    }
+  }
+
+  @Benchmark
+  public int addAndContains() {
+    final Set<ORID> set = createSet();
+    try {
+      int found = 0;
+      for (ORID rid : rids) {
+        if (!set.contains(rid)) {
+          set.add(rid);
+        } else {
+          found++;
+        }
+      }
+      return found;
+    } finally {
+      if (set instanceof OPrimitiveRidSet) {
+        ((OPrimitiveRidSet) set).close();
+      }
+    }
+  }
+
+  private Set<ORID> createSet() {
+    switch (implementation) {
+      case "bitmap":
+        return new ORidSet();
+      case "primitive":
+        return new OPrimitiveRidSet();
+      default:
+        return new HashSet<>();
+    }
+  }
+}
@@ -3,8 +3,10 @@ package com.orientechnologies.orient.core.sql.executor;
 import static com.orientechnologies.orient.core.sql.executor.ExecutionPlanPrintUtils.printExecutionPlan;
 
 import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.ODatabaseSession;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
@@ -4073,8 +4075,10 @@ public class OSelectStatementExecutionTest {
   @Test
   public void testHeapLimitForOrderBy() {
     Long oldValue = OGlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.getValueAsLong();
+    Boolean oldSpill = OGlobalConfiguration.QUERY_ORDER_BY_SPILL_TO_DISK.getValueAsBoolean();
     try {
       OGlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.setValue(3);
+      OGlobalConfiguration.QUERY_ORDER_BY_SPILL_TO_DISK.setValue(false);
 
       String className = "testHeapLimitForOrderBy";
 
@@ -4094,6 +4098,210 @@ public class OSelectStatementExecutionTest {
       }
     } finally {
       OGlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.setValue(oldValue);
+      OGlobalConfiguration.QUERY_ORDER_BY_SPILL_TO_DISK.setValue(oldSpill);
+    }
+  }
+
+  @Test
+  public void testOrderBySpillToDisk() {
+    Long oldValue = OGlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.getValueAsLong();
+    try {
+      OGlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.setValue(3);
+
+      String className = "testOrderBySpillToDisk";
+
+      db.createClassIfNotExist(className);
+
+      for (int i = 0; i < 100; i++) {
+        db.command("INSERT INTO " + className + " set name = ?, surname = ?", i % 7, "s" + i)
+            .close();
+      }
+
+      try (OResultSet result = db.query("select from " + className + " ORDER BY name, surname")) {
+        String lastKey = null;
+        for (int i = 0; i < 100; i++) {
+          Assert.assertTrue(result.hasNext());
+          OResult item = result.next();
+          Assert.assertTrue(item.isElement());
+          String key = (int) item.getProperty("name") + " " + item.getProperty("surname");
+          if (lastKey != null) {
+            Assert.assertTrue(lastKey.compareTo(key) < 0);
+          }
+          lastKey = key;
+        }
+        Assert.assertFalse(result.hasNext());
+      }
+
+      try (OResultSet result =
+          db.query("select surname from " + className + " ORDER BY name desc, surname")) {
+        Assert.assertEquals("s13", result.next().getProperty("surname"));
+        Assert.assertEquals(99, result.stream().count());
+      }
+    } finally {
+      OGlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.setValue(oldValue);
+    }
+  }
+
+  @Test
+  public void testGroupBySpillToDisk() {
+    Integer oldValue = OGlobalConfiguration.QUERY_GROUP_BY_MAX_HEAP_GROUPS.getValueAsInteger();
+    try {
+      OGlobalConfiguration.QUERY_GROUP_BY_MAX_HEAP_GROUPS.setValue(3);
+
+      String className = "testGroupBySpillToDisk";
+
+      db.createClassIfNotExist(className);
+
+      for (int i = 0; i < 200; i++) {
+        db.command("INSERT INTO " + className + " set type = ?, val = ?", "t" + i % 50, i).close();
+      }
+
+      try (OResultSet result =
+          db.query(
+              "select type, count(*) as cnt, sum(val) as total from "
+                  + className
+                  + " group by type")) {
+        Set<String> types = new HashSet<>();
+        while (result.hasNext()) {
+          OResult item = result.next();
+          String type = item.getProperty("type");
+          Assert.assertTrue(types.add(type));
+
+          int remainder = Integer.parseInt(type.substring(1));
+          Assert.assertEquals(4L, (long) item.getProperty("cnt"));
+          Assert.assertEquals(4 * remainder + 300, ((Number) item.getProperty("total")).intValue());
+        }
+        Assert.assertEquals(50, types.size());
+      }
+    } finally {
+      OGlobalConfiguration.QUERY_GROUP_BY_MAX_HEAP_GROUPS.setValue(oldValue);
+    }
+  }
+
+  @Test
+  public void testDistinctSpillToDisk() {
+    Long oldValue = OGlobalConfiguration.QUERY_DISTINCT_MAX_MEMORY.getValueAsLong();
+    try {
+      OGlobalConfiguration.QUERY_DISTINCT_MAX_MEMORY.setValue(1L);
+
+      String className = "testDistinctSpillToDisk";
+
+      db.createClassIfNotExist(className);
+
+      for (int i = 0; i < 200; i++) {
+        db.command("INSERT INTO " + className + " set name = ?", 1000 + i % 50).close();
+      }
+
+      try (OResultSet result =
+          db.query("select distinct name from " + className + " order by name desc")) {
+        for (int i = 49; i >= 0; i--) {
+          Assert.assertTrue(result.hasNext());
+          OResult item = result.next();
+          Assert.assertEquals(1000 + i, (int) item.getProperty("name"));
+          Assert.assertTrue(item.getMetadataKeys().isEmpty());
+        }
+        Assert.assertFalse(result.hasNext());
+      }
+    } finally {
+      OGlobalConfiguration.QUERY_DISTINCT_MAX_MEMORY.setValue(oldValue);
+    }
+  }
+
+  @Test
+  public void testOrderByTopK() {
+    String className = "testOrderByTopK";
+
+    db.createClassIfNotExist(className);
+
+    for (int i = 0; i < 100; i++) {
+      db.command("INSERT INTO " + className + " set name = ?, idx = ?", i % 10, i).close();
+    }
+
+    try (OResultSet result =
+        db.query("select name, idx from " + className + " ORDER BY name desc, idx LIMIT 15")) {
+      for (int i = 0; i < 15; i++) {
+        Assert.assertTrue(result.hasNext());
+        OResult item = result.next();
+        Assert.assertEquals(i < 10 ? 9 : 8, (int) item.getProperty("name"));
+        Assert.assertEquals(
+            i < 10 ? 9 + 10 * i : 8 + 10 * (i - 10), (int) item.getProperty("idx"));
+      }
+      Assert.assertFalse(result.hasNext());
+    }
+  }
+
+  @Test
+  public void testParallelScan() {
+    String className = "testParallelScan";
+
+    OClass clazz = db.createClassIfNotExist(className);
+    clazz.addCluster(className + "_extra");
+
+    for (int i = 0; i < 1000; i++) {
+      db.command("INSERT INTO " + className + " set name = ?, idx = ?", "name" + (i % 10), i)
+          .close();
+    }
+
+    try (OResultSet result =
+        db.query("select from " + className + " where name = 'name3' PARALLEL")) {
+      Set<Integer> found = new HashSet<>();
+      while (result.hasNext()) {
+        OResult item = result.next();
+        Assert.assertEquals("name3", item.getProperty("name"));
+        Assert.assertTrue(found.add(item.getProperty("idx")));
+      }
+      Assert.assertEquals(100, found.size());
+      String plan = result.getExecutionPlan().get().prettyPrint(0, 2);
+      Assert.assertTrue(plan.contains("FETCH FROM CLASS " + className + " (parallel)"));
+    }
+
+    try (OResultSet result =
+        db.query("select from " + className + " where idx < 500 order by @rid PARALLEL")) {
+      ORID last = null;
+      int count = 0;
+      while (result.hasNext()) {
+        ORID rid = result.next().getIdentity().get();
+        if (last != null) {
+          Assert.assertTrue(last.compareTo(rid) < 0);
+        }
+        last = rid;
+        count++;
+      }
+      Assert.assertEquals(500, count);
+    }
+  }
+
+  @Test
+  public void testParallelScanOfClusterRanges() {
+    int clusterId = db.addCluster("testParallelScanOfClusterRanges");
+    for (int i = 0; i < 100; i++) {
+      db.save(new ODocument().field("idx", i), "testParallelScanOfClusterRanges");
+    }
+
+    for (boolean descending : new boolean[] {false, true}) {
+      OBasicCommandContext ctx = new OBasicCommandContext();
+      ctx.setDatabase(db);
+      OParallelClusterScan scan =
+          new OParallelClusterScan(
+              (ODatabaseDocumentInternal) db, ctx, null, true, descending, 4, 10);
+      scan.addCluster(clusterId, -1, -1);
+      Assert.assertEquals(4, scan.getRangesCount());
+
+      scan.start();
+      try {
+        List<Integer> values = new ArrayList<>();
+        for (OResult item = scan.next(); item != null; item = scan.next()) {
+          Assert.assertEquals(clusterId, item.getIdentity().get().getClusterId());
+          values.add(item.getProperty("idx"));
+        }
+
+        Assert.assertEquals(100, values.size());
+        for (int i = 0; i < values.size(); i++) {
+          Assert.assertEquals(descending ? 99 - i : i, (int) values.get(i));
+        }
+      } finally {
+        scan.close();
+      }
     }
   }
 
@@ -0,0 +1,77 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OSerializedKeySetTest {
+
+  @Test
+  public void testAddAndContains() {
+    try (OSerializedKeySet set = new OSerializedKeySet()) {
+      // enough keys to resize the table and to allocate several chunks
+      for (int i = 0; i < 100_000; i++) {
+        byte[] key = key(i);
+        Assert.assertTrue(set.add(key, OSerializedKeySet.hash(key)));
+      }
+      Assert.assertEquals(100_000, set.size());
+
+      for (int i = 0; i < 100_000; i++) {
+        byte[] key = key(i);
+        Assert.assertTrue(set.contains(key, OSerializedKeySet.hash(key)));
+        Assert.assertFalse(set.add(key, OSerializedKeySet.hash(key)));
+      }
+
+      byte[] missing = key(100_000);
+      Assert.assertFalse(set.contains(missing, OSerializedKeySet.hash(missing)));
+      Assert.assertEquals(100_000, set.size());
+      Assert.assertTrue(set.getMemoryUsage() > 0);
+    }
+  }
+
+  @Test
+  public void testKeyBiggerThanChunk() {
+    try (OSerializedKeySet set = new OSerializedKeySet()) {
+      byte[] big = new byte[3 * 1024 * 1024];
+      big[big.length - 1] = 1;
+      byte[] small = key(1);
+
+      Assert.assertTrue(set.add(small, OSerializedKeySet.hash(small)));
+      Assert.assertTrue(set.add(big, OSerializedKeySet.hash(big)));
+
+      byte[] other = new byte[big.length];
+      Assert.assertFalse(set.contains(other, OSerializedKeySet.hash(other)));
+      Assert.assertTrue(set.contains(big.clone(), OSerializedKeySet.hash(big)));
+      Assert.assertTrue(set.contains(small, OSerializedKeySet.hash(small)));
+    }
+  }
+
+  @Test
+  public void testFullSet() {
+    try (OSerializedKeySet set = new OSerializedKeySet(1 << 10)) {
+      int i = 0;
+      while (!set.isFull()) {
+        byte[] key = key(i++);
+        Assert.assertTrue(set.add(key, OSerializedKeySet.hash(key)));
+      }
+      Assert.assertEquals((1 << 10) * 7 / 10, set.size());
+
+      // keys which are present already are still found, missing keys are not added
+      byte[] present = key(0);
+      Assert.assertFalse(set.add(present, OSerializedKeySet.hash(present)));
+
+      byte[] missing = key(i);
+      Assert.assertFalse(set.contains(missing, OSerializedKeySet.hash(missing)));
+      try {
+        set.add(missing, OSerializedKeySet.hash(missing));
+        Assert.fail();
+      } catch (IllegalStateException e) {
+        // expected
+      }
+    }
+  }
+
+  private static byte[] key(int i) {
+    return ("key" + i).getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,70 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.sql.parser.OOrderBy;
+import com.orientechnologies.orient.core.sql.parser.OOrderByItem;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OrderedMergeStepTest {
+
+  private static final String PROPERTY_NAME = "value";
+
+  @Test
+  public void shouldMergeSortedResults() {
+    OCommandContext context = new OBasicCommandContext();
+
+    List<OInternalExecutionPlan> subPlans = new ArrayList<>();
+    subPlans.add(plan(context, 1, Arrays.asList(1, 4, 7, 10)));
+    subPlans.add(plan(context, 2, Arrays.asList(2, 3, 8)));
+    subPlans.add(plan(context, 3, Collections.emptyList()));
+    subPlans.add(plan(context, 100, Arrays.asList(0, 5, 6, 9, 11)));
+
+    OOrderByItem item = new OOrderByItem();
+    item.setAlias(PROPERTY_NAME);
+    OOrderBy orderBy = new OOrderBy();
+    orderBy.setItems(Collections.singletonList(item));
+
+    OrderedMergeStep step = new OrderedMergeStep(subPlans, orderBy, context, false);
+
+    List<Integer> values = new ArrayList<>();
+    OResultSet result = step.syncPull(context, 5);
+    while (result.hasNext()) {
+      values.add(result.next().getProperty(PROPERTY_NAME));
+    }
+    Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4), values);
+
+    result = step.syncPull(context, 100);
+    while (result.hasNext()) {
+      values.add(result.next().getProperty(PROPERTY_NAME));
+    }
+    Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11), values);
+  }
+
+  private OInternalExecutionPlan plan(
+      OCommandContext context, int pageSize, List<Integer> sortedValues) {
+    OSelectExecutionPlan plan = new OSelectExecutionPlan(context);
+    plan.chain(
+        new AbstractExecutionStep(context, false) {
+          private int next = 0;
+
+          @Override
+          public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
+            OInternalResultSet result = new OInternalResultSet();
+            for (int i = 0; i < Math.min(pageSize, nRecords) && next < sortedValues.size(); i++) {
+              OResultInternal item = new OResultInternal();
+              item.setProperty(PROPERTY_NAME, sortedValues.get(next++));
+              result.add(item);
+            }
+            return result;
+          }
+        });
+    return plan;
+  }
+}
@@ -1,10 +1,15 @@
 package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.orient.core.OCreateDatabaseUtil;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.OrientDB;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OSchema;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import java.util.Arrays;
+import java.util.function.Supplier;
 import org.apache.commons.lang.RandomStringUtils;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -39,6 +44,52 @@ public class TestUtilsFixture {
     return getDBSchema().createClass(generateClassName(), superclass);
   }
 
+  /**
+   * Creates class with 100 records, which is used to check that optimized evaluation of queries
+   * returns the same results as the regular one.
+   *
+   * @return name of the created class
+   */
+  static String createEvaluationRecords() {
+    OClass clazz = createClassInstance();
+    clazz.createProperty("name", OType.STRING).setCollate("ci");
+    clazz.createProperty("value", OType.INTEGER);
+    clazz.createProperty("amount", OType.LONG);
+
+    for (int i = 0; i < 100; i++) {
+      ODocument doc = new ODocument(clazz.getName());
+      doc.setProperty("name", i % 2 == 0 ? "Name" + i : "NAME" + i);
+      doc.setProperty("value", i);
+      doc.setProperty("amount", (long) i * 1000);
+      doc.setProperty("tag", "tag" + (i % 10));
+      doc.setProperty("tags", Arrays.asList("tag" + (i % 10), "other"));
+      if (i % 3 == 0) {
+        doc.setProperty("flag", i % 2 == 0);
+      }
+      if (i % 5 == 0) {
+        doc.setProperty("note", "note" + i);
+      }
+      if (i % 7 == 0) {
+        ODocument nested = new ODocument();
+        nested.setProperty("value", i * 2);
+        doc.setProperty("nested", nested);
+      }
+      database.save(doc);
+    }
+    return clazz.getName();
+  }
+
+  /** Runs the action with the given value of the setting and restores its previous value. */
+  static <T> T withSetting(OGlobalConfiguration setting, Object value, Supplier<T> action) {
+    Object previous = setting.getValue();
+    setting.setValue(value);
+    try {
+      return action.get();
+    } finally {
+      setting.setValue(previous);
+    }
+  }
+
   private static OSchema getDBSchema() {
     return database.getMetadata().getSchema();
   }
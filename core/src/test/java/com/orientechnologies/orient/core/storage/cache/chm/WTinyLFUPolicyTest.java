@@ -664,6 +664,76 @@ public class WTinyLFUPolicyTest {
     clearPointers(wTinyLFU);
   }
 
+  @Test
+  public void testScanWindow() {
+    ODirectMemoryAllocator memoryAllocator = new ODirectMemoryAllocator();
+    OByteBufferPool pool = new OByteBufferPool(1, memoryAllocator, 0);
+
+    ConcurrentHashMap<PageKey, OCacheEntry> data = new ConcurrentHashMap<>();
+    Admittor admittor = mock(Admittor.class);
+
+    AtomicInteger cacheSize = new AtomicInteger();
+    WTinyLFUPolicy wTinyLFU = new WTinyLFUPolicy(data, admittor, cacheSize);
+    wTinyLFU.setMaxSize(15);
+
+    Assert.assertEquals(1, wTinyLFU.getMaxScanSize());
+
+    OCacheEntry[] cacheEntries = new OCacheEntry[19];
+    OCachePointer[] cachePointers = new OCachePointer[19];
+
+    generateEntries(cacheEntries, cachePointers, pool);
+
+    when(admittor.frequency(PageKey.hashCode(1, 16))).thenReturn(1);
+
+    for (int i = 0; i < 15; i++) {
+      cacheSize.incrementAndGet();
+      data.put(new PageKey(1, i), cacheEntries[i]);
+      wTinyLFU.onAdd(cacheEntries[i]);
+    }
+
+    for (int i = 15; i < 19; i++) {
+      cacheSize.incrementAndGet();
+      data.put(new PageKey(1, i), cacheEntries[i]);
+      wTinyLFU.onScanAdd(cacheEntries[i]);
+    }
+
+    Assert.assertEquals(15, cacheSize.get());
+    wTinyLFU.assertSize();
+    wTinyLFU.assertConsistency();
+
+    Assert.assertEquals(15, memoryAllocator.getMemoryConsumption());
+
+    // page which was used only by the scan is evicted instead of the probation victim
+    Assert.assertTrue(cacheEntries[15].isDead());
+    Assert.assertTrue(cacheEntries[17].isDead());
+
+    // eden gives up space to the scan window
+    Assert.assertTrue(cacheEntries[0].isDead());
+    // frequently used page of the scan replaces probation victim
+    Assert.assertTrue(cacheEntries[1].isDead());
+
+    Assert.assertArrayEquals(new OCacheEntry[] {cacheEntries[18]}, toArray(wTinyLFU.scan()));
+    Assert.assertArrayEquals(
+        new OCacheEntry[] {cacheEntries[14], cacheEntries[13]}, toArray(wTinyLFU.eden()));
+
+    Iterator<OCacheEntry> probationIterator = wTinyLFU.probation();
+    Assert.assertSame(cacheEntries[16], probationIterator.next());
+    for (int i = 12; i >= 2; i--) {
+      final OCacheEntry cacheEntry = probationIterator.next();
+      Assert.assertSame(cacheEntries[i], cacheEntry);
+    }
+    Assert.assertFalse(probationIterator.hasNext());
+
+    Assert.assertFalse(wTinyLFU.protection().hasNext());
+
+    wTinyLFU.onAccess(cacheEntries[18]);
+    Assert.assertArrayEquals(new OCacheEntry[] {cacheEntries[18]}, toArray(wTinyLFU.scan()));
+    Assert.assertFalse(wTinyLFU.protection().hasNext());
+
+    clearPointers(wTinyLFU);
+    Mockito.<Object>reset(admittor);
+  }
+
   private static OCacheEntry[] toArray(Iterator<OCacheEntry> iterator) {
     final List<OCacheEntry> entries = new ArrayList<>();
     while (iterator.hasNext()) {
@@ -691,6 +761,7 @@ public class WTinyLFUPolicyTest {
     clearQueue(policy.eden());
     clearQueue(policy.probation());
     clearQueue(policy.protection());
+    clearQueue(policy.scan());
   }
 
   private static void clearQueue(final Iterator<OCacheEntry> iterator) {
@@ -0,0 +1,176 @@
+package com.orientechnologies.orient.core.storage.cache.record;
+
+import com.orientechnologies.orient.core.OCreateDatabaseUtil;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.record.OElement;
+import com.orientechnologies.orient.core.storage.ORawBuffer;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ORecordBufferCacheTest {
+  @Test
+  public void testPutGet() {
+    final ORecordBufferCache cache = new ORecordBufferCache("test", 1024 * 1024);
+    final ORecordId rid = new ORecordId(1, 1);
+
+    Assert.assertNull(cache.get(rid));
+
+    cache.put(rid, new ORawBuffer(new byte[] {1, 2, 3}, 2, (byte) 'd'), cache.startRead(rid));
+
+    final ORawBuffer buffer = cache.get(new ORecordId(1, 1));
+    Assert.assertNotNull(buffer);
+    Assert.assertArrayEquals(new byte[] {1, 2, 3}, buffer.buffer);
+    Assert.assertEquals(2, buffer.version);
+    Assert.assertEquals('d', buffer.recordType);
+
+    // returned buffer is a copy, so cached record can not be changed by the caller
+    buffer.buffer[0] = 42;
+    Assert.assertArrayEquals(new byte[] {1, 2, 3}, cache.get(rid).buffer);
+
+    Assert.assertEquals(2, cache.getHits());
+    Assert.assertEquals(1, cache.getMisses());
+  }
+
+  @Test
+  public void testInvalidate() {
+    final ORecordBufferCache cache = new ORecordBufferCache("test", 1024 * 1024);
+    final ORecordId rid = new ORecordId(1, 1);
+
+    cache.put(rid, new ORawBuffer(new byte[] {1}, 1, (byte) 'd'), cache.startRead(rid));
+    Assert.assertNotNull(cache.get(rid));
+
+    cache.invalidate(rid);
+    Assert.assertNull(cache.get(rid));
+    Assert.assertEquals(1, cache.getInvalidations());
+  }
+
+  @Test
+  public void testRecordReadBeforeInvalidationIsNotCached() {
+    final ORecordBufferCache cache = new ORecordBufferCache("test", 1024 * 1024);
+    final ORecordId rid = new ORecordId(1, 1);
+
+    final long stamp = cache.startRead(rid);
+    cache.invalidate(rid);
+    cache.put(rid, new ORawBuffer(new byte[] {1}, 1, (byte) 'd'), stamp);
+
+    Assert.assertNull(cache.get(rid));
+  }
+
+  @Test
+  public void testSizeIsBoundedByBytes() {
+    final int maxBytes = 64 * 1024;
+    final ORecordBufferCache cache = new ORecordBufferCache("test", maxBytes);
+
+    for (int i = 0; i < 10_000; i++) {
+      final ORecordId rid = new ORecordId(1, i);
+      cache.put(rid, new ORawBuffer(new byte[100 + i % 400], 1, (byte) 'd'), cache.startRead(rid));
+      Assert.assertTrue(cache.getUsedBytes() <= maxBytes);
+    }
+
+    Assert.assertTrue(cache.getSize() > 0);
+    Assert.assertTrue(cache.getEvictions() > 0);
+  }
+
+  @Test
+  public void testFrequentlyUsedRecordsAreKept() {
+    final ORecordBufferCache cache = new ORecordBufferCache("test", 64 * 1024);
+
+    final ORecordId[] hot = new ORecordId[16];
+    for (int i = 0; i < hot.length; i++) {
+      hot[i] = new ORecordId(1, i);
+      cache.put(hot[i], new ORawBuffer(new byte[100], 1, (byte) 'd'), cache.startRead(hot[i]));
+    }
+
+    for (int i = 0; i < 10_000; i++) {
+      for (final ORecordId rid : hot) {
+        if (cache.get(rid) == null) {
+          cache.put(rid, new ORawBuffer(new byte[100], 1, (byte) 'd'), cache.startRead(rid));
+        }
+      }
+
+      // scan of records which are read only once
+      final ORecordId rid = new ORecordId(2, i);
+      cache.put(rid, new ORawBuffer(new byte[100], 1, (byte) 'd'), cache.startRead(rid));
+    }
+
+    for (final ORecordId rid : hot) {
+      Assert.assertNotNull(cache.get(rid));
+    }
+  }
+
+  @Test
+  public void testClear() {
+    final ORecordBufferCache cache = new ORecordBufferCache("test", 1024 * 1024);
+    final ORecordId rid = new ORecordId(1, 1);
+
+    final long stamp = cache.startRead(rid);
+    cache.put(rid, new ORawBuffer(new byte[] {1}, 1, (byte) 'd'), stamp);
+    cache.clear();
+
+    Assert.assertNull(cache.get(rid));
+    Assert.assertEquals(0, cache.getSize());
+    Assert.assertEquals(0, cache.getUsedBytes());
+
+    // records read before the cache was cleared are not cached
+    cache.put(rid, new ORawBuffer(new byte[] {1}, 1, (byte) 'd'), stamp);
+    Assert.assertNull(cache.get(rid));
+  }
+
+  @Test
+  public void testStorageRecordCache() {
+    final int oldSize = OGlobalConfiguration.STORAGE_RECORD_CACHE_SIZE.getValueAsInteger();
+    OGlobalConfiguration.STORAGE_RECORD_CACHE_SIZE.setValue(16);
+    try {
+      final String dbName = ORecordBufferCacheTest.class.getSimpleName();
+      final OrientDB orientDB =
+          OCreateDatabaseUtil.createDatabase(dbName, "embedded:", OCreateDatabaseUtil.TYPE_MEMORY);
+      try {
+        final ORID rid;
+        try (ODatabaseSession session =
+            orientDB.open(dbName, "admin", OCreateDatabaseUtil.NEW_ADMIN_PASSWORD)) {
+          final OElement element = session.newElement();
+          element.setProperty("value", 1);
+          rid = session.save(element).getIdentity();
+        }
+
+        final ORecordBufferCache cache;
+        try (ODatabaseSession session =
+            orientDB.open(dbName, "admin", OCreateDatabaseUtil.NEW_ADMIN_PASSWORD)) {
+          final ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) session;
+          cache = ((OAbstractPaginatedStorage) db.getStorage()).getRecordCache();
+          Assert.assertNotNull(cache);
+
+          Assert.assertEquals(1, (int) session.<OElement>load(rid).getProperty("value"));
+        }
+
+        // new session starts with empty local cache, so record is read from the storage cache
+        try (ODatabaseSession session =
+            orientDB.open(dbName, "admin", OCreateDatabaseUtil.NEW_ADMIN_PASSWORD)) {
+          final long hits = cache.getHits();
+          final OElement element = session.load(rid);
+          Assert.assertEquals(1, (int) element.getProperty("value"));
+          Assert.assertTrue(cache.getHits() > hits);
+
+          element.setProperty("value", 2);
+          session.save(element);
+        }
+
+        try (ODatabaseSession session =
+            orientDB.open(dbName, "admin", OCreateDatabaseUtil.NEW_ADMIN_PASSWORD)) {
+          Assert.assertEquals(2, (int) session.<OElement>load(rid).getProperty("value"));
+        }
+      } finally {
+        orientDB.drop(dbName);
+        orientDB.close();
+      }
+    } finally {
+      OGlobalConfiguration.STORAGE_RECORD_CACHE_SIZE.setValue(oldSize);
+    }
+  }
+}
@@ -1,14 +1,27 @@
 package com.orientechnologies.orient.core.storage.cluster.v2;
 
 import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.OrientDB;
 import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.storage.OPhysicalPosition;
+import com.orientechnologies.orient.core.storage.ORawBuffer;
 import com.orientechnologies.orient.core.storage.cluster.LocalPaginatedClusterAbstract;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperationsManager;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Assert;
 import org.junit.BeforeClass;
+import org.junit.Test;
 
 public class LocalPaginatedClusterV2TestIT extends LocalPaginatedClusterAbstract {
   @BeforeClass
@@ -30,11 +43,82 @@ public class LocalPaginatedClusterV2TestIT extends LocalPaginatedClusterAbstract
 
     storage = (OAbstractPaginatedStorage) databaseDocumentTx.getStorage();
 
-    paginatedCluster = new OPaginatedClusterV2("paginatedClusterTest", storage);
+    // optimistic reads are disabled by default, cluster reads the setting once it is created
+    final boolean optimisticReads =
+        OGlobalConfiguration.STORAGE_CLUSTER_OPTIMISTIC_READS.getValueAsBoolean();
+    OGlobalConfiguration.STORAGE_CLUSTER_OPTIMISTIC_READS.setValue(true);
+    try {
+      paginatedCluster = new OPaginatedClusterV2("paginatedClusterTest", storage);
+    } finally {
+      OGlobalConfiguration.STORAGE_CLUSTER_OPTIMISTIC_READS.setValue(optimisticReads);
+    }
     paginatedCluster.configure(42, "paginatedClusterTest");
     storage
         .getAtomicOperationsManager()
         .executeInsideAtomicOperation(
             null, atomicOperation -> paginatedCluster.create(atomicOperation));
   }
+
+  @Test
+  public void testOptimisticReadsOfConcurrentlyUpdatedRecord() throws Exception {
+    final OAtomicOperationsManager atomicOperationsManager = storage.getAtomicOperationsManager();
+
+    // record occupies several pages, so partially applied update would be visible as record with
+    // different bytes
+    final byte[] record = new byte[3 * 65536];
+    Arrays.fill(record, (byte) 0);
+
+    final OPhysicalPosition physicalPosition =
+        atomicOperationsManager.calculateInsideAtomicOperation(
+            null,
+            atomicOperation ->
+                paginatedCluster.createRecord(record, 1, (byte) 1, null, atomicOperation));
+
+    final AtomicBoolean stop = new AtomicBoolean();
+    final ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      final List<Future<Void>> readers = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        readers.add(
+            executor.submit(
+                () -> {
+                  while (!stop.get()) {
+                    final ORawBuffer buffer =
+                        paginatedCluster.readRecord(physicalPosition.clusterPosition, false);
+                    Assert.assertNotNull(buffer);
+                    Assert.assertEquals(record.length, buffer.buffer.length);
+
+                    final byte value = buffer.buffer[0];
+                    for (final byte b : buffer.buffer) {
+                      Assert.assertEquals(value, b);
+                    }
+                  }
+                  return null;
+                }));
+      }
+
+      for (int i = 1; i <= 1000; i++) {
+        final byte[] updatedRecord = new byte[record.length];
+        Arrays.fill(updatedRecord, (byte) i);
+
+        atomicOperationsManager.executeInsideAtomicOperation(
+            null,
+            atomicOperation ->
+                paginatedCluster.updateRecord(
+                    physicalPosition.clusterPosition,
+                    updatedRecord,
+                    1,
+                    (byte) 1,
+                    atomicOperation));
+      }
+
+      stop.set(true);
+      for (final Future<Void> reader : readers) {
+        reader.get();
+      }
+    } finally {
+      stop.set(true);
+      executor.shutdown();
+    }
+  }
 }
@@ -0,0 +1,119 @@
+package com.orientechnologies.orient.core.storage.fs;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.common.util.ORawPair;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares flush throughput and page read latency of {@link AsyncFile} and {@link NativeFile}.
+ * Flush writes batch of adjacent pages, the same way as write cache flushes dirty pages of a file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@Fork(1)
+public class FileBackendBenchmark {
+  private static final int PAGE_SIZE = 64 * 1024;
+  private static final int PAGES = 4 * 1024;
+  private static final int FLUSH_BATCH = 64;
+
+  @Param({"async", "native"})
+  public String backend;
+
+  private Path path;
+  private OFile file;
+  private List<ORawPair<Long, ByteBuffer>> batch;
+  private ByteBuffer readBuffer;
+
+  public static void main(String[] args) throws RunnerException {
+    final Options opt =
+        new OptionsBuilder()
+            .include("FileBackendBenchmark.*")
+            .jvmArgs("-server", "-Xmx1G", "-Xms1G")
+            .build();
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    String buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null || buildDirectory.isEmpty()) buildDirectory = ".";
+
+    path = Paths.get(buildDirectory + File.separator + "fileBackendBenchmark");
+    OFileUtils.deleteRecursively(path.toFile());
+
+    switch (backend) {
+      case "native":
+        file = new NativeFile(path, PAGE_SIZE);
+        break;
+      default:
+        file = new AsyncFile(path, PAGE_SIZE);
+    }
+
+    file.create();
+    file.allocateSpace(PAGE_SIZE * PAGES);
+
+    batch = new ArrayList<>(FLUSH_BATCH);
+    for (int i = 0; i < FLUSH_BATCH; i++) {
+      final ByteBuffer page = ByteBuffer.allocateDirect(PAGE_SIZE);
+      ThreadLocalRandom.current().ints(PAGE_SIZE / Integer.BYTES).forEach(page::putInt);
+      batch.add(new ORawPair<>(0L, page));
+    }
+
+    readBuffer = ByteBuffer.allocateDirect(PAGE_SIZE);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    file.close();
+    OFileUtils.deleteRecursively(path.toFile());
+  }
+
+  @Benchmark
+  public void flush() throws IOException {
+    final long firstPage = ThreadLocalRandom.current().nextInt(PAGES - FLUSH_BATCH);
+
+    final List<ORawPair<Long, ByteBuffer>> pages = new ArrayList<>(FLUSH_BATCH);
+    for (int i = 0; i < FLUSH_BATCH; i++) {
+      pages.add(new ORawPair<>((firstPage + i) * PAGE_SIZE, batch.get(i).second));
+    }
+
+    file.write(pages).await();
+  }
+
+  @Benchmark
+  public ByteBuffer readPage() throws IOException {
+    final long pageIndex = ThreadLocalRandom.current().nextInt(PAGES);
+
+    readBuffer.clear();
+    file.read(pageIndex * PAGE_SIZE, readBuffer, true);
+    return readBuffer;
+  }
+}
@@ -0,0 +1,166 @@
+package com.orientechnologies.orient.core.storage.fs;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.common.util.ORawPair;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class NativeFileTest {
+  private static Path buildDirectoryPath;
+
+  @BeforeClass
+  public static void beforeClass() {
+    String buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null || buildDirectory.isEmpty()) buildDirectory = ".";
+
+    buildDirectory += File.separator + "nativeFileTest";
+    buildDirectoryPath = Paths.get(buildDirectory);
+  }
+
+  @Before
+  public void before() {
+    Assume.assumeTrue(NativeFile.isSupported());
+    OFileUtils.deleteRecursively(buildDirectoryPath.toFile());
+  }
+
+  @Test
+  public void testWrite() throws Exception {
+    final NativeFile file = new NativeFile(buildDirectoryPath, 1);
+    file.create();
+
+    file.allocateSpace(128);
+    file.allocateSpace(256);
+
+    final long position = file.allocateSpace(1024);
+    Assert.assertEquals(128 + 256, position);
+
+    final byte[] data = new byte[1024];
+    final Random random = new Random();
+
+    random.nextBytes(data);
+
+    file.write(position, ByteBuffer.wrap(data));
+
+    final ByteBuffer result = ByteBuffer.allocate(1024).order(ByteOrder.nativeOrder());
+    file.read(position, result, true);
+
+    Assert.assertArrayEquals(data, result.array());
+    file.close();
+  }
+
+  @Test
+  public void testOpenWriteSeveralChunks() throws Exception {
+    final NativeFile file = new NativeFile(buildDirectoryPath, 1);
+    file.create();
+
+    final long position1 = file.allocateSpace(128);
+    final long position2 = file.allocateSpace(256);
+    final long position3 = file.allocateSpace(1024);
+
+    final byte[] data1 = new byte[128];
+    final byte[] data2 = new byte[256];
+    final byte[] data3 = new byte[1024];
+
+    final Random random = new Random();
+
+    random.nextBytes(data1);
+    random.nextBytes(data2);
+    random.nextBytes(data3);
+
+    final List<ORawPair<Long, ByteBuffer>> buffers = new ArrayList<>();
+
+    buffers.add(new ORawPair<>(position3, ByteBuffer.wrap(data3)));
+    buffers.add(new ORawPair<>(position1, ByteBuffer.wrap(data1)));
+    buffers.add(new ORawPair<>(position2, ByteBuffer.wrap(data2)));
+
+    final IOResult result = file.write(buffers);
+    result.await();
+    file.close();
+    file.open();
+
+    final ByteBuffer result1 = ByteBuffer.allocate(128);
+    final ByteBuffer result2 = ByteBuffer.allocate(256);
+    final ByteBuffer result3 = ByteBuffer.allocate(1024);
+
+    file.read(position1, result1, true);
+    file.read(position2, result2, true);
+    file.read(position3, result3, true);
+
+    Assert.assertArrayEquals(data1, result1.array());
+    Assert.assertArrayEquals(data2, result2.array());
+    Assert.assertArrayEquals(data3, result3.array());
+
+    file.close();
+  }
+
+  @Test
+  public void testWriteAdjacentDirectBuffers() throws Exception {
+    final int pageSize = 4096;
+    final int pages = 16;
+
+    final NativeFile file = new NativeFile(buildDirectoryPath, pageSize);
+    file.create();
+
+    final long start = file.allocateSpace(pageSize * pages);
+    final Random random = new Random();
+
+    final byte[][] data = new byte[pages][pageSize];
+    final List<ORawPair<Long, ByteBuffer>> buffers = new ArrayList<>();
+    for (int i = 0; i < pages; i++) {
+      random.nextBytes(data[i]);
+
+      final ByteBuffer buffer = ByteBuffer.allocateDirect(pageSize);
+      buffer.put(data[i]);
+
+      // the gap in the middle splits pages into two batches
+      if (i != pages / 2) {
+        buffers.add(new ORawPair<>(start + (long) i * pageSize, buffer));
+      }
+    }
+
+    file.write(buffers).await();
+    // each run of adjacent pages is written by the single pwritev call
+    Assert.assertEquals(2, file.getVectoredWrites());
+
+    file.write(start + (long) (pages / 2) * pageSize, ByteBuffer.wrap(data[pages / 2]));
+
+    file.close();
+    file.open();
+
+    for (int i = 0; i < pages; i++) {
+      final ByteBuffer result = ByteBuffer.allocate(pageSize);
+      file.read(start + (long) i * pageSize, result, true);
+      Assert.assertArrayEquals(data[i], result.array());
+    }
+
+    file.close();
+  }
+
+  @Test
+  public void testOpenClose() throws Exception {
+    final NativeFile file = new NativeFile(buildDirectoryPath, 1);
+    Assert.assertFalse(file.isOpen());
+
+    file.create();
+    Assert.assertTrue(file.isOpen());
+
+    file.close();
+
+    Assert.assertFalse(file.isOpen());
+    file.open();
+    Assert.assertTrue(file.isOpen());
+    file.close();
+    Assert.assertFalse(file.isOpen());
+  }
+}
@@ -0,0 +1,104 @@
+package com.orientechnologies.orient.core.storage.impl.local;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.OCreateDatabaseUtil;
+import com.orientechnologies.orient.core.db.ODatabasePool;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.record.OElement;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures throughput of concurrent transactions which insert records into the same class. Every
+ * commit locks clusters which contain records of transaction, so throughput depends on how records
+ * of a single transaction are spread among clusters of the class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@Threads(8)
+@Fork(1)
+public class MultiWriterInsertBenchmark {
+  private static final String DB_NAME = "multiWriterInsertBenchmark";
+  private static final String CLASS_NAME = "Item";
+  private static final int RECORDS_PER_TX = 10;
+
+  @Param({"round-robin", "thread-affinity"})
+  public String clusterSelection;
+
+  private String buildDirectory;
+  private OrientDB orientDB;
+  private ODatabasePool pool;
+
+  public static void main(String[] args) throws RunnerException {
+    final Options opt =
+        new OptionsBuilder()
+            .include("MultiWriterInsertBenchmark.*")
+            .jvmArgs("-server", "-Xmx2G", "-Xms2G")
+            .build();
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null || buildDirectory.isEmpty()) buildDirectory = ".";
+    buildDirectory += File.separator + "multiWriterInsertBenchmark";
+    OFileUtils.deleteRecursively(new File(buildDirectory));
+
+    orientDB =
+        OCreateDatabaseUtil.createDatabase(
+            DB_NAME, "embedded:" + buildDirectory, OCreateDatabaseUtil.TYPE_PLOCAL);
+    try (ODatabaseSession session =
+        orientDB.open(DB_NAME, "admin", OCreateDatabaseUtil.NEW_ADMIN_PASSWORD)) {
+      final OClass clazz = session.getMetadata().getSchema().createClass(CLASS_NAME, 8);
+      clazz.setClusterSelection(clusterSelection);
+    }
+
+    pool = new ODatabasePool(orientDB, DB_NAME, "admin", OCreateDatabaseUtil.NEW_ADMIN_PASSWORD);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    pool.close();
+    orientDB.drop(DB_NAME);
+    orientDB.close();
+    OFileUtils.deleteRecursively(new File(buildDirectory));
+  }
+
+  @Benchmark
+  public void insert() {
+    try (ODatabaseSession session = pool.acquire()) {
+      session.begin();
+      for (int i = 0; i < RECORDS_PER_TX; i++) {
+        final OElement element = session.newElement(CLASS_NAME);
+        element.setProperty("value", i);
+        element.setProperty("name", "item" + i);
+        session.save(element);
+      }
+      session.commit();
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package com.orientechnologies.orient.core.storage.impl.local;
+
+import com.orientechnologies.orient.core.OCreateDatabaseUtil;
+import com.orientechnologies.orient.core.db.ODatabasePool;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.OElement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures throughput of point reads of records by concurrent threads. Every read acquires the
+ * storage state lock in shared mode, so the benchmark shows how reads scale with amount of threads
+ * which share the same storage. Benchmark is executed on 1, 2, 4, 8, 16, 32 and 64 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@Fork(1)
+public class StorageStateLockBenchmark {
+  private static final String DB_NAME = "storageStateLockBenchmark";
+  private static final int RECORDS = 10_000;
+
+  private OrientDB orientDB;
+  private ODatabasePool pool;
+  private ORID[] rids;
+
+  public static void main(String[] args) throws RunnerException {
+    for (int threads = 1; threads <= 64; threads <<= 1) {
+      final Options opt =
+          new OptionsBuilder()
+              .include("StorageStateLockBenchmark.*")
+              .threads(threads)
+              .jvmArgs("-server", "-Xmx2G", "-Xms2G")
+              .build();
+      new Runner(opt).run();
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    orientDB =
+        OCreateDatabaseUtil.createDatabase(
+            DB_NAME, "embedded:", OCreateDatabaseUtil.TYPE_MEMORY);
+    pool = new ODatabasePool(orientDB, DB_NAME, "admin", OCreateDatabaseUtil.NEW_ADMIN_PASSWORD);
+
+    rids = new ORID[RECORDS];
+    try (ODatabaseSession session = pool.acquire()) {
+      session.createClass("Item");
+      for (int i = 0; i < RECORDS; i++) {
+        final OElement element = session.newElement("Item");
+        element.setProperty("value", i);
+        rids[i] = session.save(element).getIdentity();
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    pool.close();
+    orientDB.drop(DB_NAME);
+    orientDB.close();
+  }
+
+  @State(Scope.Thread)
+  public static class Session {
+    private ODatabaseSession session;
+
+    @Setup(Level.Trial)
+    public void setup(final StorageStateLockBenchmark benchmark) {
+      session = benchmark.pool.acquire();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      session.close();
+    }
+  }
+
+  @Benchmark
+  public Object pointRead(final Session session) {
+    final ORID rid = rids[ThreadLocalRandom.current().nextInt(RECORDS)];
+    // local cache is bypassed, so every read reaches the storage
+    session.session.getLocalCache().clear();
+    return session.session.load(rid);
+  }
+}
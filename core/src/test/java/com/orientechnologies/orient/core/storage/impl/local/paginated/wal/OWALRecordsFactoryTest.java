@@ -0,0 +1,92 @@
+package com.orientechnologies.orient.core.storage.impl.local.paginated.wal;
+
+import com.orientechnologies.orient.core.compression.impl.OGZIPCompression;
+import com.orientechnologies.orient.core.compression.impl.OHighZIPCompression;
+import com.orientechnologies.orient.core.compression.impl.OLZ4Compression;
+import com.orientechnologies.orient.core.compression.impl.OLZ4HighCompression;
+import com.orientechnologies.orient.core.compression.impl.OLowZIPCompression;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OWALRecordsFactoryTest {
+  /** Ids of the algorithms are stored in the WAL, so they can not change. */
+  private static final String[] COMPRESSIONS = {
+    OLZ4Compression.NAME,
+    OLZ4HighCompression.NAME,
+    OGZIPCompression.NAME,
+    OLowZIPCompression.NAME,
+    OHighZIPCompression.NAME
+  };
+
+  @Test
+  public void testCompressionIds() {
+    for (int i = 0; i < COMPRESSIONS.length; i++) {
+      Assert.assertEquals(i, OWALRecordsFactory.compressionId(COMPRESSIONS[i]));
+    }
+
+    Assert.assertEquals(0, OWALRecordsFactory.compressionId("unknown"));
+  }
+
+  @Test
+  public void testCompressedRoundTrip() {
+    final Random random = new Random(42);
+
+    for (final String compression : COMPRESSIONS) {
+      final OHighLevelTransactionChangeRecord record =
+          new OHighLevelTransactionChangeRecord(12, content(random, 64 * 1024));
+
+      final ByteBuffer stream =
+          OWALRecordsFactory.toStream(record, OWALRecordsFactory.compressionId(compression));
+      Assert.assertTrue(compression, stream.getShort(0) < 0);
+      Assert.assertTrue(compression, stream.limit() < record.serializedSize());
+
+      final OHighLevelTransactionChangeRecord restored =
+          (OHighLevelTransactionChangeRecord)
+              OWALRecordsFactory.INSTANCE.fromStream(toArray(stream));
+      Assert.assertEquals(compression, 12, restored.getOperationUnitId());
+      Assert.assertArrayEquals(compression, record.getData(), restored.getData());
+    }
+  }
+
+  @Test
+  public void testNotCompressedRoundTrip() {
+    final OHighLevelTransactionChangeRecord record =
+        new OHighLevelTransactionChangeRecord(12, content(new Random(42), 100));
+
+    for (final String compression : COMPRESSIONS) {
+      final ByteBuffer stream =
+          OWALRecordsFactory.toStream(record, OWALRecordsFactory.compressionId(compression));
+      Assert.assertTrue(compression, stream.getShort(0) >= 0);
+
+      final OHighLevelTransactionChangeRecord restored =
+          (OHighLevelTransactionChangeRecord)
+              OWALRecordsFactory.INSTANCE.fromStream(toArray(stream));
+      Assert.assertArrayEquals(compression, record.getData(), restored.getData());
+    }
+  }
+
+  private static byte[] toArray(final ByteBuffer stream) {
+    final byte[] content = new byte[stream.limit()];
+    stream.position(0);
+    stream.get(content);
+    return content;
+  }
+
+  /** Generates content which is partially repeated, so it can be compressed. */
+  private static byte[] content(final Random random, final int size) {
+    final byte[] content = new byte[size];
+    final byte[] pattern = new byte[64];
+    random.nextBytes(pattern);
+
+    for (int i = 0; i < size; i += pattern.length) {
+      if (random.nextInt(4) == 0) {
+        random.nextBytes(pattern);
+      }
+      System.arraycopy(pattern, 0, content, i, Math.min(pattern.length, size - i));
+    }
+
+    return content;
+  }
+}
@@ -17,6 +17,9 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 import org.junit.*;
 
@@ -39,6 +42,150 @@ public class CASDiskWriteAheadLogIT {
     OFileUtils.deleteRecursively(testDirectory.toFile());
   }
 
+  @Test
+  public void testGroupCommit() throws Exception {
+    final CASDiskWriteAheadLog wal =
+        new CASDiskWriteAheadLog(
+            "walTest",
+            testDirectory,
+            testDirectory,
+            100,
+            64,
+            null,
+            null,
+            Integer.MAX_VALUE,
+            Integer.MAX_VALUE,
+            20,
+            true,
+            Locale.US,
+            -1,
+            1000,
+            false,
+            false,
+            false,
+            10,
+            true,
+            5_000,
+            1024 * 1024);
+    try {
+      final int threads = 8;
+      final int commits = 100;
+
+      final ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try {
+        final List<Future<Void>> futures = new ArrayList<>();
+        for (int n = 0; n < threads; n++) {
+          futures.add(
+              executor.submit(
+                  () -> {
+                    final Random random = new Random();
+                    for (int i = 0; i < commits; i++) {
+                      final OLogSequenceNumber lsn =
+                          wal.log(new TestRecord(random, wal.pageSize(), 1));
+                      wal.waitTillDurable(lsn);
+
+                      Assert.assertTrue(lsn.compareTo(wal.getFlushedLsn()) <= 0);
+                    }
+                    return null;
+                  }));
+        }
+
+        for (final Future<Void> future : futures) {
+          future.get();
+        }
+      } finally {
+        executor.shutdown();
+      }
+
+      final CASDiskWriteAheadLog.GroupCommitStatistic statistic = wal.getGroupCommitStatistic();
+      Assert.assertNotNull(statistic);
+      Assert.assertEquals(threads * commits, statistic.getCommitCount());
+      Assert.assertTrue(statistic.getFSyncCount() > 0);
+      // commits of concurrent threads are synced together
+      Assert.assertTrue(statistic.getFSyncCount() < threads * commits);
+    } finally {
+      wal.close();
+    }
+  }
+
+  @Test
+  public void testReplayMixedCompressions() throws Exception {
+    final String[] compressions = {"lz4", "gzip", "lz4-high", "high-zip"};
+    final Random random = new Random(42);
+    final List<TestRecord> records = new ArrayList<>();
+    final List<OLogSequenceNumber> lsns = new ArrayList<>();
+
+    // EVERY ALGORITHM WRITES ITS RECORDS AFTER THE RECORDS OF THE PREVIOUS ONE
+    for (final String compression : compressions) {
+      final CASDiskWriteAheadLog wal = createWAL(compression);
+      try {
+        for (int i = 0; i < 5; i++) {
+          final TestRecord record = new TestRecord(compressibleData(random, 16 * 1024));
+          lsns.add(wal.log(record));
+          records.add(record);
+        }
+      } finally {
+        wal.close();
+      }
+    }
+
+    final CASDiskWriteAheadLog wal = createWAL("lz4");
+    try {
+      for (int i = 0; i < records.size(); i++) {
+        final List<WriteableWALRecord> read = wal.read(lsns.get(i), 1);
+        Assert.assertFalse(read.isEmpty());
+
+        final TestRecord record = (TestRecord) read.get(0);
+        Assert.assertEquals(lsns.get(i), record.getLsn());
+        Assert.assertArrayEquals(records.get(i).data, record.data);
+      }
+    } finally {
+      wal.close();
+    }
+  }
+
+  private static CASDiskWriteAheadLog createWAL(final String compression) throws Exception {
+    return new CASDiskWriteAheadLog(
+        "walTest",
+        testDirectory,
+        testDirectory,
+        100,
+        64,
+        null,
+        null,
+        Integer.MAX_VALUE,
+        Integer.MAX_VALUE,
+        20,
+        true,
+        Locale.US,
+        -1,
+        1000,
+        false,
+        false,
+        false,
+        10,
+        false,
+        0,
+        0,
+        compression);
+  }
+
+  /** Generates data which is partially repeated, so the record is compressed. */
+  private static byte[] compressibleData(final Random random, final int size) {
+    final byte[] data = new byte[size];
+    final byte[] pattern = new byte[64];
+    random.nextBytes(pattern);
+
+    for (int i = 0; i < size; i += pattern.length) {
+      if (random.nextInt(4) == 0) {
+        random.nextBytes(pattern);
+      }
+      System.arraycopy(pattern, 0, data, i, Math.min(pattern.length, size - i));
+    }
+
+    return data;
+  }
+
   @Test
   @Ignore
   public void testAddSingleOnePageRecord() throws Exception {
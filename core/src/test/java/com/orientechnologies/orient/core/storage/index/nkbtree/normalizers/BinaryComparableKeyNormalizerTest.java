@@ -0,0 +1,210 @@
+package com.orientechnologies.orient.core.storage.index.nkbtree.normalizers;
+
+import com.orientechnologies.common.comparator.ODefaultComparator;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.index.OCompositeKey;
+import com.orientechnologies.orient.core.index.OIndexException;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.storage.index.nkbtree.NormalizedKey;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BinaryComparableKeyNormalizerTest {
+  private final Random random = new Random(42);
+
+  @Test
+  public void testIntegers() {
+    final List<Object> keys = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      keys.add(random.nextInt());
+    }
+    keys.addAll(Arrays.asList(Integer.MIN_VALUE, Integer.MAX_VALUE, 0, -1, 1));
+
+    assertOrderAndRoundTrip(OType.INTEGER, keys);
+  }
+
+  @Test
+  public void testLongs() {
+    final List<Object> keys = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      keys.add(random.nextLong());
+    }
+    keys.addAll(Arrays.asList(Long.MIN_VALUE, Long.MAX_VALUE, 0L, -1L, 1L));
+
+    assertOrderAndRoundTrip(OType.LONG, keys);
+  }
+
+  @Test
+  public void testShortsAndBytes() {
+    final List<Object> shorts = new ArrayList<>();
+    final List<Object> bytes = new ArrayList<>();
+    for (int i = Byte.MIN_VALUE; i <= Byte.MAX_VALUE; i++) {
+      bytes.add((byte) i);
+      shorts.add((short) (i * 255));
+    }
+
+    assertOrderAndRoundTrip(OType.BYTE, bytes);
+    assertOrderAndRoundTrip(OType.SHORT, shorts);
+  }
+
+  @Test
+  public void testFloatingPointNumbers() {
+    final List<Object> doubles = new ArrayList<>();
+    final List<Object> floats = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      final double value = random.nextGaussian() * Math.pow(10, random.nextInt(20) - 10);
+      doubles.add(value);
+      floats.add((float) value);
+    }
+    doubles.addAll(
+        Arrays.asList(
+            0.0, -0.0, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, -1.5));
+    floats.addAll(
+        Arrays.asList(0.0f, -0.0f, Float.NaN, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY));
+
+    assertOrderAndRoundTrip(OType.DOUBLE, doubles);
+    assertOrderAndRoundTrip(OType.FLOAT, floats);
+  }
+
+  @Test
+  public void testStrings() {
+    final String alphabet = "a\u0000b\u00ff\uffff\ud800Z";
+    final List<Object> keys = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      final StringBuilder builder = new StringBuilder();
+      final int length = random.nextInt(5);
+      for (int j = 0; j < length; j++) {
+        builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+      }
+      keys.add(builder.toString());
+    }
+
+    assertOrderAndRoundTrip(OType.STRING, keys);
+  }
+
+  @Test
+  public void testDecimals() {
+    final List<Object> keys = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      keys.add(
+          new BigDecimal(BigInteger.valueOf(random.nextInt(2000) - 1000), random.nextInt(10) - 5));
+    }
+    keys.addAll(
+        Arrays.asList(
+            BigDecimal.ZERO,
+            new BigDecimal("1.50"),
+            new BigDecimal("1.5"),
+            new BigDecimal("-0.001"),
+            new BigDecimal("100")));
+
+    assertOrderAndRoundTrip(OType.DECIMAL, keys);
+  }
+
+  @Test
+  public void testDatesAndLinks() {
+    final List<Object> dates = new ArrayList<>();
+    final List<Object> links = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      dates.add(new Date(random.nextLong() >> 20));
+      links.add(new ORecordId(random.nextInt(5) - 2, random.nextInt(5) - 1));
+    }
+
+    assertOrderAndRoundTrip(OType.DATETIME, dates);
+    assertOrderAndRoundTrip(OType.LINK, links);
+  }
+
+  @Test
+  public void testCompositeKeyPrefixes() {
+    final BinaryComparableKeyNormalizer normalizer =
+        new BinaryComparableKeyNormalizer(new OType[] {OType.STRING, OType.INTEGER}, false);
+
+    final List<OCompositeKey> keys = new ArrayList<>();
+    final String[] strings = {null, "", "a", "a\u0000", "ab", "b"};
+    for (final String string : strings) {
+      for (final Integer integer : new Integer[] {null, -1, 0, 5}) {
+        keys.add(new OCompositeKey(string, integer));
+      }
+    }
+
+    for (final OCompositeKey key : keys) {
+      final byte[] normalizedKey = normalizer.normalize(key);
+      Assert.assertEquals(key, normalizer.denormalize(normalizedKey));
+
+      for (final OCompositeKey other : keys) {
+        Assert.assertEquals(
+            Integer.signum(key.compareTo(other)),
+            Integer.signum(
+                new NormalizedKey(normalizedKey)
+                    .compareTo(new NormalizedKey(normalizer.normalize(other)))));
+      }
+
+      for (final String string : strings) {
+        final OCompositeKey partialKey = new OCompositeKey(string);
+        Assert.assertTrue(normalizer.isPartial(partialKey));
+
+        final NormalizedKey from = new NormalizedKey(normalizer.normalize(partialKey));
+        final NormalizedKey to =
+            new NormalizedKey(BinaryComparableKeyNormalizer.upperBound(from.getBytes()));
+        final NormalizedKey normalized = new NormalizedKey(normalizedKey);
+
+        Assert.assertEquals(
+            ODefaultComparator.INSTANCE.compare(string, key.getKeys().get(0)) == 0,
+            normalized.compareTo(from) >= 0 && normalized.compareTo(to) <= 0);
+      }
+    }
+  }
+
+  @Test
+  public void testMultiValueKeys() {
+    final BinaryComparableKeyNormalizer normalizer =
+        new BinaryComparableKeyNormalizer(new OType[] {OType.STRING}, true);
+    final String[] strings = {null, "", "a", "a\u0000", "ab"};
+
+    for (final String string : strings) {
+      final byte[] entry = normalizer.normalize(string, new ORecordId(3, 7));
+      Assert.assertEquals(string, normalizer.denormalize(entry));
+
+      for (final String other : strings) {
+        final NormalizedKey from = new NormalizedKey(normalizer.normalize(other, null));
+        final NormalizedKey to =
+            new NormalizedKey(BinaryComparableKeyNormalizer.upperBound(from.getBytes()));
+        final NormalizedKey normalized = new NormalizedKey(entry);
+
+        Assert.assertEquals(
+            ODefaultComparator.INSTANCE.compare(string, other) == 0,
+            normalized.compareTo(from) >= 0 && normalized.compareTo(to) <= 0);
+      }
+    }
+  }
+
+  @Test(expected = OIndexException.class)
+  public void testUnsupportedType() {
+    new BinaryComparableKeyNormalizer(new OType[] {OType.STRING, OType.EMBEDDED}, false);
+  }
+
+  private static void assertOrderAndRoundTrip(final OType type, final List<Object> keys) {
+    final BinaryComparableKeyNormalizer normalizer =
+        new BinaryComparableKeyNormalizer(new OType[] {type}, false);
+
+    for (final Object key : keys) {
+      final NormalizedKey normalizedKey = new NormalizedKey(normalizer.normalize(key));
+      final Object restoredKey = normalizer.denormalize(normalizedKey.getBytes());
+      Assert.assertEquals(0, ODefaultComparator.INSTANCE.compare(key, restoredKey));
+
+      for (final Object other : keys) {
+        final NormalizedKey otherNormalizedKey = new NormalizedKey(normalizer.normalize(other));
+        Assert.assertEquals(
+            "Wrong order of " + key + " and " + other,
+            Integer.signum(ODefaultComparator.INSTANCE.compare(key, other)),
+            Integer.signum(normalizedKey.compareTo(otherNormalizedKey)));
+      }
+    }
+  }
+}
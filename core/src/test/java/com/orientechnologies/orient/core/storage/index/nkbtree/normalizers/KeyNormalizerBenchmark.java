@@ -1,8 +1,18 @@
 package com.orientechnologies.orient.core.storage.index.nkbtree.normalizers;
 
 import com.ibm.icu.text.Collator;
+import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.index.OCompositeKey;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.time.LocalDateTime;
@@ -10,7 +20,9 @@ import java.time.ZoneId;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -18,9 +30,11 @@ import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.profile.StackProfiler;
 import org.openjdk.jmh.runner.Runner;
@@ -36,6 +50,7 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 @Fork(1)
 public class KeyNormalizerBenchmark {
   private KeyNormalizer keyNormalizer;
+  private BinaryComparableKeyNormalizer binaryComparableKeyNormalizer;
 
   private OCompositeKey binaryCompositeKey;
   private OType[] binaryTypes;
@@ -68,6 +83,8 @@ public class KeyNormalizerBenchmark {
 
   private void binaryFixture() {
     keyNormalizer = new KeyNormalizer();
+    binaryComparableKeyNormalizer =
+        new BinaryComparableKeyNormalizer(new OType[] {OType.STRING, OType.INTEGER}, false);
     final byte[] binaryKey = new byte[] {1, 2, 3, 4, 5, 6};
     binaryCompositeKey = new OCompositeKey();
     binaryCompositeKey.addKey(binaryKey);
@@ -260,4 +277,91 @@ public class KeyNormalizerBenchmark {
     types[0] = OType.DECIMAL;
     keyNormalizer.normalize(compositeKey, types, Collator.NO_DECOMPOSITION);
   }
+
+  @Benchmark
+  public byte[] binaryComparableNormalizeCompositeStringInt() {
+    return binaryComparableKeyNormalizer.normalize(new OCompositeKey("abcd", 5));
+  }
+
+  @Benchmark
+  public Object binaryComparableDenormalizeCompositeStringInt() {
+    return binaryComparableKeyNormalizer.denormalize(
+        binaryComparableKeyNormalizer.normalize(new OCompositeKey("abcd", 5)));
+  }
+
+  @Benchmark
+  public long indexPointLookup(final IndexState state) {
+    state.session.activateOnCurrentThread();
+    final int i = state.random.nextInt(IndexState.RECORDS);
+    try (Stream<ORID> rids =
+        state.index.getInternal().getRids(new OCompositeKey(IndexState.name(i), i))) {
+      return rids.count();
+    }
+  }
+
+  @Benchmark
+  public long indexRangeScan(final IndexState state) {
+    state.session.activateOnCurrentThread();
+    final int i = state.random.nextInt(IndexState.RECORDS - IndexState.RANGE);
+    try (Stream<ORawPair<Object, ORID>> entries =
+        state
+            .index
+            .getInternal()
+            .streamEntriesBetween(
+                new OCompositeKey(IndexState.name(i)),
+                true,
+                new OCompositeKey(IndexState.name(i + IndexState.RANGE)),
+                false,
+                true)) {
+      return entries.count();
+    }
+  }
+
+  /** Memory database with composite unique index created by each of the compared engines. */
+  @State(Scope.Benchmark)
+  public static class IndexState {
+    static final int RECORDS = 100_000;
+    static final int RANGE = 100;
+
+    @Param({"SBTREE", "CELL_BTREE", "NKBTREE"})
+    public String algorithm;
+
+    private final Random random = new Random(42);
+
+    private OrientDB orientDB;
+    private ODatabaseSession session;
+    private OIndex index;
+
+    static String name(final int i) {
+      return String.format("key%08d", i);
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+      orientDB = new OrientDB("embedded:", OrientDBConfig.defaultConfig());
+      orientDB.create(KeyNormalizerBenchmark.class.getSimpleName(), ODatabaseType.MEMORY);
+      session = orientDB.open(KeyNormalizerBenchmark.class.getSimpleName(), "admin", "admin");
+
+      final OClass cls = session.createClass("Bench");
+      cls.createProperty("name", OType.STRING);
+      cls.createProperty("id", OType.INTEGER);
+      session
+          .command("create index Bench.name_id on Bench (name, id) UNIQUE ENGINE " + algorithm)
+          .close();
+
+      for (int i = 0; i < RECORDS; i++) {
+        session.save(new ODocument("Bench").field("name", name(i)).field("id", i));
+      }
+
+      final ODatabaseDocumentInternal database = (ODatabaseDocumentInternal) session;
+      index = database.getMetadata().getIndexManagerInternal().getIndex(database, "Bench.name_id");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      session.close();
+      orientDB.drop(KeyNormalizerBenchmark.class.getSimpleName());
+      orientDB.close();
+    }
+  }
 }
@@ -296,6 +296,15 @@ public class ODatabaseDocumentDistributed extends ODatabaseDocumentEmbedded {
     return task.getResult(result, this);
   }
 
+  @Override
+  public OResultSet queryOnNode(
+      String nodeName, String query, Set<String> clusters, Map<Object, Object> inputParameters) {
+    ORunQueryExecutionPlanTask task =
+        new ORunQueryExecutionPlanTask(query, clusters, inputParameters, nodeName);
+    ODistributedResponse result = executeTaskOnNode(task, nodeName);
+    return task.getResult(result, this);
+  }
+
   public ODistributedResponse executeTaskOnNode(ORemoteTask task, String nodeName) {
 
     if (distributedManager == null || !distributedManager.isEnabled())
@@ -1,5 +1,7 @@
 package com.orientechnologies.orient.server.distributed.impl.sql.executor;
 
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.BytesContainer;
+import com.orientechnologies.orient.core.serialization.serializer.result.binary.OResultSerializerNetwork;
 import com.orientechnologies.orient.core.sql.executor.OExecutionPlan;
 import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
@@ -12,7 +14,11 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 
-/** Created by luigidellaquila on 21/06/17. */
+/**
+ * Result set of a query executed on a remote node, results are fetched page by page.
+ *
+ * <p>Created by luigidellaquila on 21/06/17.
+ */
 public class ODistributedResultSet implements OResultSet {
   private String queryId;
   private List<OResult> data;
@@ -20,6 +26,7 @@ public class ODistributedResultSet implements OResultSet {
   private String nodeName;
 
   private int nextItem = -1;
+  private boolean hasMore = false;
   private boolean finished = false;
 
   @Override
@@ -30,29 +37,19 @@ public class ODistributedResultSet implements OResultSet {
     if (nextItem < 0) {
       throw new IllegalStateException();
     }
-    if (data.size() < nextItem) {
-      return true;
+    while (nextItem >= data.size()) {
+      if (!hasMore) {
+        finished = true;
+        return false;
+      }
+      fetchNextBlock();
     }
-    fetchNextBlock();
-    if (data.size() < nextItem) {
-      return true;
-    }
-    return false;
+    return true;
   }
 
   @Override
   public OResult next() {
-    if (nextItem < 0) {
-      throw new IllegalStateException();
-    }
-    if (finished) {
-      throw new NoSuchElementException();
-    }
-    if (data.size() < nextItem) {
-      return data.get(nextItem++);
-    }
-    fetchNextBlock();
-    if (finished || data.size() >= nextItem) {
+    if (!hasNext()) {
       throw new NoSuchElementException();
     }
     return data.get(nextItem++);
@@ -61,19 +58,23 @@ public class ODistributedResultSet implements OResultSet {
   private void fetchNextBlock() {
     OFetchQueryPageTask task = new OFetchQueryPageTask(queryId);
     ODistributedResponse result = database.executeTaskOnNode(task, nodeName);
-    setData((List<OResult>) result.getPayload());
+    setPage(deserializePage((byte[]) result.getPayload()));
   }
 
   @Override
   public void close() {
-    OCloseQueryTask task = new OCloseQueryTask(queryId);
-    database.executeTaskOnNode(task, nodeName);
+    if (hasMore) {
+      // the query is closed by the remote node once all the results are fetched
+      OCloseQueryTask task = new OCloseQueryTask(queryId);
+      database.executeTaskOnNode(task, nodeName);
+      hasMore = false;
+    }
     this.finished = true;
   }
 
   @Override
   public Optional<OExecutionPlan> getExecutionPlan() {
-    return null;
+    return Optional.empty();
   }
 
   @Override
@@ -88,7 +89,13 @@ public class ODistributedResultSet implements OResultSet {
   public void setData(List<OResult> data) {
     this.data = data;
     nextItem = 0;
-    finished = data.size() == 0;
+    finished = data.size() == 0 && !hasMore;
+  }
+
+  /** @param page a page of results as returned by the remote node */
+  public void setPage(OResult page) {
+    hasMore = Boolean.TRUE.equals(page.getProperty("hasMore"));
+    setData(page.getProperty("data"));
   }
 
   public void setDatabase(ODatabaseDocumentDistributed database) {
@@ -98,4 +105,14 @@ public class ODistributedResultSet implements OResultSet {
   public void setNodeName(String nodeName) {
     this.nodeName = nodeName;
   }
+
+  public static byte[] serializePage(OResult page) {
+    BytesContainer container = new BytesContainer();
+    new OResultSerializerNetwork().serialize(page, container);
+    return container.fitBytes();
+  }
+
+  public static OResult deserializePage(byte[] bytes) {
+    return new OResultSerializerNetwork().deserialize(new BytesContainer(bytes));
+  }
 }
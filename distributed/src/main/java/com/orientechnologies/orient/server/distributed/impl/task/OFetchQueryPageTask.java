@@ -9,6 +9,7 @@ import com.orientechnologies.orient.server.distributed.ODistributedException;
 import com.orientechnologies.orient.server.distributed.ODistributedRequestId;
 import com.orientechnologies.orient.server.distributed.ODistributedServerManager;
 import com.orientechnologies.orient.server.distributed.ORemoteTaskFactory;
+import com.orientechnologies.orient.server.distributed.impl.sql.executor.ODistributedResultSet;
 import com.orientechnologies.orient.server.distributed.task.OAbstractRemoteTask;
 import java.io.DataInput;
 import java.io.DataOutput;
@@ -52,7 +53,7 @@ public class OFetchQueryPageTask extends OAbstractRemoteTask {
     if (ctx == null) {
       throw new ODistributedException("Invalid query ID: " + queryId);
     }
-    return ctx.fetchNextPage();
+    return ODistributedResultSet.serializePage(ctx.fetchNextPage());
   }
 
   @Override
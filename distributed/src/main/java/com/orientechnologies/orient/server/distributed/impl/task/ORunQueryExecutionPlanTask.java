@@ -1,6 +1,7 @@
 package com.orientechnologies.orient.server.distributed.impl.task;
 
 import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
 import com.orientechnologies.orient.core.command.OCommandDistributedReplicateRequest;
 import com.orientechnologies.orient.core.db.DistributedQueryContext;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
@@ -14,7 +15,7 @@ import com.orientechnologies.orient.core.sql.executor.OInternalExecutionPlan;
 import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.core.sql.executor.OResultInternal;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
-import com.orientechnologies.orient.core.sql.parser.OLocalResultSetLifecycleDecorator;
+import com.orientechnologies.orient.core.sql.executor.OSelectExecutionPlanner;
 import com.orientechnologies.orient.server.OServer;
 import com.orientechnologies.orient.server.distributed.ODistributedException;
 import com.orientechnologies.orient.server.distributed.ODistributedRequestId;
@@ -29,17 +30,27 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
-/** Created by luigidellaquila on 23/06/17. */
+/**
+ * Executes a query on a node and returns first page of results, next pages are fetched with {@link
+ * OFetchQueryPageTask}. The query is sent either as an execution plan or as a SQL statement which
+ * is planned by the node that executes it, restricted to the clusters of a shard.
+ *
+ * <p>Created by luigidellaquila on 23/06/17.
+ */
 public class ORunQueryExecutionPlanTask extends OAbstractRemoteTask {
 
   public static final int FACTORYID = 40;
 
   private String nodeName;
   private OExecutionPlan plan;
+  private String query;
+  private Set<String> clusters;
   private Map<Object, Object> inputParams;
 
   public ORunQueryExecutionPlanTask(
@@ -49,6 +60,17 @@ public class ORunQueryExecutionPlanTask extends OAbstractRemoteTask {
     this.nodeName = nodeName;
   }
 
+  public ORunQueryExecutionPlanTask(
+      String query,
+      Set<String> clusters,
+      Map<Object, Object> inputParameters,
+      String nodeName) {
+    this.query = query;
+    this.clusters = clusters;
+    this.inputParams = inputParameters;
+    this.nodeName = nodeName;
+  }
+
   public ORunQueryExecutionPlanTask() {}
 
   @Override
@@ -73,8 +95,17 @@ public class ORunQueryExecutionPlanTask extends OAbstractRemoteTask {
     try {
       ODatabaseDocumentInternal db = database.copy();
       db.activateOnCurrentThread();
-      OLocalResultSetLifecycleDecorator result =
-          ((ODatabaseDocumentEmbedded) db).query(plan, inputParams);
+      OResultSet result;
+      if (query != null) {
+        OBasicCommandContext ctx = new OBasicCommandContext();
+        ctx.setDatabase(db);
+        ctx.setInputParameters(inputParams);
+        OInternalExecutionPlan shardPlan =
+            OSelectExecutionPlanner.createShardExecutionPlan(query, clusters, ctx, false);
+        result = ((ODatabaseDocumentEmbedded) db).query(shardPlan, inputParams);
+      } else {
+        result = ((ODatabaseDocumentEmbedded) db).query(plan, inputParams);
+      }
 
       DistributedQueryContext context = new DistributedQueryContext();
       context.setDb(db);
@@ -84,19 +115,10 @@ public class ORunQueryExecutionPlanTask extends OAbstractRemoteTask {
       ((OSharedContextEmbedded) db.getSharedContext())
           .getActiveDistributedQueries()
           .put(context.getQueryId(), context);
-      OResultInternal serialized = new OResultInternal();
-
-      serialized.setProperty("queryId", context.getQueryId());
-      List<OResult> firstPage = new ArrayList<>();
-      for (int i = 0; i < 100; i++) {
-        if (!result.hasNext()) {
-          break;
-        }
-        firstPage.add(result.next());
-      }
-      serialized.setProperty("data", firstPage);
 
-      return serialized;
+      OResultInternal firstPage = context.fetchNextPage();
+      firstPage.setProperty("queryId", context.getQueryId());
+      return ODistributedResultSet.serializePage(firstPage);
     } finally {
       if (prev == null) {
         ODatabaseRecordThreadLocal.instance().remove();
@@ -107,10 +129,10 @@ public class ORunQueryExecutionPlanTask extends OAbstractRemoteTask {
   }
 
   public OResultSet getResult(ODistributedResponse resp, ODatabaseDocumentDistributed db) {
-    OResult payload = (OResult) resp.getPayload();
+    OResult payload = ODistributedResultSet.deserializePage((byte[]) resp.getPayload());
     ODistributedResultSet result = new ODistributedResultSet();
     result.setQueryId(payload.getProperty("queryId"));
-    result.setData(payload.getProperty("data"));
+    result.setPage(payload);
     result.setDatabase(db);
     result.setNodeName(nodeName);
     return result;
@@ -121,23 +143,31 @@ public class ORunQueryExecutionPlanTask extends OAbstractRemoteTask {
     OResultSerializerNetwork serializerNetwork = new OResultSerializerNetwork();
     BytesContainer container = new BytesContainer();
 
-    serializerNetwork.serialize(serializePlan(plan), container);
+    serializerNetwork.serialize(
+        plan != null ? serializePlan(plan) : new OResultInternal(), container);
 
     OResultInternal params = new OResultInternal();
     params.setProperty("params", convertParams(inputParams));
     serializerNetwork.serialize(params, container);
 
     OResultInternal metadata = new OResultInternal();
-    params.setProperty("nodeName", nodeName);
+    metadata.setProperty("nodeName", nodeName);
+    metadata.setProperty("query", query);
+    if (clusters != null) {
+      metadata.setProperty("clusters", new ArrayList<>(clusters));
+    }
     serializerNetwork.serialize(metadata, container);
 
     container.fitBytes();
-    out.write(container.bytes.length);
+    out.writeInt(container.bytes.length);
     out.write(container.bytes);
   }
 
   private Map<String, Object> convertParams(Map<Object, Object> inputParams) {
     Map<String, Object> result = new HashMap<>();
+    if (inputParams == null) {
+      return result;
+    }
     for (Map.Entry<Object, Object> entry : inputParams.entrySet()) {
       result.put(String.valueOf(entry.getKey()), entry.getValue());
     }
@@ -157,7 +187,12 @@ public class ORunQueryExecutionPlanTask extends OAbstractRemoteTask {
     inputParams = serializerNetwork.deserialize(container).getProperty("params");
     OResult metadata = serializerNetwork.deserialize(container);
     nodeName = metadata.getProperty("nodeName");
-    this.plan = deserializePlan(serializedExecutionPlan);
+    query = metadata.getProperty("query");
+    List<String> clusterList = metadata.getProperty("clusters");
+    clusters = clusterList == null ? null : new HashSet<>(clusterList);
+    if (query == null) {
+      this.plan = deserializePlan(serializedExecutionPlan);
+    }
   }
 
   private OExecutionPlan deserializePlan(OResult serializedExecutionPlan) {
@@ -182,4 +217,16 @@ public class ORunQueryExecutionPlanTask extends OAbstractRemoteTask {
   public int getFactoryId() {
     return FACTORYID;
   }
+
+  public String getQuery() {
+    return query;
+  }
+
+  public Set<String> getClusters() {
+    return clusters;
+  }
+
+  public String getNodeName() {
+    return nodeName;
+  }
 }
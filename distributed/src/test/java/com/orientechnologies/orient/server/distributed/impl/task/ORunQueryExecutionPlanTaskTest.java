@@ -0,0 +1,30 @@
+package com.orientechnologies.orient.server.distributed.impl.task;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ORunQueryExecutionPlanTaskTest extends AbstractRemoteTaskTest {
+
+  @Test
+  public void testQuerySerialization() throws IOException {
+    Map<Object, Object> params = new HashMap<>();
+    params.put("name", "foo");
+    ORunQueryExecutionPlanTask from =
+        new ORunQueryExecutionPlanTask(
+            "SELECT name FROM Person WHERE name = :name",
+            new HashSet<>(Arrays.asList("person", "person_1")),
+            params,
+            "node1");
+    ORunQueryExecutionPlanTask to = new ORunQueryExecutionPlanTask();
+    serializeDeserialize(from, to);
+
+    Assert.assertEquals(from.getQuery(), to.getQuery());
+    Assert.assertEquals(from.getClusters(), to.getClusters());
+    Assert.assertEquals(from.getNodeName(), to.getNodeName());
+  }
+}
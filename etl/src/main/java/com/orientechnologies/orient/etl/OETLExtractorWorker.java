@@ -37,16 +37,21 @@ class OETLExtractorWorker implements Runnable {
   @Override
   public void run() {
     extractor.getProcessor().getContext().getMessageHandler().debug(this, "Start extracting");
+    final OETLProcessor.OETLProcessorStats stats = extractor.getProcessor().getStats();
     boolean fetch = true;
     while (fetch == true) {
 
       try {
+        long start = System.nanoTime();
         if (extractor.hasNext()) {
           // EXTRACTOR
           final OETLExtractedItem current = extractor.next();
+          stats.extraction.record(start);
 
-          // enqueue for transform and load
+          // enqueue for transform and load, blocks while all workers are busy
+          start = System.nanoTime();
           queue.put(current);
+          stats.backpressure.record(start);
         } else {
 
           queue.put(new OETLExtractedItem(true));
@@ -26,6 +26,7 @@ import com.orientechnologies.orient.core.db.ODatabasePool;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.etl.loader.OETLLoader;
 import com.orientechnologies.orient.etl.transformer.OETLTransformer;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 
@@ -35,6 +36,9 @@ import java.util.logging.Level;
  * @author Luca Garulli (l.garulli--(at)--orientdb.com) (l.garulli-at-orientdb.com)
  */
 public class OETLPipeline {
+  /** Context variable which holds index of the worker executing the pipeline. */
+  public static final String WORKER_VARIABLE = "workerId";
+
   protected final OETLProcessor processor;
   protected final List<OETLTransformer> transformers;
   protected final OETLLoader loader;
@@ -44,6 +48,8 @@ public class OETLPipeline {
   protected boolean haltOnError;
 
   protected ODatabasePool pool;
+  protected ODatabaseDocument database;
+  private final List<OETLExtractedItem> batch = new ArrayList<>();
 
   public OETLPipeline(
       final OETLProcessor processor,
@@ -87,71 +93,187 @@ public class OETLPipeline {
     return db;
   }
 
+  /**
+   * Returns session of this pipeline. Pipeline is executed by single worker thread, so the session
+   * is acquired once and kept till the end of the pipeline.
+   */
+  protected ODatabaseDocument session() {
+    if (database == null) {
+      database = acquire();
+    } else {
+      database.activateOnCurrentThread();
+    }
+    return database;
+  }
+
   protected Object execute(final OETLExtractedItem source) {
+    batch.add(source);
+
+    final Object result = process(source);
+
+    if (batch.size() >= Math.max(1, loader.getBatchCommitSize())) {
+      commitBatch();
+    }
+
+    return result;
+  }
+
+  private Object process(final OETLExtractedItem source) {
     int retry = 0;
     do {
-      try (ODatabaseDocument db = acquire()) {
-        try {
-          Object current = source.payload;
-
-          context.setVariable("extractedNum", source.num);
-          context.setVariable("extractedPayload", source.payload);
-
-          for (OETLTransformer t : transformers) {
-            current = t.transform(db, current);
-            if (current == null) {
-              processor
-                  .getContext()
-                  .getMessageHandler()
-                  .warn(this, "Transformer [%s] returned null, skip rest of pipeline execution", t);
-            }
-          }
-          if (current != null) {
-            // LOAD
-            loader.load(db, current, context);
+      final ODatabaseDocument db = session();
+      try {
+        final OETLProcessor.OETLProcessorStats stats = processor.getStats();
+        Object current = source.payload;
+
+        context.setVariable("extractedNum", source.num);
+        context.setVariable("extractedPayload", source.payload);
+
+        long start = System.nanoTime();
+        for (OETLTransformer t : transformers) {
+          current = t.transform(db, current);
+          if (current == null) {
+            processor
+                .getContext()
+                .getMessageHandler()
+                .warn(this, "Transformer [%s] returned null, skip rest of pipeline execution", t);
           }
+        }
+        stats.transformation.record(start);
 
-          db.commit();
-          return current;
-        } catch (ONeedRetryException e) {
-          loader.rollback(db);
-          retry++;
-          processor
-              .getContext()
-              .getMessageHandler()
-              .info(
-                  this,
-                  "Error in pipeline execution, retry = %d/%d (exception=)",
-                  retry,
-                  maxRetries,
-                  e);
-        } catch (OETLProcessHaltedException e) {
-          processor.getContext().getMessageHandler().error(this, "Pipeline execution halted");
-
-          processor.getStats().incrementErrors();
+        if (current != null) {
+          // LOAD
+          start = System.nanoTime();
+          loader.load(db, current, context);
+          stats.loading.record(start);
+        }
 
-          loader.rollback(db);
-          throw e;
+        return current;
+      } catch (ONeedRetryException e) {
+        loader.rollback(db);
+        retry++;
+        processor
+            .getContext()
+            .getMessageHandler()
+            .info(
+                this,
+                "Error in pipeline execution, retry = %d/%d (exception=)",
+                retry,
+                maxRetries,
+                e);
 
-        } catch (Exception e) {
-          processor.getContext().getMessageHandler().error(this, "Error in Pipeline execution:", e);
+        if (retry < maxRetries && !replayBatch(source)) {
+          return null;
+        }
+      } catch (OETLProcessHaltedException e) {
+        processor.getContext().getMessageHandler().error(this, "Pipeline execution halted");
 
-          processor.getStats().incrementErrors();
+        processor.getStats().incrementErrors();
 
-          if (!haltOnError) {
-            return null;
-          }
+        loader.rollback(db);
+        batch.clear();
+        throw e;
 
+      } catch (Exception e) {
+        processor.getContext().getMessageHandler().error(this, "Error in Pipeline execution:", e);
+
+        processor.getStats().incrementErrors();
+
+        if (!haltOnError) {
+          // changes of the failed item are discarded together with the whole batch
           loader.rollback(db);
-          throw OException.wrapException(new OETLProcessHaltedException("Halt"), e);
+          batch.remove(source);
+          replayBatch(null);
+          return null;
         }
+
+        loader.rollback(db);
+        batch.clear();
+        throw OException.wrapException(new OETLProcessHaltedException("Halt"), e);
       }
     } while (retry < maxRetries);
 
     return this;
   }
 
+  /**
+   * Rollback of transaction discards all items of current batch, so items which precede the failed
+   * one are processed again. Items of the whole batch are processed again if failed item is
+   * <code>null</code>.
+   *
+   * @return <code>false</code> if the failed item was discarded because of errors in the preceding
+   *     items
+   */
+  private boolean replayBatch(final OETLExtractedItem failed) {
+    final List<OETLExtractedItem> items = new ArrayList<>(batch);
+    batch.clear();
+
+    for (OETLExtractedItem item : items) {
+      if (item == failed) {
+        batch.add(item);
+        return true;
+      }
+
+      batch.add(item);
+      process(item);
+    }
+
+    return false;
+  }
+
+  /** Commits items processed since the previous commit. */
+  protected void commitBatch() {
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    int retry = 0;
+    do {
+      final ODatabaseDocument db = session();
+      try {
+        final long start = System.nanoTime();
+        if (db != null) {
+          db.commit();
+        }
+        processor.getStats().commit.record(start);
+
+        batch.clear();
+        return;
+      } catch (ONeedRetryException e) {
+        loader.rollback(db);
+        retry++;
+        processor
+            .getContext()
+            .getMessageHandler()
+            .info(
+                this,
+                "Error on commit of batch, retry = %d/%d (exception=)",
+                retry,
+                maxRetries,
+                e);
+
+        if (retry < maxRetries) {
+          replayBatch(null);
+        }
+      }
+    } while (retry < maxRetries);
+
+    processor.getStats().incrementErrors();
+    batch.clear();
+    if (haltOnError) {
+      throw new OETLProcessHaltedException("Halt: batch cannot be committed");
+    }
+  }
+
   public void end() {
-    //    pool.close();
+    try {
+      commitBatch();
+    } finally {
+      if (database != null) {
+        database.activateOnCurrentThread();
+        database.close();
+        database = null;
+      }
+    }
   }
 }
@@ -39,6 +39,7 @@ final class OETLPipelineWorker implements Runnable {
       while (!(content = queue.take()).finished) {
         pipeline.execute(content);
       }
+      // COMMIT LAST BATCH AND RELEASE THE SESSION
       pipeline.end();
       // RE-ADD END FLAG FOR OTHER THREADS
       queue.put(content);
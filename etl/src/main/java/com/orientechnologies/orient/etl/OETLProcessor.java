@@ -40,6 +40,7 @@ import java.util.Locale;
 import java.util.TimerTask;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -137,6 +138,12 @@ public class OETLProcessor {
 
       if (cores >= 2) workers = cores - 1;
     }
+
+    final Integer cfgWorkers = (Integer) context.getVariable("workers");
+    if (cfgWorkers != null && cfgWorkers > 0) {
+      workers = cfgWorkers;
+      parallel = workers > 1;
+    }
   }
 
   public OETLProcessorStats getStats() {
@@ -159,6 +166,11 @@ public class OETLProcessor {
     return transformers;
   }
 
+  /** @return number of pipeline workers which transform and load extracted items */
+  public int getWorkers() {
+    return workers;
+  }
+
   public Level getLogLevel() {
     return logLevel;
   }
@@ -202,11 +214,7 @@ public class OETLProcessor {
               .map(
                   i ->
                       CompletableFuture.runAsync(
-                          new OETLPipelineWorker(
-                              queue,
-                              new OETLPipeline(
-                                  this, transformers, loader, logLevel, maxRetries, haltOnError)),
-                          executor))
+                          new OETLPipelineWorker(queue, createPipeline(i)), executor))
               .collect(Collectors.toList());
 
       futures.add(
@@ -227,6 +235,18 @@ public class OETLProcessor {
     executor.shutdown();
   }
 
+  private OETLPipeline createPipeline(final int worker) {
+    final OETLPipeline pipeline =
+        new OETLPipeline(this, transformers, loader, logLevel, maxRetries, haltOnError);
+
+    if (parallel) {
+      // lets loader write records of each worker into its own cluster
+      pipeline.getContext().setVariable(OETLPipeline.WORKER_VARIABLE, worker);
+    }
+
+    return pipeline;
+  }
+
   protected void begin() {
     getContext().getMessageHandler().info(this, "BEGIN ETL PROCESSOR");
     final Integer cfgMaxRetries = (Integer) context.getVariable("maxRetries");
@@ -340,6 +360,30 @@ public class OETLProcessor {
               stats.errors.get());
     }
 
+    getContext()
+        .getMessageHandler()
+        .info(
+            this,
+            "+ stages: extract %s - wait for workers %s - transform %s - load %s - commit %s",
+            stats.extraction.lap(now, stats.lastLap),
+            stats.backpressure.lap(now, stats.lastLap),
+            stats.transformation.lap(now, stats.lastLap),
+            stats.loading.lap(now, stats.lastLap),
+            stats.commit.lap(now, stats.lastLap));
+
+    final long lookupHits = stats.lookupHits.sum();
+    final long lookupMisses = stats.lookupMisses.sum();
+    if (lookupHits + lookupMisses > 0) {
+      getContext()
+          .getMessageHandler()
+          .info(
+              this,
+              "+ lookup cache: %,d hits, %,d misses (%3.2f%% hit rate)",
+              lookupHits,
+              lookupMisses,
+              lookupHits * 100f / (lookupHits + lookupMisses));
+    }
+
     stats.lastExtractorProgress = extractorProgress;
     stats.lastLoaderProgress = loaderProgress;
     stats.lastLap = now;
@@ -460,6 +504,21 @@ public class OETLProcessor {
     public AtomicLong warnings = new AtomicLong();
     public AtomicLong errors = new AtomicLong();
 
+    /** Extraction of items from the source. */
+    public final OETLStageStats extraction = new OETLStageStats();
+    /** Time which extractor waits till pipeline workers free space in the queue. */
+    public final OETLStageStats backpressure = new OETLStageStats();
+
+    public final OETLStageStats transformation = new OETLStageStats();
+    public final OETLStageStats loading = new OETLStageStats();
+    /** Commits of batches of loaded items. */
+    public final OETLStageStats commit = new OETLStageStats();
+
+    /** Lookups of transformers which are served by the lookup cache. */
+    public final LongAdder lookupHits = new LongAdder();
+
+    public final LongAdder lookupMisses = new LongAdder();
+
     public long incrementWarnings() {
       return warnings.incrementAndGet();
     }
@@ -468,4 +527,45 @@ public class OETLProcessor {
       return errors.incrementAndGet();
     }
   }
+
+  /** Throughput and latency counters of single stage of ETL process. */
+  public static class OETLStageStats {
+    private final LongAdder operations = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private long lastOperations;
+    private long lastNanos;
+
+    public void record(final long startNanos) {
+      operations.increment();
+      nanos.add(System.nanoTime() - startNanos);
+    }
+
+    public long getOperations() {
+      return operations.sum();
+    }
+
+    /** @return average latency of single operation in milliseconds */
+    public double getAverageLatency() {
+      final long count = operations.sum();
+      return count > 0 ? nanos.sum() / 1_000_000d / count : 0;
+    }
+
+    /** Formats throughput and latency of operations since the previous lap. */
+    String lap(final long now, final long lastLap) {
+      final long currentOperations = operations.sum();
+      final long currentNanos = nanos.sum();
+
+      final long lapOperations = currentOperations - lastOperations;
+      final long lapNanos = currentNanos - lastNanos;
+
+      lastOperations = currentOperations;
+      lastNanos = currentNanos;
+
+      return String.format(
+          "%,d (%,d/sec, %.3f ms avg)",
+          currentOperations,
+          (long) (lapOperations * 1000f / Math.max(1, now - lastLap)),
+          lapOperations > 0 ? lapNanos / 1_000_000d / lapOperations : 0d);
+    }
+  }
 }
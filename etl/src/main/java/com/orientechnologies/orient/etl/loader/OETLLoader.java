@@ -37,6 +37,14 @@ public interface OETLLoader extends OETLComponent {
 
   void rollback(ODatabaseDocument db);
 
+  /**
+   * @return number of items which are loaded in single transaction, 0 if every item is committed
+   *     separately
+   */
+  default int getBatchCommitSize() {
+    return 0;
+  }
+
   ODatabasePool getPool();
 
   void close();
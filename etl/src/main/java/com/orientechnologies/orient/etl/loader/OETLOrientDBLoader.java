@@ -44,7 +44,6 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 /** ETL Loader that saves record into OrientDB database. */
@@ -70,7 +69,6 @@ public class OETLOrientDBLoader extends OETLAbstractLoader {
   protected boolean standardElementConstraints = true;
   protected boolean tx = false;
   protected int batchCommitSize = 0;
-  protected AtomicLong batchCounter = new AtomicLong(0);
   protected DB_TYPE dbType = DOCUMENT;
   protected boolean wal = true;
   protected boolean txUseLog = false;
@@ -102,7 +100,7 @@ public class OETLOrientDBLoader extends OETLAbstractLoader {
       final OVertex v = (OVertex) input;
 
       try {
-        v.save(clusterName);
+        v.save(clusterName != null ? clusterName : workerCluster(db, v.getSchemaType(), context));
       } catch (ORecordDuplicatedException e) {
         if (!skipDuplicates) {
           throw e;
@@ -119,7 +117,13 @@ public class OETLOrientDBLoader extends OETLAbstractLoader {
       if (clusterName != null) {
         db.save(doc, clusterName);
       } else if (doc.getClassName() != null) {
-        db.save(doc);
+        final String cluster =
+            workerCluster(db, Optional.ofNullable(doc.getSchemaClass()), context);
+        if (cluster != null) {
+          db.save(doc, cluster);
+        } else {
+          db.save(doc);
+        }
       } else {
         getContext()
             .getMessageHandler()
@@ -136,22 +140,34 @@ public class OETLOrientDBLoader extends OETLAbstractLoader {
     }
 
     progress.incrementAndGet();
+  }
 
-    // DO BATCH COMMIT if on TX
+  /**
+   * Selects cluster of the class by index of the pipeline worker, so parallel workers write into
+   * different clusters and do not contend on the same cluster during commit.
+   *
+   * @return name of the cluster or <code>null</code> if records are loaded by single worker
+   */
+  protected String workerCluster(
+      ODatabaseDocument db, Optional<OClass> cls, OCommandContext context) {
+    final Object worker = context.getVariable(OETLPipeline.WORKER_VARIABLE);
+    if (!(worker instanceof Integer) || !cls.isPresent()) {
+      return null;
+    }
 
-    if (tx && batchCommitSize > 0 && batchCounter.get() > batchCommitSize) {
-      synchronized (this) {
-        if (batchCommitSize > 0 && batchCounter.get() > batchCommitSize) {
-          log(Level.FINE, "committing document batch %d", progress.get());
-          db.commit();
-          db.begin();
-          db.getTransaction().setUsingLog(txUseLog);
-          batchCounter.set(0);
-        }
-      }
-    } else {
-      batchCounter.incrementAndGet();
+    final int[] clusterIds = cls.get().getClusterIds();
+    if (clusterIds.length == 0) {
+      return null;
     }
+
+    final int clusterId = clusterIds[(Integer) worker % clusterIds.length];
+    return clusterId >= 0 ? db.getClusterNameById(clusterId) : null;
+  }
+
+  @Override
+  public int getBatchCommitSize() {
+    // batches are committed by the pipeline, without transaction every record is committed on save
+    return tx ? batchCommitSize : 0;
   }
 
   protected void autoCreateProperties(ODatabaseDocument db, Object input) {
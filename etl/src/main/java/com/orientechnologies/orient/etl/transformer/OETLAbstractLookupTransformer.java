@@ -29,8 +29,12 @@ import com.orientechnologies.orient.core.sql.query.OSQLQuery;
 import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
+import java.util.logging.Level;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -40,8 +44,12 @@ public abstract class OETLAbstractLookupTransformer extends OETLAbstractTransfor
   protected Object joinValue;
   protected String lookup;
   protected ACTION unresolvedLinkAction = ACTION.NOTHING;
+  protected int lookupCacheSize;
+  protected boolean lookupCachePreload;
   private OSQLQuery<ODocument> sqlQuery;
   private OIndex index;
+  private OETLLookupCache cache;
+  private volatile boolean initialized;
 
   @Override
   public void configure(final ODocument iConfiguration, OCommandContext iContext) {
@@ -57,6 +65,74 @@ public abstract class OETLAbstractLookupTransformer extends OETLAbstractTransfor
       unresolvedLinkAction =
           ACTION.valueOf(
               iConfiguration.field("unresolvedLinkAction").toString().toUpperCase(Locale.ENGLISH));
+
+    if (iConfiguration.containsField("lookupCache"))
+      lookupCacheSize = iConfiguration.<Integer>field("lookupCache");
+
+    if (iConfiguration.containsField("lookupCachePreload"))
+      lookupCachePreload = iConfiguration.<Boolean>field("lookupCachePreload");
+  }
+
+  protected String getLookupCacheConfigurationParameters() {
+    return "{lookupCache:{optional:true,description:'Maximum amount of lookup keys kept in the cache, only lookups of unique indexes are cached. Default is 0, lookups are not cached'}},"
+        + "{lookupCachePreload:{optional:true,description:'Load content of the lookup index into the cache at start, up to the size of the cache', default:false}}";
+  }
+
+  private synchronized void init(final ODatabaseDocumentInternal db) {
+    if (initialized) return;
+
+    if (lookup.toUpperCase(Locale.ENGLISH).startsWith("SELECT"))
+      sqlQuery = new OSQLSynchQuery<>(lookup);
+    else {
+      index = db.getMetadata().getIndexManagerInternal().getIndex(db, lookup);
+      if (index == null) {
+        getContext()
+            .getMessageHandler()
+            .warn(this, "WARNING: index %s not found. Lookups could be really slow", lookup);
+        final String[] parts = lookup.split("\\.");
+        sqlQuery =
+            new OSQLSynchQuery<ODocument>(
+                "SELECT FROM " + parts[0] + " WHERE " + parts[1] + " = ?");
+      }
+    }
+
+    if (lookupCacheSize > 0) {
+      if (index != null && index.isUnique() && index.getInternal() != null) {
+        if (lookupCachePreload) {
+          cache = new OETLLookupCache(lookupCacheSize, index.getInternal());
+          log(Level.FINE, "preloaded content of index %s into lookup cache", lookup);
+        } else {
+          cache = new OETLLookupCache(lookupCacheSize, null);
+        }
+      } else {
+        getContext()
+            .getMessageHandler()
+            .warn(
+                this, "WARNING: lookup %s is not an unique index, lookups are not cached", lookup);
+      }
+    }
+
+    initialized = true;
+  }
+
+  /**
+   * Resolves not cached join values using single request to the index, so following lookups of
+   * these values are served by the lookup cache.
+   */
+  protected void prefetch(final ODatabaseDocumentInternal db, final Iterable<?> joinValues) {
+    if (!initialized) init(db);
+
+    if (cache == null) return;
+
+    final OType idxFieldType = index.getDefinition().getTypes()[0];
+    final Set<Object> keys = new HashSet<>();
+    for (Object joinValue : joinValues) {
+      if (joinValue != null) keys.add(OType.convert(joinValue, idxFieldType.getDefaultJavaType()));
+    }
+
+    if (keys.size() > 1) {
+      cache.prefetch(index.getInternal(), keys);
+    }
   }
 
   protected Object lookup(
@@ -64,27 +140,26 @@ public abstract class OETLAbstractLookupTransformer extends OETLAbstractTransfor
     Object result = null;
 
     if (joinValue != null) {
-      if (sqlQuery == null && index == null) {
+      if (!initialized) {
         // ONLY THE FIRST TIME
-        if (lookup.toUpperCase(Locale.ENGLISH).startsWith("SELECT"))
-          sqlQuery = new OSQLSynchQuery<>(lookup);
-        else {
-          index = db.getMetadata().getIndexManagerInternal().getIndex(db, lookup);
-          if (index == null) {
-            getContext()
-                .getMessageHandler()
-                .warn(this, "WARNING: index %s not found. Lookups could be really slow", lookup);
-            final String[] parts = lookup.split("\\.");
-            sqlQuery =
-                new OSQLSynchQuery<ODocument>(
-                    "SELECT FROM " + parts[0] + " WHERE " + parts[1] + " = ?");
-          }
-        }
+        init(db);
       }
 
       if (index != null) {
         final OType idxFieldType = index.getDefinition().getTypes()[0];
         joinValue = OType.convert(joinValue, idxFieldType.getDefaultJavaType());
+      }
+
+      if (cache != null) {
+        final ORID cached = cache.get(joinValue);
+        if (cached != null) {
+          getProcessor().getStats().lookupHits.increment();
+          return Collections.singletonList(cached);
+        }
+        getProcessor().getStats().lookupMisses.increment();
+      }
+
+      if (index != null) {
         //noinspection resource
         if (index.getInternal() != null) {
           result = index.getInternal().getRids(joinValue);
@@ -104,6 +179,7 @@ public abstract class OETLAbstractLookupTransformer extends OETLAbstractTransfor
         if (rids.isEmpty()) {
           return null;
         }
+        if (cache != null) cache.put(joinValue, rids.get(0));
         return rids;
       }
       if (result != null && result instanceof Collection) {
@@ -52,6 +52,8 @@ public class OETLEdgeTransformer extends OETLAbstractLookupTransformer {
                 + "{joinValue:{optional:true,description:'value to use for join'}},"
                 + "{joinFieldName:{optional:true,description:'field name containing the value to join'}},"
                 + "{lookup:{optional:false,description:'<Class>.<property> or Query to execute'}},"
+                + getLookupCacheConfigurationParameters()
+                + ","
                 + "{direction:{optional:true,description:'Direction between \'in\' and \'out\'. Default is \'out\''}},"
                 + "{class:{optional:true,description:'Edge class name. Default is \'E\''}},"
                 + "{targetVertexFields:{optional:true,description:'Map of fields to set in target vertex. Use ${$input.<field>} to get input field values'}},"
@@ -115,6 +117,9 @@ public class OETLEdgeTransformer extends OETLAbstractLookupTransformer {
       }
 
       if (OMultiValue.isMultiValue(joinCurrentValue)) {
+        prefetch(
+            (ODatabaseDocumentInternal) db, OMultiValue.getMultiValueIterable(joinCurrentValue));
+
         // RESOLVE SINGLE JOINS
         for (Object ob : OMultiValue.getMultiValueIterable(joinCurrentValue)) {
           final Object r = lookup((ODatabaseDocumentInternal) db, ob, true);
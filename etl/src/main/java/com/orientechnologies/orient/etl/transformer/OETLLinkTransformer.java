@@ -52,6 +52,8 @@ public class OETLLinkTransformer extends OETLAbstractLookupTransformer {
                 + "{linkFieldName:{optional:false,description:'field name containing the link to set'}},"
                 + "{linkFieldType:{optional:true,description:'field type containing the link to set. Use LINK for single link and LINKSET or LINKLIST for many'}},"
                 + "{lookup:{optional:false,description:'<Class>.<property> or Query to execute'}},"
+                + getLookupCacheConfigurationParameters()
+                + ","
                 + "{unresolvedLinkAction:{optional:true,description:'action when a unresolved link is found',values:"
                 + stringArray2Json(ACTION.values())
                 + "}}],"
@@ -91,6 +93,8 @@ public class OETLLinkTransformer extends OETLAbstractLookupTransformer {
 
     Object result;
     if (OMultiValue.isMultiValue(joinRuntimeValue)) {
+      prefetch((ODatabaseDocumentInternal) db, OMultiValue.getMultiValueIterable(joinRuntimeValue));
+
       // RESOLVE SINGLE JOINS
       final Collection<Object> singleJoinsResult = new ArrayList<Object>();
       for (Object o : OMultiValue.getMultiValueIterable(joinRuntimeValue)) {
@@ -0,0 +1,113 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+
+package com.orientechnologies.orient.etl.transformer;
+
+import com.orientechnologies.common.collection.OLRUCache;
+import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.index.OIndexInternal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Cache of RIDs found by keys of an unique lookup index, shared by all pipeline workers. Only
+ * positive results are cached, so records which are created by the ETL process itself are found by
+ * the next lookup. Keys of not unique indexes are not cached, because records created later with
+ * the same key would be missed.
+ *
+ * <p>Keys preloaded from the index and keys cached on lookup share the maximum size of the cache.
+ */
+final class OETLLookupCache {
+  private final Map<Object, ORID> preloaded;
+  private final OLRUCache<Object, ORID> cache;
+
+  /**
+   * @param maxSize maximum amount of keys kept in the cache
+   * @param preloadIndex index which content is loaded into the read only part of the cache, only
+   *     first <code>maxSize</code> keys are loaded if index is bigger, <code>null</code> if nothing
+   *     is preloaded
+   */
+  OETLLookupCache(final int maxSize, final OIndexInternal preloadIndex) {
+    if (preloadIndex != null) {
+      preloaded = preload(preloadIndex, maxSize);
+    } else {
+      preloaded = Collections.emptyMap();
+    }
+
+    // LRU CACHE KEEPS ONE ENTRY LESS THAN ITS SIZE
+    final int remaining = maxSize - preloaded.size();
+    cache = remaining > 0 ? new OLRUCache<>(remaining + 1) : null;
+  }
+
+  private static Map<Object, ORID> preload(final OIndexInternal index, final int maxSize) {
+    final Map<Object, ORID> entries = new HashMap<>();
+    try (Stream<ORawPair<Object, ORID>> stream = index.stream()) {
+      stream.limit(maxSize).forEach(entry -> entries.put(entry.first, entry.second));
+    }
+    return entries;
+  }
+
+  /** Loads RIDs of keys which are not cached yet using single request to the index. */
+  void prefetch(final OIndexInternal index, final Set<Object> keys) {
+    if (cache == null) {
+      return;
+    }
+
+    keys.removeIf(key -> get(key) != null);
+    if (keys.isEmpty()) {
+      return;
+    }
+
+    final Map<Object, ORID> entries = new HashMap<>();
+    try (Stream<ORawPair<Object, ORID>> stream = index.streamEntries(keys, true)) {
+      stream.forEach(entry -> entries.put(entry.first, entry.second));
+    }
+
+    synchronized (cache) {
+      cache.putAll(entries);
+    }
+  }
+
+  /** @return RID found by the key or <code>null</code> if key is not cached */
+  ORID get(final Object key) {
+    final ORID rid = preloaded.get(key);
+    if (rid != null || cache == null) {
+      return rid;
+    }
+
+    synchronized (cache) {
+      return cache.get(key);
+    }
+  }
+
+  void put(final Object key, final ORID rid) {
+    if (cache == null) {
+      return;
+    }
+
+    synchronized (cache) {
+      cache.put(key, rid);
+    }
+  }
+}
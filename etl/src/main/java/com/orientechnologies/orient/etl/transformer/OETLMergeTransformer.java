@@ -37,6 +37,8 @@ public class OETLMergeTransformer extends OETLAbstractLookupTransformer {
                 + ","
                 + "{joinFieldName:{optional:false,description:'field name containing the value to join'}},"
                 + "{lookup:{optional:false,description:'<Class>.<property> or Query to execute'}},"
+                + getLookupCacheConfigurationParameters()
+                + ","
                 + "{unresolvedLinkAction:{optional:true,description:'action when a unresolved link is found',values:"
                 + stringArray2Json(ACTION.values())
                 + "}}],"
@@ -29,7 +29,9 @@ import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
 import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
 import com.orientechnologies.orient.etl.OETLBaseTest;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.junit.Test;
 
 /** Created by frank on 9/14/15. */
@@ -245,4 +247,74 @@ public class OETLOrientDBLoaderTest extends OETLBaseTest {
     res.close();
     db.close();
   }
+
+  @Test
+  public void shouldLoadInParallelIntoWorkerClusters() {
+    final StringBuilder content = new StringBuilder("name,surname");
+    for (int i = 0; i < 100; i++) {
+      content.append("\nname").append(i).append(",surname").append(i);
+    }
+
+    configure(
+        "{config: { workers: 4 }, source: { content: { value: '"
+            + content
+            + "' } }, extractor : { csv: {} }, loader: { orientdb: {\n"
+            + "      dbURL: 'memory:"
+            + name.getMethodName()
+            + "', class:'Person',     dbUser: \"admin\",\n"
+            + "      dbPassword: \"admin\",\n"
+            + "      dbAutoCreate: true,\n      tx: true,\n"
+            + "      batchCommit: 10,\n"
+            + "      dbType: \"document\",\n"
+            + "      classes: [{name: 'Person', clusters: 4}] } } }");
+
+    proc.execute();
+
+    assertThat(proc.getStats().commit.getOperations()).isGreaterThanOrEqualTo(10);
+    assertThat(proc.getStats().loading.getOperations()).isEqualTo(100);
+
+    ODatabaseDocument db = proc.getLoader().getPool().acquire();
+
+    assertThat(db.countClass("Person")).isEqualTo(100);
+
+    final Set<Integer> clusters = new HashSet<>();
+    try (OResultSet res = db.query("SELECT FROM Person")) {
+      res.stream().forEach(r -> clusters.add(r.getIdentity().get().getClusterId()));
+    }
+    assertThat(clusters.size()).isGreaterThan(1);
+
+    db.close();
+  }
+
+  @Test
+  public void shouldDiscardChangesOfSkippedItem() {
+    configure(
+        "{config: { haltOnError: false }, source: { content: { value: 'name,age\nJay,1\nBill,-1\nSteve,3' } }, extractor : { csv: {} },"
+            + " transformers: [{command: {output: 'previous', command: \"INSERT INTO Log SET name = \"={eval('$input.name')}\"\"}}],"
+            + " loader: { orientdb: {\n"
+            + "      dbURL: 'memory:"
+            + name.getMethodName()
+            + "', class:'Person',     dbUser: \"admin\",\n"
+            + "      dbPassword: \"admin\",\n"
+            + "      dbAutoCreate: true,\n      tx: true,\n"
+            + "      batchCommit: 10,\n"
+            + "      dbType: \"document\" } } }");
+
+    ODatabaseDocument db = proc.getLoader().getPool().acquire();
+    db.command("CREATE Class Person");
+    db.command("CREATE property Person.age INTEGER (MIN 0)");
+    db.command("CREATE Class Log");
+    db.close();
+
+    proc.execute();
+
+    db = proc.getLoader().getPool().acquire();
+
+    assertThat(proc.getStats().errors.get()).isEqualTo(1);
+    assertThat(db.countClass("Person")).isEqualTo(2);
+    // the record inserted by the transformer for the skipped item is rolled back
+    assertThat(db.countClass("Log")).isEqualTo(2);
+
+    db.close();
+  }
 }
@@ -131,6 +131,62 @@ public class OETLEdgeTransformerTest extends OETLBaseTest {
     pool.close();
   }
 
+  @Test
+  public void testLookupCache() {
+    configure(
+        "{source: { content: { value: 'name,surname,friend\nJay,Miner,Luca\nBill,Ferguson,Luca\nSteve,Smiles,Luca' } }, extractor : { csv: {} },"
+            + " transformers: [{vertex: {class:'V1'}}, {edge:{class:'Friend',joinFieldName:'friend',lookup:'V2.name',lookupCache:100}},"
+            + "], loader: { orientdb: { dbURL: 'memory:"
+            + name.getMethodName()
+            + "', dbType:'graph', useLightweightEdges:false } } }");
+
+    OETLLoader loader = proc.getLoader();
+    ODatabasePool pool = loader.getPool();
+    ODatabaseDocument db = pool.acquire();
+    createClasses(db);
+    db.getClass("V2").createProperty("name", OType.STRING);
+    db.getClass("V2").createIndex("V2.name", OClass.INDEX_TYPE.UNIQUE, "name");
+    db.close();
+
+    proc.execute();
+    db = pool.acquire();
+
+    assertEquals(3, db.countClass("V1"));
+    assertEquals(1, db.countClass("V2"));
+    assertEquals(3, db.countClass("Friend"));
+    assertEquals(1, proc.getStats().lookupMisses.sum());
+    assertEquals(2, proc.getStats().lookupHits.sum());
+    db.close();
+  }
+
+  @Test
+  public void testLookupCacheNotUniqueIndex() {
+    configure(
+        "{source: { content: { value: 'name,surname,friend\nJay,Miner,Luca\nBill,Ferguson,Luca\nSteve,Smiles,Luca' } }, extractor : { csv: {} },"
+            + " transformers: [{vertex: {class:'V1'}}, {edge:{class:'Friend',joinFieldName:'friend',lookup:'V2.name',lookupCache:100}},"
+            + "], loader: { orientdb: { dbURL: 'memory:"
+            + name.getMethodName()
+            + "', dbType:'graph', useLightweightEdges:false } } }");
+
+    OETLLoader loader = proc.getLoader();
+    ODatabasePool pool = loader.getPool();
+    ODatabaseDocument db = pool.acquire();
+    createClasses(db);
+    db.getClass("V2").createProperty("name", OType.STRING);
+    db.getClass("V2").createIndex("V2.name", OClass.INDEX_TYPE.NOTUNIQUE, "name");
+    db.close();
+
+    proc.execute();
+    db = pool.acquire();
+
+    assertEquals(3, db.countClass("V1"));
+    assertEquals(1, db.countClass("V2"));
+    assertEquals(3, db.countClass("Friend"));
+    assertEquals(0, proc.getStats().lookupMisses.sum());
+    assertEquals(0, proc.getStats().lookupHits.sum());
+    db.close();
+  }
+
   @Test
   public void testEdgeWithProperties() {
     configure(
@@ -22,4 +22,21 @@ import org.apache.lucene.search.IndexSearcher;
 /** Created by enricorisa on 19/03/14. */
 public interface OLuceneIndex {
   IndexSearcher searcher() throws IOException;
+
+  /**
+   * @return LSN of the last change which was added to the index if index is updated
+   *     asynchronously (<code>asyncIndexing</code> metadata option), otherwise 0
+   */
+  long getLastIndexLsn();
+
+  /**
+   * Waits till change with given LSN is applied to the index and is visible to searchers. Passing
+   * result of {@link #getLastIndexLsn()} taken after commit of transaction makes changes of that
+   * transaction visible to queries. LSNs which were not issued yet are treated as LSN of the last
+   * change.
+   *
+   * @throws com.orientechnologies.common.concur.OTimeoutException if changes are not applied during
+   *     <code>asyncIndexingWaitTimeout</code> milliseconds
+   */
+  void waitForIndexLsn(long lsn);
 }
@@ -63,4 +63,25 @@ public interface OLuceneIndexEngine extends OIndexEngine, OFreezableStorageCompo
   Query deleteQuery(Object key, OIdentifiable value);
 
   boolean isCollectionIndex();
+
+  /**
+   * @return LSN of the last change which was added to the index if changes are applied
+   *     asynchronously, otherwise 0
+   */
+  long lastIndexLsn();
+
+  /**
+   * Waits till change with given LSN is applied to the index and is visible to searchers. Returns
+   * immediately if changes are applied synchronously.
+   *
+   * @throws com.orientechnologies.common.concur.OTimeoutException if changes are not applied during
+   *     <code>asyncIndexingWaitTimeout</code> milliseconds
+   */
+  void waitForIndexLsn(long lsn);
+
+  /**
+   * Forces journal of changes which are applied asynchronously to the disk, called once changes of
+   * transaction are added to the index. Does nothing if changes are applied synchronously.
+   */
+  void syncIndexingJournal();
 }
@@ -19,6 +19,7 @@ package com.orientechnologies.lucene.engine;
 import static com.orientechnologies.lucene.analyzer.OLuceneAnalyzerFactory.AnalyzerKind.INDEX;
 import static com.orientechnologies.lucene.analyzer.OLuceneAnalyzerFactory.AnalyzerKind.QUERY;
 
+import com.orientechnologies.common.concur.OTimeoutException;
 import com.orientechnologies.common.concur.resource.OSharedResourceAdaptiveExternal;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.io.OFileUtils;
@@ -37,9 +38,11 @@ import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.encryption.OEncryption;
+import com.orientechnologies.orient.core.exception.ORecordNotFoundException;
 import com.orientechnologies.orient.core.exception.OStorageException;
 import com.orientechnologies.orient.core.id.OContextualRecordId;
 import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
 import com.orientechnologies.orient.core.index.OIndexDefinition;
 import com.orientechnologies.orient.core.index.OIndexException;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
@@ -55,6 +58,10 @@ import java.io.IOException;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -106,6 +113,15 @@ public abstract class OLuceneIndexEngineAbstract extends OSharedResourceAdaptive
   private long flushIndexInterval;
   private long closeAfterInterval;
   private long firstFlushAfter;
+  private boolean asyncIndexing;
+  private int asyncIndexingBatchSize;
+  private int asyncIndexingQueueSize;
+  private long asyncIndexingWaitTimeout;
+  private double nrtMaxStaleSec;
+  private volatile OLuceneIndexingQueue indexingQueue;
+  /** LSN of the last change of the closed indexing queue, LSNs of the next queue start from it. */
+  private volatile long indexingQueueLsn;
+  private volatile boolean replayJournal;
   private final int id;
 
   public OLuceneIndexEngineAbstract(int id, OStorage storage, String name) {
@@ -130,6 +146,13 @@ public abstract class OLuceneIndexEngineAbstract extends OSharedResourceAdaptive
   }
 
   protected void addDocument(Document doc) {
+    final OLuceneIndexingQueue queue = indexingQueue;
+    if (queue != null) {
+      final String rid = doc.get(RID);
+      queue.add(doc, rid != null ? new ORecordId(rid) : null);
+      return;
+    }
+
     try {
 
       reopenToken = indexWriter.addDocument(doc);
@@ -170,6 +193,28 @@ public abstract class OLuceneIndexEngineAbstract extends OSharedResourceAdaptive
         Optional.ofNullable(metadata.<Integer>getProperty("firstFlushAfter"))
             .orElse(10000)
             .longValue();
+
+    asyncIndexing =
+        Optional.ofNullable(metadata.<Boolean>getProperty("asyncIndexing")).orElse(false);
+
+    asyncIndexingBatchSize =
+        Optional.ofNullable(metadata.<Integer>getProperty("asyncIndexingBatchSize")).orElse(1000);
+
+    asyncIndexingQueueSize =
+        Optional.ofNullable(metadata.<Integer>getProperty("asyncIndexingQueueSize"))
+            .orElse(100000);
+
+    asyncIndexingWaitTimeout =
+        Optional.ofNullable(metadata.<Integer>getProperty("asyncIndexingWaitTimeout"))
+            .orElse(60000)
+            .longValue();
+
+    // in synchronous mode searchers wait for the last change, so staleness is not bounded
+    nrtMaxStaleSec =
+        Optional.ofNullable(metadata.<Integer>getProperty("nrtMaxStaleness"))
+                .orElse(asyncIndexing ? 1000 : 60000)
+                .doubleValue()
+            / 1000;
   }
 
   private void scheduleCommitTask() {
@@ -247,6 +292,10 @@ public abstract class OLuceneIndexEngineAbstract extends OSharedResourceAdaptive
 
     startNRT();
 
+    if (asyncIndexing) {
+      openIndexingQueue();
+    }
+
     closed.set(false);
 
     flush();
@@ -283,8 +332,107 @@ public abstract class OLuceneIndexEngineAbstract extends OSharedResourceAdaptive
     }
   }
 
+  private void openIndexingQueue() throws IOException {
+    final String path = directory.getPath();
+    final Path journalPath =
+        path != null ? Paths.get(path, OLuceneIndexingQueue.JOURNAL_NAME) : null;
+
+    final OLuceneIndexingQueue queue =
+        new OLuceneIndexingQueue(
+            name,
+            asyncIndexingBatchSize,
+            asyncIndexingQueueSize,
+            indexingQueueLsn,
+            journalPath,
+            this::applyBatch);
+    replayJournal = !queue.journaledRecords().isEmpty();
+    indexingQueue = queue;
+  }
+
+  private void applyBatch(final List<OLuceneIndexingQueue.Operation> batch) {
+    for (final OLuceneIndexingQueue.Operation operation : batch) {
+      try {
+        if (operation.getDocument() != null) {
+          reopenToken = indexWriter.addDocument(operation.getDocument());
+        } else if (operation.getQuery() != null) {
+          reopenToken = indexWriter.deleteDocuments(operation.getQuery());
+        } else {
+          reopenToken = indexWriter.deleteAll();
+        }
+      } catch (IOException e) {
+        throw OException.wrapException(
+            new OLuceneIndexException("Error on applying changes to Lucene index " + name), e);
+      }
+    }
+  }
+
+  /**
+   * Re-indexes records which are listed in the journal of indexing queue, changes of those records
+   * could be lost if index was not closed properly. Current state of records is indexed, so
+   * journal is replayed outside of transaction only.
+   */
+  private void replayJournal() {
+    final OLuceneIndexingQueue queue = indexingQueue;
+    if (queue == null) {
+      return;
+    }
+
+    final ODatabaseDocumentInternal database = ODatabaseRecordThreadLocal.instance().getIfDefined();
+    if (database == null || database.getTransaction().isActive()) {
+      return;
+    }
+
+    replayJournal = false;
+    queue.resetFailure();
+
+    try {
+      for (final ORID rid : queue.journaledRecords()) {
+        queue.delete(OLuceneIndexType.createQueryId(rid), rid);
+
+        final ODocument document;
+        try {
+          document = database.load(rid);
+        } catch (ORecordNotFoundException e) {
+          continue;
+        }
+        if (document == null) {
+          continue;
+        }
+
+        final Object key = indexDefinition.getDocumentValueToIndex(document);
+        if (key instanceof Collection) {
+          for (final Object item : (Collection<?>) key) {
+            put(null, item, Collections.singletonList(rid));
+          }
+        } else if (key != null) {
+          put(null, key, Collections.singletonList(rid));
+        }
+      }
+    } catch (IOException e) {
+      OLogManager.instance()
+          .error(this, "Error on replaying journal of Lucene index:: " + indexName(), e);
+    }
+  }
+
+  private void drainIndexingQueue() throws IOException {
+    final OLuceneIndexingQueue queue = indexingQueue;
+    if (queue != null) {
+      indexingQueue = null;
+
+      final long lastLsn = queue.getLastLsn();
+      indexingQueueLsn = lastLsn;
+      queue.waitFor(lastLsn, asyncIndexingWaitTimeout);
+      if (indexWriter.isOpen()) {
+        indexWriter.commit();
+        queue.committed(lastLsn);
+      }
+      queue.close();
+    }
+  }
+
   private void startNRT() {
-    nrt = new ControlledRealTimeReopenThread<>(indexWriter, searcherManager, 60.00, 0.1);
+    nrt =
+        new ControlledRealTimeReopenThread<>(indexWriter, searcherManager, nrtMaxStaleSec, 0.1);
     nrt.setDaemon(true);
     nrt.start();
   }
@@ -321,7 +469,16 @@ public abstract class OLuceneIndexEngineAbstract extends OSharedResourceAdaptive
   @Override
   public synchronized void flush() {
     try {
-      if (!closed.get() && indexWriter != null && indexWriter.isOpen()) indexWriter.commit();
+      if (!closed.get() && indexWriter != null && indexWriter.isOpen()) {
+        final OLuceneIndexingQueue queue = indexingQueue;
+        final long appliedLsn = queue != null ? queue.getAppliedLsn() : 0;
+
+        indexWriter.commit();
+
+        if (queue != null) {
+          queue.committed(appliedLsn);
+        }
+      }
     } catch (Exception e) {
       OLogManager.instance().error(this, "Error on flushing Lucene index", e);
     }
@@ -419,11 +576,21 @@ public abstract class OLuceneIndexEngineAbstract extends OSharedResourceAdaptive
     openIfClosed();
 
     Query query = deleteQuery(key, value);
-    if (query != null) deleteDocument(query);
+    if (query != null) deleteDocument(query, value.getIdentity());
     return true;
   }
 
   void deleteDocument(Query query) {
+    deleteDocument(query, null);
+  }
+
+  private void deleteDocument(Query query, ORID rid) {
+    final OLuceneIndexingQueue queue = indexingQueue;
+    if (queue != null) {
+      queue.delete(query, rid);
+      return;
+    }
+
     try {
       reopenToken = indexWriter.deleteDocuments(query);
       if (!indexWriter.hasDeletions()) {
@@ -456,6 +623,12 @@ public abstract class OLuceneIndexEngineAbstract extends OSharedResourceAdaptive
         OLogManager.instance().error(this, "error while opening closed index:: " + indexName(), e);
       }
     }
+
+    // changes which could not be applied are restored from the journal as well
+    final OLuceneIndexingQueue queue = indexingQueue;
+    if (replayJournal || (queue != null && queue.isFailed())) {
+      replayJournal();
+    }
   }
 
   protected void openIfClosed() {
@@ -472,7 +645,9 @@ public abstract class OLuceneIndexEngineAbstract extends OSharedResourceAdaptive
     try {
       updateLastAccess();
       openIfClosed();
-      nrt.waitForGeneration(reopenToken);
+      if (indexingQueue == null) {
+        nrt.waitForGeneration(reopenToken);
+      }
       return searcherManager.acquire();
     } catch (Exception e) {
       OLogManager.instance().error(this, "Error on get searcher from Lucene index", e);
@@ -481,6 +656,47 @@ public abstract class OLuceneIndexEngineAbstract extends OSharedResourceAdaptive
     }
   }
 
+  @Override
+  public long lastIndexLsn() {
+    final OLuceneIndexingQueue queue = indexingQueue;
+    return queue != null ? queue.getLastLsn() : indexingQueueLsn;
+  }
+
+  @Override
+  public void syncIndexingJournal() {
+    final OLuceneIndexingQueue queue = indexingQueue;
+    if (queue != null) {
+      queue.sync();
+    }
+  }
+
+  @Override
+  public void waitForIndexLsn(long lsn) {
+    updateLastAccess();
+    openIfClosed();
+
+    final OLuceneIndexingQueue queue = indexingQueue;
+    if (queue == null) {
+      return;
+    }
+
+    queue.waitFor(lsn, asyncIndexingWaitTimeout);
+    try {
+      if (!nrt.waitForGeneration(reopenToken, (int) asyncIndexingWaitTimeout)) {
+        throw new OTimeoutException(
+            "Changes of Lucene index "
+                + name
+                + " were not visible to searchers during "
+                + asyncIndexingWaitTimeout
+                + " ms");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw OException.wrapException(
+          new OLuceneIndexException("Waiting for changes of Lucene index was interrupted"), e);
+    }
+  }
+
   @Override
   public long sizeInTx(OLuceneTxChanges changes) {
     updateLastAccess();
@@ -547,6 +763,13 @@ public abstract class OLuceneIndexEngineAbstract extends OSharedResourceAdaptive
   public void clear(OAtomicOperation atomicOperation) {
     updateLastAccess();
     openIfClosed();
+
+    final OLuceneIndexingQueue queue = indexingQueue;
+    if (queue != null) {
+      queue.deleteAll();
+      return;
+    }
+
     try {
       reopenToken = indexWriter.deleteAll();
     } catch (IOException e) {
@@ -565,6 +788,8 @@ public abstract class OLuceneIndexEngineAbstract extends OSharedResourceAdaptive
     try {
       cancelCommitTask();
 
+      drainIndexingQueue();
+
       closeNRT();
 
       closeSearchManager();
@@ -626,6 +851,7 @@ public abstract class OLuceneIndexEngineAbstract extends OSharedResourceAdaptive
   @Override
   public synchronized void freeze(boolean throwException) {
     try {
+      drainIndexingQueue();
       closeNRT();
       cancelCommitTask();
       commitAndCloseWriter();
@@ -0,0 +1,509 @@
+/*
+ * Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.orientechnologies.lucene.engine;
+
+import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.common.concur.lock.OInterruptedException;
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.common.serialization.types.OLongSerializer;
+import com.orientechnologies.common.thread.DaemonThreadFactory;
+import com.orientechnologies.common.thread.OThreadPoolExecutorWithLogging;
+import com.orientechnologies.lucene.exception.OLuceneIndexException;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.search.Query;
+
+/**
+ * Queue of changes of Lucene index which are applied to the index writer by background workers in
+ * batches, so commit of transaction does not wait till documents are analyzed and added to the
+ * index.
+ *
+ * <p>Every change gets sequence number (index LSN), {@link #waitFor(long, long)} blocks till change
+ * with given LSN is applied to the index writer. LSNs of the new queue continue LSNs of the queue
+ * which was used by the index before, so LSNs taken before the index was closed stay valid. RIDs of
+ * changed records are appended to the journal file which is placed in the directory of the index
+ * together with LSNs of their changes. Journal is not forced on every change, it is forced once per
+ * transaction by {@link #sync()}. If index is not closed properly or changes of the index could
+ * not be applied, records which changes are not committed to the index yet are re-indexed.
+ *
+ * <p>Header of the journal contains LSN of the last change which is committed to the index.
+ * Entries of committed changes are dropped once all changes are committed, or by moving not
+ * committed entries to the beginning of the journal once they take less space than committed ones,
+ * so size of the journal is proportional to the amount of not committed changes.
+ */
+final class OLuceneIndexingQueue {
+  static final String JOURNAL_NAME = "orient-indexing-queue.jnl";
+
+  private static final int JOURNAL_HEADER_SIZE = OLongSerializer.LONG_SIZE;
+  private static final int JOURNAL_ENTRY_SIZE =
+      OLongSerializer.LONG_SIZE + OIntegerSerializer.INT_SIZE + OLongSerializer.LONG_SIZE;
+
+  /** Workers shared by all indexes, changes of single index are applied by single worker. */
+  private static final ThreadPoolExecutor workers;
+
+  static {
+    final int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    workers =
+        new OThreadPoolExecutorWithLogging(
+            threads,
+            threads,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new DaemonThreadFactory("OrientDB Lucene Indexing"));
+    workers.allowCoreThreadTimeOut(true);
+  }
+
+  /** Applies batch of changes to the index writer. */
+  interface BatchApplier {
+    void apply(List<Operation> batch);
+  }
+
+  /** Single change of the index, either document addition or deletion of documents. */
+  static final class Operation {
+    private final Document document;
+    private final Query query;
+    private long lsn;
+
+    private Operation(final Document document, final Query query) {
+      this.document = document;
+      this.query = query;
+    }
+
+    /** @return document to add or <code>null</code> if documents are deleted */
+    Document getDocument() {
+      return document;
+    }
+
+    /**
+     * @return query of documents to delete, <code>null</code> if all documents are deleted or
+     *     document is added
+     */
+    Query getQuery() {
+      return query;
+    }
+  }
+
+  private final String indexName;
+  private final int batchSize;
+  private final BlockingQueue<Operation> operations;
+  private final BatchApplier applier;
+  private final FileChannel journal;
+
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  private final Object appliedMonitor = new Object();
+
+  private long lastLsn;
+  private volatile long appliedLsn;
+  private final AtomicBoolean failed = new AtomicBoolean();
+
+  /** Size of the journal without partially written entries. */
+  private long journalSize;
+  /** LSN of the last change which is written to the journal. */
+  private long journaledLsn;
+  /** LSN of the last change which is committed to the index. */
+  private long committedLsn;
+
+  private final Object syncMonitor = new Object();
+  /** LSN of the last change which is forced to the disk, guarded by {@link #syncMonitor}. */
+  private long syncedLsn;
+
+  /**
+   * @param initialLsn LSN of the last change of the previous queue of the index, all changes of
+   *     that queue should be applied already
+   * @param journalPath path to the journal file or <code>null</code> if changes should not be
+   *     journaled
+   */
+  OLuceneIndexingQueue(
+      final String indexName,
+      final int batchSize,
+      final int capacity,
+      final long initialLsn,
+      final Path journalPath,
+      final BatchApplier applier)
+      throws IOException {
+    this.indexName = indexName;
+    this.batchSize = batchSize;
+    this.operations = new LinkedBlockingQueue<>(capacity);
+    this.applier = applier;
+
+    if (journalPath != null) {
+      journal =
+          FileChannel.open(
+              journalPath,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE);
+      openJournal();
+    } else {
+      journal = null;
+    }
+
+    // LSNs are not stored between restarts, so they continue LSNs found in the journal
+    final long startLsn = Math.max(initialLsn, Math.max(journaledLsn, committedLsn));
+    this.lastLsn = startLsn;
+    this.appliedLsn = startLsn;
+    this.journaledLsn = startLsn;
+    this.syncedLsn = startLsn;
+  }
+
+  private void openJournal() throws IOException {
+    final long size = journal.size();
+    if (size < JOURNAL_HEADER_SIZE) {
+      journalSize = JOURNAL_HEADER_SIZE;
+      writeJournalHeader();
+      journal.truncate(journalSize);
+      return;
+    }
+
+    committedLsn = readLong(0);
+    // partially written entry is dropped
+    journalSize =
+        JOURNAL_HEADER_SIZE
+            + (size - JOURNAL_HEADER_SIZE) / JOURNAL_ENTRY_SIZE * JOURNAL_ENTRY_SIZE;
+    if (journalSize > JOURNAL_HEADER_SIZE) {
+      journaledLsn = readLong(journalSize - JOURNAL_ENTRY_SIZE);
+    }
+    journal.truncate(journalSize);
+  }
+
+  /** @return RIDs of records listed in the journal, changes of which may be lost */
+  Set<ORID> journaledRecords() throws IOException {
+    final Set<ORID> rids = new LinkedHashSet<>();
+    if (journal == null) {
+      return rids;
+    }
+
+    synchronized (this) {
+      final ByteBuffer buffer = ByteBuffer.allocate(JOURNAL_ENTRY_SIZE);
+      for (long position = firstNotCommittedEntry(committedLsn);
+          position < journalSize;
+          position += JOURNAL_ENTRY_SIZE) {
+        read(buffer, position);
+        buffer.getLong();
+        rids.add(new ORecordId(buffer.getInt(), buffer.getLong()));
+      }
+    }
+
+    return rids;
+  }
+
+  /** Adds document to the index, RID of the record is used to restore change if it is lost. */
+  long add(final Document document, final ORID rid) {
+    return enqueue(new Operation(document, null), rid);
+  }
+
+  /** Deletes documents which match given query, RID is <code>null</code> if it is unknown. */
+  long delete(final Query query, final ORID rid) {
+    return enqueue(new Operation(null, query), rid);
+  }
+
+  long deleteAll() {
+    return enqueue(new Operation(null, null), null);
+  }
+
+  /** @return LSN of the last change added to the queue */
+  synchronized long getLastLsn() {
+    return lastLsn;
+  }
+
+  /** @return LSN of the last change which is applied to the index writer */
+  long getAppliedLsn() {
+    return appliedLsn;
+  }
+
+  /**
+   * Blocks till change with given LSN is applied to the index writer. LSNs which are bigger than
+   * LSN of the last change are treated as LSN of the last change.
+   *
+   * @throws OTimeoutException if change is not applied during given amount of milliseconds
+   */
+  void waitFor(final long lsn, final long timeout) {
+    final long targetLsn = Math.min(lsn, getLastLsn());
+    if (appliedLsn >= targetLsn) {
+      return;
+    }
+
+    schedule();
+
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+    synchronized (appliedMonitor) {
+      while (appliedLsn < targetLsn) {
+        final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remaining <= 0) {
+          throw new OTimeoutException(
+              "Change "
+                  + targetLsn
+                  + " of index "
+                  + indexName
+                  + " was not applied during "
+                  + timeout
+                  + " ms, last applied change is "
+                  + appliedLsn);
+        }
+
+        try {
+          appliedMonitor.wait(remaining);
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw OException.wrapException(
+              new OInterruptedException(
+                  "Waiting for changes of index " + indexName + " was interrupted"),
+              e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Notifies queue that changes up to given LSN are committed to the index, so they do not need to
+   * be restored from the journal.
+   */
+  synchronized void committed(final long lsn) throws IOException {
+    if (journal == null || failed.get() || lsn <= committedLsn) {
+      return;
+    }
+
+    committedLsn = lsn;
+    writeJournalHeader();
+
+    if (journaledLsn <= lsn) {
+      journalSize = JOURNAL_HEADER_SIZE;
+      journal.truncate(journalSize);
+      return;
+    }
+
+    final long position = firstNotCommittedEntry(lsn);
+    final long notCommittedSize = journalSize - position;
+    if (position - JOURNAL_HEADER_SIZE >= notCommittedSize) {
+      compactJournal(position, notCommittedSize);
+    }
+  }
+
+  /**
+   * Forces changes which are written to the journal to the disk. Changes of concurrent
+   * transactions are forced together.
+   */
+  void sync() {
+    if (journal == null) {
+      return;
+    }
+
+    final long lsn;
+    synchronized (this) {
+      lsn = journaledLsn;
+    }
+
+    synchronized (syncMonitor) {
+      if (syncedLsn >= lsn) {
+        return;
+      }
+
+      try {
+        journal.force(false);
+      } catch (final IOException e) {
+        throw OException.wrapException(
+            new OLuceneIndexException("Error on writing journal of index " + indexName), e);
+      }
+      syncedLsn = lsn;
+    }
+  }
+
+  /**
+   * @return <code>true</code> if changes of some records could not be applied, so records listed in
+   *     the journal should be re-indexed. Journal is not truncated till failure is reset.
+   */
+  boolean isFailed() {
+    return failed.get();
+  }
+
+  /**
+   * Should be called before records listed in the journal are re-indexed, so the journal is
+   * truncated once their changes are applied and committed.
+   */
+  void resetFailure() {
+    failed.set(false);
+  }
+
+  /** Closes the journal, changes which are not applied to the index writer yet are lost. */
+  synchronized void close() throws IOException {
+    if (journal != null) {
+      journal.close();
+    }
+  }
+
+  private long enqueue(final Operation operation, final ORID rid) {
+    synchronized (this) {
+      operation.lsn = ++lastLsn;
+
+      if (journal != null && rid != null && rid.isPersistent()) {
+        final ByteBuffer buffer = ByteBuffer.allocate(JOURNAL_ENTRY_SIZE);
+        buffer.putLong(operation.lsn);
+        buffer.putInt(rid.getClusterId());
+        buffer.putLong(rid.getClusterPosition());
+        buffer.flip();
+
+        try {
+          write(buffer, journalSize);
+          journalSize += JOURNAL_ENTRY_SIZE;
+          journaledLsn = operation.lsn;
+        } catch (final IOException e) {
+          throw OException.wrapException(
+              new OLuceneIndexException("Error on writing journal of index " + indexName), e);
+        }
+      }
+
+      try {
+        // changes are added under the lock, so order of the queue is the same as order of LSNs
+        if (!operations.offer(operation)) {
+          schedule();
+          operations.put(operation);
+        }
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw OException.wrapException(
+            new OInterruptedException(
+                "Adding of change to index " + indexName + " was interrupted"),
+            e);
+      }
+    }
+
+    // worker takes all changes which were accumulated while previous batch was applied
+    schedule();
+
+    return operation.lsn;
+  }
+
+  /**
+   * Moves entries of not committed changes to the beginning of the journal. Entries are moved only
+   * if they do not overlap with their new place, so journal contains all not committed entries
+   * even if process crashes during compaction.
+   */
+  private void compactJournal(final long position, final long size) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(JOURNAL_ENTRY_SIZE);
+    for (long offset = 0; offset < size; offset += JOURNAL_ENTRY_SIZE) {
+      read(buffer, position + offset);
+      write(buffer, JOURNAL_HEADER_SIZE + offset);
+    }
+
+    // moved entries have to be on the disk before their old place is dropped
+    journal.force(false);
+
+    journalSize = JOURNAL_HEADER_SIZE + size;
+    journal.truncate(journalSize);
+  }
+
+  /** @return position of the first entry which LSN is bigger than given one */
+  private long firstNotCommittedEntry(final long lsn) throws IOException {
+    long low = 0;
+    long high = (journalSize - JOURNAL_HEADER_SIZE) / JOURNAL_ENTRY_SIZE;
+    while (low < high) {
+      final long middle = (low + high) >>> 1;
+      if (readLong(JOURNAL_HEADER_SIZE + middle * JOURNAL_ENTRY_SIZE) <= lsn) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    return JOURNAL_HEADER_SIZE + low * JOURNAL_ENTRY_SIZE;
+  }
+
+  private void writeJournalHeader() throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(JOURNAL_HEADER_SIZE);
+    buffer.putLong(committedLsn);
+    buffer.flip();
+    write(buffer, 0);
+  }
+
+  private long readLong(final long position) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(OLongSerializer.LONG_SIZE);
+    read(buffer, position);
+    return buffer.getLong();
+  }
+
+  private void read(final ByteBuffer buffer, final long position) throws IOException {
+    buffer.clear();
+    while (buffer.hasRemaining()) {
+      if (journal.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of journal of index " + indexName);
+      }
+    }
+    buffer.flip();
+  }
+
+  private void write(final ByteBuffer buffer, final long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      journal.write(buffer, position + buffer.position());
+    }
+  }
+
+  private void schedule() {
+    if (scheduled.compareAndSet(false, true)) {
+      workers.execute(this::drain);
+    }
+  }
+
+  private void drain() {
+    try {
+      final List<Operation> batch = new ArrayList<>(batchSize);
+      while (operations.drainTo(batch, batchSize) > 0) {
+        try {
+          applier.apply(batch);
+        } catch (final RuntimeException e) {
+          failed.set(true);
+          OLogManager.instance()
+              .error(this, "Error on applying of changes to Lucene index %s", e, indexName);
+        }
+
+        markApplied(batch.get(batch.size() - 1).lsn);
+        batch.clear();
+      }
+    } finally {
+      scheduled.set(false);
+    }
+
+    // changes could be added after the queue was drained but before flag was cleared
+    if (!operations.isEmpty()) {
+      schedule();
+    }
+  }
+
+  private void markApplied(final long lsn) {
+    synchronized (appliedMonitor) {
+      appliedLsn = lsn;
+      appliedMonitor.notifyAll();
+    }
+  }
+}
@@ -176,6 +176,7 @@ public class OLuceneIndexNotUnique extends OIndexAbstract implements OLuceneInde
                   OAtomicOperation atomicOperation = atomicOperationsManager.getCurrentOperation();
                   indexEngine.put(atomicOperation, decodeKey(key), operations.added);
                 }
+                indexEngine.syncIndexingJournal();
                 OTransaction transaction = getDatabase().getTransaction();
                 resetTransactionChanges(transaction);
                 return null;
@@ -529,6 +530,42 @@ public class OLuceneIndexNotUnique extends OIndexAbstract implements OLuceneInde
     }
   }
 
+  @Override
+  public long getLastIndexLsn() {
+    while (true) {
+      try {
+        return storage.callIndexEngine(
+            false,
+            indexId,
+            engine -> {
+              final OLuceneIndexEngine indexEngine = (OLuceneIndexEngine) engine;
+              return indexEngine.lastIndexLsn();
+            });
+      } catch (final OInvalidIndexEngineIdException e) {
+        doReloadIndexEngine();
+      }
+    }
+  }
+
+  @Override
+  public void waitForIndexLsn(final long lsn) {
+    while (true) {
+      try {
+        storage.callIndexEngine(
+            false,
+            indexId,
+            engine -> {
+              final OLuceneIndexEngine indexEngine = (OLuceneIndexEngine) engine;
+              indexEngine.waitForIndexLsn(lsn);
+              return null;
+            });
+        return;
+      } catch (final OInvalidIndexEngineIdException e) {
+        doReloadIndexEngine();
+      }
+    }
+  }
+
   @Override
   public boolean canBeUsedInEqualityOperators() {
     return false;
@@ -331,6 +331,21 @@ public class OLuceneSpatialIndexEngineDelegator
     return delegate.isCollectionIndex();
   }
 
+  @Override
+  public long lastIndexLsn() {
+    return delegate.lastIndexLsn();
+  }
+
+  @Override
+  public void waitForIndexLsn(long lsn) {
+    delegate.waitForIndexLsn(lsn);
+  }
+
+  @Override
+  public void syncIndexingJournal() {
+    delegate.syncIndexingJournal();
+  }
+
   @Override
   public void freeze(boolean throwException) {
     delegate.freeze(throwException);
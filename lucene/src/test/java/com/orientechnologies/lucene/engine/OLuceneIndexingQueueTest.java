@@ -0,0 +1,59 @@
+package com.orientechnologies.lucene.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.orientechnologies.orient.core.id.ORecordId;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.apache.lucene.document.Document;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OLuceneIndexingQueueTest {
+  private Path journalPath;
+
+  @Before
+  public void setUp() throws Exception {
+    final Path directory = Paths.get("./target/indexingQueueTest");
+    Files.createDirectories(directory);
+    journalPath = directory.resolve(OLuceneIndexingQueue.JOURNAL_NAME);
+    Files.deleteIfExists(journalPath);
+  }
+
+  @Test
+  public void shouldDropCommittedEntries() throws Exception {
+    OLuceneIndexingQueue queue = new OLuceneIndexingQueue("test", 10, 100, 0, journalPath, b -> {});
+    long lsn = 0;
+    for (int i = 0; i < 10; i++) {
+      lsn = queue.add(new Document(), new ORecordId(1, i));
+    }
+    queue.waitFor(lsn, 10_000);
+    queue.sync();
+
+    // steady ingestion, the queue never catches up when changes are committed
+    queue.committed(lsn - 4);
+    assertThat(queue.journaledRecords())
+        .containsExactly(
+            new ORecordId(1, 6),
+            new ORecordId(1, 7),
+            new ORecordId(1, 8),
+            new ORecordId(1, 9));
+    final long compactedSize = Files.size(journalPath);
+
+    queue.add(new Document(), new ORecordId(1, 10));
+    assertThat(Files.size(journalPath)).isGreaterThan(compactedSize);
+    queue.close();
+
+    // changes which are not committed are restored after restart, LSNs continue
+    queue = new OLuceneIndexingQueue("test", 10, 100, 0, journalPath, b -> {});
+    assertThat(queue.journaledRecords()).hasSize(5).contains(new ORecordId(1, 10));
+    assertThat(queue.getLastLsn()).isEqualTo(lsn + 1);
+
+    lsn = queue.add(new Document(), new ORecordId(1, 11));
+    queue.waitFor(lsn, 10_000);
+    queue.committed(lsn);
+    assertThat(queue.journaledRecords()).isEmpty();
+    queue.close();
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ *
+ *  * Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.orientechnologies.lucene.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.orientechnologies.lucene.index.OLuceneIndexNotUnique;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OLuceneAsyncIndexingTest extends OLuceneBaseTest {
+
+  @Before
+  public void init() {
+    OClass song = db.createClass("Song");
+    song.createProperty("title", OType.STRING);
+
+    //noinspection EmptyTryBlock
+    try (OResultSet resultSet =
+        db.command(
+            "create index Song.title on Song (title) FULLTEXT ENGINE LUCENE metadata "
+                + "{'asyncIndexing': true, 'asyncIndexingBatchSize': 16}")) {}
+  }
+
+  @Test
+  public void testReadYourWrites() {
+    OLuceneIndexNotUnique index =
+        (OLuceneIndexNotUnique)
+            db.getMetadata().getIndexManagerInternal().getIndex(db, "Song.title").getInternal();
+
+    for (int i = 0; i < 100; i++) {
+      ODocument doc = new ODocument("Song");
+      doc.field("title", "song " + i);
+      db.save(doc);
+    }
+
+    db.begin();
+    for (int i = 0; i < 100; i++) {
+      ODocument doc = new ODocument("Song");
+      doc.field("title", "mountain " + i);
+      db.save(doc);
+    }
+    db.commit();
+
+    long lsn = index.getLastIndexLsn();
+    assertThat(lsn).isGreaterThan(0);
+
+    index.waitForIndexLsn(lsn);
+
+    try (OResultSet resultSet = db.query("select from Song where title lucene 'song'")) {
+      assertThat(resultSet).hasSize(100);
+    }
+    try (OResultSet resultSet = db.query("select from Song where title lucene 'mountain'")) {
+      assertThat(resultSet).hasSize(100);
+    }
+
+    //noinspection EmptyTryBlock
+    try (OResultSet resultSet = db.command("delete from Song where title lucene 'mountain'")) {}
+
+    index.waitForIndexLsn(index.getLastIndexLsn());
+
+    try (OResultSet resultSet = db.query("select from Song where title lucene 'mountain'")) {
+      assertThat(resultSet).hasSize(0);
+    }
+    assertThat(index.size()).isEqualTo(100);
+  }
+
+  @Test
+  public void testLsnsContinueAfterReopen() {
+    OLuceneIndexNotUnique index =
+        (OLuceneIndexNotUnique)
+            db.getMetadata().getIndexManagerInternal().getIndex(db, "Song.title").getInternal();
+
+    for (int i = 0; i < 10; i++) {
+      ODocument doc = new ODocument("Song");
+      doc.field("title", "song " + i);
+      db.save(doc);
+    }
+
+    final long lsn = index.getLastIndexLsn();
+    assertThat(lsn).isGreaterThan(0);
+
+    // freeze drains the indexing queue, release opens new one
+    db.freeze();
+    db.release();
+
+    assertThat(index.getLastIndexLsn()).isEqualTo(lsn);
+    index.waitForIndexLsn(lsn);
+
+    ODocument doc = new ODocument("Song");
+    doc.field("title", "mountain");
+    db.save(doc);
+
+    assertThat(index.getLastIndexLsn()).isGreaterThan(lsn);
+
+    // LSN which was never issued does not block the caller
+    index.waitForIndexLsn(Long.MAX_VALUE);
+
+    try (OResultSet resultSet = db.query("select from Song where title lucene 'mountain'")) {
+      assertThat(resultSet).hasSize(1);
+    }
+  }
+}
@@ -1356,7 +1356,7 @@ public final class OConnectionBinaryExecutor implements OBinaryRequestExecutor {
     if (database
         .getActiveQueries()
         .containsKey(((OLocalResultSetLifecycleDecorator) rs).getQueryId())) {
-      stream = stream.limit(request.getRecordsPerPage());
+      stream = stream.limit(getRecordsPerPage(request.getRecordsPerPage()));
     }
     List<OResultInternal> rsCopy =
         stream.map((r) -> (OResultInternal) r).collect(Collectors.toList());
@@ -1402,11 +1402,12 @@ public final class OConnectionBinaryExecutor implements OBinaryRequestExecutor {
     }
 
     // copy the result-set to make sure that the execution is successful
-    List<OResultInternal> rsCopy = new ArrayList<>(request.getRecordsPerPage());
+    int recordsPerPage = getRecordsPerPage(request.getRecordsPerPage());
+    List<OResultInternal> rsCopy = new ArrayList<>(recordsPerPage);
     int i = 0;
     // if it's OInternalResultSet it means that it's a Command, not a Query, so the result has to be
     // sent as it is, not streamed
-    while (rs.hasNext() && (rs.isDetached() || i < request.getRecordsPerPage())) {
+    while (rs.hasNext() && (rs.isDetached() || i < recordsPerPage)) {
       rsCopy.add((OResultInternal) rs.next());
       i++;
     }
@@ -1415,6 +1416,15 @@ public final class OConnectionBinaryExecutor implements OBinaryRequestExecutor {
         rs.getQueryId(), false, rsCopy, rs.getExecutionPlan(), hasNext, rs.getQueryStats(), false);
   }
 
+  /** @return the page size requested by the client, limited by the server configuration */
+  private int getRecordsPerPage(int requested) {
+    int max = OGlobalConfiguration.QUERY_REMOTE_RESULTSET_MAX_PAGE_SIZE.getValueAsInteger();
+    if (max > 0 && requested > max) {
+      return max;
+    }
+    return requested;
+  }
+
   @Override
   public OBinaryResponse executeBeginTransaction(OBeginTransactionRequest request) {
     final OTransactionOptimisticServer tx =
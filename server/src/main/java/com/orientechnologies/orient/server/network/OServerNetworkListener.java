@@ -31,6 +31,8 @@ import com.orientechnologies.orient.server.OServer;
 import com.orientechnologies.orient.server.config.OServerCommandConfiguration;
 import com.orientechnologies.orient.server.config.OServerParameterConfiguration;
 import com.orientechnologies.orient.server.network.protocol.ONetworkProtocol;
+import com.orientechnologies.orient.server.network.protocol.binary.ONetworkBinaryEventLoop;
+import com.orientechnologies.orient.server.network.protocol.binary.ONetworkProtocolBinary;
 import com.orientechnologies.orient.server.network.protocol.http.command.OServerCommand;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
@@ -41,6 +43,7 @@ import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
 import java.net.UnknownHostException;
+import java.nio.channels.ServerSocketChannel;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -57,6 +60,7 @@ public class OServerNetworkListener extends Thread {
   private OContextConfiguration configuration;
   private OServer server;
   private int protocolVersion = -1;
+  private ONetworkBinaryEventLoop eventLoop;
 
   public OServerNetworkListener(
       final OServer iServer,
@@ -85,10 +89,21 @@ public class OServerNetworkListener extends Thread {
       throw OException.wrapException(new ONetworkProtocolException(message), e);
     }
 
-    listen(iHostName, iHostPortRange, iProtocolName, iProtocol);
+    readParameters(iServer.getContextConfiguration(), iParameters);
+
+    final boolean multiplexed = isMultiplexed(iProtocol);
+    listen(iHostName, iHostPortRange, iProtocolName, iProtocol, multiplexed);
     protocolType = iProtocol;
 
-    readParameters(iServer.getContextConfiguration(), iParameters);
+    if (multiplexed) {
+      try {
+        eventLoop = new ONetworkBinaryEventLoop(server, getName(), configuration);
+      } catch (IOException e) {
+        shutdown();
+        throw OException.wrapException(
+            new OSystemException("Unable to open the selectors of " + getName()), e);
+      }
+    }
 
     if (iCommands != null) {
       for (int i = 0; i < iCommands.length; ++i) {
@@ -193,6 +208,8 @@ public class OServerNetworkListener extends Thread {
         serverSocket.close();
       } catch (IOException e) {
       }
+
+    if (eventLoop != null) eventLoop.shutdown();
   }
 
   public boolean isActive() {
@@ -244,8 +261,17 @@ public class OServerNetworkListener extends Thread {
           // CREATE A NEW PROTOCOL INSTANCE
           final ONetworkProtocol protocol = constructor.newInstance(server);
 
-          // CONFIGURE THE PROTOCOL FOR THE INCOMING CONNECTION
-          protocol.config(this, server, socket, configuration);
+          if (eventLoop != null) {
+            // THE CONNECTION IS SERVED BY THE EVENT LOOP, NO THREAD IS STARTED FOR IT
+            try {
+              eventLoop.register(this, (ONetworkProtocolBinary) protocol, socket, configuration);
+            } catch (IOException e) {
+              socket.close();
+              throw e;
+            }
+          } else
+            // CONFIGURE THE PROTOCOL FOR THE INCOMING CONNECTION
+            protocol.config(this, server, socket, configuration);
 
         } catch (Exception e) {
           if (active) OLogManager.instance().error(this, "Error on client connection", e);
@@ -338,6 +364,28 @@ public class OServerNetworkListener extends Thread {
     return null;
   }
 
+  /**
+   * Tells if the connections of this listener have to be served by a {@link
+   * ONetworkBinaryEventLoop} instead of a thread per connection. Only plain binary connections can
+   * be multiplexed.
+   */
+  private boolean isMultiplexed(final Class<? extends ONetworkProtocol> protocolClass) {
+    final String mode =
+        configuration.getValueAsString(OGlobalConfiguration.NETWORK_BINARY_LISTENER_MODE);
+    if (!"nio".equalsIgnoreCase(mode)
+        || !ONetworkProtocolBinary.class.isAssignableFrom(protocolClass)) return false;
+
+    if (!(socketFactory instanceof ODefaultServerSocketFactory)) {
+      OLogManager.instance()
+          .warn(
+              this,
+              "Socket factory '%s' does not support the 'nio' listener mode, a thread per connection will be used",
+              socketFactory.getName());
+      return false;
+    }
+    return true;
+  }
+
   /**
    * Initialize a server socket for communicating with the client.
    *
@@ -348,12 +396,27 @@ public class OServerNetworkListener extends Thread {
       final String iHostName,
       final String iHostPortRange,
       final String iProtocolName,
-      Class<? extends ONetworkProtocol> protocolClass) {
+      Class<? extends ONetworkProtocol> protocolClass,
+      final boolean multiplexed) {
 
     for (int port : getPorts(iHostPortRange)) {
       inboundAddr = new InetSocketAddress(iHostName, port);
       try {
-        serverSocket = socketFactory.createServerSocket(port, 0, InetAddress.getByName(iHostName));
+        if (multiplexed) {
+          // ACCEPTED SOCKETS MUST BE BOUND TO A CHANNEL TO BE REGISTERED IN A SELECTOR
+          final ServerSocketChannel serverChannel = ServerSocketChannel.open();
+          try {
+            serverChannel
+                .socket()
+                .bind(new InetSocketAddress(InetAddress.getByName(iHostName), port), 0);
+          } catch (IOException e) {
+            serverChannel.close();
+            throw e;
+          }
+          serverSocket = serverChannel.socket();
+        } else
+          serverSocket =
+              socketFactory.createServerSocket(port, 0, InetAddress.getByName(iHostName));
 
         if (serverSocket.isBound()) {
           OLogManager.instance()
@@ -369,6 +432,7 @@ public class OServerNetworkListener extends Thread {
                       + protocolVersion
                       + ", socket="
                       + socketFactory.getName()
+                      + (multiplexed ? ", mode=nio" : "")
                       + ")");
 
           return;
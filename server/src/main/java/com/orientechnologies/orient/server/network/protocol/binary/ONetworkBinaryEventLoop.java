@@ -0,0 +1,325 @@
+/*
+ *
+ *  *  Copyright 2010-2017 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.server.network.protocol.binary;
+
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.thread.DaemonThreadFactory;
+import com.orientechnologies.common.thread.OThreadPoolExecutorWithLogging;
+import com.orientechnologies.orient.core.config.OContextConfiguration;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinary;
+import com.orientechnologies.orient.server.OServer;
+import com.orientechnologies.orient.server.network.OServerNetworkListener;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves binary connections without dedicating a thread to each of them. Idle connections are
+ * watched by a small set of selector threads, as soon as a connection becomes readable it is handed
+ * to a bounded pool of workers that executes the incoming requests through {@link
+ * ONetworkProtocolBinary}. A connection is never watched by the selector while a worker serves it,
+ * so requests of the same connection are executed one at time and in order.
+ *
+ * <p>When all the workers are busy and their queue is full, readable connections wait in their
+ * selector thread without being watched, so the clients are slowed down by the TCP flow control
+ * while the selector thread keeps serving the other connections.
+ */
+public class ONetworkBinaryEventLoop {
+  /** How often connections that wait for a free worker try to get one. */
+  private static final long DISPATCH_RETRY_MS = 10;
+
+  private final OServer server;
+  private final SelectorThread[] selectorThreads;
+  private final ThreadPoolExecutor workers;
+  private final ONioSelectorPool blockingSelectors = new ONioSelectorPool();
+  private final AtomicInteger nextSelector = new AtomicInteger();
+  private volatile boolean active = true;
+
+  public ONetworkBinaryEventLoop(
+      final OServer server, final String name, final OContextConfiguration configuration)
+      throws IOException {
+    this.server = server;
+
+    final int selectors =
+        Math.max(
+            1,
+            configuration.getValueAsInteger(
+                OGlobalConfiguration.NETWORK_BINARY_NIO_SELECTOR_THREADS));
+    final int workerThreads =
+        Math.max(
+            1,
+            configuration.getValueAsInteger(
+                OGlobalConfiguration.NETWORK_BINARY_NIO_WORKER_THREADS));
+    final int queueSize =
+        Math.max(
+            1,
+            configuration.getValueAsInteger(
+                OGlobalConfiguration.NETWORK_BINARY_NIO_WORKER_QUEUE_SIZE));
+
+    workers =
+        new OThreadPoolExecutorWithLogging(
+            workerThreads,
+            workerThreads,
+            30,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(queueSize),
+            new DaemonThreadFactory(name + " worker"));
+    workers.allowCoreThreadTimeOut(true);
+
+    selectorThreads = new SelectorThread[selectors];
+    for (int i = 0; i < selectors; i++) {
+      selectorThreads[i] = new SelectorThread(server, name + " selector #" + (i + 1));
+      selectorThreads[i].start();
+    }
+  }
+
+  /**
+   * Takes ownership of an accepted connection. The socket has to be bound to a {@link
+   * SocketChannel}.
+   */
+  public void register(
+      final OServerNetworkListener listener,
+      final ONetworkProtocolBinary protocol,
+      final Socket socket,
+      final OContextConfiguration configuration)
+      throws IOException {
+    final SocketChannel channel = socket.getChannel();
+    channel.configureBlocking(false);
+
+    final int bufferSize =
+        configuration.getValueAsInteger(OGlobalConfiguration.NETWORK_SOCKET_BUFFER_SIZE);
+    protocol.configMultiplexed(
+        listener,
+        server,
+        socket,
+        new ONioSocketInputStream(
+            channel, blockingSelectors, bufferSize > 0 ? bufferSize : 8 * 1024),
+        new ONioSocketOutputStream(channel, blockingSelectors),
+        configuration);
+
+    final int selectorIndex =
+        (nextSelector.getAndIncrement() & Integer.MAX_VALUE) % selectorThreads.length;
+    final SelectorThread selectorThread = selectorThreads[selectorIndex];
+    selectorThread.resume(new Connection(protocol, channel, selectorThread));
+  }
+
+  public void shutdown() {
+    active = false;
+
+    for (SelectorThread selectorThread : selectorThreads) selectorThread.selector.wakeup();
+
+    for (SelectorThread selectorThread : selectorThreads) {
+      try {
+        selectorThread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    // DO NOT WAIT FOR THE WORKERS: THE SHUTDOWN ITSELF CAN BE REQUESTED BY ONE OF THEM. RUNNING
+    // REQUESTS CLOSE THEIR CONNECTION ONCE COMPLETED
+    workers.shutdown();
+
+    blockingSelectors.close();
+  }
+
+  private void execute(final Connection connection) {
+    final ONetworkProtocolBinary protocol = connection.protocol;
+    try {
+      do {
+        try {
+          protocol.execute();
+        } catch (Exception e) {
+          // SAME AS THE PROTOCOL THREAD, THAT DOES NOT DUMP EXCEPTIONS
+          OLogManager.instance().debug(this, "Error during execution of binary request", e);
+        }
+      } while (active && !protocol.isShutdownFlag() && hasPendingInput(protocol));
+    } catch (Error e) {
+      connection.close();
+      throw e;
+    } finally {
+      // WORKERS ARE SHARED AMONG CONNECTIONS, DO NOT LEAK THE DATABASE OF THIS ONE
+      ODatabaseRecordThreadLocal.instance().remove();
+    }
+
+    if (!active || protocol.isShutdownFlag()) connection.close();
+    else connection.selectorThread.resume(connection);
+  }
+
+  private static boolean hasPendingInput(final ONetworkProtocolBinary protocol) {
+    final OChannelBinary channel = protocol.getChannel();
+    final InputStream input = channel.inStream;
+    if (input == null) return false;
+
+    try {
+      return input.available() > 0;
+    } catch (IOException e) {
+      OLogManager.instance().debug(ONetworkBinaryEventLoop.class, "Error on binary channel", e);
+      protocol.sendShutdown();
+      return false;
+    }
+  }
+
+  private static final class Connection {
+    private final ONetworkProtocolBinary protocol;
+    private final SocketChannel channel;
+    private final SelectorThread selectorThread;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private SelectionKey key;
+
+    private Connection(
+        final ONetworkProtocolBinary protocol,
+        final SocketChannel channel,
+        final SelectorThread selectorThread) {
+      this.protocol = protocol;
+      this.channel = channel;
+      this.selectorThread = selectorThread;
+    }
+
+    private void close() {
+      if (!closed.compareAndSet(false, true)) return;
+
+      if (key != null) key.cancel();
+
+      protocol.sendShutdown();
+      protocol.shutdown();
+    }
+  }
+
+  private final class SelectorThread extends Thread {
+    private final Selector selector;
+    private final ConcurrentLinkedQueue<Connection> resumed = new ConcurrentLinkedQueue<>();
+    /** READABLE CONNECTIONS REJECTED BY THE WORKERS, ACCESSED ONLY BY THIS THREAD */
+    private final ArrayDeque<Connection> waiting = new ArrayDeque<>();
+
+    private SelectorThread(final OServer server, final String name) throws IOException {
+      super(server.getThreadGroup(), name);
+      setDaemon(true);
+      selector = Selector.open();
+    }
+
+    /** Starts (again) to watch the connection for incoming requests. */
+    private void resume(final Connection connection) {
+      resumed.offer(connection);
+      selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (active) {
+          try {
+            // A WORKER THAT GETS FREE DOES NOT WAKE UP THIS THREAD IF IT SERVES A CONNECTION OF
+            // ANOTHER SELECTOR, SO WAITING CONNECTIONS ARE RETRIED PERIODICALLY
+            selector.select(waiting.isEmpty() ? 0 : DISPATCH_RETRY_MS);
+
+            Connection connection;
+            while ((connection = resumed.poll()) != null) watch(connection);
+
+            while (!waiting.isEmpty() && dispatch(waiting.peek())) waiting.poll();
+
+            final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+              final SelectionKey key = keys.next();
+              keys.remove();
+
+              connection = (Connection) key.attachment();
+              try {
+                // STOP WATCHING UNTIL THE WORKER HAS SERVED THE AVAILABLE REQUESTS
+                key.interestOps(0);
+              } catch (CancelledKeyException e) {
+                connection.close();
+                continue;
+              }
+
+              // KEEP THE ORDER OF THE CONNECTIONS THAT WAIT FOR A WORKER ALREADY
+              if (!waiting.isEmpty() || !dispatch(connection)) waiting.add(connection);
+            }
+          } catch (IOException e) {
+            OLogManager.instance().error(this, "Error on selection of binary connections", e);
+          }
+        }
+      } finally {
+        // CONNECTIONS SERVED BY A WORKER ARE CLOSED BY THE WORKER ITSELF
+        for (SelectionKey key : selector.keys()) {
+          try {
+            if (key.interestOps() != 0) ((Connection) key.attachment()).close();
+          } catch (CancelledKeyException e) {
+            ((Connection) key.attachment()).close();
+          }
+        }
+
+        Connection connection;
+        while ((connection = resumed.poll()) != null) connection.close();
+        while ((connection = waiting.poll()) != null) connection.close();
+
+        try {
+          selector.close();
+        } catch (IOException e) {
+          OLogManager.instance().debug(this, "Error during closing of selector", e);
+        }
+      }
+    }
+
+    /**
+     * Hands the connection to a worker without blocking the selector thread.
+     *
+     * @return <code>false</code> if all the workers are busy and their queue is full
+     */
+    private boolean dispatch(final Connection connection) {
+      try {
+        workers.execute(() -> execute(connection));
+        return true;
+      } catch (RejectedExecutionException e) {
+        return false;
+      }
+    }
+
+    private void watch(final Connection connection) {
+      if (!connection.channel.isOpen()) {
+        connection.close();
+        return;
+      }
+
+      try {
+        if (connection.key == null)
+          connection.key = connection.channel.register(selector, SelectionKey.OP_READ, connection);
+        else connection.key.interestOps(SelectionKey.OP_READ);
+      } catch (IOException | CancelledKeyException e) {
+        connection.close();
+      }
+    }
+  }
+}
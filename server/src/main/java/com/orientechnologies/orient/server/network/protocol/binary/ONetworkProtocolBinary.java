@@ -76,7 +76,9 @@ import com.orientechnologies.orient.server.network.protocol.ONetworkProtocol;
 import com.orientechnologies.orient.server.plugin.OServerPluginHelper;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
@@ -156,6 +158,39 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
             + ")");
   }
 
+  /**
+   * Configures the protocol for a connection served by a {@link ONetworkBinaryEventLoop}. Unlike
+   * {@link #config(OServerNetworkListener, OServer, Socket, OContextConfiguration)} the protocol
+   * thread is not started, requests are executed by the event loop workers once the socket becomes
+   * readable.
+   */
+  public void configMultiplexed(
+      final OServerNetworkListener iListener,
+      final OServer iServer,
+      final Socket iSocket,
+      final InputStream iInput,
+      final OutputStream iOutput,
+      final OContextConfiguration iConfig)
+      throws IOException {
+
+    OChannelBinaryServer channel = new OChannelBinaryServer(iSocket, iInput, iOutput, iConfig);
+    initVariables(iServer, channel);
+
+    // SEND PROTOCOL VERSION
+    channel.writeShort((short) getVersion());
+
+    channel.flush();
+
+    OServerPluginHelper.invokeHandlerCallbackOnSocketAccepted(server, this);
+
+    setName(
+        "OrientDB ("
+            + iSocket.getLocalSocketAddress()
+            + ") <- BinaryClient ("
+            + iSocket.getRemoteSocketAddress()
+            + ")");
+  }
+
   @Override
   public void startup() {
     super.startup();
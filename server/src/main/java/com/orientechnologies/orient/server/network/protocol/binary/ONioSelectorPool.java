@@ -0,0 +1,78 @@
+package com.orientechnologies.orient.server.network.protocol.binary;
+
+import com.orientechnologies.common.log.OLogManager;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Pool of selectors used to park a thread until a non-blocking socket channel becomes readable or
+ * writable. It allows to keep the stream based binary protocol on top of channels that are also
+ * registered in the selectors of {@link ONetworkBinaryEventLoop}.
+ */
+final class ONioSelectorPool {
+  private final ConcurrentLinkedQueue<Selector> selectors = new ConcurrentLinkedQueue<>();
+  private volatile boolean closed;
+
+  /**
+   * Waits until the channel is ready for the given operations.
+   *
+   * @param timeout maximum time to wait in ms, 0 means wait forever
+   * @return <code>false</code> if timeout expired before the channel became ready
+   */
+  boolean await(final SocketChannel channel, final int ops, final long timeout)
+      throws IOException {
+    Selector selector = selectors.poll();
+    if (selector == null) selector = Selector.open();
+
+    try {
+      final SelectionKey key = channel.register(selector, ops);
+      try {
+        final long deadline = timeout > 0 ? System.currentTimeMillis() + timeout : 0;
+        long wait = timeout;
+        while (true) {
+          if (selector.select(wait) > 0) return true;
+
+          if (Thread.currentThread().isInterrupted())
+            throw new InterruptedIOException("Wait on socket channel was interrupted");
+
+          if (timeout > 0) {
+            wait = deadline - System.currentTimeMillis();
+            if (wait <= 0) return false;
+          }
+        }
+      } finally {
+        key.cancel();
+        // FLUSH THE CANCELLED KEY, SO THE SELECTOR CAN BE REUSED FOR THE SAME CHANNEL
+        selector.selectNow();
+      }
+    } catch (IOException | RuntimeException e) {
+      closeSelector(selector);
+      selector = null;
+      throw e;
+    } finally {
+      if (selector != null) {
+        if (closed) closeSelector(selector);
+        else selectors.offer(selector);
+      }
+    }
+  }
+
+  void close() {
+    closed = true;
+
+    Selector selector;
+    while ((selector = selectors.poll()) != null) closeSelector(selector);
+  }
+
+  private void closeSelector(final Selector selector) {
+    try {
+      selector.close();
+    } catch (IOException e) {
+      OLogManager.instance().debug(this, "Error during closing of selector", e);
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package com.orientechnologies.orient.server.network.protocol.binary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Buffered blocking input stream on top of a non-blocking socket channel. Reads wait for the
+ * channel to become readable honoring the socket timeout, exactly like the stream of a blocking
+ * socket.
+ */
+final class ONioSocketInputStream extends InputStream {
+  private final SocketChannel channel;
+  private final ONioSelectorPool selectors;
+  private final ByteBuffer buffer;
+
+  ONioSocketInputStream(
+      final SocketChannel channel, final ONioSelectorPool selectors, final int bufferSize) {
+    this.channel = channel;
+    this.selectors = selectors;
+    this.buffer = ByteBuffer.allocate(bufferSize);
+    this.buffer.flip();
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!buffer.hasRemaining() && !fill()) return -1;
+
+    return buffer.get() & 0xFF;
+  }
+
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    if (len == 0) return 0;
+
+    if (!buffer.hasRemaining() && !fill()) return -1;
+
+    final int read = Math.min(len, buffer.remaining());
+    buffer.get(b, off, read);
+    return read;
+  }
+
+  /**
+   * Returns the amount of bytes that can be read without waiting, already received bytes that are
+   * not buffered yet are taken into account as well.
+   */
+  @Override
+  public int available() throws IOException {
+    if (!buffer.hasRemaining()) readNonBlocking();
+
+    return buffer.remaining();
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private boolean fill() throws IOException {
+    while (true) {
+      final int read = readNonBlocking();
+      if (read > 0) return true;
+
+      if (read < 0) return false;
+
+      if (!selectors.await(channel, SelectionKey.OP_READ, channel.socket().getSoTimeout()))
+        throw new SocketTimeoutException("Read timed out");
+    }
+  }
+
+  private int readNonBlocking() throws IOException {
+    buffer.compact();
+    try {
+      return channel.read(buffer);
+    } finally {
+      buffer.flip();
+    }
+  }
+}
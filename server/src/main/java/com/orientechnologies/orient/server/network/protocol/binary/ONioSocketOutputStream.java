@@ -0,0 +1,40 @@
+package com.orientechnologies.orient.server.network.protocol.binary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Blocking output stream on top of a non-blocking socket channel. Writes wait for the channel to
+ * become writable when the socket send buffer is full. It is expected to be wrapped by a buffered
+ * stream.
+ */
+final class ONioSocketOutputStream extends OutputStream {
+  private final SocketChannel channel;
+  private final ONioSelectorPool selectors;
+
+  ONioSocketOutputStream(final SocketChannel channel, final ONioSelectorPool selectors) {
+    this.channel = channel;
+    this.selectors = selectors;
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    write(new byte[] {(byte) b}, 0, 1);
+  }
+
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+    while (buffer.hasRemaining()) {
+      if (channel.write(buffer) == 0) selectors.await(channel, SelectionKey.OP_WRITE, 0);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,129 @@
+package com.orientechnologies.orient.server.network;
+
+import static org.junit.Assert.assertEquals;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.server.OServer;
+import com.orientechnologies.orient.server.config.OServerConfiguration;
+import com.orientechnologies.orient.server.config.OServerNetworkConfiguration;
+import com.orientechnologies.orient.server.config.OServerNetworkListenerConfiguration;
+import com.orientechnologies.orient.server.config.OServerNetworkProtocolConfiguration;
+import com.orientechnologies.orient.server.config.OServerParameterConfiguration;
+import com.orientechnologies.orient.server.network.protocol.binary.ONetworkProtocolBinary;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NioBinaryListenerTest {
+  private static final int SESSIONS = 32;
+
+  private OServer server;
+  private OrientDB orientDB;
+  private String prevPassword;
+  private String prevOrientHome;
+
+  @Before
+  public void before() throws Exception {
+    prevPassword = System.setProperty("ORIENTDB_ROOT_PASSWORD", "rootPassword");
+    prevOrientHome = System.setProperty("ORIENTDB_HOME", "./target/niotesthome");
+
+    OServerConfiguration conf = new OServerConfiguration();
+    conf.network = new OServerNetworkConfiguration();
+
+    conf.network.protocols = new ArrayList<>();
+    conf.network.protocols.add(
+        new OServerNetworkProtocolConfiguration("binary", ONetworkProtocolBinary.class.getName()));
+
+    OServerNetworkListenerConfiguration listener = new OServerNetworkListenerConfiguration();
+    listener.parameters =
+        new OServerParameterConfiguration[] {
+          new OServerParameterConfiguration("network.binary.listenerMode", "nio"),
+          new OServerParameterConfiguration("network.binary.nio.selectorThreads", "1"),
+          new OServerParameterConfiguration("network.binary.nio.workerThreads", "4")
+        };
+    conf.network.listeners = new ArrayList<>();
+    conf.network.listeners.add(listener);
+
+    server = new OServer(false);
+    server.startup(conf);
+    server.activate();
+
+    orientDB =
+        new OrientDB("remote:localhost", "root", "rootPassword", OrientDBConfig.defaultConfig());
+    orientDB
+        .execute(
+            "create database "
+                + NioBinaryListenerTest.class.getSimpleName()
+                + " memory users (admin identified by 'admin' role admin)")
+        .close();
+  }
+
+  @Test
+  public void testConcurrentSessions() throws Exception {
+    try (ODatabaseSession session =
+        orientDB.open(NioBinaryListenerTest.class.getSimpleName(), "admin", "admin")) {
+      session.createClass("Item");
+    }
+
+    final ExecutorService executor = Executors.newFixedThreadPool(SESSIONS);
+    try {
+      final List<Future<Long>> futures = new ArrayList<>();
+      for (int i = 0; i < SESSIONS; i++) {
+        final int sessionId = i;
+        futures.add(
+            executor.submit(
+                () -> {
+                  try (ODatabaseSession session =
+                      orientDB.open(
+                          NioBinaryListenerTest.class.getSimpleName(), "admin", "admin")) {
+                    for (int j = 0; j < 50; j++) {
+                      ODocument doc = new ODocument("Item");
+                      doc.field("session", sessionId);
+                      doc.field("counter", j);
+                      session.save(doc);
+                    }
+                    try (OResultSet result =
+                        session.query(
+                            "select count(*) as count from Item where session = ?", sessionId)) {
+                      return result.next().getProperty("count");
+                    }
+                  }
+                }));
+      }
+
+      for (Future<Long> future : futures) assertEquals(50L, (long) future.get());
+    } finally {
+      executor.shutdown();
+    }
+
+    try (ODatabaseSession session =
+        orientDB.open(NioBinaryListenerTest.class.getSimpleName(), "admin", "admin")) {
+      assertEquals(SESSIONS * 50L, session.countClass("Item"));
+    }
+  }
+
+  @After
+  public void after() {
+    orientDB.close();
+    server.shutdown();
+
+    Orient.instance().shutdown();
+    OFileUtils.deleteRecursively(new File("./target/niotesthome"));
+    Orient.instance().startup();
+
+    if (prevOrientHome != null) System.setProperty("ORIENTDB_HOME", prevOrientHome);
+    if (prevPassword != null) System.setProperty("ORIENTDB_ROOT_PASSWORD", prevPassword);
+  }
+}
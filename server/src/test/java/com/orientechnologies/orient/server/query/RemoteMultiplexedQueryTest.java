@@ -0,0 +1,102 @@
+package com.orientechnologies.orient.server.query;
+
+import static org.junit.Assert.assertEquals;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.server.OServer;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RemoteMultiplexedQueryTest {
+
+  private static final String SERVER_DIRECTORY = "./target/multiplexed";
+  private static final int THREADS = 8;
+  private OServer server;
+  private OrientDB orientDB;
+
+  @Before
+  public void before() throws Exception {
+    server = new OServer(false);
+    server.setServerRootDirectory(SERVER_DIRECTORY);
+    server.startup(getClass().getResourceAsStream("orientdb-server-config.xml"));
+    server.activate();
+
+    OrientDBConfig config =
+        OrientDBConfig.builder()
+            .addConfig(OGlobalConfiguration.CLIENT_CHANNEL_MULTIPLEXED_CHANNELS, 1)
+            .addConfig(OGlobalConfiguration.CLIENT_CHANNEL_MULTIPLEXED_REQUESTS, THREADS)
+            .build();
+    orientDB = new OrientDB("remote:localhost", "root", "root", config);
+    orientDB.execute(
+        "create database ? memory users (admin identified by 'admin' role admin)",
+        RemoteMultiplexedQueryTest.class.getSimpleName());
+    try (ODatabaseSession session =
+        orientDB.open(RemoteMultiplexedQueryTest.class.getSimpleName(), "admin", "admin")) {
+      session.createClass("Some");
+      for (int i = 0; i < 100; i++) {
+        ODocument doc = new ODocument("Some");
+        doc.setProperty("prop", i);
+        session.save(doc);
+      }
+    }
+  }
+
+  @Test
+  public void testConcurrentSessionsOnSharedChannel() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<Integer>> results = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        final int value = i;
+        results.add(
+            executor.submit(
+                () -> {
+                  try (ODatabaseSession session =
+                      orientDB.open(
+                          RemoteMultiplexedQueryTest.class.getSimpleName(), "admin", "admin")) {
+                    int found = 0;
+                    for (int j = 0; j < 20; j++) {
+                      try (OResultSet rs =
+                          session.query("select from Some where prop = ?", value)) {
+                        while (rs.hasNext()) {
+                          assertEquals((Integer) value, rs.next().getProperty("prop"));
+                          found++;
+                        }
+                      }
+                    }
+                    return found;
+                  }
+                }));
+      }
+      for (Future<Integer> result : results) {
+        assertEquals(20, (int) result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @After
+  public void after() {
+    orientDB.close();
+    server.shutdown();
+
+    Orient.instance().shutdown();
+    OFileUtils.deleteRecursively(new File(SERVER_DIRECTORY));
+    Orient.instance().startup();
+  }
+}
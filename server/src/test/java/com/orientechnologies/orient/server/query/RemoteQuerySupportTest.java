@@ -1,7 +1,9 @@
 package com.orientechnologies.orient.server.query;
 
 import static com.orientechnologies.orient.core.config.OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PAGE_SIZE;
+import static com.orientechnologies.orient.core.config.OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PREFETCH;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -11,6 +13,7 @@ import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.OrientDB;
 import com.orientechnologies.orient.core.db.OrientDBConfig;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentRemote;
 import com.orientechnologies.orient.core.exception.ODatabaseException;
 import com.orientechnologies.orient.core.exception.OSerializationException;
 import com.orientechnologies.orient.core.id.ORecordId;
@@ -28,6 +31,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -75,6 +79,74 @@ public class RemoteQuerySupportTest {
     }
   }
 
+  @Test
+  public void testQueryWithPrefetch() {
+    for (int i = 0; i < 150; i++) {
+      ODocument doc = new ODocument("Some");
+      doc.setProperty("prop", i);
+      session.save(doc);
+    }
+    QUERY_REMOTE_RESULTSET_PREFETCH.setValue(true);
+    try {
+      try (OResultSet res = session.query("select from Some order by prop")) {
+        for (int i = 0; i < 150; i++) {
+          assertTrue(res.hasNext());
+          OResult item = res.next();
+          assertEquals((Integer) i, item.getProperty("prop"));
+        }
+        assertFalse(res.hasNext());
+      }
+
+      // closed while the next page is prefetched
+      try (OResultSet res = session.query("select from Some")) {
+        for (int i = 0; i < 15; i++) {
+          assertTrue(res.hasNext());
+          res.next();
+        }
+      }
+
+      try (OResultSet res = session.query("select count(*) as count from Some")) {
+        assertEquals((Long) 150L, res.next().getProperty("count"));
+      }
+    } finally {
+      QUERY_REMOTE_RESULTSET_PREFETCH.setValue(false);
+    }
+  }
+
+  @Test
+  public void testAsyncOperations() throws Exception {
+    ODatabaseDocumentRemote remote = (ODatabaseDocumentRemote) session;
+    session.begin();
+    for (int i = 0; i < 150; i++) {
+      ODocument doc = new ODocument("Some");
+      doc.setProperty("prop", i);
+      remote.saveAsync(doc);
+    }
+    remote.commitAsync().get();
+
+    List<Integer> values = new ArrayList<>();
+    remote
+        .queryAsync("select from Some order by prop")
+        .thenCompose(
+            res ->
+                res.forEachPage(
+                    20,
+                    page -> {
+                      assertTrue(page.size() <= 20);
+                      page.forEach(x -> values.add(x.getProperty("prop")));
+                      return CompletableFuture.completedFuture(null);
+                    }))
+        .get();
+    assertEquals(150, values.size());
+    for (int i = 0; i < 150; i++) {
+      assertEquals((Integer) i, values.get(i));
+    }
+
+    OResult first = remote.query("select from Some where prop = 0").next();
+    ODocument loaded = remote.<ODocument>loadAsync(first.getIdentity().get()).get();
+    assertEquals((Integer) 0, loaded.getProperty("prop"));
+  }
+
   @Test
   public void testCommandSelect() {
     for (int i = 0; i < 150; i++) {